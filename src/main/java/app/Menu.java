@@ -4,7 +4,6 @@ import java.util.Iterator;
 import java.util.Scanner;
 
 import Lists.ArrayUnorderedList;
-import enums.CorredorEvento;
 import game.Divisao;
 import game.EventoCorredor;
 import graph.LabyrinthGraph;
@@ -268,7 +267,7 @@ public class Menu {
             return;
         }
 
-        EventoCorredor novoCorredor = new EventoCorredor(CorredorEvento.NONE, 0);
+        EventoCorredor novoCorredor = EventoCorredor.NONE;
 
         grafo.addCorredor(origem, destino, novoCorredor);
 
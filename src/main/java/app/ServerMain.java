@@ -0,0 +1,37 @@
+package app;
+
+import java.io.IOException;
+
+import engine.GameInitializer;
+import game.Divisao;
+import graph.LabyrinthGraph;
+import io.EnigmaLoader;
+import io.MapLoader;
+import server.GameServer;
+import server.SessionRegistry;
+
+/**
+ * Entry point of the game server: hosts many games of one map on a local HTTP port.
+ * Arguments: the map file and, optionally, the port (8080 by default).
+ */
+public class ServerMain {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Uso: ServerMain <ficheiro do mapa> [porta]");
+            return;
+        }
+        LabyrinthGraph<Divisao> mapa = new MapLoader().loadMap(args[0]);
+        if (mapa == null || mapa.size() == 0) {
+            System.out.println("Mapa inválido: " + args[0]);
+            return;
+        }
+        int porta = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+
+        SessionRegistry registo = new SessionRegistry(mapa, args[0],
+                new EnigmaLoader().loadEnigmas(GameInitializer.FICHEIRO_ENIGMAS), 0);
+        GameServer servidor = new GameServer(registo);
+        servidor.iniciar("localhost", porta);
+        System.out.println("Servidor à escuta em http://localhost:" + servidor.getPorta() + GameServer.CAMINHO);
+    }
+}
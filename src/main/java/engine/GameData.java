@@ -3,7 +3,7 @@ package engine;
 import Lists.ArrayUnorderedList;
 import Queue.LinkedQueue;
 import enums.Dificuldade;
-import game.Enigma;
+import game.BaralhoEnigmas;
 import game.Player;
 /**
  * Class that groups together all core runtime data of a game session.
@@ -20,9 +20,9 @@ public class GameData {
     public ArrayUnorderedList<Player> todosJogadores;
 
     /**
-     * List of all available riddles that can be used during the game
+     * Deck of the riddles that can be used during the game
      */
-    public ArrayUnorderedList<Enigma> enigmasDisponiveis;
+    public BaralhoEnigmas enigmasDisponiveis;
 
     /**
      * Difficulty level of the game
@@ -33,11 +33,11 @@ public class GameData {
      *
      * @param turnQueue          queue representing the turn order of players
      * @param todosJogadores     list with all players in the current game
-     * @param enigmasDisponiveis list of riddles available to be used
+     * @param enigmasDisponiveis deck of riddles available to be used
      * @param dificuldade        selected global difficulty of the game
      */
     public GameData(LinkedQueue<Player> turnQueue, ArrayUnorderedList<Player> todosJogadores, 
-                    ArrayUnorderedList<Enigma> enigmasDisponiveis, Dificuldade dificuldade) {
+                    BaralhoEnigmas enigmasDisponiveis, Dificuldade dificuldade) {
         this.turnQueue = turnQueue;
         this.todosJogadores = todosJogadores;
         this.enigmasDisponiveis = enigmasDisponiveis;
@@ -1,6 +1,6 @@
 package engine;
 
-import java.util.Iterator;
+import java.util.random.RandomGenerator;
 
 import Lists.ArrayUnorderedList;
 import enums.AlavancaEnum;
@@ -9,20 +9,30 @@ import enums.Dificuldade;
 import enums.TipoDivisao;
 import enums.TipoEvento;
 import game.Alavanca;
+import game.Aleatorio;
+import game.BaralhoEnigmas;
 import game.Bot;
 import game.Divisao;
+import game.Efeito;
 import game.Enigma;
 import game.EventoAleatorio;
 import game.EventoCorredor;
+import game.JogadoresDoJogo;
 import game.Player;
+import game.TabelaEventos;
 import graph.LabyrinthGraph;
 import io.GameExporter;
 import io.GameReport;
+import structures.MapaArestas;
+import structures.MapaIndices;
 import ui.GameView;
 
 /**
  * Core game engine that controls the main loop, player turns, movement,
  * puzzles enigmas, levers, traps and victory detection.
+ * Every decision of the game (dice, moves, riddles, levers, random events and trap moves) goes
+ * through the engine's {@link TurnLog}: while playing it is recorded, and when a {@link GameReplay}
+ * drives the engine it is read back instead of asking the players or the random generator.
  */
 public class GameEngine {
 
@@ -38,17 +48,15 @@ public class GameEngine {
     /** Manager that handles the players' turn order and rotation. */
     private TurnManager turnManager;
 
-    /** List of all available riddles (enigmas) that can be used during the game. */
-    private ArrayUnorderedList<Enigma> enigmasDisponiveis;
-
-    /**
-     * List of riddles that have already been shown to players.
-     */
-    private ArrayUnorderedList<Enigma> enigmasUsados;
+    /** Deck of the riddles (enigmas) of the game, with the ones already shown to players. */
+    private BaralhoEnigmas baralho;
 
     /** List with all players in the game eather human or bots. */
     private ArrayUnorderedList<Player> todosJogadores;
 
+    /** The players numbered for O(1) random picks, such as the target of a position swap. */
+    private JogadoresDoJogo jogadoresDoJogo;
+
     /** Global difficulty level selected for the current game. */
     private Dificuldade dificuldade;
     /** Total number of turns played in the game. */
@@ -67,6 +75,51 @@ public class GameEngine {
      * Per-player report data, used to build the final GameReport
      */
     private ArrayUnorderedList<GameReport.PlayerReport> playerReports;
+
+    /** The same reports by position in the player list; a player reaches its own through {@link Player#getNumero()}. */
+    private GameReport.PlayerReport[] relatorios;
+
+    /** Number of log records already folded into the per-player reports, so that a later report only reads the new ones. */
+    private int registosNoRelatorio;
+
+    /** Last room each player entered, as read from the log by the reports; traps are reported in it. */
+    private int[] ultimaSalaRelatorio;
+
+    /** Whether the final report is saved to disk. */
+    private boolean exportarRelatorio = true;
+
+    /** Random generator of the game session, used for events, levers and traps. */
+    private RandomGenerator aleatorio;
+
+    /** Log of the decisions of the game, written while playing and read while replaying. */
+    private TurnLog registo;
+
+    /** Whether the engine is replaying {@link #registo} instead of asking for decisions. */
+    private boolean aReproduzir;
+
+    /** Position of the next record to read when replaying. */
+    private int posicaoRegisto;
+
+    /** Number of turns between keyframes of the log. */
+    private int intervaloKeyframes = TurnLog.INTERVALO_KEYFRAMES;
+
+    /** Weighted random events of quiet corridors; by default the table of the game's difficulty. */
+    private TabelaEventos tabelaEventos;
+
+    /** Players in the order of the player list; the log identifies them by this position. */
+    private Player[] jogadores;
+
+    /** Riddles of the game in their initial order; the log identifies them by this position. */
+    private Enigma[] enigmasIniciais;
+
+    /** Position of each riddle in {@link #enigmasIniciais}. */
+    private MapaIndices<Enigma> posicoesEnigmas;
+
+    /** Room index where each player started. */
+    private int[] entradas;
+
+    /** Path of each player saved by the previous keyframe, as room indexes and as log segments. */
+    private int[][] ultimosCaminhos, ultimosSegmentos;
     /**
      * Creates a new GameEngine instance bound to a given
      * labyrinth graph and view.
@@ -75,10 +128,20 @@ public class GameEngine {
      * @param view  UI component responsible for user interaction
      */
     public GameEngine(LabyrinthGraph<Divisao> graph, GameView view) {
+        this(graph, view, Aleatorio.novo());
+    }
+    /**
+     * Creates a new GameEngine instance that draws every random value from the given generator.
+     *
+     * @param graph     labyrinth structure where the game will take place
+     * @param view      UI component responsible for user interaction
+     * @param aleatorio random generator of the game session
+     */
+    public GameEngine(LabyrinthGraph<Divisao> graph, GameView view, RandomGenerator aleatorio) {
+        this.aleatorio = aleatorio;
         this.graph = graph;
         this.view = view;
         this.playerReports = new ArrayUnorderedList<>();
-        this.enigmasUsados = new ArrayUnorderedList<>();
     }
     /**
      * Sets the logical name of the map currently being played.
@@ -87,33 +150,278 @@ public class GameEngine {
     public void setNomeDoMapa(String nome) {
         this.nomeDoMapaEscolhido = nome;
     }
+    /**
+     * Sets whether the final report is saved to disk when someone wins.
+     * @param exportar true to export the report (default) or false to only return it
+     */
+    public void setExportarRelatorio(boolean exportar) {
+        this.exportarRelatorio = exportar;
+    }
+    /**
+     * Sets the number of turns between the keyframes of the turn log.
+     * Fewer turns make {@link GameReplay#irPara(int)} faster and the log bigger.
+     * @param turnos the keyframe interval, at least 1
+     */
+    public void setIntervaloKeyframes(int turnos) {
+        if (turnos < 1) throw new IllegalArgumentException("Intervalo de keyframes inválido: " + turnos);
+        this.intervaloKeyframes = turnos;
+    }
+    /**
+     * Sets the weighted table the random events of quiet corridors are drawn from, for example
+     * one made for the map. Without it the game uses the table of its difficulty.
+     * A restored game must be given the same table again.
+     * @param tabela the event table, or null for the table of the game's difficulty
+     */
+    public void setTabelaEventos(TabelaEventos tabela) {
+        this.tabelaEventos = tabela;
+    }
+    /**
+     * Returns the log of the game being played or replayed.
+     * @return the turn log, or null before the game starts
+     */
+    public TurnLog getRegisto() {
+        return registo;
+    }
     /**
      * Starts the game:
      */
     public void start() {
-        GameInitializer init = new GameInitializer(view, graph);
+        GameInitializer init = new GameInitializer(view, graph, aleatorio);
         GameData dados = init.setupCompleto();
 
         if (dados == null) return;
 
+        jogar(dados, 0);
+    }
+    /**
+     * Plays a game with players that are already placed on the map, until someone
+     * reaches the treasure or the turn limit is hit. An engine plays a single game.
+     * @param dados     players, turn order, riddles and difficulty of the game
+     * @param maxTurnos maximum number of turns, or 0 for no limit
+     * @return the final report; it has no winner if the turn limit was reached
+     */
+    public GameReport jogar(GameData dados, int maxTurnos) {
+        preparar(dados);
+
+        String[] nomes = new String[jogadores.length];
+        for (int i = 0; i < jogadores.length; i++) {
+            nomes[i] = jogadores[i].getNome();
+        }
+        this.registo = new TurnLog(nomes, enigmasIniciais, intervaloKeyframes);
+
+        return continuar(maxTurnos);
+    }
+    /**
+     * Plays on a game that was stopped at a turn limit or restored with {@link SessionSnapshot},
+     * until someone reaches the treasure or the new turn limit is hit.
+     * @param maxTurnos maximum number of turns counting the ones already played, or 0 for no limit
+     * @return the final report; it has no winner if the turn limit was reached
+     */
+    public GameReport continuar(int maxTurnos) {
+        Player vencedor = jogarTurnos(maxTurnos);
+
+        GameReport report = construirRelatorio(vencedor);
+        if (vencedor != null && exportarRelatorio) {
+            GameExporter exporter = new GameExporter();
+            exporter.exportarJogo(report);
+        }
+
+        view.mostrarFimJogo();
+        return report;
+    }
+    /**
+     * Puts the engine in the state of a saved game, ready for {@link #continuar(int)}.
+     * @param dados     players, turn order, riddle deck as it was left and difficulty of the game
+     * @param registo   the log of the game, whose riddles are the game's initial riddle list
+     * @param entradas  the room index where each player started
+     * @param contadores turns played, riddles solved, riddles attempted and obstacles triggered
+     */
+    void retomar(GameData dados, TurnLog registo, int[] entradas, int[] contadores) {
+        preparar(dados);
+        this.registo = registo;
+        this.enigmasIniciais = new Enigma[registo.getNumEnigmas()];
+        for (int i = 0; i < enigmasIniciais.length; i++) {
+            enigmasIniciais[i] = registo.getEnigma(i);
+        }
+        indexarEnigmas();
+        this.entradas = entradas.clone();
+        for (int i = 0; i < relatorios.length; i++) {
+            relatorios[i].setEntrada(graph.getVertex(entradas[i]).getNome());
+        }
+        this.turnoCount = contadores[0];
+        this.totalResolvidos = contadores[1];
+        this.totalTentados = contadores[2];
+        this.totalObstaculos = contadores[3];
+
+        // a repetição do jogo só pode começar a partir daqui
+        if (turnoCount % registo.getIntervaloKeyframes() != 0) {
+            registo.adicionarKeyframe(capturarEstado());
+        }
+    }
+    /**
+     * Prepares the engine to replay a log instead of asking for decisions; the state of the
+     * game is then set with {@link #restaurar(GameState)}.
+     * @param dados   players (one per name of the log, in the same order) and difficulty of the game
+     * @param registo the log to replay
+     */
+    void prepararReproducao(GameData dados, TurnLog registo) {
+        preparar(dados);
+        this.registo = registo;
+        this.aReproduzir = true;
+    }
+    /**
+     * Replays turns of the log until a given turn, the end of the log or a win.
+     * @param turno the turn to stop at
+     * @return the number of turns played so far
+     */
+    int avancarAte(int turno) {
+        if (turno > turnoCount) jogarTurnos(turno);
+        return turnoCount;
+    }
+    /**
+     * Returns the number of turns played so far.
+     * @return the turn count
+     */
+    int getTurno() {
+        return turnoCount;
+    }
+    /**
+     * Returns the turns played, riddles solved, riddles attempted and obstacles triggered so far.
+     * @return the four counters
+     */
+    int[] getContadores() {
+        return new int[]{turnoCount, totalResolvidos, totalTentados, totalObstaculos};
+    }
+    /**
+     * Returns the players in the order of the player list, with their blocked turns up to date.
+     * @return the players
+     */
+    Player[] getJogadores() {
+        if (turnManager != null) turnManager.sincronizarBloqueios();
+        return jogadores;
+    }
+    /**
+     * Returns the players of the game, numbered in turn order at the start of the game.
+     * @return the players, or null before the game is set up
+     */
+    public JogadoresDoJogo getJogadoresDoJogo() {
+        return jogadoresDoJogo;
+    }
+    /**
+     * Returns the players in turn order, the next one to play first.
+     * @return the players
+     */
+    Player[] getOrdem() {
+        return turnManager.ordem();
+    }
+    /**
+     * Returns the riddle deck, with the riddles already shown and the ones still to draw.
+     * @return the riddle deck, may be null
+     */
+    BaralhoEnigmas getBaralho() {
+        return baralho;
+    }
+    /**
+     * Returns the random generator of the game.
+     * @return the generator shared by the engine and the players
+     */
+    RandomGenerator getAleatorio() {
+        return aleatorio;
+    }
+    /**
+     * Returns the room index where each player started.
+     * @return the entrance of each player
+     */
+    int[] getEntradas() {
+        return entradas;
+    }
+    /**
+     * Returns the global difficulty of the game.
+     * @return the difficulty, may be null
+     */
+    Dificuldade getDificuldade() {
+        return dificuldade;
+    }
+    /**
+     * Returns the name of the map, used in reports.
+     * @return the map name
+     */
+    String getNomeDoMapa() {
+        return nomeDoMapaEscolhido;
+    }
+    /**
+     * Returns the map the game is played on.
+     * @return the map
+     */
+    LabyrinthGraph<Divisao> getGraph() {
+        return graph;
+    }
+    /**
+     * Stores the game data in the engine and creates the per-player reports.
+     * @param dados players, turn order, riddles and difficulty of the game
+     */
+    private void preparar(GameData dados) {
         this.turnManager = new TurnManager(dados.turnQueue, view);
         this.todosJogadores = dados.todosJogadores;
-        this.enigmasDisponiveis = dados.enigmasDisponiveis;
+        this.baralho = dados.enigmasDisponiveis;
         this.dificuldade = dados.dificuldade;
+        if (tabelaEventos == null) tabelaEventos = TabelaEventos.paraDificuldade(dificuldade);
+
+        this.jogadores = new Player[todosJogadores.size()];
+        this.jogadoresDoJogo = new JogadoresDoJogo();
+        int i = 0;
+        // registados pela ordem da lista, o número de cada jogador é a sua posição nela
+        for (Player p : todosJogadores) {
+            jogadores[i++] = p;
+            jogadoresDoJogo.registar(p);
+        }
+        this.enigmasIniciais = new Enigma[baralho == null ? 0 : baralho.size()];
+        for (int k = 0; k < enigmasIniciais.length; k++) {
+            enigmasIniciais[k] = baralho.get(k);
+        }
+        indexarEnigmas();
+        this.entradas = new int[jogadores.length];
+        for (int j = 0; j < jogadores.length; j++) {
+            entradas[j] = graph.getIndex(jogadores[j].getLocalAtual());
+        }
+        this.ultimosCaminhos = new int[jogadores.length][];
+        this.ultimosSegmentos = new int[jogadores.length][];
 
         inicializarRelatorios();
-
-        boolean jogoACorrer = true;
-        while (jogoACorrer && turnManager.temJogadores()) {
+    }
+    /**
+     * Plays turns until someone reaches the treasure or the turn limit is hit; when replaying,
+     * it also stops at the end of the log. While playing, a keyframe is added to the log every
+     * {@link #intervaloKeyframes} turns, before the turn starts.
+     * @param maxTurnos turn count to stop at, or 0 for no limit
+     * @return the winner, or null
+     */
+    private Player jogarTurnos(int maxTurnos) {
+        Player vencedor = null;
+        while (vencedor == null && turnManager.temJogadores() && (maxTurnos <= 0 || turnoCount < maxTurnos)) {
+
+            if (aReproduzir) {
+                if (posicaoRegisto >= registo.size()) break;
+            } else if (turnoCount % intervaloKeyframes == 0) {
+                registo.adicionarKeyframe(capturarEstado());
+            }
 
             Player atual = turnManager.proximoJogador();
             if (atual == null) break;
 
             turnoCount++;
+            if (aReproduzir) {
+                int r = ler(TurnLog.TURNO);
+                if (registo.valorA(r) != indice(atual)) {
+                    throw new IllegalStateException("Registo de jogo inconsistente no turno " + turnoCount);
+                }
+            } else {
+                registo.adicionar(TurnLog.TURNO, indice(atual), indice(atual));
+            }
             view.mostrarInicioTurno(atual.getNome(), atual.getLocalAtual().getNome());
 
             // movimento
-            int movimentos = atual.lancarDados(view);
+            int movimentos = decidirDados(atual);
 
             if (atual.getJogadasExtra() > 0) {
                 int extra = atual.getJogadasExtra();
@@ -125,14 +433,13 @@ public class GameEngine {
             processarMovimento(atual, movimentos);
 
             if (verificarVitoria(atual)) {
-                jogoACorrer = false;
+                vencedor = atual;
             } else {
                 view.mostrarFimTurno(atual.getNome());
                 turnManager.fimDoTurno(atual);
             }
         }
-
-        view.mostrarFimJogo();
+        return vencedor;
     }
     /**
      * Processes all movement steps for the given player in the current turn.
@@ -144,7 +451,7 @@ public class GameEngine {
         while (movimentos > 0) {
             view.mostrarStatusMovimento(player instanceof Bot, movimentos, player.getLocalAtual().getNome());
 
-            Divisao destino = player.escolherDestino(graph.getVizinhos(player.getLocalAtual()), view);
+            Divisao destino = decidirDestino(player);
             if (destino == null) return true;
 
             if (destino.getTipo() == TipoDivisao.SALA_ENIGMA) {
@@ -158,27 +465,30 @@ public class GameEngine {
 
             Divisao origem = player.getLocalAtual();
             player.moverPara(destino);
-            registarRelatorioMovimento(player, destino);
+            if (aReproduzir) {
+                ler(TurnLog.MOVER);
+            } else {
+                registo.adicionar(TurnLog.MOVER, indice(player), graph.getIndex(destino));
+            }
 
             if (destino.getTipo() == TipoDivisao.SALA_CENTRAL) return true;
             if (verificarArmadilha(player, origem, destino)) return true;
 
             EventoCorredor evCorredor = graph.getCorredorEvento(origem, destino);
-            if (evCorredor.getTipo() == CorredorEvento.NONE) {
+            if (evCorredor.getTipo() == CorredorEvento.EXTRA_TURN) {
+                applyEffect(evCorredor.getEfeito(), player);
+            } else if (evCorredor.getTipo() == CorredorEvento.NONE) {
 
-                if (Math.random() < 0.25) {
-                    EventoAleatorio evento = EventoAleatorio.gerarAleatorio();
+                EventoAleatorio evento = decidirEvento(player);
 
-                    if (evento.getTipo() != TipoEvento.SEM_EVENTO) {
+                if (evento != null) {
 
-                        System.out.print("Evento Aleatorio: ");
-                        System.out.println(evento.getDescricao());
+                    view.mostrarEventoAleatorio(evento);
 
-                        evento.aplicar(player, todosJogadores, view);
+                    evento.aplicar(player, todosJogadores, decidirAlvoTroca(player, evento), view);
 
-                        if (evento.getTipo() == TipoEvento.RECUAR || evento.getTipo() == TipoEvento.BLOQUEAR_TURNOS) {
-                            return true;
-                        }
+                    if (evento.getTipo() == TipoEvento.RECUAR || evento.getTipo() == TipoEvento.BLOQUEAR_TURNOS) {
+                        return true;
                     }
                 }
             }
@@ -198,7 +508,17 @@ public class GameEngine {
      * @return true if the player answered correctly
      */
     private boolean processarEnigma(Player player) {
-        Enigma enigma = obterEnigma();
+        Enigma enigma;
+        boolean acertou;
+        if (aReproduzir) {
+            int r = ler(TurnLog.ENIGMA);
+            enigma = registo.valorA(r) < 0 ? null : registo.getEnigma(registo.valorA(r));
+            acertou = registo.valorB(r) == 1;
+        } else {
+            enigma = obterEnigma();
+            acertou = enigma != null && player.resolverEnigma(enigma, view);
+            registo.adicionar(TurnLog.ENIGMA, indice(player), indiceEnigma(enigma), acertou ? 1 : 0);
+        }
 
         if (enigma == null) {
             view.mostrarMensagemCarregar();
@@ -206,7 +526,6 @@ public class GameEngine {
         }
 
         totalTentados++;
-        boolean acertou = player.resolverEnigma(enigma, view);
 
         if (acertou) {
             totalResolvidos++;
@@ -223,11 +542,22 @@ public class GameEngine {
      * @return true if the player's turn should end after this
      */
     private boolean processarAlavanca(Player player, Divisao sala) {
-        if (sala.getAlavanca() == null) sala.setAlavanca(new Alavanca());
+        AlavancaEnum resultado;
+        if (aReproduzir) {
+            resultado = AlavancaEnum.values()[registo.valorB(ler(TurnLog.ALAVANCA))];
+        } else {
+            int indiceSala = graph.getIndex(sala);
+            Alavanca alavanca = graph.getAlavanca(indiceSala);
+            if (alavanca == null) {
+                alavanca = new Alavanca(aleatorio);
+                graph.setAlavanca(indiceSala, alavanca);
+            }
 
-        int escolha = player.decidirAlavanca(sala, view);
+            int escolha = player.decidirAlavanca(sala, view);
 
-        AlavancaEnum resultado = sala.getAlavanca().ativar(escolha);
+            resultado = alavanca.ativar(escolha);
+            registo.adicionar(TurnLog.ALAVANCA, indice(player), escolha, resultado.ordinal());
+        }
         view.mostrarResultadoAlavanca(resultado, sala.getIdDesbloqueio(), player.getNome());
 
         if (resultado == AlavancaEnum.ABRIR_PORTA) {
@@ -240,54 +570,27 @@ public class GameEngine {
         return false;
     }
     /**
-     * Obtains a riddle from the available list
-     * @return a non-used Enigma
+     * Obtains a riddle from the deck, shuffling every riddle back in once all were shown.
+     * @return a non-used Enigma, or null if the game has no riddles
      */
     private Enigma obterEnigma() {
-        if (enigmasDisponiveis == null || enigmasDisponiveis.isEmpty()) {
+        if (baralho == null || baralho.isEmpty()) return null;
 
-            if (enigmasUsados != null && !enigmasUsados.isEmpty()) {
-                System.out.println("A recarregar enigmas ja respondidos...");
-                while (!enigmasUsados.isEmpty()) {
-                    enigmasDisponiveis.addToRear(enigmasUsados.removeFirst());
-                }
-            } else {
-                return null;
-            }
+        if (baralho.esgotado()) {
+            view.mostrarRecargaEnigmas();
+            baralho.baralhar(aleatorio);
         }
-
-        Enigma e = enigmasDisponiveis.removeFirst();
-
-        enigmasUsados.addToRear(e);
-
-        return e;
+        return baralho.tirar();
     }
     /**
-     * Applies a game effect string to a player.
-     * @param effect effect code to apply
+     * Applies a compiled game effect to a player.
+     * @param effect effect to apply
      * @param p      target player
      */
-    private void applyEffect(String effect, Player p) {
-        if (effect == null || effect.equals("NONE")) return;
+    private void applyEffect(Efeito effect, Player p) {
+        if (effect.isNenhum()) return;
         view.mostrarEfeito(effect);
-
-        if (effect.equals("EXTRA_TURN")) {
-            p.adicionarJogadasExtras(1);
-        } else if (effect.startsWith("BACK:")) {
-            try {
-                String[] partes = effect.split(":");
-                if (partes.length > 1) {
-                    int steps = Integer.parseInt(partes[1]);
-                    p.recuar(steps, view);
-                } else {
-                    view.mostrarErro("Efeito 'BACK' mal formatado no ficheiro JSON.");
-                }
-            } catch (NumberFormatException e) {
-                view.mostrarErro("O valor de recuo no enigma nao e um numero valido.");
-            }
-        }else if (effect.equals("BLOCK")) {
-            p.bloquear(1);
-        }
+        effect.aplicar(p, view);
     }
     /**
      * Checks whether the given player has won the game by reaching the treasure room.
@@ -297,68 +600,292 @@ public class GameEngine {
     private boolean verificarVitoria(Player p) {
         if (p.getLocalAtual().getTipo() == TipoDivisao.SALA_CENTRAL) {
             view.mostrarVencedor(p.getNome());
+            return true;
+        }
+        return false;
+    }
+    /**
+     * Builds the final report of the game.
+     * @param vencedor the player that won, or null if the game ended without a winner
+     * @return the report with the totals and the per-player data
+     */
+    private GameReport construirRelatorio(Player vencedor) {
+        for (int i = 0; i < relatorios.length; i++) {
+            GameReport.PlayerReport pr = relatorios[i];
+            pr.setTurnosJogados(turnoCount);
+            pr.setLocalAtual(jogadores[i].getLocalAtual().getNome());
+
+            if (jogadores[i] == vencedor) {
+                pr.setVencedor(true);
+            }
+        }
 
-            Iterator<GameReport.PlayerReport> it = playerReports.iterator();
-            while(it.hasNext()) {
-                GameReport.PlayerReport pr = it.next();
+        // o percurso e as armadilhas de cada jogador saem do registo de jogadas; as salas do
+        // percurso só recebem nome se o relatório for lido. Um relatório pedido depois de outro
+        // (continuar após o limite de turnos) só lê os registos que ainda não foram lidos
+        for (int r = registosNoRelatorio; r < registo.size(); r++) {
+            if (registo.tipo(r) == TurnLog.MOVER) {
+                ultimaSalaRelatorio[registo.jogador(r)] = registo.valorA(r);
+                relatorios[registo.jogador(r)].adicionarPercurso(registo.valorA(r), this::nomeSala);
+            } else if (registo.tipo(r) == TurnLog.ARMADILHA) {
+                relatorios[registo.jogador(r)].adicionarObstaculo("Armadilha em " + graph.getVertex(ultimaSalaRelatorio[registo.jogador(r)]).getNome());
+            }
+        }
+        registosNoRelatorio = registo.size();
 
-                pr.setTurnosJogados(turnoCount);
+        GameReport report = new GameReport();
+        report.setVencedor(vencedor != null ? vencedor.getNome() : null);
+        report.setDuracao(turnoCount);
+        report.setMapaNome(nomeDoMapaEscolhido);
 
-                if (pr.getNome().equals(p.getNome())) {
-                    pr.setVencedor(true);
-                    pr.setLocalAtual(p.getLocalAtual().getNome());
-                }
-            }
+        if (dificuldade != null) {
+            report.setDificuldade(dificuldade.toString());
+        } else {
+            report.setDificuldade("DESCONHECIDA");
+        }
 
-            GameReport report = new GameReport();
-            report.setVencedor(p.getNome());
-            report.setDuracao(turnoCount);
-            report.setMapaNome(nomeDoMapaEscolhido);
+        report.setListaJogadores(playerReports);
+        report.setTotalEnigmasResolvidos(totalResolvidos);
+        report.setTotalEnigmasTentados(totalTentados);
+        report.setTotalObstaculos(totalObstaculos);
+        return report;
+    }
+    /**
+     * Initializes the per-player report list from the current list of players.
+     */
+    private void inicializarRelatorios() {
+        this.playerReports = new ArrayUnorderedList<>();
+        this.relatorios = new GameReport.PlayerReport[jogadores.length];
+        this.ultimaSalaRelatorio = new int[jogadores.length];
+        this.registosNoRelatorio = 0;
+        for (int i = 0; i < jogadores.length; i++) {
+            Player p = jogadores[i];
+            GameReport.PlayerReport pr = new GameReport.PlayerReport(p.getNome(), p instanceof Bot ? "Bot" : "Humano");
+            pr.setEntrada(p.getLocalAtual().getNome());
+            playerReports.addToRear(pr);
+            relatorios[i] = pr;
+        }
+    }
+    /**
+     * Returns the name of a room of the map.
+     * @param indice the room index
+     * @return the room name
+     */
+    private String nomeSala(int indice) {
+        return graph.getVertex(indice).getNome();
+    }
+    /**
+     * Rolls the dice of a player, or reads the value from the log.
+     * @param p the player
+     * @return the dice value
+     */
+    private int decidirDados(Player p) {
+        if (aReproduzir) return registo.valorA(ler(TurnLog.DADO));
 
-            if (dificuldade != null) {
-                report.setDificuldade(dificuldade.toString());
-            } else {
-                report.setDificuldade("DESCONHECIDA");
-            }
+        int valor = p.lancarDados(view);
+        registo.adicionar(TurnLog.DADO, indice(p), valor);
+        return valor;
+    }
 
-            report.setListaJogadores(playerReports);
-            report.setTotalEnigmasResolvidos(totalResolvidos);
-            report.setTotalEnigmasTentados(totalTentados);
-            report.setTotalObstaculos(totalObstaculos);
+    /**
+     * Asks a player where to move, or reads the destination from the log.
+     * @param p the player
+     * @return the chosen room, or null if the player stops
+     */
+    private Divisao decidirDestino(Player p) {
+        if (aReproduzir) {
+            int sala = registo.valorA(ler(TurnLog.DESTINO));
+            return sala < 0 ? null : graph.getVertex(sala);
+        }
 
-            //Exportar
-            GameExporter exporter = new GameExporter();
-            exporter.exportarJogo(report);
+        // Só o jogador humano precisa da lista de vizinhos para o menu; os bots navegam pelo grafo
+        ArrayUnorderedList<Divisao> vizinhos = p instanceof Bot ? null : graph.getVizinhos(p.getLocalAtual());
+        Divisao destino = p.escolherDestino(vizinhos, view);
+        registo.adicionar(TurnLog.DESTINO, indice(p), destino == null ? -1 : graph.getIndex(destino));
+        return destino;
+    }
 
-            return true;
+    /**
+     * Draws the random event of a quiet corridor, or reads it from the log.
+     * @param p the player that crossed the corridor
+     * @return the event, or null if nothing happens
+     */
+    private EventoAleatorio decidirEvento(Player p) {
+        if (aReproduzir) {
+            if (posicaoRegisto >= registo.size() || registo.tipo(posicaoRegisto) != TurnLog.EVENTO) return null;
+            int r = ler(TurnLog.EVENTO);
+            return EventoAleatorio.de(TipoEvento.values()[registo.valorA(r)], registo.valorB(r));
         }
-        return false;
+
+        EventoAleatorio evento = tabelaEventos.sortear(aleatorio);
+        if (evento.getTipo() == TipoEvento.SEM_EVENTO) return null;
+        registo.adicionar(TurnLog.EVENTO, indice(p), evento.getTipo().ordinal(), evento.getIntensidade());
+        return evento;
     }
+
     /**
-     * Initializes the per-player report list from the current list of players.
+     * Asks a player who to swap positions with, when the event is a swap, or reads it from the log.
+     * @param p      the player hit by the event
+     * @param evento the event
+     * @return the other player, or null if there is no swap
      */
-    private void inicializarRelatorios() {
-        Iterator<Player> it = todosJogadores.iterator();
-        while(it.hasNext()) {
-            Player p = it.next();
-            playerReports.addToRear(new GameReport.PlayerReport(p.getNome(), p instanceof Bot ? "Bot" : "Humano"));
+    private Player decidirAlvoTroca(Player p, EventoAleatorio evento) {
+        if (evento.getTipo() != TipoEvento.TROCAR_POSICAO || jogadores.length < 2) return null;
+
+        if (aReproduzir) {
+            int alvo = registo.valorA(ler(TurnLog.TROCA));
+            return alvo < 0 ? null : jogadores[alvo];
         }
+
+        Player alvo = p.escolherAlvoParaTroca(todosJogadores, view);
+        registo.adicionar(TurnLog.TROCA, indice(p), alvo == null ? -1 : indice(alvo));
+        return alvo;
     }
+
     /**
-     * Registers a movement in the report for a given player and destination.
-     * @param p player that moved
-     * @param d destination room
+     * Moves a triggered trap to a random corridor, or to the one in the log.
+     * @param p the player that triggered the trap
+     * @param o origin room of the corridor
+     * @param d destination room of the corridor
+     * @return true if the trap moved to another corridor
+     */
+    private boolean moverArmadilha(Player p, Divisao o, Divisao d) {
+        if (aReproduzir) {
+            int r = ler(TurnLog.ARMADILHA);
+            long destino = registo.valorA(r) < 0 ? MapaArestas.VAZIO : MapaArestas.chave(registo.valorA(r), registo.valorB(r));
+            graph.moverArmadilha(o, d, destino);
+            return destino != MapaArestas.VAZIO;
+        }
+
+        long destino = graph.moverArmadilhaAleatoria(o, d, aleatorio);
+        if (destino == MapaArestas.VAZIO) {
+            registo.adicionar(TurnLog.ARMADILHA, indice(p), -1, -1);
+        } else {
+            registo.adicionar(TurnLog.ARMADILHA, indice(p), MapaArestas.primeiro(destino), MapaArestas.segundo(destino));
+        }
+        return destino != MapaArestas.VAZIO;
+    }
+
+    /**
+     * Reads the next record of the log when replaying, checking its type.
+     * @param tipo the expected record type
+     * @return the position of the record
+     * @throws IllegalStateException if the log does not match the game being replayed
+     */
+    private int ler(int tipo) {
+        if (posicaoRegisto >= registo.size() || registo.tipo(posicaoRegisto) != tipo) {
+            throw new IllegalStateException("Registo de jogo inconsistente na posição " + posicaoRegisto);
+        }
+        return posicaoRegisto++;
+    }
+
+    /**
+     * Returns the position of a player in the player list.
+     * @param p the player
+     * @return the index used by the log
+     */
+    private int indice(Player p) {
+        int i = p.getNumero();
+        return i >= 0 && i < jogadores.length && jogadores[i] == p ? i : -1;
+    }
+
+    /**
+     * Returns the position of a riddle in the initial riddle list.
+     * @param e the riddle, may be null
+     * @return the index used by the log, or -1
+     */
+    int indiceEnigma(Enigma e) {
+        return e == null ? -1 : posicoesEnigmas.get(e);
+    }
+
+    /**
+     * Indexes the position of each riddle of {@link #enigmasIniciais}.
+     */
+    private void indexarEnigmas() {
+        posicoesEnigmas = new MapaIndices<>(enigmasIniciais.length);
+        for (int i = 0; i < enigmasIniciais.length; i++) {
+            posicoesEnigmas.putIfAbsent(enigmasIniciais[i], i);
+        }
+    }
+
+    /**
+     * Builds a keyframe of the current state, at the start of a turn.
+     * @return the keyframe
      */
-    private void registarRelatorioMovimento(Player p, Divisao d) {
-        Iterator<GameReport.PlayerReport> it = playerReports.iterator();
-        while(it.hasNext()) {
-            GameReport.PlayerReport pr = it.next();
-            if(pr.getNome().equals(p.getNome())) {
-                pr.adicionarPercurso(d.getNome());
-                pr.setLocalAtual(d.getNome());
-                break;
+    private GameState capturarEstado() {
+        int n = jogadores.length;
+        turnManager.sincronizarBloqueios();
+        Player[] fila = turnManager.ordem();
+        int[] ordem = new int[fila.length];
+        for (int i = 0; i < fila.length; i++) {
+            ordem[i] = indice(fila[i]);
+        }
+
+        int[] locais = new int[n];
+        int[][] caminhos = new int[n][];
+        int[] limites = new int[n];
+        int[] extras = new int[n];
+        int[] bloqueios = new int[n];
+        int[][] trancas = new int[n][];
+        for (int i = 0; i < n; i++) {
+            Player p = jogadores[i];
+            locais[i] = graph.getIndex(p.getLocalAtual());
+
+            Divisao[] salas = p.getCaminho();
+            int[] caminho = new int[salas.length];
+            int comum = 0;
+            int[] anterior = ultimosCaminhos[i];
+            for (int k = 0; k < salas.length; k++) {
+                caminho[k] = graph.getIndex(salas[k]);
+                if (comum == k && anterior != null && k < anterior.length && anterior[k] == caminho[k]) comum++;
             }
+            caminhos[i] = registo.guardarCaminho(ultimosSegmentos[i], comum, caminho);
+            ultimosCaminhos[i] = caminho;
+            ultimosSegmentos[i] = caminhos[i];
+
+            limites[i] = p.getLimiteRecuo();
+            extras[i] = p.getJogadasExtra();
+            bloqueios[i] = p.getTurnosBloqueado();
+            trancas[i] = p.getTrancasDesbloqueadas();
+        }
+
+        long[] armadilhas = graph.corredoresComArmadilha();
+        EventoCorredor[] eventos = new EventoCorredor[armadilhas.length];
+        for (int i = 0; i < armadilhas.length; i++) {
+            eventos[i] = graph.getCorredorEventoPorIndice(MapaArestas.primeiro(armadilhas[i]), MapaArestas.segundo(armadilhas[i]));
         }
+
+        return new GameState(turnoCount, registo.size(), totalResolvidos, totalTentados, totalObstaculos,
+                ordem, locais, caminhos, limites, extras, bloqueios, trancas, armadilhas, eventos);
+    }
+
+    /**
+     * Puts the game back in the state of a keyframe of the log being replayed.
+     * @param estado the keyframe
+     */
+    void restaurar(GameState estado) {
+        turnoCount = estado.getTurno();
+        posicaoRegisto = estado.getPosicaoRegisto();
+        totalResolvidos = estado.getResolvidos();
+        totalTentados = estado.getTentados();
+        totalObstaculos = estado.getObstaculos();
+
+        for (int i = 0; i < jogadores.length; i++) {
+            int[] caminho = registo.lerCaminho(estado.getCaminhos()[i]);
+            Divisao[] salas = new Divisao[caminho.length];
+            for (int k = 0; k < caminho.length; k++) {
+                salas[k] = graph.getVertex(caminho[k]);
+            }
+            jogadores[i].restaurarEstado(graph.getVertex(estado.getLocais()[i]), salas, estado.getLimitesRecuo()[i],
+                    estado.getJogadasExtra()[i], estado.getTurnosBloqueado()[i], estado.getTrancas()[i]);
+        }
+
+        Player[] fila = new Player[estado.getOrdem().length];
+        for (int i = 0; i < fila.length; i++) {
+            fila[i] = jogadores[estado.getOrdem()[i]];
+        }
+        turnManager.restaurarOrdem(fila);
+        graph.restaurarArmadilhas(estado.getArmadilhas(), estado.getEventosArmadilhas());
     }
 
     /**
@@ -394,23 +921,8 @@ public class GameEngine {
             view.mostrarArmadilhaAtivada();
             totalObstaculos++;
 
-            if (ev.getTipo() == CorredorEvento.BLOCK_TURN) {
-                p.bloquear(ev.getValor());
-            }
-            if (ev.getTipo() == CorredorEvento.MOVE_BACK) {
-                p.recuar(ev.getValor(), view);
-            }
-            graph.relocalizarArmadilha(o, d);
-
-            // Regista no relatorio
-            Iterator<GameReport.PlayerReport> it = playerReports.iterator();
-            while(it.hasNext()) {
-                GameReport.PlayerReport pr = it.next();
-                if(pr.getNome().equals(p.getNome())) {
-                    pr.adicionarObstaculo("Armadilha em " + d.getNome());
-                    break;
-                }
-            }
+            ev.getEfeito().aplicar(p, view);
+            view.mostrarArmadilhaRelocalizada(moverArmadilha(p, o, d));
 
             return true;
         }
@@ -1,11 +1,15 @@
 package engine;
 
 import java.util.Iterator;
+import java.util.random.RandomGenerator;
 
 import Lists.ArrayUnorderedList;
 import Queue.LinkedQueue;
 import enums.Dificuldade;
 import enums.TipoDivisao;
+import game.Aleatorio;
+import game.BancoEnigmas;
+import game.BaralhoEnigmas;
 import game.Bot;
 import game.Divisao;
 import game.Enigma;
@@ -18,17 +22,40 @@ import ui.GameView;
  */
 public class GameInitializer {
 
+    /** File the riddles are loaded from when the setup does not receive them. */
+    public static final String FICHEIRO_ENIGMAS = "resources/Enigmas/enigmas.json";
+
+    /**
+     * Most players, humans and bots together, in a game set up through the menus. Games between
+     * bots set up with {@link #setupBots(Dificuldade, Dificuldade[], BancoEnigmas)} have no
+     * limit, so a crowd of thousands can share one large map.
+     */
+    public static final int MAX_JOGADORES_MENU = 8;
+
     /** View used for user interaction (menus, messages, input). */
     private GameView view;
 
     /** Labyrinth graph where the game will take place. */
     private LabyrinthGraph<Divisao> labyrinthGraph;
+
+    /** Random generator of the game session, used for spawns and given to every player. */
+    private RandomGenerator aleatorio;
     /**
      * Constructs a new GameInitializer using the provided view and labyrinth graph.
      * @param view           UI component responsible for I/O
      * @param labyrinthGraph graph that represents the labyrinth
      */
     public GameInitializer(GameView view, LabyrinthGraph<Divisao> labyrinthGraph) {
+        this(view, labyrinthGraph, Aleatorio.novo());
+    }
+    /**
+     * Constructs a new GameInitializer whose random choices come from the given generator.
+     * @param view           UI component responsible for I/O
+     * @param labyrinthGraph graph that represents the labyrinth
+     * @param aleatorio      random generator of the game session
+     */
+    public GameInitializer(GameView view, LabyrinthGraph<Divisao> labyrinthGraph, RandomGenerator aleatorio) {
+        this.aleatorio = aleatorio;
         this.view = view;
         this.labyrinthGraph = labyrinthGraph;
     }
@@ -38,11 +65,28 @@ public class GameInitializer {
      */
     public GameData setupCompleto() {
         view.mostrarMensagemCarregar();
+        return setupCompleto(new BancoEnigmas(loadEnigmas()));
+    }
+
+    /**
+     * Executes the complete setup flow for a new game with riddles that are already loaded.
+     * @param allEnigmas the riddles to choose from; they are only read
+     * @return a fully initialized GameData instance, or null if the game cannot start
+     */
+    public GameData setupCompleto(ArrayUnorderedList<Enigma> allEnigmas) {
+        return setupCompleto(new BancoEnigmas(allEnigmas));
+    }
 
-        // Enigmas e Dificuldade
-        ArrayUnorderedList<Enigma> allEnigmas = loadEnigmas();
+    /**
+     * Executes the complete setup flow for a new game with a bank of riddles that is already built.
+     * The bank is only read, so it can be shared by games set up at the same time.
+     * @param banco the riddles to choose from
+     * @return a fully initialized GameData instance, or null if the game cannot start
+     */
+    public GameData setupCompleto(BancoEnigmas banco) {
+        // Dificuldade
         Dificuldade difficulty = setupDifficulty();
-        ArrayUnorderedList<Enigma> enigmasFiltrados = filterEnigmasByDifficulty(allEnigmas, difficulty);
+        BaralhoEnigmas enigmasFiltrados = filterEnigmasByDifficulty(banco, difficulty);
 
         // Entradas do Mapa
         Divisao[] entrances = getMapEntrances();
@@ -66,13 +110,48 @@ public class GameInitializer {
         return new GameData(turnQueue, todosJogadores, enigmasFiltrados, difficulty);
     }
 
+    /**
+     * Sets up a game between bots only, without asking anything to the user.
+     * Each bot starts in a random entrance and is named "Bot 1", "Bot 2", ...
+     * @param dificuldade global difficulty of the game
+     * @param bots        difficulty of each bot, in turn order
+     * @param enigmas     riddles to choose from; only those of the given difficulty are used, may be null
+     * @return the game data, or null if the map has no entrances or there are no bots
+     */
+    public GameData setupBots(Dificuldade dificuldade, Dificuldade[] bots, ArrayUnorderedList<Enigma> enigmas) {
+        return setupBots(dificuldade, bots, new BancoEnigmas(enigmas));
+    }
+
+    /**
+     * Sets up a game between bots only with a bank of riddles that is already built.
+     * @param dificuldade global difficulty of the game
+     * @param bots        difficulty of each bot, in turn order
+     * @param banco       riddles to choose from; only read, so it can be shared by many games
+     * @return the game data, or null if the map has no entrances or there are no bots
+     */
+    public GameData setupBots(Dificuldade dificuldade, Dificuldade[] bots, BancoEnigmas banco) {
+        Divisao[] entrances = getMapEntrances();
+        if (entrances.length == 0 || bots.length == 0) return null;
+
+        LinkedQueue<Player> turnQueue = new LinkedQueue<>();
+        ArrayUnorderedList<Player> todosJogadores = new ArrayUnorderedList<>();
+        for (int i = 0; i < bots.length; i++) {
+            Divisao spawn = entrances[aleatorio.nextInt(entrances.length)];
+            Bot bot = new Bot("Bot " + (i + 1), spawn, bots[i], labyrinthGraph, aleatorio);
+            turnQueue.enqueue(bot);
+            todosJogadores.addToRear(bot);
+        }
+
+        return new GameData(turnQueue, todosJogadores, filterEnigmasByDifficulty(banco, dificuldade), dificuldade);
+    }
+
     /**
      * Loads enigmas from the default JSON file.
      * @return list of all enigmas found in the JSON file
      */
     private ArrayUnorderedList<Enigma> loadEnigmas() {
         EnigmaLoader enigmaLoader = new EnigmaLoader();
-        return enigmaLoader.loadEnigmas("resources/enigmas/enigmas.json");
+        return enigmaLoader.loadEnigmas(FICHEIRO_ENIGMAS);
     }
     /**
      * Asks the user to choose the global difficulty of the game.
@@ -90,18 +169,14 @@ public class GameInitializer {
         return Dificuldade.DIFICIL;
     }
     /**
-     * Filters the full list of enigmas, keeping only those that match the given difficulty.
-     * @param all list with all loaded enigmas
-     * @param dif difficulty to filter by
-     * @return new list containing only enigmas of the given difficulty
+     * Takes the riddles of the given difficulty from the bank, where they were already split
+     * by difficulty when it was built.
+     * @param banco bank with all loaded enigmas
+     * @param dif   difficulty to filter by
+     * @return new deck containing only enigmas of the given difficulty
      */
-    private ArrayUnorderedList<Enigma> filterEnigmasByDifficulty(ArrayUnorderedList<Enigma> all, Dificuldade dif) {
-        ArrayUnorderedList<Enigma> filtered = new ArrayUnorderedList<>();
-        Iterator<Enigma> it = all.iterator();
-        while (it.hasNext()) {
-            Enigma e = it.next();
-            if (e.getDificuldade() == dif) filtered.addToRear(e);
-        }
+    private BaralhoEnigmas filterEnigmasByDifficulty(BancoEnigmas banco, Dificuldade dif) {
+        BaralhoEnigmas filtered = banco.novoBaralho(dif);
         view.mostrarDificuldadeDefinida(dif.toString(), filtered.size());
         return filtered;
     }
@@ -138,7 +213,7 @@ public class GameInitializer {
      */
     private int setupHumanPlayers(Divisao[] entrances, LinkedQueue<Player> turnQueue, ArrayUnorderedList<Player> listaGlobal) {
         int numHumans;
-        int max = 8;
+        int max = MAX_JOGADORES_MENU;
         do {
             numHumans = view.pedirQuantidadeHumanos(max);
             if (numHumans < 0 || numHumans > max) view.mostrarErroOpcaoInvalida(0, max);
@@ -150,8 +225,8 @@ public class GameInitializer {
                 name = view.pedirNomeJogador(i);
             } while (name.isEmpty());
             
-            Divisao spawn = entrances[(int) (Math.random() * entrances.length)];
-            Player p = new Player(name, spawn);
+            Divisao spawn = entrances[aleatorio.nextInt(entrances.length)];
+            Player p = new Player(name, spawn, aleatorio, labyrinthGraph);
             
             turnQueue.enqueue(p);
             listaGlobal.addToRear(p);
@@ -168,7 +243,7 @@ public class GameInitializer {
      * @param numHumans   number of human players already created
      */
     private void setupBots(Divisao[] entrances, LinkedQueue<Player> turnQueue, ArrayUnorderedList<Player> listaGlobal, int numHumans) {
-        int maxBots = 8 - numHumans;
+        int maxBots = MAX_JOGADORES_MENU - numHumans;
         if (maxBots <= 0) return;
 
         int numBots;
@@ -178,14 +253,14 @@ public class GameInitializer {
         } while (numBots < 0 || numBots > maxBots);
 
         for (int i = 1; i <= numBots; i++) {
-            Divisao spawn = entrances[(int) (Math.random() * entrances.length)];
+            Divisao spawn = entrances[aleatorio.nextInt(entrances.length)];
             int opt;
             do {
                 opt = view.pedirDificuldadeBot(i);
             } while(opt < 1 || opt > 3);
             
             Dificuldade dif = (opt == 2) ? Dificuldade.MEDIO : (opt == 3) ? Dificuldade.DIFICIL : Dificuldade.FACIL;
-            Bot bot = new Bot("Bot " + i, spawn, dif, labyrinthGraph);
+            Bot bot = new Bot("Bot " + i, spawn, dif, labyrinthGraph, aleatorio);
             
             turnQueue.enqueue(bot);
             listaGlobal.addToRear(bot);
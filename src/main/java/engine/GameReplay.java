@@ -0,0 +1,96 @@
+package engine;
+
+import Lists.ArrayUnorderedList;
+import Queue.LinkedQueue;
+import game.Aleatorio;
+import game.Divisao;
+import game.Player;
+import graph.LabyrinthGraph;
+import ui.SilentGameView;
+
+/**
+ * Rebuilds any turn of a recorded game from its {@link TurnLog}, without asking anyone.
+ * Seeking restores the nearest keyframe at or before the wanted turn and replays the few turns
+ * after it, so moving to any turn of a long game costs at most one keyframe interval of turns.
+ * The replay plays on its own map, a session view or a copy of the map the game was played on;
+ * it only moves its traps, the levers are never pulled. A game restored from a
+ * {@link SessionSnapshot} can only be replayed from the moment it was restored.
+ */
+public class GameReplay {
+
+    /** Log being replayed. */
+    private final TurnLog registo;
+
+    /** Engine driven by the log. */
+    private final GameEngine engine;
+
+    /** Players rebuilt from the log, in the order of the game's player list. */
+    private final Player[] jogadores;
+
+    /**
+     * Creates a replay positioned at the first keyframe of the log, usually the start of the game.
+     * @param mapa    a copy of the map the game was played on
+     * @param registo the log of the game
+     * @throws IllegalArgumentException if the log has no keyframe
+     */
+    public GameReplay(LabyrinthGraph<Divisao> mapa, TurnLog registo) {
+        GameState inicio = registo.primeiroKeyframe();
+        if (inicio == null) throw new IllegalArgumentException("O registo não tem o estado inicial do jogo");
+        this.registo = registo;
+
+        String[] nomes = registo.getJogadores();
+        this.jogadores = new Player[nomes.length];
+        ArrayUnorderedList<Player> todos = new ArrayUnorderedList<>();
+        for (int i = 0; i < nomes.length; i++) {
+            jogadores[i] = new Player(nomes[i], mapa.getVertex(inicio.getLocais()[i]), Aleatorio.novo(), mapa);
+            todos.addToRear(jogadores[i]);
+        }
+
+        this.engine = new GameEngine(mapa, new SilentGameView());
+        engine.setExportarRelatorio(false);
+        engine.prepararReproducao(new GameData(new LinkedQueue<>(), todos, null, null), registo);
+        engine.restaurar(inicio);
+    }
+
+    /**
+     * Moves the replay to the state right after a given number of turns. Going a few turns
+     * forward only replays the turns in between; otherwise the nearest keyframe is restored first.
+     * @param turno the number of turns played
+     * @return the turn reached, lower than asked if the game ended before it, or the turn of the
+     *         first keyframe if asked for an earlier one
+     */
+    public int irPara(int turno) {
+        int atual = engine.getTurno();
+        if (turno < atual || turno - atual > registo.getIntervaloKeyframes()) {
+            GameState keyframe = registo.keyframeAte(turno);
+            if (keyframe == null) keyframe = registo.primeiroKeyframe();
+            if (turno < atual || keyframe.getTurno() > atual) engine.restaurar(keyframe);
+        }
+        return engine.avancarAte(turno);
+    }
+
+    /**
+     * Returns the number of turns played at the current point of the replay.
+     * @return the current turn
+     */
+    public int getTurno() {
+        return engine.getTurno();
+    }
+
+    /**
+     * Returns a player of the replay, with the state of the current turn.
+     * @param indice position of the player in {@link TurnLog#getJogadores()}
+     * @return the player
+     */
+    public Player getJogador(int indice) {
+        return jogadores[indice];
+    }
+
+    /**
+     * Returns the number of players of the game.
+     * @return the player count
+     */
+    public int getNumJogadores() {
+        return jogadores.length;
+    }
+}
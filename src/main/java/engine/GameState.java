@@ -0,0 +1,106 @@
+package engine;
+
+import game.EventoCorredor;
+
+/**
+ * Keyframe of a game taken at the start of a turn: everything a {@link GameReplay} needs to
+ * continue from there using only the {@link TurnLog}. Players are identified by their position
+ * in the game's player list and rooms by their index in the map.
+ * Riddle decks and lever combinations are not kept, because the log already holds their outcomes.
+ */
+public class GameState {
+
+    /** Number of turns played before this keyframe. */
+    private final int turno;
+
+    /** Position of the next record of the log. */
+    private final int posicaoRegisto;
+
+    /** Riddles solved, riddles attempted and obstacles triggered so far. */
+    private final int resolvidos, tentados, obstaculos;
+
+    /** Players in the turn queue, from the first to play. */
+    private final int[] ordem;
+
+    /** Current room of each player. */
+    private final int[] locais;
+
+    /** Path of each player, as segments of the log's path rooms. */
+    private final int[][] caminhos;
+
+    /** Minimum path size for moving back, of each player. */
+    private final int[] limitesRecuo;
+
+    /** Extra moves of each player. */
+    private final int[] jogadasExtra;
+
+    /** Blocked turns of each player. */
+    private final int[] turnosBloqueado;
+
+    /** Locks unlocked by each player. */
+    private final int[][] trancas;
+
+    /** Corridors holding a trap, as edge keys of the map. */
+    private final long[] armadilhas;
+
+    /** Trap of each corridor in {@link #armadilhas}. */
+    private final EventoCorredor[] eventosArmadilhas;
+
+    /**
+     * Creates a keyframe; the arrays are kept, not copied.
+     */
+    GameState(int turno, int posicaoRegisto, int resolvidos, int tentados, int obstaculos, int[] ordem,
+              int[] locais, int[][] caminhos, int[] limitesRecuo, int[] jogadasExtra, int[] turnosBloqueado,
+              int[][] trancas, long[] armadilhas, EventoCorredor[] eventosArmadilhas) {
+        this.turno = turno;
+        this.posicaoRegisto = posicaoRegisto;
+        this.resolvidos = resolvidos;
+        this.tentados = tentados;
+        this.obstaculos = obstaculos;
+        this.ordem = ordem;
+        this.locais = locais;
+        this.caminhos = caminhos;
+        this.limitesRecuo = limitesRecuo;
+        this.jogadasExtra = jogadasExtra;
+        this.turnosBloqueado = turnosBloqueado;
+        this.trancas = trancas;
+        this.armadilhas = armadilhas;
+        this.eventosArmadilhas = eventosArmadilhas;
+    }
+
+    /**
+     * Returns the number of turns played before this keyframe.
+     * @return the turn number
+     */
+    public int getTurno() { return turno; }
+
+    /**
+     * Returns the position in the log of the first record after this keyframe.
+     * @return the log position
+     */
+    public int getPosicaoRegisto() { return posicaoRegisto; }
+
+    int getResolvidos() { return resolvidos; }
+
+    int getTentados() { return tentados; }
+
+    int getObstaculos() { return obstaculos; }
+
+    int[] getOrdem() { return ordem; }
+
+    int[] getLocais() { return locais; }
+
+    int[][] getCaminhos() { return caminhos; }
+
+    int[] getLimitesRecuo() { return limitesRecuo; }
+
+    int[] getJogadasExtra() { return jogadasExtra; }
+
+    int[] getTurnosBloqueado() { return turnosBloqueado; }
+
+    int[][] getTrancas() { return trancas; }
+
+    long[] getArmadilhas() { return armadilhas; }
+
+    EventoCorredor[] getEventosArmadilhas() { return eventosArmadilhas; }
+}
@@ -0,0 +1,81 @@
+package engine;
+
+import java.util.random.RandomGenerator;
+
+import Lists.ArrayUnorderedList;
+import enums.Dificuldade;
+import game.Aleatorio;
+import game.BancoEnigmas;
+import game.Divisao;
+import game.Enigma;
+import graph.LabyrinthGraph;
+import io.GameReport;
+import ui.SilentGameView;
+
+/**
+ * Runs games between bots without console input/output, pauses or saved reports.
+ * Used for simulations and benchmarks, where games should run as fast as the CPU allows.
+ */
+public class HeadlessGameRunner {
+
+    /** Default turn limit, so that a game where no bot can reach the treasure still ends. */
+    public static final int MAX_TURNOS = 10_000;
+
+    /** Riddles loaded once, split by difficulty and shared by every simulated game. */
+    private BancoEnigmas enigmas;
+
+    /** Maximum number of turns of each game. */
+    private int maxTurnos;
+
+    /**
+     * Creates a runner with the default turn limit.
+     * @param enigmas riddles available to the games, may be null
+     */
+    public HeadlessGameRunner(ArrayUnorderedList<Enigma> enigmas) {
+        this(enigmas, MAX_TURNOS);
+    }
+
+    /**
+     * Creates a runner.
+     * @param enigmas   riddles available to the games, may be null
+     * @param maxTurnos maximum number of turns of each game, or 0 for no limit
+     */
+    public HeadlessGameRunner(ArrayUnorderedList<Enigma> enigmas, int maxTurnos) {
+        this.enigmas = new BancoEnigmas(enigmas);
+        this.maxTurnos = maxTurnos;
+    }
+
+    /**
+     * Plays one game between bots on a map, with a random seed.
+     * The map is played on directly, so traps moved and levers set during the game stay in it.
+     * @param mapa        the map to play on
+     * @param bots        difficulty of each bot, in turn order
+     * @param dificuldade global difficulty of the game, used to pick the riddles
+     * @return the final report, or null if the map has no entrances or there are no bots
+     */
+    public GameReport simular(LabyrinthGraph<Divisao> mapa, Dificuldade[] bots, Dificuldade dificuldade) {
+        return simular(mapa, bots, dificuldade, Aleatorio.novo().nextLong());
+    }
+
+    /**
+     * Plays one game between bots on a map, drawing every random value from a seed.
+     * The same map state, roster, difficulty and seed always give the same game.
+     * @param mapa        the map to play on
+     * @param bots        difficulty of each bot, in turn order
+     * @param dificuldade global difficulty of the game, used to pick the riddles
+     * @param semente     seed of the game, stored in the report
+     * @return the final report, or null if the map has no entrances or there are no bots
+     */
+    public GameReport simular(LabyrinthGraph<Divisao> mapa, Dificuldade[] bots, Dificuldade dificuldade, long semente) {
+        RandomGenerator aleatorio = Aleatorio.contado(semente);
+        SilentGameView view = new SilentGameView();
+        GameData dados = new GameInitializer(view, mapa, aleatorio).setupBots(dificuldade, bots, enigmas);
+        if (dados == null) return null;
+
+        GameEngine engine = new GameEngine(mapa, view, aleatorio);
+        engine.setExportarRelatorio(false);
+        GameReport report = engine.jogar(dados, maxTurnos);
+        report.setSemente(semente);
+        return report;
+    }
+}
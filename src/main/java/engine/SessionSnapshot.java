@@ -0,0 +1,508 @@
+package engine;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.random.RandomGenerator;
+
+import Lists.ArrayUnorderedList;
+import Queue.LinkedQueue;
+import enums.AlavancaEnum;
+import enums.CorredorEvento;
+import enums.Dificuldade;
+import game.Alavanca;
+import game.BancoEnigmas;
+import game.BaralhoEnigmas;
+import game.Bot;
+import game.Divisao;
+import game.Enigma;
+import game.EventoCorredor;
+import game.GeradorContado;
+import game.Player;
+import graph.LabyrinthGraph;
+import structures.MapaArestas;
+import ui.GameView;
+
+/**
+ * Versioned binary snapshot of a running game session, written and read with NIO channels.
+ * It holds everything the map file and the riddle bank do not: the players (path, keys, extra moves,
+ * blocked turns, the levers each bot has tried), the turn queue, the riddle decks, the lever
+ * combinations, the traps that have moved, the random generator and the turn log. Rooms are stored
+ * by their index in the map and riddles by their position in the {@link BancoEnigmas bank}, so a
+ * session is restored on a fresh session view (or copy) of the map it was played on, with the same bank.
+ * <p>
+ * When the game draws from a {@link GeradorContado}, its seed and the number of values drawn are
+ * saved, and the restored game goes on with the same values the original would have drawn: saving
+ * and restoring in the middle of a game gives the same game as playing it straight through. Other
+ * generators cannot be saved; a game that used one goes on with the generator given to {@code restaurar}.
+ * <p>
+ * Layout: the magic number, the format version and the size of the body, followed by the body.
+ * Numbers are big-endian; texts are a length (-1 for none) followed by UTF-8 bytes.
+ */
+public final class SessionSnapshot {
+
+    /** Magic number at the start of every snapshot ("LGSS"). */
+    public static final int MAGIC = 0x4C475353;
+
+    /**
+     * Version of the format written by this class; 2 widened the player field of the turn log records,
+     * 3 added the random generator and stored the riddles as positions in the bank.
+     */
+    public static final int VERSAO = 3;
+
+    /** Size of the header: magic, version and body size. */
+    private static final int CABECALHO = 12;
+
+    /** Largest body accepted when reading from a channel. */
+    private static final int MAX_TAMANHO = 256 << 20;
+
+    /** Initial buffer size when reading from a channel; it doubles as the data arrives. */
+    private static final int BLOCO_LEITURA = 64 << 10;
+
+    private SessionSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of a session into a new buffer.
+     * The engine must not be playing a turn while it is saved.
+     * @param engine  the engine of the session
+     * @param enigmas the bank the riddles of the session were taken from
+     * @return the snapshot, ready to be read
+     * @throws IllegalArgumentException if a riddle of the session is not in the bank
+     */
+    public static ByteBuffer guardar(GameEngine engine, BancoEnigmas enigmas) {
+        Escritor out = new Escritor();
+        out.putInt(MAGIC);
+        out.putInt(VERSAO);
+        out.putInt(0);
+
+        LabyrinthGraph<Divisao> mapa = engine.getGraph();
+        TurnLog registo = engine.getRegisto();
+        out.putInt(mapa.size());
+        out.putTexto(engine.getNomeDoMapa());
+        out.putInt(engine.getDificuldade() == null ? -1 : engine.getDificuldade().ordinal());
+        for (int contador : engine.getContadores()) {
+            out.putInt(contador);
+        }
+
+        // gerador do jogo: a semente e quantos valores já tirou, quando se pode guardar
+        RandomGenerator aleatorio = engine.getAleatorio();
+        if (aleatorio instanceof GeradorContado) {
+            out.putInt(1);
+            out.putLong(((GeradorContado) aleatorio).getSemente());
+            out.putLong(((GeradorContado) aleatorio).getTiragens());
+        } else {
+            out.putInt(0);
+        }
+
+        // jogadores
+        Player[] jogadores = engine.getJogadores();
+        int[] entradas = engine.getEntradas();
+        out.putInt(jogadores.length);
+        for (int i = 0; i < jogadores.length; i++) {
+            Player p = jogadores[i];
+            out.putTexto(p.getNome());
+            out.putInt(p instanceof Bot ? ((Bot) p).getInteligencia().ordinal() : -1);
+            out.putInt(entradas[i]);
+            out.putInt(mapa.getIndex(p.getLocalAtual()));
+            out.putInt(p.getLimiteRecuo());
+            out.putInt(p.getJogadasExtra());
+            out.putInt(p.getTurnosBloqueado());
+
+            Divisao[] caminho = p.getCaminho();
+            out.putInt(caminho.length);
+            for (Divisao sala : caminho) {
+                out.putInt(mapa.getIndex(sala));
+            }
+            out.putInts(p.getTrancasDesbloqueadas());
+            out.putInts(p instanceof Bot ? ((Bot) p).getAlavancasTentadas() : new int[0]);
+        }
+
+        Player[] ordem = engine.getOrdem();
+        out.putInt(ordem.length);
+        for (Player p : ordem) {
+            out.putInt(indice(jogadores, p));
+        }
+
+        // enigmas: a lista inicial do jogo como posições no banco, e o baralho como posições nela
+        out.putInt(registo.getNumEnigmas());
+        for (int i = 0; i < registo.getNumEnigmas(); i++) {
+            Enigma e = registo.getEnigma(i);
+            int posicao = e.getDificuldade() == null ? -1 : enigmas.posicao(e);
+            if (posicao < 0) throw new IllegalArgumentException("Enigma que não está no banco: " + e.getPergunta());
+            out.putInt(e.getDificuldade().ordinal());
+            out.putInt(posicao);
+        }
+        putBaralho(out, engine);
+
+        // alavancas já criadas
+        int numAlavancas = 0;
+        for (int v = 0; v < mapa.size(); v++) {
+            if (mapa.getAlavanca(v) != null) numAlavancas++;
+        }
+        out.putInt(numAlavancas);
+        for (int v = 0; v < mapa.size(); v++) {
+            Alavanca alavanca = mapa.getAlavanca(v);
+            if (alavanca == null) continue;
+            AlavancaEnum[] efeitos = alavanca.getEfeitos();
+            out.putInt(v);
+            out.putInt(efeitos.length);
+            for (AlavancaEnum efeito : efeitos) {
+                out.putInt(efeito.ordinal());
+            }
+        }
+
+        // armadilhas nas posições atuais
+        long[] armadilhas = mapa.corredoresComArmadilha();
+        out.putInt(armadilhas.length);
+        for (long chave : armadilhas) {
+            EventoCorredor ev = mapa.getCorredorEventoPorIndice(MapaArestas.primeiro(chave), MapaArestas.segundo(chave));
+            out.putLong(chave);
+            out.putInt(ev.getTipo().ordinal());
+            out.putInt(ev.getValor());
+        }
+
+        // registo de jogadas
+        out.putInt(registo.getIntervaloKeyframes());
+        out.putLongs(registo.registos());
+
+        ByteBuffer buffer = out.buffer;
+        buffer.putInt(8, buffer.position() - CABECALHO);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Writes a snapshot of a session to a channel.
+     * @param engine  the engine of the session
+     * @param enigmas the bank the riddles of the session were taken from
+     * @param canal   the channel to write to
+     * @throws IOException if the channel fails
+     */
+    public static void guardar(GameEngine engine, BancoEnigmas enigmas, WritableByteChannel canal) throws IOException {
+        ByteBuffer buffer = guardar(engine, enigmas);
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+    }
+
+    /**
+     * Writes a snapshot of a session to a file, replacing it if it exists.
+     * @param engine   the engine of the session
+     * @param enigmas  the bank the riddles of the session were taken from
+     * @param ficheiro the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void guardar(GameEngine engine, BancoEnigmas enigmas, Path ficheiro) throws IOException {
+        try (FileChannel canal = FileChannel.open(ficheiro, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            guardar(engine, enigmas, canal);
+        }
+    }
+
+    /**
+     * Restores a session from a channel.
+     * @param canal     the channel to read from
+     * @param mapa      a fresh session view or copy of the map the session was played on
+     * @param enigmas   the bank the riddles of the session were taken from
+     * @param view      the view of the restored session
+     * @param aleatorio the generator to go on with, if the snapshot has none
+     * @return an engine ready for {@link GameEngine#continuar(int)}
+     * @throws IOException if the channel fails or the data is not a valid snapshot
+     */
+    public static GameEngine restaurar(ReadableByteChannel canal, LabyrinthGraph<Divisao> mapa, BancoEnigmas enigmas,
+                                       GameView view, RandomGenerator aleatorio) throws IOException {
+        ByteBuffer cabecalho = ByteBuffer.allocate(CABECALHO);
+        lerTudo(canal, cabecalho);
+        int tamanho = cabecalho.getInt(8);
+        if (cabecalho.getInt(0) != MAGIC) throw new IOException("Não é uma sessão guardada");
+        int versao = cabecalho.getInt(4);
+        if (versao != VERSAO) throw new IOException("Versão de sessão não suportada: " + versao);
+        if (tamanho < 0 || tamanho > MAX_TAMANHO) throw new IOException("Tamanho de sessão inválido: " + tamanho);
+
+        // o tamanho vem do próprio ficheiro: o buffer só cresce à medida que os bytes chegam,
+        // para que um cabeçalho errado não reserve memória que o canal não tem para dar
+        ByteBuffer buffer = ByteBuffer.allocate(CABECALHO + Math.min(tamanho, BLOCO_LEITURA));
+        buffer.put(cabecalho.flip());
+        while (buffer.position() < CABECALHO + tamanho) {
+            if (!buffer.hasRemaining()) {
+                int capacidade = (int) Math.min(CABECALHO + (long) tamanho, buffer.capacity() * 2L);
+                buffer = ByteBuffer.allocate(capacidade).put(buffer.flip());
+            }
+            if (canal.read(buffer) < 0) throw new IOException("Sessão guardada incompleta");
+        }
+        return restaurar(buffer.flip(), mapa, enigmas, view, aleatorio);
+    }
+
+    /**
+     * Restores a session from a file.
+     * @param ficheiro  the file to read
+     * @param mapa      a fresh session view or copy of the map the session was played on
+     * @param enigmas   the bank the riddles of the session were taken from
+     * @param view      the view of the restored session
+     * @param aleatorio the generator to go on with, if the snapshot has none
+     * @return an engine ready for {@link GameEngine#continuar(int)}
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static GameEngine restaurar(Path ficheiro, LabyrinthGraph<Divisao> mapa, BancoEnigmas enigmas,
+                                       GameView view, RandomGenerator aleatorio) throws IOException {
+        try (FileChannel canal = FileChannel.open(ficheiro, StandardOpenOption.READ)) {
+            return restaurar(canal, mapa, enigmas, view, aleatorio);
+        }
+    }
+
+    /**
+     * Restores a session from a buffer holding a whole snapshot.
+     * @param dados     the snapshot, from its current position
+     * @param mapa      a fresh session view or copy of the map the session was played on
+     * @param enigmas   the bank the riddles of the session were taken from
+     * @param view      the view of the restored session
+     * @param aleatorio the generator to go on with, if the snapshot has none
+     * @return an engine ready for {@link GameEngine#continuar(int)}
+     * @throws IOException if the data is not a valid snapshot for this map
+     */
+    public static GameEngine restaurar(ByteBuffer dados, LabyrinthGraph<Divisao> mapa, BancoEnigmas enigmas,
+                                       GameView view, RandomGenerator aleatorio) throws IOException {
+        try {
+            return ler(dados, mapa, enigmas, view, aleatorio);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Sessão guardada corrompida", e);
+        }
+    }
+
+    /**
+     * Reads the snapshot fields in the order {@link #guardar(GameEngine, BancoEnigmas)} writes them.
+     */
+    private static GameEngine ler(ByteBuffer in, LabyrinthGraph<Divisao> mapa, BancoEnigmas banco,
+                                  GameView view, RandomGenerator aleatorio) throws IOException {
+        if (in.getInt() != MAGIC) throw new IOException("Não é uma sessão guardada");
+        int versao = in.getInt();
+        if (versao != VERSAO) throw new IOException("Versão de sessão não suportada: " + versao);
+        in.getInt();
+        if (in.getInt() != mapa.size()) throw new IOException("A sessão foi guardada noutro mapa");
+
+        String nomeMapa = getTexto(in);
+        int dificuldade = in.getInt();
+        int[] contadores = {in.getInt(), in.getInt(), in.getInt(), in.getInt()};
+        if (in.getInt() != 0) {
+            aleatorio = GeradorContado.retomar(in.getLong(), in.getLong());
+        }
+
+        // jogadores
+        int numJogadores = in.getInt();
+        Player[] jogadores = new Player[numJogadores];
+        ArrayUnorderedList<Player> todos = new ArrayUnorderedList<>();
+        int[] entradas = new int[numJogadores];
+        for (int i = 0; i < numJogadores; i++) {
+            String nome = getTexto(in);
+            int inteligencia = in.getInt();
+            entradas[i] = in.getInt();
+            Divisao local = mapa.getVertex(in.getInt());
+            int limite = in.getInt();
+            int extra = in.getInt();
+            int bloqueado = in.getInt();
+            Divisao[] caminho = new Divisao[in.getInt()];
+            for (int k = 0; k < caminho.length; k++) {
+                caminho[k] = mapa.getVertex(in.getInt());
+            }
+            int[] trancas = getInts(in);
+            int[] alavancasTentadas = getInts(in);
+
+            Player p;
+            if (inteligencia < 0) {
+                p = new Player(nome, local, aleatorio, mapa);
+            } else {
+                Bot bot = new Bot(nome, local, Dificuldade.values()[inteligencia], mapa, aleatorio);
+                bot.restaurarAlavancasTentadas(alavancasTentadas, Alavanca.NUM_ALAVANCAS);
+                p = bot;
+            }
+            p.restaurarEstado(local, caminho, limite, extra, bloqueado, trancas);
+            jogadores[i] = p;
+            todos.addToRear(p);
+        }
+
+        LinkedQueue<Player> fila = new LinkedQueue<>();
+        int tamanhoFila = in.getInt();
+        for (int i = 0; i < tamanhoFila; i++) {
+            fila.enqueue(jogadores[in.getInt()]);
+        }
+
+        // enigmas
+        Enigma[] enigmas = new Enigma[in.getInt()];
+        for (int i = 0; i < enigmas.length; i++) {
+            Dificuldade difEnigma = Dificuldade.values()[in.getInt()];
+            enigmas[i] = banco.get(difEnigma, in.getInt());
+        }
+        BaralhoEnigmas baralho = getBaralho(in, enigmas);
+
+        // alavancas
+        AlavancaEnum[] tipos = AlavancaEnum.values();
+        int numAlavancas = in.getInt();
+        for (int i = 0; i < numAlavancas; i++) {
+            int sala = in.getInt();
+            AlavancaEnum[] efeitos = new AlavancaEnum[in.getInt()];
+            for (int k = 0; k < efeitos.length; k++) {
+                efeitos[k] = tipos[in.getInt()];
+            }
+            if (mapa.getVertex(sala) == null) throw new IOException("Alavanca numa sala que não existe: " + sala);
+            mapa.setAlavanca(sala, new Alavanca(efeitos));
+        }
+
+        // armadilhas
+        long[] armadilhas = new long[in.getInt()];
+        EventoCorredor[] eventos = new EventoCorredor[armadilhas.length];
+        for (int i = 0; i < armadilhas.length; i++) {
+            armadilhas[i] = in.getLong();
+            eventos[i] = new EventoCorredor(CorredorEvento.values()[in.getInt()], in.getInt());
+        }
+        mapa.restaurarArmadilhas(armadilhas, eventos);
+
+        // registo de jogadas
+        int intervalo = in.getInt();
+        long[] registos = new long[in.getInt()];
+        in.asLongBuffer().get(registos);
+        in.position(in.position() + 8 * registos.length);
+        String[] nomes = new String[numJogadores];
+        for (int i = 0; i < numJogadores; i++) {
+            nomes[i] = jogadores[i].getNome();
+        }
+        TurnLog registo = new TurnLog(nomes, enigmas, intervalo, registos);
+
+        GameEngine engine = new GameEngine(mapa, view, aleatorio);
+        engine.setNomeDoMapa(nomeMapa);
+        engine.setIntervaloKeyframes(intervalo);
+        GameData dados = new GameData(fila, todos, baralho, dificuldade < 0 ? null : Dificuldade.values()[dificuldade]);
+        engine.retomar(dados, registo, entradas, contadores);
+        return engine;
+    }
+
+    /**
+     * Writes the riddle deck as positions in the game's initial riddle list: first the riddles
+     * still to draw, in the order they will be drawn, then the ones already drawn.
+     */
+    private static void putBaralho(Escritor out, GameEngine engine) {
+        BaralhoEnigmas baralho = engine.getBaralho();
+        if (baralho == null) {
+            out.putInt(0);
+            out.putInt(0);
+            return;
+        }
+        int tirados = baralho.getNumTirados();
+        out.putInt(baralho.size() - tirados);
+        for (int i = tirados; i < baralho.size(); i++) {
+            out.putInt(engine.indiceEnigma(baralho.get(i)));
+        }
+        out.putInt(tirados);
+        for (int i = 0; i < tirados; i++) {
+            out.putInt(engine.indiceEnigma(baralho.get(i)));
+        }
+    }
+
+    /**
+     * Reads a riddle deck written by {@link #putBaralho}.
+     */
+    private static BaralhoEnigmas getBaralho(ByteBuffer in, Enigma[] enigmas) {
+        Enigma[] porTirar = new Enigma[in.getInt()];
+        for (int i = 0; i < porTirar.length; i++) {
+            porTirar[i] = enigmas[in.getInt()];
+        }
+        int tirados = in.getInt();
+        Enigma[] cartas = new Enigma[tirados + porTirar.length];
+        for (int i = 0; i < tirados; i++) {
+            cartas[i] = enigmas[in.getInt()];
+        }
+        System.arraycopy(porTirar, 0, cartas, tirados, porTirar.length);
+        return new BaralhoEnigmas(cartas, tirados);
+    }
+
+    private static int indice(Player[] jogadores, Player p) {
+        for (int i = 0; i < jogadores.length; i++) {
+            if (jogadores[i] == p) return i;
+        }
+        throw new IllegalStateException("Jogador na fila que não está na lista de jogadores: " + p.getNome());
+    }
+
+    private static String getTexto(ByteBuffer in) {
+        int tamanho = in.getInt();
+        if (tamanho < 0) return null;
+        byte[] bytes = new byte[tamanho];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int[] getInts(ByteBuffer in) {
+        int[] valores = new int[in.getInt()];
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = in.getInt();
+        }
+        return valores;
+    }
+
+    /**
+     * Reads from a channel until the buffer is full.
+     * @throws IOException if the channel ends first
+     */
+    private static void lerTudo(ReadableByteChannel canal, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (canal.read(buffer) < 0) throw new IOException("Sessão guardada incompleta");
+        }
+    }
+
+    /**
+     * Heap buffer that grows as the snapshot is written.
+     */
+    private static class Escritor {
+        /** Buffer being written. */
+        private ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+        private void garantir(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer maior = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                maior.put(buffer.flip());
+                buffer = maior;
+            }
+        }
+
+        private void putInt(int valor) {
+            garantir(4);
+            buffer.putInt(valor);
+        }
+
+        private void putLong(long valor) {
+            garantir(8);
+            buffer.putLong(valor);
+        }
+
+        private void putInts(int[] valores) {
+            garantir(4 + 4 * valores.length);
+            buffer.putInt(valores.length);
+            for (int v : valores) {
+                buffer.putInt(v);
+            }
+        }
+
+        private void putLongs(long[] valores) {
+            garantir(4 + 8 * valores.length);
+            buffer.putInt(valores.length);
+            buffer.asLongBuffer().put(valores);
+            buffer.position(buffer.position() + 8 * valores.length);
+        }
+
+        private void putTexto(String texto) {
+            if (texto == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            garantir(4 + bytes.length);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+}
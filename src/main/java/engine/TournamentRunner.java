@@ -0,0 +1,193 @@
+package engine;
+
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+
+import Lists.ArrayUnorderedList;
+import enums.Dificuldade;
+import game.Aleatorio;
+import game.Divisao;
+import game.Enigma;
+import graph.LabyrinthGraph;
+import io.GameReport;
+
+/**
+ * Runs many headless bot games over a set of maps and bot rosters, spread over an executor.
+ * Every game is played on its own session view of the map, with its own bots and engine, so games
+ * share only read-only data (the original maps, their distance tables and the riddles).
+ * Games are grouped in tasks of {@link #JOGOS_POR_TAREFA}; each task fills its own
+ * {@link TournamentStats} and the results are joined when the tasks finish.
+ */
+public class TournamentRunner {
+
+    /** Number of games played by each task submitted to the executor. */
+    public static final int JOGOS_POR_TAREFA = 64;
+
+    /** Executor that runs the tasks; it belongs to the caller, who must shut it down. */
+    private ExecutorService executor;
+
+    /** Runner used to play each game. */
+    private HeadlessGameRunner runner;
+
+    /** Names of the maps in the tournament. */
+    private ArrayUnorderedList<String> nomesMapas = new ArrayUnorderedList<>();
+
+    /** Maps in the tournament, in the same order as their names. */
+    private ArrayUnorderedList<LabyrinthGraph<Divisao>> mapas = new ArrayUnorderedList<>();
+
+    /**
+     * Creates a tournament runner.
+     * @param executor  executor that runs the games, see {@link #threadsVirtuais()} and {@link #forkJoin(int)}
+     * @param enigmas   riddles available to the games, may be null
+     * @param maxTurnos maximum number of turns of each game, or 0 for no limit
+     */
+    public TournamentRunner(ExecutorService executor, ArrayUnorderedList<Enigma> enigmas, int maxTurnos) {
+        this.executor = executor;
+        this.runner = new HeadlessGameRunner(enigmas, maxTurnos);
+    }
+
+    /**
+     * Returns an executor that runs each task on a new virtual thread.
+     * @return the executor
+     */
+    public static ExecutorService threadsVirtuais() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Returns a work-stealing pool with a fixed number of worker threads.
+     * @param paralelismo the number of worker threads, usually the number of cores
+     * @return the executor
+     */
+    public static ExecutorService forkJoin(int paralelismo) {
+        return new ForkJoinPool(paralelismo);
+    }
+
+    /**
+     * Adds a map to the tournament. Its frozen view with the corridor indexes, distance table and
+     * distance fields are built now, on the calling thread, so that the sessions played by the
+     * workers only read them.
+     * The map must not be changed while a tournament is running.
+     * @param nome the map name used in the results
+     * @param mapa the map
+     */
+    public void adicionarMapa(String nome, LabyrinthGraph<Divisao> mapa) {
+        mapa.freeze(); // também constrói os índices de corredores
+        mapa.distanciasPorChaves();
+        mapa.campoDistancias();
+        nomesMapas.addToRear(nome);
+        mapas.addToRear(mapa);
+    }
+
+    /**
+     * Returns every roster of bots with the given size, ignoring order
+     * (e.g. for 2 bots: FACIL+FACIL, FACIL+MEDIO, ..., DIFICIL+DIFICIL).
+     * @param numBots the number of bots in each roster
+     * @return the rosters, each one sorted by difficulty
+     */
+    public static Dificuldade[][] todasCombinacoes(int numBots) {
+        Dificuldade[] niveis = Dificuldade.values();
+        ArrayUnorderedList<Dificuldade[]> combinacoes = new ArrayUnorderedList<>();
+        combinar(niveis, new Dificuldade[numBots], 0, 0, combinacoes);
+
+        Dificuldade[][] resultado = new Dificuldade[combinacoes.size()][];
+        int i = 0;
+        for (Dificuldade[] c : combinacoes) resultado[i++] = c;
+        return resultado;
+    }
+
+    /**
+     * Fills the rosters recursively, each position using a difficulty not lower than the previous one.
+     */
+    private static void combinar(Dificuldade[] niveis, Dificuldade[] atual, int posicao, int minimo,
+                                 ArrayUnorderedList<Dificuldade[]> combinacoes) {
+        if (posicao == atual.length) {
+            combinacoes.addToRear(atual.clone());
+            return;
+        }
+        for (int n = minimo; n < niveis.length; n++) {
+            atual[posicao] = niveis[n];
+            combinar(niveis, atual, posicao + 1, n, combinacoes);
+        }
+    }
+
+    /**
+     * Plays a number of games for every map and every roster with a random seed, and waits for all of them.
+     * @param plantel            the bot rosters to play
+     * @param dificuldade        global difficulty of the games, used to pick the riddles
+     * @param jogosPorCombinacao number of games for each map and roster
+     * @return the joined totals of every game
+     * @throws IllegalStateException if a game fails or the wait is interrupted
+     */
+    public TournamentStats executar(Dificuldade[][] plantel, Dificuldade dificuldade, int jogosPorCombinacao) {
+        return executar(plantel, dificuldade, jogosPorCombinacao, Aleatorio.novo().nextLong());
+    }
+
+    /**
+     * Plays a number of games for every map and every roster, and waits for all of them.
+     * Each task gets a generator split from the tournament seed before it is submitted, and draws
+     * the seed of each of its games from it, so the results do not depend on the executor.
+     * @param plantel            the bot rosters to play
+     * @param dificuldade        global difficulty of the games, used to pick the riddles
+     * @param jogosPorCombinacao number of games for each map and roster
+     * @param semente            seed of the tournament
+     * @return the joined totals of every game
+     * @throws IllegalStateException if a game fails or the wait is interrupted
+     */
+    public TournamentStats executar(Dificuldade[][] plantel, Dificuldade dificuldade, int jogosPorCombinacao, long semente) {
+        SplittableGenerator raiz = Aleatorio.comSemente(semente);
+        int tarefasPorCombinacao = (jogosPorCombinacao + JOGOS_POR_TAREFA - 1) / JOGOS_POR_TAREFA;
+        ArrayUnorderedList<Future<TournamentStats>> tarefas = new ArrayUnorderedList<>();
+
+        Iterator<String> itNomes = nomesMapas.iterator();
+        for (LabyrinthGraph<Divisao> mapa : mapas) {
+            String nome = itNomes.next();
+            for (Dificuldade[] bots : plantel) {
+                for (int t = 0; t < tarefasPorCombinacao; t++) {
+                    int jogos = Math.min(JOGOS_POR_TAREFA, jogosPorCombinacao - t * JOGOS_POR_TAREFA);
+                    RandomGenerator sementes = raiz.split();
+                    tarefas.addToRear(executor.submit(() -> jogarTarefa(nome, mapa, bots, dificuldade, jogos, sementes)));
+                }
+            }
+        }
+
+        TournamentStats total = new TournamentStats();
+        try {
+            for (Future<TournamentStats> tarefa : tarefas) {
+                total.juntar(tarefa.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Torneio interrompido", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Um jogo do torneio falhou", e.getCause());
+        }
+        return total;
+    }
+
+    /**
+     * Plays a group of games of one map and roster, each on a fresh session view of the map.
+     * @param nome        the map name
+     * @param mapa        the original map, only read
+     * @param bots        the roster
+     * @param dificuldade global difficulty of the games
+     * @param jogos       number of games to play
+     * @param sementes    generator of the seed of each game
+     * @return the totals of these games
+     */
+    private TournamentStats jogarTarefa(String nome, LabyrinthGraph<Divisao> mapa, Dificuldade[] bots,
+                                        Dificuldade dificuldade, int jogos, RandomGenerator sementes) {
+        TournamentStats parcial = new TournamentStats();
+        for (int j = 0; j < jogos; j++) {
+            GameReport report = runner.simular(mapa.sessao(), bots, dificuldade, sementes.nextLong());
+            if (report != null) parcial.registar(nome, bots, report);
+        }
+        return parcial;
+    }
+}
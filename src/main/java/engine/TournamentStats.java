@@ -0,0 +1,214 @@
+package engine;
+
+import java.util.Iterator;
+
+import Lists.ArrayUnorderedList;
+import enums.Dificuldade;
+import io.GameReport;
+
+/**
+ * Totals of a bot tournament, filled one game at a time.
+ * Each worker keeps its own instance and the runner joins them at the end,
+ * so no lock is taken per game.
+ */
+public class TournamentStats {
+
+    /**
+     * Counters of the bots that started in one entrance of one map.
+     */
+    private static class ContadorEntrada {
+        /** Map name followed by the entrance name. */
+        private String chave;
+        /** Number of bots that started in this entrance. */
+        private long participacoes;
+        /** Number of those bots that won. */
+        private long vitorias;
+
+        private ContadorEntrada(String chave) {
+            this.chave = chave;
+        }
+    }
+
+    /** Number of games played. */
+    private long jogos;
+
+    /** Number of games that hit the turn limit without a winner. */
+    private long semVencedor;
+
+    /** Sum of the turns of every game. */
+    private long somaTurnos;
+
+    /** Total riddles attempted. */
+    private long enigmasTentados;
+
+    /** Total riddles solved. */
+    private long enigmasResolvidos;
+
+    /** Total obstacles triggered. */
+    private long obstaculos;
+
+    /** Number of bots of each difficulty that played, indexed by ordinal. */
+    private long[] participacoesDificuldade = new long[Dificuldade.values().length];
+
+    /** Number of wins of each difficulty, indexed by ordinal. */
+    private long[] vitoriasDificuldade = new long[Dificuldade.values().length];
+
+    /** Counters per map entrance. */
+    private ArrayUnorderedList<ContadorEntrada> entradas = new ArrayUnorderedList<>();
+
+    /**
+     * Adds one game to the totals.
+     * @param mapa   name of the map the game was played on
+     * @param bots   difficulty of each bot, in the same order as the players of the report
+     * @param report the final report of the game
+     */
+    public void registar(String mapa, Dificuldade[] bots, GameReport report) {
+        jogos++;
+        somaTurnos += report.getDuracao();
+        enigmasTentados += report.getTotalEnigmasTentados();
+        enigmasResolvidos += report.getTotalEnigmasResolvidos();
+        obstaculos += report.getTotalObstaculos();
+        if (report.getVencedor() == null) semVencedor++;
+
+        Iterator<GameReport.PlayerReport> it = report.getListaJogadores().iterator();
+        int i = 0;
+        while (it.hasNext()) {
+            GameReport.PlayerReport pr = it.next();
+            int dif = bots[i++].ordinal();
+            participacoesDificuldade[dif]++;
+
+            ContadorEntrada entrada = contador(mapa + " / " + pr.getEntrada());
+            entrada.participacoes++;
+            if (pr.isVencedor()) {
+                vitoriasDificuldade[dif]++;
+                entrada.vitorias++;
+            }
+        }
+    }
+
+    /**
+     * Adds the totals of another instance to this one.
+     * @param outro the totals to add
+     */
+    public void juntar(TournamentStats outro) {
+        jogos += outro.jogos;
+        semVencedor += outro.semVencedor;
+        somaTurnos += outro.somaTurnos;
+        enigmasTentados += outro.enigmasTentados;
+        enigmasResolvidos += outro.enigmasResolvidos;
+        obstaculos += outro.obstaculos;
+        for (int d = 0; d < participacoesDificuldade.length; d++) {
+            participacoesDificuldade[d] += outro.participacoesDificuldade[d];
+            vitoriasDificuldade[d] += outro.vitoriasDificuldade[d];
+        }
+
+        Iterator<ContadorEntrada> it = outro.entradas.iterator();
+        while (it.hasNext()) {
+            ContadorEntrada c = it.next();
+            ContadorEntrada meu = contador(c.chave);
+            meu.participacoes += c.participacoes;
+            meu.vitorias += c.vitorias;
+        }
+    }
+
+    /**
+     * Returns the number of games played.
+     * @return the number of games
+     */
+    public long getJogos() { return jogos; }
+
+    /**
+     * Returns the number of games that ended without a winner.
+     * @return the number of games without a winner
+     */
+    public long getJogosSemVencedor() { return semVencedor; }
+
+    /**
+     * Returns the average number of turns per game.
+     * @return the average turn count, or 0 if no game was played
+     */
+    public double mediaTurnos() {
+        return jogos == 0 ? 0 : (double) somaTurnos / jogos;
+    }
+
+    /**
+     * Returns the average number of riddles attempted per game.
+     * @return riddles attempted per game
+     */
+    public double enigmasPorJogo() {
+        return jogos == 0 ? 0 : (double) enigmasTentados / jogos;
+    }
+
+    /**
+     * Returns the fraction of attempted riddles that were solved.
+     * @return the solve rate, from 0 to 1
+     */
+    public double taxaEnigmasResolvidos() {
+        return enigmasTentados == 0 ? 0 : (double) enigmasResolvidos / enigmasTentados;
+    }
+
+    /**
+     * Returns the average number of obstacles triggered per game.
+     * @return obstacles per game
+     */
+    public double obstaculosPorJogo() {
+        return jogos == 0 ? 0 : (double) obstaculos / jogos;
+    }
+
+    /**
+     * Returns the fraction of bots of a difficulty that won their game.
+     * @param dificuldade the bot difficulty
+     * @return the win rate, from 0 to 1
+     */
+    public double taxaVitoria(Dificuldade dificuldade) {
+        long n = participacoesDificuldade[dificuldade.ordinal()];
+        return n == 0 ? 0 : (double) vitoriasDificuldade[dificuldade.ordinal()] / n;
+    }
+
+    /**
+     * Returns a text table with the win rate of every map entrance.
+     * @return one line per entrance
+     */
+    public String resumoEntradas() {
+        StringBuilder sb = new StringBuilder();
+        Iterator<ContadorEntrada> it = entradas.iterator();
+        while (it.hasNext()) {
+            ContadorEntrada c = it.next();
+            sb.append(String.format("%-40s %8d bots  %5.1f%% vitórias%n",
+                    c.chave, c.participacoes, 100.0 * c.vitorias / c.participacoes));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the win rate of the bots that started in an entrance.
+     * @param mapa    the map name
+     * @param entrada the entrance name
+     * @return the win rate, from 0 to 1, or 0 if no bot started there
+     */
+    public double taxaVitoriaEntrada(String mapa, String entrada) {
+        String chave = mapa + " / " + entrada;
+        Iterator<ContadorEntrada> it = entradas.iterator();
+        while (it.hasNext()) {
+            ContadorEntrada c = it.next();
+            if (c.chave.equals(chave)) return (double) c.vitorias / c.participacoes;
+        }
+        return 0;
+    }
+
+    /**
+     * Finds the counter of an entrance, creating it the first time.
+     * @param chave map and entrance name
+     * @return the counter
+     */
+    private ContadorEntrada contador(String chave) {
+        Iterator<ContadorEntrada> it = entradas.iterator();
+        while (it.hasNext()) {
+            ContadorEntrada c = it.next();
+            if (c.chave.equals(chave)) return c;
+        }
+        ContadorEntrada novo = new ContadorEntrada(chave);
+        entradas.addToRear(novo);
+        return novo;
+    }
+}
@@ -0,0 +1,317 @@
+package engine;
+
+import java.util.Arrays;
+
+import game.Enigma;
+
+/**
+ * Append-only log of every decision taken during a game: dice values, chosen destinations,
+ * riddle outcomes, lever picks, random events, swap targets and trap relocations.
+ * Each record is packed in a single long (8-bit type, 16-bit player, two 20-bit values), so a long
+ * game costs a few bytes per decision. Together with the keyframes taken every {@link #getIntervaloKeyframes()}
+ * turns, it lets a {@link GameReplay} rebuild the state of any turn without asking anyone again.
+ * Every random outcome is in the log, so the replay does not need the game's seed.
+ */
+public class TurnLog {
+
+    /** Start of a turn; a = index of the player in the turn order list. */
+    public static final int TURNO = 1;
+    /** Dice roll; a = value. */
+    public static final int DADO = 2;
+    /** Destination chosen; a = room index, or -1 if the player stopped. */
+    public static final int DESTINO = 3;
+    /** Room entered after a successful move; a = room index. */
+    public static final int MOVER = 4;
+    /** Riddle answered; a = riddle number in the game's list (-1 if none was available), b = 1 if solved. */
+    public static final int ENIGMA = 5;
+    /** Lever pulled; a = lever chosen, b = ordinal of the {@link enums.AlavancaEnum} result. */
+    public static final int ALAVANCA = 6;
+    /** Random event; a = ordinal of the {@link enums.TipoEvento}, b = intensity. */
+    public static final int EVENTO = 7;
+    /** Target of a position swap; a = player index, or -1 if the swap was cancelled. */
+    public static final int TROCA = 8;
+    /** Trap moved after being triggered; a and b = rooms of the new corridor, or -1 if it found no place. */
+    public static final int ARMADILHA = 9;
+
+    /** Default number of turns between keyframes. */
+    public static final int INTERVALO_KEYFRAMES = 1024;
+
+    /** Largest player index a record can hold. */
+    public static final int MAX_JOGADOR = 0xFFFF;
+
+    /** Largest value a record can hold; -1 is stored as the all-ones pattern, so it is one below the mask. */
+    public static final int MAX_VALOR = 0xFFFFE;
+
+    /** Mask of the 16-bit player field. */
+    private static final long MASCARA_JOGADOR = 0xFFFFL;
+
+    /** Mask of the 20-bit value fields. */
+    private static final long MASCARA_VALOR = 0xFFFFFL;
+
+    /** Names of the players, in turn order at the start of the game. */
+    private final String[] jogadores;
+
+    /** Riddles of the game, in their initial order; riddle records point into this array. */
+    private final Enigma[] enigmas;
+
+    /** Number of turns between keyframes. */
+    private final int intervaloKeyframes;
+
+    /** Packed records. */
+    private long[] registos = new long[256];
+
+    /** Number of records in use. */
+    private int numRegistos;
+
+    /** Keyframes, in increasing turn order. */
+    private GameState[] keyframes = new GameState[8];
+
+    /** Number of keyframes in use. */
+    private int numKeyframes;
+
+    /**
+     * Rooms of the players' paths saved by the keyframes. A path is a list of segments of this
+     * array, and the part a path shares with the previous keyframe of the same player is not copied again.
+     */
+    private int[] salasCaminhos = new int[256];
+
+    /** Number of path rooms in use. */
+    private int numSalasCaminhos;
+
+    /**
+     * Creates an empty log.
+     * @param jogadores          names of the players, in turn order
+     * @param enigmas            riddles of the game, in their initial order
+     * @param intervaloKeyframes number of turns between keyframes
+     */
+    public TurnLog(String[] jogadores, Enigma[] enigmas, int intervaloKeyframes) {
+        if (intervaloKeyframes < 1) throw new IllegalArgumentException("Intervalo de keyframes inválido: " + intervaloKeyframes);
+        this.jogadores = jogadores.clone();
+        this.enigmas = enigmas.clone();
+        this.intervaloKeyframes = intervaloKeyframes;
+    }
+
+    /**
+     * Creates a log that continues the records of a saved game; it has no keyframes.
+     * @param jogadores          names of the players, in turn order
+     * @param enigmas            riddles of the game, in their initial order
+     * @param intervaloKeyframes number of turns between keyframes
+     * @param registos           the packed records, as returned by {@link #registo(int)}
+     */
+    TurnLog(String[] jogadores, Enigma[] enigmas, int intervaloKeyframes, long[] registos) {
+        this(jogadores, enigmas, intervaloKeyframes);
+        this.registos = Arrays.copyOf(registos, Math.max(registos.length, 256));
+        this.numRegistos = registos.length;
+    }
+
+    /**
+     * Appends a record with one value.
+     * @param tipo    record type
+     * @param jogador player index
+     * @param a       value
+     */
+    public void adicionar(int tipo, int jogador, int a) {
+        adicionar(tipo, jogador, a, 0);
+    }
+
+    /**
+     * Appends a record with two values.
+     * @param tipo    record type
+     * @param jogador player index, from 0 to {@link #MAX_JOGADOR}
+     * @param a       first value, from -1 to {@link #MAX_VALOR}
+     * @param b       second value, from -1 to {@link #MAX_VALOR}
+     * @throws IllegalArgumentException if the player or a value does not fit in its field
+     */
+    public void adicionar(int tipo, int jogador, int a, int b) {
+        if (jogador < 0 || jogador > MAX_JOGADOR) throw new IllegalArgumentException("Jogador fora do registo: " + jogador);
+        if (a < -1 || a > MAX_VALOR || b < -1 || b > MAX_VALOR) {
+            throw new IllegalArgumentException("Valor fora do registo: " + a + ", " + b);
+        }
+        if (numRegistos == registos.length) {
+            registos = Arrays.copyOf(registos, registos.length * 2);
+        }
+        registos[numRegistos++] = ((long) tipo << 56) | ((long) jogador << 40)
+                | ((a & MASCARA_VALOR) << 20) | (b & MASCARA_VALOR);
+    }
+
+    /**
+     * Stores a keyframe; keyframes must be added in increasing turn order.
+     * @param estado the state at the start of a turn
+     */
+    void adicionarKeyframe(GameState estado) {
+        if (numKeyframes == keyframes.length) {
+            keyframes = Arrays.copyOf(keyframes, keyframes.length * 2);
+        }
+        keyframes[numKeyframes++] = estado;
+    }
+
+    /**
+     * Returns the first keyframe of the log: the start of the game, or the moment a saved game was restored.
+     * @return the keyframe, or null if there is none
+     */
+    GameState primeiroKeyframe() {
+        return numKeyframes == 0 ? null : keyframes[0];
+    }
+
+    /**
+     * Returns the latest keyframe taken at or before a turn.
+     * @param turno the turn
+     * @return the keyframe, or null if there is none
+     */
+    GameState keyframeAte(int turno) {
+        int lo = 0;
+        int hi = numKeyframes - 1;
+        GameState melhor = null;
+        while (lo <= hi) {
+            int meio = (lo + hi) >>> 1;
+            if (keyframes[meio].getTurno() <= turno) {
+                melhor = keyframes[meio];
+                lo = meio + 1;
+            } else {
+                hi = meio - 1;
+            }
+        }
+        return melhor;
+    }
+
+    /**
+     * Returns the number of records.
+     * @return the log size
+     */
+    public int size() { return numRegistos; }
+
+    /**
+     * Returns the number of keyframes.
+     * @return the keyframe count
+     */
+    public int getNumKeyframes() { return numKeyframes; }
+
+    /**
+     * Returns the number of turns between keyframes.
+     * @return the keyframe interval
+     */
+    public int getIntervaloKeyframes() { return intervaloKeyframes; }
+
+    /**
+     * Returns a riddle of the game.
+     * @param indice the riddle number stored in a riddle record
+     * @return the riddle
+     */
+    public Enigma getEnigma(int indice) { return enigmas[indice]; }
+
+    /**
+     * Returns the number of riddles of the game.
+     * @return the riddle count
+     */
+    public int getNumEnigmas() { return enigmas.length; }
+
+    /**
+     * Returns the names of the players, in turn order at the start of the game.
+     * @return a copy of the names
+     */
+    public String[] getJogadores() { return jogadores.clone(); }
+
+    /**
+     * Returns a record in its packed form.
+     * @param i the record position
+     * @return the packed record
+     */
+    public long registo(int i) { return registos[i]; }
+
+    /**
+     * Returns all the records in their packed form.
+     * @return a copy of the records
+     */
+    public long[] registos() { return Arrays.copyOf(registos, numRegistos); }
+
+    /**
+     * Returns the type of a record.
+     * @param i the record position
+     * @return the record type
+     */
+    public int tipo(int i) { return (int) (registos[i] >>> 56); }
+
+    /**
+     * Returns the player of a record.
+     * @param i the record position
+     * @return the player index
+     */
+    public int jogador(int i) { return (int) ((registos[i] >>> 40) & MASCARA_JOGADOR); }
+
+    /**
+     * Returns the first value of a record.
+     * @param i the record position
+     * @return the value, -1 included
+     */
+    public int valorA(int i) { return valor(registos[i] >>> 20); }
+
+    /**
+     * Returns the second value of a record.
+     * @param i the record position
+     * @return the value, -1 included
+     */
+    public int valorB(int i) { return valor(registos[i]); }
+
+    /**
+     * Saves a player's path for a keyframe, reusing the bottom part it shares with the previous path.
+     * @param anterior segments of the previous path of the player, or null
+     * @param comum    number of rooms at the bottom of the path that are the same as in the previous one
+     * @param caminho  the full path, as room indexes from the bottom of the stack
+     * @return the segments of the path, as (start, length) pairs
+     */
+    int[] guardarCaminho(int[] anterior, int comum, int[] caminho) {
+        int[] segmentos = new int[(anterior == null ? 0 : anterior.length) + 2];
+        int n = 0;
+        int restantes = comum;
+        for (int s = 0; anterior != null && s < anterior.length && restantes > 0; s += 2) {
+            int tamanho = Math.min(anterior[s + 1], restantes);
+            segmentos[n++] = anterior[s];
+            segmentos[n++] = tamanho;
+            restantes -= tamanho;
+        }
+
+        int novas = caminho.length - comum;
+        if (novas > 0) {
+            if (numSalasCaminhos + novas > salasCaminhos.length) {
+                salasCaminhos = Arrays.copyOf(salasCaminhos, Math.max(salasCaminhos.length * 2, numSalasCaminhos + novas));
+            }
+            System.arraycopy(caminho, comum, salasCaminhos, numSalasCaminhos, novas);
+            if (n > 0 && segmentos[n - 2] + segmentos[n - 1] == numSalasCaminhos) {
+                segmentos[n - 1] += novas;
+            } else {
+                segmentos[n++] = numSalasCaminhos;
+                segmentos[n++] = novas;
+            }
+            numSalasCaminhos += novas;
+        }
+        return Arrays.copyOf(segmentos, n);
+    }
+
+    /**
+     * Rebuilds a path saved by {@link #guardarCaminho}.
+     * @param segmentos the segments of the path
+     * @return the room indexes, from the bottom of the stack
+     */
+    int[] lerCaminho(int[] segmentos) {
+        int total = 0;
+        for (int s = 1; s < segmentos.length; s += 2) total += segmentos[s];
+
+        int[] caminho = new int[total];
+        int pos = 0;
+        for (int s = 0; s < segmentos.length; s += 2) {
+            System.arraycopy(salasCaminhos, segmentos[s], caminho, pos, segmentos[s + 1]);
+            pos += segmentos[s + 1];
+        }
+        return caminho;
+    }
+
+    /**
+     * Unpacks a 20-bit value, mapping the all-ones pattern back to -1.
+     * @param bits the bits holding the value in the low 20 positions
+     * @return the value
+     */
+    private static int valor(long bits) {
+        int v = (int) (bits & MASCARA_VALOR);
+        return v == MASCARA_VALOR ? -1 : v;
+    }
+}
@@ -1,59 +1,106 @@
 package engine;
 
+import Exceptions.EmptyCollectionException;
 import Queue.LinkedQueue;
 import game.Bot;
 import game.Player;
+import structures.FilaPrioridadeLongs;
 import ui.GameView;
 /**
  * Manages the turn order of the game.
+ * <p>
+ * Every player goes back to the end of the queue after playing or after losing a turn to a block,
+ * so the order of the queue never changes: it is a fixed ring that the game walks around, one
+ * visit at a time. Visits are numbered from the moment the order was set, and the player at
+ * position r of the ring is visited at every visit number v with v % n == r. A blocked player
+ * skips one visit per blocked turn, so the visit where it plays again is known as soon as its
+ * blocked turns are. The manager keeps one visit number per waiting player in a min-heap and
+ * jumps straight to the next one that plays: choosing the next player costs O(log n) however many
+ * players are blocked and for how long.
+ * <p>
+ * Blocked turns are consumed lazily. A player's counter is only brought up to date when it plays
+ * again or when {@link #sincronizarBloqueios()} is called; until then it holds the blocked turns
+ * it had at visit {@link #desde}. Blocking a waiting player only increases its counter, which
+ * moves its wake-up visit later, so a heap entry is never later than the player's real visit:
+ * when an entry comes up and the player is still blocked, the entry is put back at its real visit
+ * and the view is told of each turn the player loses until then, without going back to the heap.
  */
 public class TurnManager {
-    /** Queue that stores the players in turn order. */
-    private LinkedQueue<Player> fila;
+    /** Players in turn order, as they were when the order was set. */
+    private Player[] anel;
+
+    /** For each position of the ring, the visit its player's blocked counter is counted from. */
+    private long[] desde;
+
+    /** Next visit of each waiting player, never later than the visit where it plays. */
+    private final FilaPrioridadeLongs agenda;
+
+    /** Number of the next visit; every visit before it has been played or skipped. */
+    private long visita;
+
+    /** Ring position of the player whose turn it is, or -1 between turns. */
+    private int atual;
 
     /** View used to show messages and ask for input. */
     private GameView view;
 
     /**
      * Creates a TurnManager with the given queue and view.
-     * @param fila queue that holds all players participating in the game
+     * @param fila queue that holds all players participating in the game; it is left unchanged
      * @param view UI component used for feedback and pauses between turns
      */
     public TurnManager(LinkedQueue<Player> fila, GameView view) {
-        this.fila = fila;
         this.view = view;
+        this.agenda = new FilaPrioridadeLongs(fila.size());
+        Player[] ordem = new Player[fila.size()];
+        try {
+            for (int i = 0; i < ordem.length; i++) {
+                ordem[i] = fila.dequeue();
+                fila.enqueue(ordem[i]);
+            }
+        } catch (EmptyCollectionException e) {
+            // o tamanho foi lido antes, a fila não fica vazia a meio
+        }
+        restaurarOrdem(ordem);
     }
 
     /**
-     * Returns the next player allowed to play.
+     * Returns the next player allowed to play. Blocked players met on the way are passed over and
+     * told once for each turn they lose, with the blocked turns left, all at the first of those turns.
      * @return the next Player that can act this turn
      */
     public Player proximoJogador() {
-        if (fila.isEmpty()) return null;
+        int n = anel.length;
+        while (!agenda.isEmpty()) {
+            long v = agenda.removerMinimo();
+            int r = (int) (v % n);
+            Player p = anel[r];
+            long acordar = proximaVisita(r, desde[r]) + (long) p.getTurnosBloqueado() * n;
+            visita = v + 1;
 
-        Player p = null;
-        try {
-            p = fila.dequeue();
-
-            while (p.isBloqueado()) {
-                view.mostrarBloqueado(p.getNome(), p.getTurnosBloqueado());
-                p.consumirUmTurnoBloqueado();
-                fila.enqueue(p);
+            if (acordar <= v) {
+                p.consumirTurnosBloqueados(p.getTurnosBloqueado());
+                atual = r;
+                return p;
+            }
+            agenda.inserir(acordar);
+            // um aviso e uma pausa por turno perdido, como quando a fila os consumia um a um
+            for (int restantes = (int) ((acordar - v) / n); restantes > 0; restantes--) {
+                view.mostrarBloqueado(p.getNome(), restantes);
                 pausa(p);
-                if (fila.isEmpty()) return null;
-                p = fila.dequeue();
             }
-        } catch (Exception e) {
-            return null;
         }
-        return p;
+        return null;
     }
     /**
      * Should be called at the end of a player's turn.
      * @param p the player whose turn has just finished
      */
     public void fimDoTurno(Player p) {
-        fila.enqueue(p);
+        int r = atual >= 0 && anel[atual] == p ? atual : posicao(p);
+        desde[r] = visita;
+        agenda.inserir(proximaVisita(r, visita));
+        atual = -1;
         pausa(p);
     }
     /**
@@ -61,7 +108,66 @@ public class TurnManager {
      * @return true if there is at least one player waiting,
      */
     public boolean temJogadores() {
-        return !fila.isEmpty();
+        return !agenda.isEmpty();
+    }
+    /**
+     * Brings the blocked counter of every waiting player up to date, consuming the turns they have
+     * been passed over since it was last counted. Call it before reading those counters.
+     */
+    public void sincronizarBloqueios() {
+        int n = anel.length;
+        for (int r = 0; r < n; r++) {
+            if (r == atual) continue;
+            long primeira = proximaVisita(r, desde[r]);
+            if (primeira < visita) {
+                long passadas = (visita - 1 - primeira) / n + 1;
+                anel[r].consumirTurnosBloqueados((int) Math.min(passadas, anel[r].getTurnosBloqueado()));
+            }
+            desde[r] = visita;
+        }
+    }
+    /**
+     * Returns the players in the queue, from the next one to play; the queue is left unchanged.
+     * @return the players in turn order
+     */
+    public Player[] ordem() {
+        int n = anel.length;
+        Player[] ordem = new Player[atual >= 0 ? n - 1 : n];
+        int i = 0;
+        for (int k = 0; k < n; k++) {
+            int r = (int) ((visita + k) % n);
+            if (r != atual) ordem[i++] = anel[r];
+        }
+        return ordem;
+    }
+    /**
+     * Replaces the queue with the given players, the first one playing next.
+     * @param ordem the players in turn order
+     */
+    public void restaurarOrdem(Player[] ordem) {
+        anel = ordem.clone();
+        desde = new long[anel.length];
+        visita = 0;
+        atual = -1;
+        agenda.clear();
+        for (int r = 0; r < anel.length; r++) {
+            agenda.inserir(r);
+        }
+    }
+    /**
+     * Returns the first visit, from the given one on, of the player at a position of the ring.
+     */
+    private long proximaVisita(int r, long aPartirDe) {
+        return aPartirDe + Math.floorMod(r - aPartirDe, (long) anel.length);
+    }
+    /**
+     * Finds the ring position of a player.
+     */
+    private int posicao(Player p) {
+        for (int r = 0; r < anel.length; r++) {
+            if (anel[r] == p) return r;
+        }
+        throw new IllegalArgumentException("Jogador fora da ordem de turnos: " + p.getNome());
     }
     /**
      * Method to add a short pause between turns.
@@ -69,9 +175,9 @@ public class TurnManager {
      */
     private void pausa(Player p) {
         if (p instanceof Bot) {
-            try { Thread.sleep(1000); } catch (Exception e) {}
+            view.pausaBot();
         } else {
             view.esperarEnter();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,9 @@
+package enums;
+/**
+ * Represents the kinds of effect a riddle or a corridor can have on a player.
+ */
+public enum TipoEfeito {
+    JOGADA_EXTRA,
+    RECUAR,
+    BLOQUEAR
+}
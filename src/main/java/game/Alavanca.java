@@ -1,5 +1,7 @@
 package game;
 
+import java.util.random.RandomGenerator;
+
 import enums.AlavancaEnum;
 /**
  * Represents a lever puzzle with a fixed number of levers, each associated
@@ -9,7 +11,7 @@ public class Alavanca {
     /**
      * Total number of levers in this puzzle.
      */
-    private static final int NUM_ALAVANCAS = 3;
+    public static final int NUM_ALAVANCAS = 3;
 
     /**
      * Array of lever effects.
@@ -22,6 +24,14 @@ public class Alavanca {
      * The effects are then shuffled so that the mapping between lever number and effect is random for each new instance.
      */
     public Alavanca() {
+        this(Aleatorio.novo());
+    }
+
+    /**
+     * Creates a new lever puzzle whose effects are shuffled with the given generator.
+     * @param aleatorio the random generator of the game session
+     */
+    public Alavanca(RandomGenerator aleatorio) {
 
         efeitos = new AlavancaEnum[NUM_ALAVANCAS];
 
@@ -30,14 +40,22 @@ public class Alavanca {
         efeitos[2] = AlavancaEnum.NADA;
 
         // Shuffle positions
-        baralhar();
+        baralhar(aleatorio);
+    }
+    /**
+     * Creates a lever puzzle with a known order of effects, for example when a saved game is restored.
+     * @param efeitos the effect of each lever, in lever order
+     */
+    public Alavanca(AlavancaEnum[] efeitos) {
+        this.efeitos = efeitos.clone();
     }
     /**
      * Randomly shuffles the internal array of lever effects.
+     * @param aleatorio the random generator to draw from
      */
-    private void baralhar() {
+    private void baralhar(RandomGenerator aleatorio) {
         for (int i = 0; i < efeitos.length; i++) {
-            int j = (int)(Math.random() * efeitos.length);
+            int j = aleatorio.nextInt(efeitos.length);
             AlavancaEnum tmp = efeitos[i];
             efeitos[i] = efeitos[j];
             efeitos[j] = tmp;
@@ -56,5 +74,11 @@ public class Alavanca {
             return efeitos[escolha - 1];
         }
 
-
+    /**
+     * Returns the effect of each lever, in lever order.
+     * @return a copy of the lever effects
+     */
+    public AlavancaEnum[] getEfeitos() {
+        return efeitos.clone();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package game;
+
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Creates the random number generators used by the game.
+ * Each game session owns one generator and passes it to everything that draws random values
+ * (map generation, dice, riddles, levers, events, traps), so parallel games do not share a source
+ * and a game started from the same seed and choices plays out exactly the same way.
+ */
+public final class Aleatorio {
+
+    /**
+     * Algorithm of every generator: small, fast and splittable.
+     */
+    public static final String ALGORITMO = "L64X128MixRandom";
+
+    /**
+     * Factory of the chosen algorithm, looked up once.
+     */
+    private static final RandomGeneratorFactory<SplittableGenerator> FABRICA = RandomGeneratorFactory.of(ALGORITMO);
+
+    private Aleatorio() {
+    }
+
+    /**
+     * Creates a generator with an unpredictable seed.
+     * @return a new generator
+     */
+    public static SplittableGenerator novo() {
+        return FABRICA.create();
+    }
+
+    /**
+     * Creates a generator from a seed; the same seed always gives the same sequence.
+     * @param semente the seed
+     * @return a new generator
+     */
+    public static SplittableGenerator comSemente(long semente) {
+        return FABRICA.create(semente);
+    }
+
+    /**
+     * Creates a generator from a seed that counts its draws, so that a saved game can resume it.
+     * It gives the same values as {@link #comSemente(long)} with the same seed.
+     * @param semente the seed
+     * @return a new generator
+     */
+    public static GeradorContado contado(long semente) {
+        return new GeradorContado(semente);
+    }
+}
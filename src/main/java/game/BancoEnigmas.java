@@ -0,0 +1,91 @@
+package game;
+
+import Lists.ArrayUnorderedList;
+import enums.Dificuldade;
+import structures.MapaIndices;
+
+/**
+ * Read-only bank of loaded riddles, already split by difficulty.
+ * The split is done once when the bank is built, and the bank is never changed afterwards, so one
+ * bank can be shared by every game of a server or a tournament, each of them taking its own
+ * {@link BaralhoEnigmas deck} of the difficulty it is played at.
+ */
+public final class BancoEnigmas {
+
+    /**
+     * The riddles of each difficulty, by ordinal, in the order they were loaded.
+     */
+    private final Enigma[][] porDificuldade;
+
+    /**
+     * Position of each riddle among the riddles of its difficulty, so that a saved game can
+     * refer to its riddles by position.
+     */
+    private final MapaIndices<Enigma> posicoes;
+
+    /**
+     * Creates a bank with the given riddles; riddles without a difficulty are left out.
+     * @param enigmas the loaded riddles, may be null for an empty bank
+     */
+    public BancoEnigmas(ArrayUnorderedList<Enigma> enigmas) {
+        Dificuldade[] dificuldades = Dificuldade.values();
+        int[] contagem = new int[dificuldades.length];
+        if (enigmas != null) {
+            for (Enigma e : enigmas) {
+                if (e.getDificuldade() != null) contagem[e.getDificuldade().ordinal()]++;
+            }
+        }
+        porDificuldade = new Enigma[dificuldades.length][];
+        for (int d = 0; d < dificuldades.length; d++) {
+            porDificuldade[d] = new Enigma[contagem[d]];
+            contagem[d] = 0;
+        }
+        posicoes = new MapaIndices<>(enigmas == null ? 0 : enigmas.size());
+        if (enigmas != null) {
+            for (Enigma e : enigmas) {
+                if (e.getDificuldade() == null) continue;
+                int d = e.getDificuldade().ordinal();
+                posicoes.putIfAbsent(e, contagem[d]);
+                porDificuldade[d][contagem[d]++] = e;
+            }
+        }
+    }
+
+    /**
+     * Returns how many riddles of a difficulty the bank holds.
+     * @param dificuldade the difficulty, may be null
+     * @return the number of riddles of that difficulty
+     */
+    public int contar(Dificuldade dificuldade) {
+        return dificuldade == null ? 0 : porDificuldade[dificuldade.ordinal()].length;
+    }
+
+    /**
+     * Returns the position of a riddle among the riddles of its difficulty.
+     * @param enigma the riddle
+     * @return the position, or {@link MapaIndices#NAO_ENCONTRADO} if the riddle is not in the bank
+     */
+    public int posicao(Enigma enigma) {
+        return posicoes.get(enigma);
+    }
+
+    /**
+     * Returns the riddle at a position among the riddles of a difficulty.
+     * @param dificuldade the difficulty
+     * @param posicao     the position, as given by {@link #posicao(Enigma)}
+     * @return the riddle
+     * @throws IndexOutOfBoundsException if there is no riddle at that position
+     */
+    public Enigma get(Dificuldade dificuldade, int posicao) {
+        return porDificuldade[dificuldade.ordinal()][posicao];
+    }
+
+    /**
+     * Creates a deck with the riddles of a difficulty, drawn in the order they were loaded.
+     * @param dificuldade the difficulty, may be null for an empty deck
+     * @return a new deck, owned by the caller
+     */
+    public BaralhoEnigmas novoBaralho(Dificuldade dificuldade) {
+        return new BaralhoEnigmas(dificuldade == null ? new Enigma[0] : porDificuldade[dificuldade.ordinal()]);
+    }
+}
@@ -0,0 +1,119 @@
+package game;
+
+import java.util.random.RandomGenerator;
+
+import Exceptions.EmptyCollectionException;
+
+/**
+ * Deck of the riddles of one game, kept in a single array split in two: the riddles already drawn,
+ * in the order they were drawn, followed by the ones still to draw, in the order they will be drawn.
+ * Drawing only moves the split, and once every riddle has been drawn the whole array is shuffled
+ * in place to start over, so neither operation allocates or shifts the other riddles.
+ */
+public class BaralhoEnigmas {
+
+    /**
+     * The riddles; the first {@link #tirados} were already drawn.
+     */
+    private final Enigma[] cartas;
+
+    /**
+     * Number of riddles drawn since the deck was created or last shuffled.
+     */
+    private int tirados;
+
+    /**
+     * Creates a deck that draws the riddles in the given order.
+     * @param enigmas the riddles; the array is copied
+     */
+    public BaralhoEnigmas(Enigma[] enigmas) {
+        this(enigmas, 0);
+    }
+
+    /**
+     * Creates a deck where some riddles were already drawn, as a saved game left it.
+     * @param enigmas  the riddles drawn, in the order they were drawn, followed by the ones still
+     *                 to draw, in the order they will be drawn; the array is copied
+     * @param tirados  how many riddles at the start of the array were already drawn
+     * @throws IllegalArgumentException if that number is outside the array
+     */
+    public BaralhoEnigmas(Enigma[] enigmas, int tirados) {
+        if (tirados < 0 || tirados > enigmas.length) {
+            throw new IllegalArgumentException("Enigmas tirados inválidos: " + tirados);
+        }
+        this.cartas = enigmas.clone();
+        this.tirados = tirados;
+    }
+
+    /**
+     * Draws the next riddle.
+     * @return the riddle
+     * @throws EmptyCollectionException if every riddle was already drawn
+     */
+    public Enigma tirar() {
+        if (esgotado()) {
+            throw new EmptyCollectionException("Baralho de enigmas esgotado");
+        }
+        return cartas[tirados++];
+    }
+
+    /**
+     * Checks whether every riddle was already drawn; an empty deck is always exhausted.
+     * @return true if there is no riddle left to draw
+     */
+    public boolean esgotado() {
+        return tirados == cartas.length;
+    }
+
+    /**
+     * Puts every riddle back in the deck in a random order (Fisher–Yates).
+     * @param aleatorio the random generator of the game session
+     */
+    public void baralhar(RandomGenerator aleatorio) {
+        for (int i = cartas.length - 1; i > 0; i--) {
+            int j = aleatorio.nextInt(i + 1);
+            Enigma e = cartas[i];
+            cartas[i] = cartas[j];
+            cartas[j] = e;
+        }
+        tirados = 0;
+    }
+
+    /**
+     * Returns a riddle of the deck: the ones already drawn come first, in the order they were
+     * drawn, and then the ones still to draw, in the order they will be drawn.
+     * @param i the position, from 0 to {@link #size()} - 1
+     * @return the riddle
+     * @throws IndexOutOfBoundsException if the position is outside the deck
+     */
+    public Enigma get(int i) {
+        if (i < 0 || i >= cartas.length) {
+            throw new IndexOutOfBoundsException("Posição " + i + " fora do baralho de tamanho " + cartas.length);
+        }
+        return cartas[i];
+    }
+
+    /**
+     * Returns how many riddles were drawn since the deck was created or last shuffled.
+     * @return the number of riddles drawn
+     */
+    public int getNumTirados() {
+        return tirados;
+    }
+
+    /**
+     * Returns the number of riddles in the deck, drawn or not.
+     * @return the riddle count
+     */
+    public int size() {
+        return cartas.length;
+    }
+
+    /**
+     * Checks whether the deck has no riddles at all.
+     * @return true if the deck is empty
+     */
+    public boolean isEmpty() {
+        return cartas.length == 0;
+    }
+}
@@ -1,13 +1,16 @@
 package game;
 
 import java.util.Iterator;
+import java.util.random.RandomGenerator;
 
 import Lists.ArrayUnorderedList;
-import Queue.LinkedQueue;
 import enums.CorredorEvento;
 import enums.Dificuldade;
 import enums.TipoDivisao;
+import graph.FrozenLabyrinth;
+import graph.KeyStateDistanceTable;
 import graph.LabyrinthGraph;
+import structures.FilaInteiros;
 import ui.GameView;
 /**
  * Represents an AI-controlled player (bot) in the labyrinth game.
@@ -32,6 +35,47 @@ public class Bot extends Player {
      */
     private ArrayUnorderedList<MemoriaAlavanca> memoriasAlavancas = new ArrayUnorderedList<>();
 
+    /**
+     * Queue of room indexes reused by every search.
+     */
+    private FilaInteiros fila = new FilaInteiros();
+
+    /**
+     * Bitset of rooms already reached by the current search, one bit per room index.
+     */
+    private long[] visitados = new long[0];
+
+    /**
+     * Index of the room each reached room was discovered from, for the current search.
+     */
+    private int[] pais = new int[0];
+
+    /**
+     * Rooms of the last way found to a lever room, from the room the search started in to the
+     * lever room, so that the following steps of the way do not search again.
+     */
+    private int[] caminhoAlavanca = new int[0];
+
+    /**
+     * Number of rooms in {@link #caminhoAlavanca}; 0 when there is no way to follow.
+     */
+    private int tamanhoCaminho;
+
+    /**
+     * Position in {@link #caminhoAlavanca} of the room the bot should be in.
+     */
+    private int posicaoCaminho;
+
+    /**
+     * Keys the bot held when the way was found; a new key may make another lever the nearest useful one.
+     */
+    private ConjuntoChaves chavesCaminho;
+
+    /**
+     * Frozen view the way was found in; a new view means the topology changed.
+     */
+    private FrozenLabyrinth<Divisao> vistaCaminho;
+
 
     /**
      * Creates a new Bot with a given name, starting room, difficulty, and known map.
@@ -42,130 +86,238 @@ public class Bot extends Player {
      * @param mapa         the labyrinth graph known by the bot
      */
     public Bot(String nome, Divisao inicio, Dificuldade inteligencia, LabyrinthGraph<Divisao> mapa) {
-        super(nome, inicio);
+        this(nome, inicio, inteligencia, mapa, Aleatorio.novo());
+    }
+
+    /**
+     * Creates a new Bot that draws its random choices from the generator of a game session.
+     *
+     * @param nome         the bot's name
+     * @param inicio       the starting division (room) of the bot
+     * @param inteligencia the bot's intelligence/difficulty level
+     * @param mapa         the labyrinth graph known by the bot
+     * @param aleatorio    the random generator of the game session
+     */
+    public Bot(String nome, Divisao inicio, Dificuldade inteligencia, LabyrinthGraph<Divisao> mapa, RandomGenerator aleatorio) {
+        super(nome, inicio, aleatorio, mapa);
         this.inteligencia = inteligencia;
         this.mapaConhecido = mapa;
     }
     /**
-     * Decides the next move of the bot according to a priority strategy:
+     * Decides the next move of the bot. The step towards the treasure comes from one planner,
+     * chosen by the size of the map: the key-state distance table when the map has one (at most
+     * {@link KeyStateDistanceTable#MAX_CHAVES} locks), which also plans the detours through lever
+     * rooms; otherwise the shared distance field for the keys the bot already holds. When the
+     * treasure is out of reach, the bot heads for the nearest lever that opens a lock it still
+     * cannot pass, and failing that it moves to a random neighbour.
      * @return the next Divisao the bot wants to move to
      */
     public Divisao escolherMovimento() {
+        KeyStateDistanceTable tabela = mapaConhecido.distanciasPorChaves();
+        Divisao passo = tabela != null ? passoPelaTabela(tabela) : passoPeloCampo();
 
-        Divisao passoParaTesouro = executarBFS(TipoDivisao.SALA_CENTRAL, false);
+        if (passo == null) {
+            passo = procurarAlavanca();
+        }
 
-        if (passoParaTesouro != null) {
-            return passoParaTesouro;
+        if (passo != null) {
+            return passo;
         }
 
-        Divisao passoParaAlavanca = executarBFS(TipoDivisao.SALA_ALAVANCA, true);
+        return movimentoAleatorio();
+    }
+
+    /**
+     * Looks up the next step in the key-state distance table of the known map.
+     * @param tabela the distance table of the known map
+     * @return the neighbour on the shortest way to the treasure for the keys the bot holds,
+     *         or null if the treasure cannot be reached
+     */
+    private Divisao passoPelaTabela(KeyStateDistanceTable tabela) {
+        int atual = mapaConhecido.getIndex(getLocalAtual());
+        if (atual < 0) return null;
 
-        if (passoParaAlavanca != null) {
-            return passoParaAlavanca;
+        int mascara = 0;
+        for (int bit = 0; bit < tabela.numChaves(); bit++) {
+            if (this.podePassarTranca(tabela.idChave(bit))) mascara |= 1 << bit;
         }
 
-        return movimentoAleatorio();
+        int passo = tabela.proximoPasso(atual, mascara);
+        return passo < 0 ? null : mapaConhecido.getVertex(passo);
     }
 
     /**
-     * Executes a BFS  from the bot's current location in order to find a room of a given type.
-     * @param tipoAlvo             the target room type to search for
-     * @param apenasAlavancasUteis if true, lever rooms already "solved"
-     * @return the next Divisao step towards the found target room
+     * Looks up the next step in the shared distance field of the known map, for the keys the bot holds.
+     * @return the neighbour one move closer to the treasure, or null if the treasure cannot be
+     *         reached with these keys
      */
-    private Divisao executarBFS(TipoDivisao tipoAlvo, boolean apenasAlavancasUteis) {
-        LinkedQueue<Divisao> fila = new LinkedQueue<>();
-        ArrayUnorderedList<Divisao> visitados = new ArrayUnorderedList<>();
-        ArrayUnorderedList<Parente> arvoreGenealogica = new ArrayUnorderedList<>();
+    private Divisao passoPeloCampo() {
+        int atual = mapaConhecido.getIndex(getLocalAtual());
+        if (atual < 0) return null;
 
-        Divisao inicio = getLocalAtual();
-        fila.enqueue(inicio);
-        visitados.addToRear(inicio);
-        arvoreGenealogica.addToRear(new Parente(inicio, null));
+        int passo = mapaConhecido.campoDistancias().passoDescendente(atual, getChaves());
+        return passo < 0 ? null : mapaConhecido.getVertex(passo);
+    }
 
-        Divisao alvoEncontrado = null;
+    /**
+     * Executes a BFS from the bot's current location to the nearest lever room that opens a
+     * lock the bot still cannot pass. The search runs over the frozen view of the known map,
+     * reusing the same queue, visited bitset and parent array across calls. The way found is
+     * kept and followed by the next steps of the turn, unless the bot leaves it or gets a new key;
+     * the next turn searches again, so a game resumed from a saved session makes the same moves.
+     * @return the next Divisao step towards that lever room, or null if there is none
+     */
+    private Divisao procurarAlavanca() {
+        FrozenLabyrinth<Divisao> vista = mapaConhecido.freeze();
+        int inicio = mapaConhecido.getIndex(getLocalAtual());
+        if (inicio < 0) return null;
 
-        while (!fila.isEmpty()) {
-            Divisao atual;
-            try { atual = fila.dequeue(); } catch (Exception e) { break; }
+        if (seguirCaminho(vista, inicio)) {
+            return posicaoCaminho + 1 < tamanhoCaminho ? vista.sala(caminhoAlavanca[posicaoCaminho + 1]) : null;
+        }
+        tamanhoCaminho = 0;
 
-            if (atual.getTipo() == tipoAlvo) {
-                boolean encontrou = true;
+        prepararBusca(vista.numSalas());
+        marcarVisitado(inicio);
+        pais[inicio] = -1;
+        fila.enqueue(inicio);
 
-                if (apenasAlavancasUteis && tipoAlvo == TipoDivisao.SALA_ALAVANCA) {
-                    if (this.podePassarTranca(atual.getIdDesbloqueio())) {
-                        encontrou = false; 
-                    }
-                }
+        while (!fila.isEmpty()) {
+            int atual = fila.dequeue();
+            Divisao sala = vista.sala(atual);
 
-                if (encontrou) {
-                    alvoEncontrado = atual;
-                    break;
-                }
+            if (sala.getTipo() == TipoDivisao.SALA_ALAVANCA && !this.podePassarTranca(sala.getIdDesbloqueio())) {
+                guardarCaminho(vista, atual);
+                return reconstruirPrimeiroPasso(vista, inicio, atual);
             }
-            Iterator<Divisao> it = mapaConhecido.getVizinhos(atual).iterator();
-            while (it.hasNext()) {
-                Divisao vizinho = it.next();
 
-                if (!visitados.contains(vizinho)) {
-                    if (podePassar(atual, vizinho)) {
-                        visitados.addToRear(vizinho);
+            for (int s = vista.inicio(atual); s < vista.fim(atual); s++) {
+                int vizinho = vista.destino(s);
+
+                if (!foiVisitado(vizinho)) {
+                    if (podePassar(vista, s)) {
+                        marcarVisitado(vizinho);
+                        pais[vizinho] = atual;
                         fila.enqueue(vizinho);
-                        arvoreGenealogica.addToRear(new Parente(vizinho, atual));
                     }
                 }
             }
         }
+        return null;
+    }
+
+    /**
+     * Checks whether the bot is still on the kept way to a lever room, moving along it if the
+     * bot took its next step.
+     * @param vista the frozen view of the known map
+     * @param atual the index of the current room
+     * @return true if the kept way can still be followed from the current room
+     */
+    private boolean seguirCaminho(FrozenLabyrinth<Divisao> vista, int atual) {
+        if (tamanhoCaminho == 0 || vista != vistaCaminho || getChaves() != chavesCaminho) return false;
+
+        if (posicaoCaminho + 1 < tamanhoCaminho && caminhoAlavanca[posicaoCaminho + 1] == atual) {
+            posicaoCaminho++;
+        }
+        return caminhoAlavanca[posicaoCaminho] == atual;
+    }
 
-        if (alvoEncontrado != null) {
-            return reconstruirPrimeiroPasso(arvoreGenealogica, alvoEncontrado);
+    /**
+     * Keeps the way the search just found to a lever room, read backwards from the parent array.
+     * @param vista   the frozen view of the known map
+     * @param destino the index of the lever room
+     */
+    private void guardarCaminho(FrozenLabyrinth<Divisao> vista, int destino) {
+        int tamanho = 0;
+        for (int passo = destino; passo >= 0; passo = pais[passo]) tamanho++;
+        if (caminhoAlavanca.length < tamanho) {
+            caminhoAlavanca = new int[vista.numSalas()];
         }
-        return null;
+
+        int i = tamanho;
+        for (int passo = destino; passo >= 0; passo = pais[passo]) caminhoAlavanca[--i] = passo;
+        tamanhoCaminho = tamanho;
+        posicaoCaminho = 0;
+        chavesCaminho = getChaves();
+        vistaCaminho = vista;
     }
+
     /**
-     * Verifies whether the bot can pass from one division to another, based on the corredor event between them.
-     * @param origem  the origin division
-     * @param destino the destination division
+     * Clears the search state and makes sure the arrays can hold every room of the map.
+     * @param numSalas the number of rooms in the known map
+     */
+    private void prepararBusca(int numSalas) {
+        int palavras = (numSalas + 63) >>> 6;
+        if (visitados.length < palavras) {
+            visitados = new long[palavras];
+        } else {
+            for (int i = 0; i < palavras; i++) visitados[i] = 0L;
+        }
+        if (pais.length < numSalas) {
+            pais = new int[numSalas];
+        }
+        fila.clear();
+    }
+
+    /**
+     * Checks whether a room was already reached by the current search.
+     * @param indice the room index
+     * @return true if the room was visited
+     */
+    private boolean foiVisitado(int indice) {
+        return (visitados[indice >>> 6] & (1L << indice)) != 0;
+    }
+
+    /**
+     * Marks a room as reached by the current search.
+     * @param indice the room index
+     */
+    private void marcarVisitado(int indice) {
+        visitados[indice >>> 6] |= 1L << indice;
+    }
+
+    /**
+     * Verifies whether the bot can go through a corridor, based on its event.
+     * @param vista the frozen view of the known map
+     * @param slot  the corridor slot in the view
      * @return true if the bot can pass through the corridor or false otherwise
      */
-    private boolean podePassar(Divisao origem, Divisao destino) {
-        EventoCorredor evento = mapaConhecido.getCorredorEvento(origem, destino);
-        
-        if (evento.getTipo() == CorredorEvento.LOCKED) {
-            int idChave = evento.getValor();
+    private boolean podePassar(FrozenLabyrinth<Divisao> vista, int slot) {
+        if (vista.tipoEvento(slot) == CorredorEvento.LOCKED) {
+            int idChave = vista.valorEvento(slot);
             return this.podePassarTranca(idChave);
         }
         return true;
     }
 
     /**
-     * Reconstructs the first step towards a destination division using the generated BFS tree.
-     * @param arvore   list of relationships produced by BFS
-     * @param destino  the target division
-     * @return the first Divisao to move to from the current location in order to reach destination
+     * Reconstructs the first step towards a destination room by following the parent array.
+     * @param vista   the frozen view of the known map
+     * @param inicio  the index of the current room
+     * @param destino the index of the target room
+     * @return the first Divisao to move to, or null if the target is the current room
      */
-    private Divisao reconstruirPrimeiroPasso(ArrayUnorderedList<Parente> arvore, Divisao destino) {
-        Divisao passo = destino;
-        Divisao anterior = null;
-        
-        while (passo != getLocalAtual()) {
+    private Divisao reconstruirPrimeiroPasso(FrozenLabyrinth<Divisao> vista, int inicio, int destino) {
+        int passo = destino;
+        int anterior = -1;
+
+        while (passo != inicio) {
             anterior = passo;
-            passo = obterPai(arvore, passo);
-            if (passo == null) return null; 
+            passo = pais[passo];
         }
-        return anterior;
+        return anterior < 0 ? null : vista.sala(anterior);
     }
+
     /**
      * Chooses a random adjacent division from the bot's current location.
      * @return a randomly chosen neighbor division
      */
     private Divisao movimentoAleatorio() {
-        ArrayUnorderedList<Divisao> vizinhos = mapaConhecido.getVizinhos(getLocalAtual());
-        if (vizinhos.isEmpty()) return null;
-        int index = (int) (Math.random() * vizinhos.size());
-        Iterator<Divisao> it = vizinhos.iterator();
-        for (int i = 0; i < index; i++) it.next();
-        return it.next();
+        int atual = mapaConhecido.getIndex(getLocalAtual());
+        int grau = mapaConhecido.degree(atual);
+        if (grau == 0) return null;
+        int index = getAleatorio().nextInt(grau);
+        return mapaConhecido.getVertex(mapaConhecido.getNeighbour(atual, index));
     }
 
     /**
@@ -180,33 +332,7 @@ public class Bot extends Player {
             case MEDIO: chanceAcerto = 0.50; break;
             case DIFICIL: chanceAcerto = 0.75; break;
         }
-        return Math.random() <= chanceAcerto;
-    }
-
-    /**
-     * Finds the parent division of a given child division inside the BFS tree.
-     * @param lista list of relationships
-     * @param filho the child division
-     * @return the parent division
-     */
-    private Divisao obterPai(ArrayUnorderedList<Parente> lista, Divisao filho) {
-        Iterator<Parente> it = lista.iterator();
-        while (it.hasNext()) {
-            Parente p = it.next();
-            if (p.filho.equals(filho)) return p.pai;
-        }
-        return null;
-    }
-    /**
-     * Class used to store parent-child relationships during BFS.
-     */
-    private class Parente {
-
-        Divisao filho, pai;
-        /**
-         * Creates a new parent-child pair.
-         */
-        public Parente(Divisao f, Divisao p) { this.filho = f; this.pai = p; }
+        return getAleatorio().nextDouble() <= chanceAcerto;
     }
 
     /**
@@ -233,10 +359,10 @@ public class Bot extends Player {
         }
 
         if (disponiveis == 0) {
-            return 1 + (int)(Math.random() * numAlavancas);
+            return 1 + getAleatorio().nextInt(numAlavancas);
         }
 
-        int salto = (int)(Math.random() * disponiveis);
+        int salto = getAleatorio().nextInt(disponiveis);
         for (int i = 0; i < numAlavancas; i++) {
             if (!mem.tentadas[i]) {
                 if (salto == 0) {
@@ -250,6 +376,40 @@ public class Bot extends Player {
         return 1;
     }
 
+    /**
+     * Returns the levers this bot has already tried, room by room.
+     * @return pairs of (room index in the bot's map, bit mask of the tried levers)
+     */
+    public int[] getAlavancasTentadas() {
+        int[] pares = new int[memoriasAlavancas.size() * 2];
+        int i = 0;
+        for (MemoriaAlavanca memoria : memoriasAlavancas) {
+            int mascara = 0;
+            for (int a = 0; a < memoria.tentadas.length; a++) {
+                if (memoria.tentadas[a]) mascara |= 1 << a;
+            }
+            pares[i++] = mapaConhecido.getIndex(memoria.sala);
+            pares[i++] = mascara;
+        }
+        return pares;
+    }
+
+    /**
+     * Replaces the memory of tried levers, for example when a saved game is restored.
+     * @param pares        pairs of (room index in the bot's map, bit mask of the tried levers)
+     * @param numAlavancas the number of levers of each room
+     */
+    public void restaurarAlavancasTentadas(int[] pares, int numAlavancas) {
+        memoriasAlavancas = new ArrayUnorderedList<>();
+        for (int i = 0; i < pares.length; i += 2) {
+            MemoriaAlavanca memoria = new MemoriaAlavanca(mapaConhecido.getVertex(pares[i]), numAlavancas);
+            for (int a = 0; a < numAlavancas; a++) {
+                memoria.tentadas[a] = (pares[i + 1] & (1 << a)) != 0;
+            }
+            memoriasAlavancas.addToRear(memoria);
+        }
+    }
+
     /**
      * Creates the lever memory associated with a given room.
      * @param sala         the room whose lever memory is needed
@@ -291,22 +451,25 @@ public class Bot extends Player {
         }
     }
     /**
-     * Rolls the dice for the bot, notifies the view, and returns the result.
+     * Rolls the dice for the bot, notifies the view, and returns the result. A new turn starts
+     * without the way to a lever kept from the last one.
      * @param view the game view used to display feedback
      * @return the dice value in the range {@code 1..6}
      */
     @Override
     public int lancarDados(GameView view) {
+        tamanhoCaminho = 0;
         view.avisarBotLancaDados();
-        try { Thread.sleep(1000); } catch (Exception e){}
-        int val = (int)(Math.random() * 6) + 1;
+        view.pausaBot();
+        int val = getAleatorio().nextInt(6) + 1;
         view.mostrarResultadoDados(true, val);
         return val;
     }
 
     /**
-     * Chooses the destination division where the bot will move next among the list of adjacent divisions, using the bot's AI.
-     * @param vizinhos list of neighboring divisions
+     * Chooses the destination division where the bot will move next, using the bot's AI.
+     * The bot reads its neighbours straight from the known map, so the list is not needed.
+     * @param vizinhos list of neighboring divisions (ignored, may be null)
      * @param view     the game view used to display the decision
      * @return the chosen destination division, or null if none
      */
@@ -336,7 +499,7 @@ public class Bot extends Player {
      */
     @Override
     public int decidirAlavanca(Divisao sala, GameView view) {
-        int escolha = this.escolherAlavanca(sala, 3);
+        int escolha = this.escolherAlavanca(sala, Alavanca.NUM_ALAVANCAS);
         view.mostrarBotEscolheAlavanca(escolha);
         return escolha;
     }
@@ -353,24 +516,30 @@ public class Bot extends Player {
 
         view.mostrarBotDecisao("A escolher alvo para troca de posição...");
 
-        Player alvoTroca = null;
-        do {
-            int indiceAleatorio = (int) (Math.random() * todosJogadores.size());
-
-            Iterator<Player> it = todosJogadores.iterator();
-            alvoTroca = null;
-            int idx = 0;
-            while(it.hasNext()) {
-                Player p = it.next();
-                if (idx == indiceAleatorio) {
-                    alvoTroca = p;
-                    break;
-                }
-                idx++;
-            }
-        } while (alvoTroca == this || alvoTroca == null);
+        // com os jogadores do jogo numerados a escolha é O(1); sem eles, uma só passagem pela lista
+        JogadoresDoJogo jogadores = getJogadoresDoJogo();
+        Player alvoTroca = jogadores != null && jogadores.getNumJogadores() == todosJogadores.size()
+                ? jogadores.outroAleatorio(this, getAleatorio())
+                : outroDaLista(todosJogadores);
+        if (alvoTroca == null) return null;
 
         view.mostrarBotDecisao("Alvo escolhido: " + alvoTroca.getNome());
         return alvoTroca;
     }
+
+    /**
+     * Picks a player of the list other than this bot, uniformly at random, with a single draw.
+     * @param todosJogadores the players to choose from
+     * @return another player, or null if the list has no other player
+     */
+    private Player outroDaLista(ArrayUnorderedList<Player> todosJogadores) {
+        int outros = todosJogadores.contains(this) ? todosJogadores.size() - 1 : todosJogadores.size();
+        if (outros <= 0) return null;
+        int escolhido = getAleatorio().nextInt(outros);
+        for (Player p : todosJogadores) {
+            if (p == this) continue;
+            if (escolhido-- == 0) return p;
+        }
+        return null;
+    }
 }
\ No newline at end of file
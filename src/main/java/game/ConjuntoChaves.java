@@ -0,0 +1,151 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of lock ids, stored as a bitset: ids below 64 live in one inline long and larger
+ * ids in an array of longs that only exists when such an id is in the set. Ids are expected to be
+ * small non-negative numbers, as the map generator and loader give them.
+ * Being a value with {@code equals} and {@code hashCode}, a key set can be used directly as a
+ * cache key or as a dimension of a search state; adding a key returns a new set.
+ */
+public final class ConjuntoChaves {
+
+    /**
+     * The set with no keys.
+     */
+    public static final ConjuntoChaves VAZIO = new ConjuntoChaves(0L, null);
+
+    /**
+     * Bits of the ids 0 to 63.
+     */
+    private final long baixas;
+
+    /**
+     * Bits of the ids from 64 on, 64 per long; null when there are none.
+     */
+    private final long[] altas;
+
+    private ConjuntoChaves(long baixas, long[] altas) {
+        this.baixas = baixas;
+        this.altas = altas;
+    }
+
+    /**
+     * Creates a set with the given ids.
+     * @param ids the lock ids; negative ids are ignored
+     * @return the set
+     */
+    public static ConjuntoChaves de(int[] ids) {
+        ConjuntoChaves chaves = VAZIO;
+        for (int id : ids) {
+            if (id >= 0) chaves = chaves.com(id);
+        }
+        return chaves;
+    }
+
+    /**
+     * Checks whether a lock id is in the set.
+     * @param id the lock id
+     * @return true if the set holds the key of that lock
+     */
+    public boolean contem(int id) {
+        if (id < 64) return id >= 0 && (baixas & (1L << id)) != 0;
+        int palavra = (id >>> 6) - 1;
+        return altas != null && palavra < altas.length && (altas[palavra] & (1L << id)) != 0;
+    }
+
+    /**
+     * Returns a set with the keys of this one plus another.
+     * @param id the lock id to add
+     * @return the new set, or this one if it already holds the key
+     * @throws IllegalArgumentException if the id is negative
+     */
+    public ConjuntoChaves com(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Id de tranca inválido: " + id);
+        }
+        if (contem(id)) return this;
+        if (id < 64) return new ConjuntoChaves(baixas | (1L << id), altas);
+
+        int palavra = (id >>> 6) - 1;
+        long[] novas = altas == null ? new long[palavra + 1] : Arrays.copyOf(altas, Math.max(altas.length, palavra + 1));
+        novas[palavra] |= 1L << id;
+        return new ConjuntoChaves(baixas, novas);
+    }
+
+    /**
+     * Returns the number of keys in the set.
+     * @return the key count
+     */
+    public int size() {
+        int total = Long.bitCount(baixas);
+        if (altas != null) {
+            for (long palavra : altas) total += Long.bitCount(palavra);
+        }
+        return total;
+    }
+
+    /**
+     * Checks whether the set has no keys.
+     * @return true if the set is empty
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the ids in the set, in increasing order.
+     * @return the lock ids
+     */
+    public int[] ids() {
+        int[] ids = new int[size()];
+        int i = 0;
+        for (long resto = baixas; resto != 0; resto &= resto - 1) {
+            ids[i++] = Long.numberOfTrailingZeros(resto);
+        }
+        if (altas != null) {
+            for (int p = 0; p < altas.length; p++) {
+                for (long resto = altas[p]; resto != 0; resto &= resto - 1) {
+                    ids[i++] = ((p + 1) << 6) + Long.numberOfTrailingZeros(resto);
+                }
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof ConjuntoChaves)) return false;
+        ConjuntoChaves outro = (ConjuntoChaves) obj;
+        if (baixas != outro.baixas) return false;
+        int n = Math.max(palavrasAltas(), outro.palavrasAltas());
+        for (int p = 0; p < n; p++) {
+            if (palavraAlta(p) != outro.palavraAlta(p)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        long h = baixas;
+        for (int p = 0; p < palavrasAltas(); p++) {
+            if (altas[p] != 0) h = h * 31 + altas[p] + p;
+        }
+        return Long.hashCode(h);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(ids());
+    }
+
+    private int palavrasAltas() {
+        return altas == null ? 0 : altas.length;
+    }
+
+    private long palavraAlta(int p) {
+        return p < palavrasAltas() ? altas[p] : 0L;
+    }
+}
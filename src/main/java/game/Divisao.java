@@ -1,5 +1,7 @@
 package game;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import enums.TipoDivisao;
 
 /**
@@ -8,9 +10,9 @@ import enums.TipoDivisao;
 public class Divisao implements Comparable<Divisao> {
 
     /**
-     * Global counter used to assign unique IDs to each new Divisao.
+     * Counter used to assign IDs to rooms created without one, outside a map generator or loader.
      */
-    private static int nextId = 1;
+    private static final AtomicInteger nextId = new AtomicInteger(1);
 
     /**
      * Unique ID of this specific Divisao.
@@ -26,10 +28,6 @@ public class Divisao implements Comparable<Divisao> {
      * Type of this room, which describes its function in the game.
      */
     private TipoDivisao tipo;
-    /**
-     * Lever associated with this room's puzzle, if any.
-     */
-    private Alavanca alavancaDoPuzzle;
 
     /**
      * ID of the door that this room can unlock via its puzzle/lever.
@@ -42,17 +40,32 @@ public class Divisao implements Comparable<Divisao> {
      * @param tipo the type of the room
      */
     public Divisao(String nome, TipoDivisao tipo) {
-        this.id = nextId++;
+        this(nextId.getAndIncrement(), nome, tipo);
+    }
+
+    /**
+     * Creates a new Divisao with a given ID. Generators and loaders number the rooms of each map
+     * themselves, so building maps on several threads shares no counter.
+     * @param id   the room ID, unique within its map
+     * @param nome the room name
+     * @param tipo the type of the room
+     */
+    public Divisao(int id, String nome, TipoDivisao tipo) {
+        this.id = id;
         this.nome = nome;
         this.tipo = tipo;
     }
 
     /**
-     * Updates the global ID counter used to generate IDs for new instances.
-     * @param valor the new value to be used as the next ID to generate
+     * Creates a copy of a room with the same ID, name, type and door to unlock, for playing
+     * on a copy of a map.
+     * @param original the room to copy
      */
-    public static void setNextId(int valor) {
-        nextId = valor;
+    public Divisao(Divisao original) {
+        this.id = original.id;
+        this.nome = original.nome;
+        this.tipo = original.tipo;
+        this.idDaPortaQueAbre = original.idDaPortaQueAbre;
     }
 
     /**
@@ -69,20 +82,6 @@ public class Divisao implements Comparable<Divisao> {
      */
     public int getId() { return id; }
 
-    /**
-     * Associates a lever puzzle with this room.
-     * @param alavanca the lever to set
-     */
-    public void setAlavanca(Alavanca alavanca) {
-        this.alavancaDoPuzzle = alavanca;
-    }
-
-    /**
-     * Returns the lever associated with this room
-     * @return the lever puzzle
-     */
-    public Alavanca getAlavanca() { return alavancaDoPuzzle; }
-
     /**
      * Sets the ID of the door that this room can unlock
      * @param id the ID of the door that can be unlocked from this room
@@ -129,6 +128,15 @@ public class Divisao implements Comparable<Divisao> {
         return this.nome.equals(outra.nome);
     }
 
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}, based on the room name.
+     * @return the hash code of this room
+     */
+    @Override
+    public int hashCode() {
+        return nome.hashCode();
+    }
+
     /**
      * Compares this Divisao with another based on their IDs.
      * @param outra the other Divisao to compare with.
@@ -0,0 +1,223 @@
+package game;
+
+import java.util.Arrays;
+
+import enums.TipoEfeito;
+import ui.GameView;
+
+/**
+ * Immutable effect on a player, compiled once from its code so that applying it does no parsing.
+ * The codes are the ones used by the riddle files: {@code NONE}, {@code EXTRA_TURN},
+ * {@code BACK:n} and {@code BLOCK}; {@code EXTRA_TURN} and {@code BLOCK} also take an optional
+ * {@code :n}, and several effects can be joined with {@code +}, as in {@code EXTRA_TURN+BACK:1},
+ * to be applied in that order.
+ */
+public final class Efeito {
+
+    /**
+     * The effect that does nothing.
+     */
+    public static final Efeito NENHUM = new Efeito(new TipoEfeito[0], new int[0], "NONE");
+
+    /**
+     * Kind of each step of the effect, in the order they are applied.
+     */
+    private final TipoEfeito[] tipos;
+
+    /**
+     * Value of each step: extra turns, rooms to move back or turns blocked.
+     */
+    private final int[] valores;
+
+    /**
+     * Code of the effect, in its canonical form.
+     */
+    private final String codigo;
+
+    private Efeito(TipoEfeito[] tipos, int[] valores, String codigo) {
+        this.tipos = tipos;
+        this.valores = valores;
+        this.codigo = codigo;
+    }
+
+    /**
+     * Compiles an effect code.
+     * @param codigo the code; null or blank is the same as {@code NONE}
+     * @return the effect
+     * @throws IllegalArgumentException if the code is not a valid effect
+     */
+    public static Efeito compilar(String codigo) {
+        if (codigo == null || codigo.isBlank()) return NENHUM;
+
+        String[] partes = codigo.split("\\+");
+        TipoEfeito[] tipos = new TipoEfeito[partes.length];
+        int[] valores = new int[partes.length];
+        int n = 0;
+        for (String parte : partes) {
+            String[] campos = parte.trim().split(":", -1);
+            if (campos.length > 2) throw invalido(codigo);
+            String nome = campos[0];
+            boolean temValor = campos.length == 2;
+
+            if (nome.equals("NONE") && !temValor) continue;
+            if (nome.equals("EXTRA_TURN")) {
+                tipos[n] = TipoEfeito.JOGADA_EXTRA;
+            } else if (nome.equals("BACK") && temValor) {
+                tipos[n] = TipoEfeito.RECUAR;
+            } else if (nome.equals("BLOCK")) {
+                tipos[n] = TipoEfeito.BLOQUEAR;
+            } else {
+                throw invalido(codigo);
+            }
+            valores[n++] = temValor ? valor(campos[1], codigo) : 1;
+        }
+        if (n == 0) return NENHUM;
+        if (n < partes.length) {
+            tipos = Arrays.copyOf(tipos, n);
+            valores = Arrays.copyOf(valores, n);
+        }
+        return new Efeito(tipos, valores, canonico(tipos, valores));
+    }
+
+    /**
+     * Creates an effect that gives the player extra moves.
+     * @param jogadas the number of extra moves, not negative
+     * @return the effect
+     */
+    public static Efeito jogadaExtra(int jogadas) {
+        return simples(TipoEfeito.JOGADA_EXTRA, jogadas);
+    }
+
+    /**
+     * Creates an effect that moves the player back along its path.
+     * @param salas the number of rooms to move back, not negative
+     * @return the effect
+     */
+    public static Efeito recuar(int salas) {
+        return simples(TipoEfeito.RECUAR, salas);
+    }
+
+    /**
+     * Creates an effect that makes the player lose turns.
+     * @param turnos the number of turns blocked, not negative
+     * @return the effect
+     */
+    public static Efeito bloquear(int turnos) {
+        return simples(TipoEfeito.BLOQUEAR, turnos);
+    }
+
+    /**
+     * Applies the effect to a player, one step after the other.
+     * @param p    the player
+     * @param view the view that shows what happens to the player
+     */
+    public void aplicar(Player p, GameView view) {
+        for (int i = 0; i < tipos.length; i++) {
+            switch (tipos[i]) {
+                case JOGADA_EXTRA:
+                    p.adicionarJogadasExtras(valores[i]);
+                    break;
+                case RECUAR:
+                    p.recuar(valores[i], view);
+                    break;
+                case BLOQUEAR:
+                    p.bloquear(valores[i]);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the effect does nothing.
+     * @return true if applying it changes nothing
+     */
+    public boolean isNenhum() {
+        return tipos.length == 0;
+    }
+
+    /**
+     * Returns the number of steps of the effect.
+     * @return the number of steps; 0 for the effect that does nothing
+     */
+    public int numPassos() {
+        return tipos.length;
+    }
+
+    /**
+     * Returns the kind of a step of the effect.
+     * @param passo the step, from 0 to {@link #numPassos()} - 1, in the order they are applied
+     * @return the kind of the step
+     */
+    public TipoEfeito getTipo(int passo) {
+        return tipos[passo];
+    }
+
+    /**
+     * Returns the value of a step of the effect: extra turns, rooms to move back or turns blocked.
+     * @param passo the step, from 0 to {@link #numPassos()} - 1, in the order they are applied
+     * @return the value of the step
+     */
+    public int getValor(int passo) {
+        return valores[passo];
+    }
+
+    /**
+     * Returns the code of the effect, which {@link #compilar(String)} turns back into it.
+     * @return the effect code
+     */
+    public String getCodigo() {
+        return codigo;
+    }
+
+    @Override
+    public String toString() {
+        return codigo;
+    }
+
+    private static Efeito simples(TipoEfeito tipo, int valor) {
+        if (valor < 0) {
+            throw new IllegalArgumentException("Valor de efeito inválido: " + valor);
+        }
+        TipoEfeito[] tipos = {tipo};
+        int[] valores = {valor};
+        return new Efeito(tipos, valores, canonico(tipos, valores));
+    }
+
+    private static int valor(String texto, String codigo) {
+        int valor;
+        try {
+            valor = Integer.parseInt(texto.trim());
+        } catch (NumberFormatException e) {
+            throw invalido(codigo);
+        }
+        if (valor < 0) throw invalido(codigo);
+        return valor;
+    }
+
+    private static IllegalArgumentException invalido(String codigo) {
+        return new IllegalArgumentException("Efeito inválido: '" + codigo + "'");
+    }
+
+    /**
+     * Writes the code of the given steps, leaving out the value 1 where it is optional.
+     */
+    private static String canonico(TipoEfeito[] tipos, int[] valores) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < tipos.length; i++) {
+            if (i > 0) sb.append('+');
+            switch (tipos[i]) {
+                case JOGADA_EXTRA:
+                    sb.append("EXTRA_TURN");
+                    break;
+                case RECUAR:
+                    sb.append("BACK");
+                    break;
+                case BLOQUEAR:
+                    sb.append("BLOCK");
+                    break;
+            }
+            if (tipos[i] == TipoEfeito.RECUAR || valores[i] != 1) sb.append(':').append(valores[i]);
+        }
+        return sb.toString();
+    }
+}
@@ -26,14 +26,14 @@ public class Enigma {
     private Dificuldade dificuldade;
 
     /**
-     * Effect code applied when the player answers correctly.
+     * Effect applied when the player answers correctly.
      */
-    private String efeitoSucesso;
+    private Efeito efeitoSucesso;
 
     /**
-     * Effect code applied when the player answers incorrectly.
+     * Effect applied when the player answers incorrectly.
      */
-    private String efeitoFalha;
+    private Efeito efeitoFalha;
     /**
      * Creates a new Enigma with the given question, options, correct answer index and difficulty.
      * @param pergunta       the question text
@@ -46,30 +46,40 @@ public class Enigma {
         this.opcoes = opcoes;
         this.indiceCorreto = indiceCorreto;
         this.dificuldade = dificuldade;
-        this.efeitoSucesso = "NONE";
-        this.efeitoFalha = "BLOCK";
+        this.efeitoSucesso = Efeito.NENHUM;
+        this.efeitoFalha = Efeito.bloquear(1);
     }
 
     /**
-     * Sets the effect codes for success and failure.
+     * Sets the effects for success and failure from their codes, compiling them.
      * @param sucesso the effect code to apply when the riddle is answered correctly
      * @param falha   the effect code to apply when the riddle is answered incorrectly
+     * @throws IllegalArgumentException if a code is not a valid effect
      */
     public void setEfeitos(String sucesso, String falha) {
+        setEfeitos(Efeito.compilar(sucesso), Efeito.compilar(falha));
+    }
+
+    /**
+     * Sets the effects for success and failure.
+     * @param sucesso the effect to apply when the riddle is answered correctly
+     * @param falha   the effect to apply when the riddle is answered incorrectly
+     */
+    public void setEfeitos(Efeito sucesso, Efeito falha) {
         this.efeitoSucesso = sucesso;
         this.efeitoFalha = falha;
     }
 
     /**
-     * Returns the effect code applied when the riddle is answered correctly.
-     * @return the success effect code
+     * Returns the effect applied when the riddle is answered correctly.
+     * @return the success effect
      */
-    public String getEfeitoSucesso() { return efeitoSucesso; }
+    public Efeito getEfeitoSucesso() { return efeitoSucesso; }
     /**
-     * Returns the effect code applied when the riddle is answered incorrectly.
-     * @return the failure effect code
+     * Returns the effect applied when the riddle is answered incorrectly.
+     * @return the failure effect
      */
-    public String getEfeitoFalha() { return efeitoFalha; }
+    public Efeito getEfeitoFalha() { return efeitoFalha; }
 
     /**
      * Returns the question text.
@@ -89,6 +99,12 @@ public class Enigma {
      */
     public Dificuldade getDificuldade() { return dificuldade; }
 
+    /**
+     * Returns the index of the correct option in the options array.
+     * @return the correct option index (0-based)
+     */
+    public int getIndiceCorreto() { return indiceCorreto; }
+
     /**
      * Verifies whether the chosen option corresponds to the correct answer.
      * @param opcaoEscolhida the chosen option number (1-based)
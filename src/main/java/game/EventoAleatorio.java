@@ -1,26 +1,48 @@
 package game;
 
+import java.util.random.RandomGenerator;
+
 import Lists.ArrayUnorderedList;
 import enums.TipoEvento;
 import ui.GameView;
 /**
  * Represents a random event that can affect one or more players in the game.
+ * Events are immutable, so the ones with the usual intensities are built once and shared;
+ * their description is only written when it is asked for.
  */
 public class EventoAleatorio {
     /**
-     * Type of this event
+     * Highest intensity of a randomly generated event.
      */
-    private TipoEvento tipo;
+    public static final int INTENSIDADE_MAXIMA = 3;
 
     /**
-     * Intensity of this event.
+     * Event types, looked up once.
+     */
+    private static final TipoEvento[] TIPOS = TipoEvento.values();
+
+    /**
+     * Shared events, by type ordinal and intensity - 1.
+     */
+    private static final EventoAleatorio[][] PARTILHADOS = new EventoAleatorio[TIPOS.length][INTENSIDADE_MAXIMA];
+
+    static {
+        for (TipoEvento t : TIPOS) {
+            for (int i = 0; i < INTENSIDADE_MAXIMA; i++) {
+                PARTILHADOS[t.ordinal()][i] = new EventoAleatorio(t, i + 1);
+            }
+        }
+    }
+
+    /**
+     * Type of this event
      */
-    private int intensidade;
+    private final TipoEvento tipo;
 
     /**
-     * Description of this event
+     * Intensity of this event.
      */
-    private String descricao;
+    private final int intensidade;
 
     /**
      * Creates a new random event with the given type and intensity.
@@ -30,34 +52,20 @@ public class EventoAleatorio {
     public EventoAleatorio(TipoEvento tipo, int intensidade) {
         this.tipo = tipo;
         this.intensidade = intensidade;
-        gerarDescricao();
     }
+
     /**
-     * Generates a textual description of this event based on its type and intensity.
-     * This method is called automatically in the constructor.
+     * Returns an event with the given type and intensity, shared when the intensity is one
+     * of the usual ones.
+     * @param tipo        the type of the event
+     * @param intensidade the intensity of the event
+     * @return the event
      */
-    private void gerarDescricao() {
-        switch (tipo) {
-            case JOGADA_EXTRA:
-                descricao = "Ganhou " + intensidade + " jogada(s) na próxima jogada extra!";
-                break;
-            case TROCAR_POSICAO:
-                descricao = "Vai trocar de posição com outro jogador!";
-                break;
-            case RECUAR:
-                descricao = "Recua " + intensidade + " casa(s)!";
-                break;
-            case BLOQUEAR_TURNOS:
-                descricao = "Fica bloqueado por " + intensidade + " turno(s)!";
-                break;
-            case TROCAR_TODOS:
-                descricao = "Todos os jogadores trocam de posições!";
-                break;
-            case SEM_EVENTO:
-            default:
-                descricao = "Nada acontece...";
-                break;
+    public static EventoAleatorio de(TipoEvento tipo, int intensidade) {
+        if (intensidade >= 1 && intensidade <= INTENSIDADE_MAXIMA) {
+            return PARTILHADOS[tipo.ordinal()][intensidade - 1];
         }
+        return new EventoAleatorio(tipo, intensidade);
     }
 
     /**
@@ -67,6 +75,21 @@ public class EventoAleatorio {
      * @param view  the view used to display feedback about the recoil action
      */
     public void aplicar(Player alvo, ArrayUnorderedList<Player> todosJogadores, GameView view) {
+        Player alvoTroca = null;
+        if (tipo == TipoEvento.TROCAR_POSICAO && todosJogadores.size() >= 2) {
+            alvoTroca = alvo.escolherAlvoParaTroca(todosJogadores, view);
+        }
+        aplicar(alvo, todosJogadores, alvoTroca, view);
+    }
+
+    /**
+     * Applies the event with the swap target already chosen, for example when a game is replayed.
+     * @param alvo           the main target player of the event
+     * @param todosJogadores list of all players currently in the game
+     * @param alvoTroca      the player to swap positions with, or null to cancel the swap
+     * @param view           the view used to display feedback about the event
+     */
+    public void aplicar(Player alvo, ArrayUnorderedList<Player> todosJogadores, Player alvoTroca, GameView view) {
         switch (tipo) {
             case JOGADA_EXTRA:
                 alvo.adicionarJogadasExtras(intensidade);
@@ -85,7 +108,7 @@ public class EventoAleatorio {
                 break;
 
             case TROCAR_POSICAO:
-                trocarPosicaoComOutro(alvo, todosJogadores, view);
+                trocarPosicaoComOutro(alvo, alvoTroca, todosJogadores, view);
                 break;
 
             case SEM_EVENTO:
@@ -95,46 +118,37 @@ public class EventoAleatorio {
     }
 
     /**
-     * Rotates the positions of all players in the list.
+     * Rotates the positions of all players in the list: each player takes the room of the next
+     * one and the last takes the room of the first. Done in a single pass over the list.
      * @param jogadores list of all players to rotate
      */
     private void trocarTodasPosicoes(ArrayUnorderedList<Player> jogadores) {
-        int n = jogadores.size();
-        if (n < 2) return;
-
-        Divisao[] posicoesOriginais = new Divisao[n];
-        int i = 0;
-
-        // Guarda posições atuais
-        for (Player j : jogadores) {
-            posicoesOriginais[i] = j.getLocalAtual();
-            i++;
-        }
-
-        // Atribui novas posições
-        i = 0;
-        for (Player j : jogadores) {
-            Divisao novaPosicao = posicoesOriginais[(i + 1) % n];
-            j.setLocalAtual(novaPosicao);
-            i++;
-        }
+        if (jogadores.size() < 2) return;
 
-        // define limite de recuo em cada jogador
+        Divisao primeira = null;
+        Player anterior = null;
         for (Player j : jogadores) {
-            j.marcarLimiteRecuo();
+            Divisao posicao = j.getLocalAtual();
+            if (anterior == null) {
+                primeira = posicao;
+            } else {
+                anterior.setLocalAtual(posicao);
+                anterior.marcarLimiteRecuo();
+            }
+            anterior = j;
         }
+        anterior.setLocalAtual(primeira);
+        anterior.marcarLimiteRecuo();
     }
 
     /**
-     * Swaps the position of the target player with a chosen other player.
+     * Swaps the position of the target player with the chosen other player.
      */
-    private void trocarPosicaoComOutro(Player alvo, ArrayUnorderedList<Player> jogadores, GameView view) {
+    private void trocarPosicaoComOutro(Player alvo, Player alvoTroca, ArrayUnorderedList<Player> jogadores, GameView view) {
         if (jogadores.size() < 2) return;
 
-        Player alvoTroca = alvo.escolherAlvoParaTroca(jogadores, view);
-
         if (alvoTroca == null || alvoTroca.equals(alvo)) {
-            System.out.println("Troca cancelada ou alvo inválido");
+            view.mostrarTrocaCancelada();
             return;
         }
 
@@ -149,17 +163,25 @@ public class EventoAleatorio {
         alvo.marcarLimiteRecuo();
         alvoTroca.marcarLimiteRecuo();
 
-        System.out.println(alvo.getNome() + " trocou de posição com " + alvoTroca.getNome() + "!");
+        view.mostrarTrocaPosicao(alvo.getNome(), alvoTroca.getNome());
     }
     /**
-     * Generates a new random event with a random type and intensity.
-     * @return a newly created random EventoAleatorio
+     * Picks a random event, every type and intensity being equally likely.
+     * @return a shared random EventoAleatorio
      */
     public static EventoAleatorio gerarAleatorio() {
-        TipoEvento[] tipos = TipoEvento.values();
-        int indice = (int) (Math.random() * tipos.length);
-        int intensidade = 1 + (int) (Math.random() * 3);
-        return new EventoAleatorio(tipos[indice], intensidade);
+        return gerarAleatorio(Aleatorio.novo());
+    }
+    /**
+     * Picks a random event, every type and intensity being equally likely.
+     * Games draw their events from a {@link TabelaEventos} instead, which can weigh them.
+     * @param aleatorio the random generator of the game session
+     * @return a shared random EventoAleatorio
+     */
+    public static EventoAleatorio gerarAleatorio(RandomGenerator aleatorio) {
+        int indice = aleatorio.nextInt(TIPOS.length);
+        int intensidade = 1 + aleatorio.nextInt(INTENSIDADE_MAXIMA);
+        return PARTILHADOS[indice][intensidade - 1];
     }
     /**
      * Returns the type of this event.
@@ -169,11 +191,32 @@ public class EventoAleatorio {
         return tipo;
     }
     /**
-     * Returns the description of this event.
+     * Returns the intensity of this event.
+     * @return the event intensity
+     */
+    public int getIntensidade() {
+        return intensidade;
+    }
+    /**
+     * Returns the description of this event, written from its type and intensity.
      * @return the event description
      */
     public String getDescricao() {
-        return descricao;
+        switch (tipo) {
+            case JOGADA_EXTRA:
+                return "Ganhou " + intensidade + " jogada(s) na próxima jogada extra!";
+            case TROCAR_POSICAO:
+                return "Vai trocar de posição com outro jogador!";
+            case RECUAR:
+                return "Recua " + intensidade + " casa(s)!";
+            case BLOQUEAR_TURNOS:
+                return "Fica bloqueado por " + intensidade + " turno(s)!";
+            case TROCAR_TODOS:
+                return "Todos os jogadores trocam de posições!";
+            case SEM_EVENTO:
+            default:
+                return "Nada acontece...";
+        }
     }
 
 }
\ No newline at end of file
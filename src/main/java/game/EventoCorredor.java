@@ -4,18 +4,30 @@ import enums.CorredorEvento;
 
 /**
  * Represents an event associated with a corridor between two divisions.
+ * An event never changes once created: a corridor whose event changes is given a new one,
+ * so a single instance can serve many corridors and every session that shares the map.
  */
-public class EventoCorredor {
+public final class EventoCorredor {
+
+    /**
+     * Shared event for corridors without any event.
+     */
+    public static final EventoCorredor NONE = new EventoCorredor(CorredorEvento.NONE, 0);
 
     /**
      * Type of event
      */
-    private CorredorEvento tipo;
+    private final CorredorEvento tipo;
 
     /**
      * Value of intensity on a specified event
      */
-    private int valor;
+    private final int valor;
+
+    /**
+     * Effect on the player that crosses the corridor, compiled when the event is created.
+     */
+    private final Efeito efeito;
 
     /**
      * Creates a new corredor event with the specified type and value.
@@ -25,6 +37,7 @@ public class EventoCorredor {
     public EventoCorredor(CorredorEvento tipo, int valor) {
         this.tipo = tipo;
         this.valor = valor;
+        this.efeito = compilar(tipo, valor);
     }
 
     /**
@@ -41,21 +54,14 @@ public class EventoCorredor {
     public int getValor() {
         return valor;
     }
-
     /**
-     * Sets the type of the corredor event.
-     * @param tipo the new event type
+     * Returns the effect on the player that crosses the corridor.
+     * @return the effect; {@link Efeito#NENHUM} for safe and locked corridors
      */
-    public void setTipo(CorredorEvento tipo) {
-        this.tipo = tipo;
-    }
-    /**
-     * Sets the value associated with thes corredor event.
-     * @param valor the new event value
-     */
-    public void setValor(int valor) {
-        this.valor = valor;
+    public Efeito getEfeito() {
+        return efeito;
     }
+
     /**
      * Returns a representation of the corredor event.
      * @return a string representation of the corredor event
@@ -65,5 +71,23 @@ public class EventoCorredor {
         if (tipo == CorredorEvento.NONE) return "Corredor Seguro";
         return "Evento: " + tipo + " (Valor: " + valor + ")";
     }
+
+    /**
+     * Compiles the effect of a corridor event; negative values count as 0.
+     */
+    private static Efeito compilar(CorredorEvento tipo, int valor) {
+        if (tipo == null) return Efeito.NENHUM;
+        int n = Math.max(0, valor);
+        switch (tipo) {
+            case EXTRA_TURN:
+                return Efeito.jogadaExtra(n);
+            case MOVE_BACK:
+                return Efeito.recuar(n);
+            case BLOCK_TURN:
+                return Efeito.bloquear(n);
+            default:
+                return Efeito.NENHUM;
+        }
+    }
 }
 
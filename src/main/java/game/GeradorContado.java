@@ -0,0 +1,77 @@
+package game;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Random generator of a game that can be saved and resumed. It draws from a generator created from
+ * a seed and counts the values drawn, so the seed and the count are enough to get a generator back
+ * in the same state. Every draw (dice, events, traps, shuffles) goes through {@link #nextLong()},
+ * so the count covers them all.
+ */
+public final class GeradorContado implements RandomGenerator {
+
+    /**
+     * Seed the generator was created from.
+     */
+    private final long semente;
+
+    /**
+     * Generator the values are drawn from.
+     */
+    private final RandomGenerator gerador;
+
+    /**
+     * Number of values drawn so far.
+     */
+    private long tiragens;
+
+    /**
+     * Creates a generator from a seed, with no values drawn.
+     * @param semente the seed
+     */
+    GeradorContado(long semente) {
+        this.semente = semente;
+        this.gerador = Aleatorio.comSemente(semente);
+    }
+
+    /**
+     * Creates a generator in the state a saved one was: the same seed, with the same number of values drawn.
+     * @param semente  the seed of the saved generator
+     * @param tiragens the number of values it had drawn
+     * @return the generator
+     * @throws IllegalArgumentException if the number of values is negative
+     */
+    public static GeradorContado retomar(long semente, long tiragens) {
+        if (tiragens < 0) {
+            throw new IllegalArgumentException("Número de tiragens inválido: " + tiragens);
+        }
+        GeradorContado contado = new GeradorContado(semente);
+        for (long i = 0; i < tiragens; i++) {
+            contado.gerador.nextLong();
+        }
+        contado.tiragens = tiragens;
+        return contado;
+    }
+
+    @Override
+    public long nextLong() {
+        tiragens++;
+        return gerador.nextLong();
+    }
+
+    /**
+     * Returns the seed the generator was created from.
+     * @return the seed
+     */
+    public long getSemente() {
+        return semente;
+    }
+
+    /**
+     * Returns how many values were drawn since the generator was created.
+     * @return the number of values drawn
+     */
+    public long getTiragens() {
+        return tiragens;
+    }
+}
@@ -0,0 +1,77 @@
+package game;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * The players of a game, numbered in the order they were registered, so that picking a random
+ * opponent is a single draw instead of a walk over the player list. Every operation is O(1),
+ * which lets a game hold crowds of thousands of bots.
+ */
+public class JogadoresDoJogo {
+
+    /**
+     * Initial size of the player array.
+     */
+    private static final int CAPACIDADE_INICIAL = 16;
+
+    /**
+     * Registered players, by number.
+     */
+    private Player[] jogadores = new Player[CAPACIDADE_INICIAL];
+
+    /**
+     * Number of registered players.
+     */
+    private int numJogadores;
+
+    /**
+     * Adds a player and tells it its number.
+     * @param p the player, not registered in any game yet
+     */
+    public void registar(Player p) {
+        if (numJogadores == jogadores.length) {
+            Player[] novos = new Player[jogadores.length << 1];
+            System.arraycopy(jogadores, 0, novos, 0, numJogadores);
+            jogadores = novos;
+        }
+        int numero = numJogadores++;
+        jogadores[numero] = p;
+        p.ligarJogadores(this, numero);
+    }
+
+    /**
+     * Picks a registered player other than the given one, uniformly at random.
+     * @param p         the player to leave out
+     * @param aleatorio the random generator of the game session
+     * @return another player, or null if there is no other player
+     */
+    public Player outroAleatorio(Player p, RandomGenerator aleatorio) {
+        int proprio = p.getNumero();
+        int outros = proprio >= 0 && jogadores[proprio] == p ? numJogadores - 1 : numJogadores;
+        if (outros <= 0) return null;
+        int escolhido = aleatorio.nextInt(outros);
+        if (outros < numJogadores && escolhido >= proprio) escolhido++;
+        return jogadores[escolhido];
+    }
+
+    /**
+     * Returns a registered player.
+     * @param numero the number of the player, from 0 to {@link #getNumJogadores()} - 1
+     * @return the player
+     * @throws IndexOutOfBoundsException if no player has that number
+     */
+    public Player getJogador(int numero) {
+        if (numero < 0 || numero >= numJogadores) {
+            throw new IndexOutOfBoundsException("Jogador " + numero + " inexistente");
+        }
+        return jogadores[numero];
+    }
+
+    /**
+     * Returns the number of registered players.
+     * @return the player count
+     */
+    public int getNumJogadores() {
+        return numJogadores;
+    }
+}
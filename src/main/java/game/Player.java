@@ -1,17 +1,34 @@
 package game;
 
 import java.util.Iterator;
+import java.util.random.RandomGenerator;
 
 import Exceptions.EmptyCollectionException;
 import Lists.ArrayUnorderedList;
-import Lists.UnorderedLinkedList;
-import Stacks.LinkedStack;
+import graph.LabyrinthGraph;
+import structures.PilhaCircular;
 import ui.GameView;
 
 /**
  * Represents a player in the labyrinth.
  */
 public class Player {
+    /**
+     * Default number of entries kept in the path stack and in the history.
+     */
+    public static final int CAPACIDADE_HISTORICO = 256;
+
+    /** History code of the starting room. */
+    private static final byte INICIO = 0;
+    /** History code of a move. */
+    private static final byte MOVEU = 1;
+    /** History code of a move back. */
+    private static final byte RECUOU = 2;
+    /** History code of a restored state. */
+    private static final byte RESTAURADO = 3;
+    /** History code of a room given by a swap of positions. */
+    private static final byte TROCOU = 4;
+
     /**
      * Player's string name.
      */
@@ -23,9 +40,32 @@ public class Player {
     private Divisao localAtual;
 
     /**
-     * Movement and action history log for this player.
+     * Players of the game this player is registered in, or null.
+     */
+    private JogadoresDoJogo jogadoresDoJogo;
+
+    /**
+     * Number of this player in {@link #jogadoresDoJogo}, which is also its position in the game's
+     * player list and picks its report.
+     */
+    private int numero = -1;
+
+    /**
+     * Rooms by index, for the indexes kept in {@link #historico} and {@link #caminho}: the map of
+     * the game, or, for a player created without one, a table of its own of the rooms it has been in.
+     */
+    private final LabyrinthGraph<Divisao> salas;
+
+    /**
+     * Whether {@link #salas} is the player's own table, which grows with the rooms it enters.
+     */
+    private final boolean salasProprias;
+
+    /**
+     * Movement and action history of this player, as room indexes with action codes; only the
+     * newest entries are kept, and they are turned into text only by {@link #getHistorico()}.
      */
-    private UnorderedLinkedList<String> historico;
+    private PilhaCircular historico;
 
     /**
      * Number of extra moves the player has accumulated.
@@ -38,36 +78,70 @@ public class Player {
     private int turnosBloqueado;
 
     /**
-     * Stack representing the path the player has taken through the labyrinth.
+     * Stack of the indexes of the rooms the player has taken through the labyrinth; once full, its
+     * oldest rooms are forgotten, so a player can move back at most its capacity minus one rooms.
      */
-    private LinkedStack<Divisao> caminho;
+    private PilhaCircular caminho;
 
     /**
-     * Minimum allowed size of the path stack for back positions operations.
+     * Minimum allowed size of the path stack for back positions operations; it follows the
+     * rooms it counts when the oldest ones are forgotten.
      */
     private int limiteRecuoMinSize;
 
     /**
-     * List of IDs representing locks that this player has already unlocked.
+     * Keys of the locks that this player has already unlocked.
      */
-    private ArrayUnorderedList<Integer> trancasDesbloqueadas;
+    private ConjuntoChaves chaves;
 
     /**
-     * Creates a new player with the given name and starting division.
+     * Random number generator of the game session, used for dice and other random choices.
+     */
+    private RandomGenerator aleatorio;
+
+    /**
+     * Creates a new player with the given name and starting division, with its own random generator.
      * @param nome   the player's name
      * @param inicio the starting division for the player
      */
     public Player(String nome, Divisao inicio) {
+        this(nome, inicio, Aleatorio.novo());
+    }
+
+    /**
+     * Creates a new player with the given name and starting division, keeping its own table of
+     * the rooms it goes through.
+     * @param nome      the player's name
+     * @param inicio    the starting division for the player
+     * @param aleatorio the random generator of the game session
+     */
+    public Player(String nome, Divisao inicio, RandomGenerator aleatorio) {
+        this(nome, inicio, aleatorio, null);
+    }
+
+    /**
+     * Creates a new player with the given name and starting division on a map.
+     * @param nome      the player's name
+     * @param inicio    the starting division for the player
+     * @param aleatorio the random generator of the game session
+     * @param mapa      the map of the game, holding every room the player will be in; null to
+     *                  keep a table of the player's own
+     */
+    public Player(String nome, Divisao inicio, RandomGenerator aleatorio, LabyrinthGraph<Divisao> mapa) {
+        this.aleatorio = aleatorio;
         this.nome = nome;
         this.localAtual = inicio;
-        this.historico = new UnorderedLinkedList<>();
+        this.salasProprias = mapa == null;
+        this.salas = salasProprias ? new LabyrinthGraph<>() : mapa;
+        this.historico = new PilhaCircular(CAPACIDADE_HISTORICO);
         this.jogadasExtra = 0;
         this.turnosBloqueado = 0;
-        this.caminho = new LinkedStack<>();
-        caminho.push(inicio);
+        this.caminho = new PilhaCircular(CAPACIDADE_HISTORICO);
+        int sala = indice(inicio);
+        caminho.push(sala, INICIO);
         this.limiteRecuoMinSize = 1;
-        this.trancasDesbloqueadas = new ArrayUnorderedList<>();
-        historico.addToRear("Inicio: " + inicio.getNome());
+        this.chaves = ConjuntoChaves.VAZIO;
+        historico.push(sala, INICIO);
     }
 
     /**
@@ -77,7 +151,7 @@ public class Player {
      */
     public int lancarDados(GameView view) {
         view.pedirHumanoLancaDados();
-        int val = (int)(Math.random() * 6) + 1;
+        int val = aleatorio.nextInt(6) + 1;
         view.mostrarResultadoDados(false, val);
         return val;
     }
@@ -163,9 +237,10 @@ public class Player {
      * @param novaSala the new division to move to
      */
     public void moverPara(Divisao novaSala) {
+        int sala = indice(novaSala);
         this.localAtual = novaSala;
-        historico.addToRear("Moveu para: " + novaSala.getNome());
-        caminho.push(novaSala);
+        historico.push(sala, MOVEU);
+        empilhar(sala, MOVEU);
     }
     /**
      * Moves the player backwards along the path by a given number of steps.
@@ -176,7 +251,7 @@ public class Player {
         Divisao posicaoInicial = getLocalAtual();
         int passosRealizados = 0;
 
-        if (caminho == null || caminho.size() <= limiteRecuoMinSize) {
+        if (caminho.size() <= limiteRecuoMinSize) {
             view.mostrarAvisoSemRecuo(this.nome);
             return;
         }
@@ -193,9 +268,10 @@ public class Player {
         }
 
         try {
-            Divisao novaPosicao = caminho.peek();
+            int sala = caminho.peek();
+            Divisao novaPosicao = salas.getVertex(sala);
             this.localAtual = novaPosicao;
-            historico.addToRear("Recuou para: " + novaPosicao.getNome());
+            historico.push(sala, RECUOU);
             view.mostrarRecuo(this.nome, casas, novaPosicao.getNome());
 
         } catch (EmptyCollectionException e) {
@@ -215,9 +291,63 @@ public class Player {
      * @param novaSala the new current division
      */
     public void setLocalAtual(Divisao novaSala) {
+        int sala = indice(novaSala);
         this.localAtual = novaSala;
-        if (caminho == null) caminho = new LinkedStack<>();
-        caminho.push(novaSala);
+        historico.push(sala, TROCOU);
+        empilhar(sala, TROCOU);
+    }
+    /**
+     * Pushes a room index onto the path stack; if the oldest room is forgotten to make space, the
+     * move-back limit drops with it, down to the oldest room kept.
+     */
+    private void empilhar(int sala, byte acao) {
+        if (caminho.push(sala, acao) && limiteRecuoMinSize > 1) limiteRecuoMinSize--;
+    }
+    /**
+     * Returns the index of a room in {@link #salas}, adding it first to the player's own table.
+     * @throws IllegalArgumentException if the room is not in the map of the game
+     */
+    private int indice(Divisao sala) {
+        int i = salas.getIndex(sala);
+        if (i < 0 && salasProprias) {
+            salas.addVertex(sala);
+            i = salas.getIndex(sala);
+        }
+        if (i < 0) throw new IllegalArgumentException("Sala fora do mapa: " + sala.getNome());
+        return i;
+    }
+    /**
+     * Changes how many entries the path stack and the history keep, forgetting the oldest ones
+     * that no longer fit. The path needs at least two entries for the player to move back.
+     * @param capacidade the number of entries to keep
+     * @throws IllegalArgumentException if the capacity is less than 2
+     */
+    public void setCapacidadeHistorico(int capacidade) {
+        if (capacidade < 2) {
+            throw new IllegalArgumentException("O caminho precisa de pelo menos 2 salas: " + capacidade);
+        }
+        historico.redimensionar(capacidade);
+        int esquecidas = caminho.redimensionar(capacidade);
+        limiteRecuoMinSize = Math.max(1, limiteRecuoMinSize - esquecidas);
+    }
+    /**
+     * Returns the movement history of the player as text, from the oldest entry kept.
+     * The text is built on each call; the player itself only keeps room indexes and action codes.
+     * @return the history, one line per action
+     */
+    public ArrayUnorderedList<String> getHistorico() {
+        ArrayUnorderedList<String> linhas = new ArrayUnorderedList<>();
+        for (int i = 0; i < historico.size(); i++) {
+            String sala = salas.getVertex(historico.get(i)).getNome();
+            switch (historico.codigo(i)) {
+                case INICIO: linhas.addToRear("Inicio: " + sala); break;
+                case MOVEU: linhas.addToRear("Moveu para: " + sala); break;
+                case RECUOU: linhas.addToRear("Recuou para: " + sala); break;
+                case RESTAURADO: linhas.addToRear("Restaurado em: " + sala); break;
+                default: linhas.addToRear("Trocou para: " + sala); break;
+            }
+        }
+        return linhas;
     }
     /**
      * Marks the current size of the path stack as the minimum allowed for future "recuar" operations.
@@ -227,13 +357,11 @@ public class Player {
     }
 
     /**
-     * Marks a lock as unlocked for this player, if it is not already present.
+     * Marks a lock as unlocked for this player; ids below zero mean "no lock" and are ignored.
      * @param id the ID of the lock to unlock
      */
     public void desbloquearTranca(int id) {
-        if (!podePassarTranca(id)) {
-            trancasDesbloqueadas.addToRear(id);
-        }
+        if (id >= 0) chaves = chaves.com(id);
     }
     /**
      * Checks whether this player can pass through a lock with the given ID.
@@ -242,19 +370,103 @@ public class Player {
      * @return true if the player has already unlocked this ID, or false otherwise
      */
     public boolean podePassarTranca(int id) {
-        Iterator<Integer> it = trancasDesbloqueadas.iterator();
-        while (it.hasNext()) {
-            if (it.next().equals(id)) return true;
+        return chaves.contem(id);
+    }
+    /**
+     * Returns the keys this player holds. The set is a value: it does not change when the
+     * player unlocks another lock, so it can be kept as a cache key by the pathfinding.
+     * @return the key set
+     */
+    public ConjuntoChaves getChaves() {
+        return chaves;
+    }
+
+    /**
+     * Returns the rooms of the path stack, from the bottom to the current room.
+     * @return the path, oldest room first
+     */
+    public Divisao[] getCaminho() {
+        Divisao[] salas = new Divisao[caminho.size()];
+        for (int i = 0; i < salas.length; i++) {
+            salas[i] = this.salas.getVertex(caminho.get(i));
+        }
+        return salas;
+    }
+
+    /**
+     * Returns the minimum path size kept when moving back.
+     * @return the path size below which the player cannot move back
+     */
+    public int getLimiteRecuo() { return limiteRecuoMinSize; }
+
+    /**
+     * Returns the IDs of the locks this player has unlocked, in increasing order.
+     * @return the lock IDs
+     */
+    public int[] getTrancasDesbloqueadas() {
+        return chaves.ids();
+    }
+
+    /**
+     * Replaces the whole state of the player, for example when a saved game is restored.
+     * The movement history is restarted from the restored room.
+     * @param local           the current room
+     * @param caminho         the path stack, oldest room first; its last room should be the current one
+     * @param limiteRecuo     the minimum path size kept when moving back
+     * @param jogadasExtra    the extra moves
+     * @param turnosBloqueado the blocked turns
+     * @param trancas         the IDs of the unlocked locks
+     */
+    public void restaurarEstado(Divisao local, Divisao[] caminho, int limiteRecuo, int jogadasExtra,
+                                int turnosBloqueado, int[] trancas) {
+        this.localAtual = local;
+        this.caminho = new PilhaCircular(this.caminho.capacidade());
+        this.limiteRecuoMinSize = limiteRecuo;
+        for (Divisao sala : caminho) {
+            empilhar(indice(sala), RESTAURADO);
         }
-        return false;
+        this.jogadasExtra = jogadasExtra;
+        this.turnosBloqueado = turnosBloqueado;
+        this.chaves = ConjuntoChaves.de(trancas);
+        this.historico = new PilhaCircular(historico.capacidade());
+        historico.push(indice(local), RESTAURADO);
+    }
+
+    /**
+     * Registers the players of the game this player takes part in.
+     * @param jogadores the players of the game
+     * @param numero    the number of this player among them
+     */
+    void ligarJogadores(JogadoresDoJogo jogadores, int numero) {
+        this.jogadoresDoJogo = jogadores;
+        this.numero = numero;
     }
 
+    /**
+     * Returns the players of the game this player is registered in.
+     * @return the players, or null
+     */
+    JogadoresDoJogo getJogadoresDoJogo() { return jogadoresDoJogo; }
+
+    /**
+     * Returns the number of this player among the players of its game, which is also its
+     * position in the game's player list.
+     * @return the number, or -1 if the player is not registered
+     */
+    public int getNumero() { return numero; }
+
     /**
      * Returns the player's name.
      * @return the name
      */
     public String getNome() { return nome; }
 
+    /**
+     * Returns the random generator used by this player.
+     * @return the random generator of the game session
+     */
+    protected RandomGenerator getAleatorio() { return aleatorio; }
+
     /**
      * Returns the current division where the player is located.
      * @return the current division
@@ -298,6 +510,14 @@ public class Player {
     public void consumirUmTurnoBloqueado() {
         if (turnosBloqueado > 0) turnosBloqueado--;
     }
+
+    /**
+     * Consumes several blocked turns at once, never going below zero.
+     * @param turnos number of blocked turns to consume
+     */
+    public void consumirTurnosBloqueados(int turnos) {
+        turnosBloqueado = Math.max(0, turnosBloqueado - turnos);
+    }
     /**
      * Allows a human player to choose another player as the target for a position swap.
      * @param todosJogadores the list of all players currently in the game
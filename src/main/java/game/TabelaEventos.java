@@ -0,0 +1,194 @@
+package game;
+
+import java.util.random.RandomGenerator;
+
+import enums.Dificuldade;
+import enums.TipoEvento;
+
+/**
+ * Immutable table of weighted random events, sampled in O(1) with Walker's alias method.
+ * Each draw uses a single random number and returns one of the table's pre-built events,
+ * so drawing allocates nothing, including when the result is {@link TipoEvento#SEM_EVENTO}.
+ * A table can be shared by every game that uses it.
+ */
+public final class TabelaEventos {
+
+    /**
+     * Weight of a quiet corridor in the tables by difficulty, against 1 for each event type of
+     * the medium table: a quarter of the corridors draw an event, and one in six of those draws
+     * nothing, as the uniform draw of {@link EventoAleatorio#gerarAleatorio(RandomGenerator)} did.
+     */
+    private static final double PESO_SEM_EVENTO = 19;
+
+    /** Table of the easy games: more extra moves, fewer penalties. */
+    private static final TabelaEventos FACIL = porTipo(PESO_SEM_EVENTO, 2, 1, 0.5, 0.5, 1);
+
+    /** Table of the medium games: every event type equally likely. */
+    private static final TabelaEventos MEDIO = porTipo(PESO_SEM_EVENTO, 1, 1, 1, 1, 1);
+
+    /** Table of the hard games: fewer extra moves, more penalties. */
+    private static final TabelaEventos DIFICIL = porTipo(PESO_SEM_EVENTO, 0.5, 1, 1.5, 1.5, 0.5);
+
+    /**
+     * The events of the table.
+     */
+    private final EventoAleatorio[] eventos;
+
+    /**
+     * Chance of keeping the event of each column instead of its alias.
+     */
+    private final double[] probabilidades;
+
+    /**
+     * Position of the other event of each column.
+     */
+    private final int[] aliases;
+
+    /**
+     * Weight of each event over the total, kept to answer {@link #probabilidade(TipoEvento)}.
+     */
+    private final double[] pesos;
+
+    /**
+     * Builds a table from events and their weights.
+     * @param eventos the events; they are shared by every draw, so they must not change
+     * @param pesos   the weight of each event, not negative; only the ratios matter
+     * @throws IllegalArgumentException if the arrays are empty or differ in length, or if a
+     *                                  weight is negative or not a number, or they all are 0
+     */
+    public TabelaEventos(EventoAleatorio[] eventos, double[] pesos) {
+        int n = eventos.length;
+        if (n == 0 || pesos.length != n) {
+            throw new IllegalArgumentException("Tabela de eventos inválida: " + n + " eventos e " + pesos.length + " pesos");
+        }
+        double total = 0;
+        for (double peso : pesos) {
+            if (!(peso >= 0) || Double.isInfinite(peso)) {
+                throw new IllegalArgumentException("Peso de evento inválido: " + peso);
+            }
+            total += peso;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Tabela de eventos sem pesos");
+        }
+
+        this.eventos = eventos.clone();
+        this.pesos = new double[n];
+        this.probabilidades = new double[n];
+        this.aliases = new int[n];
+
+        // colunas abaixo e acima da média, tratadas como pilhas
+        double[] escalados = new double[n];
+        int[] pequenos = new int[n];
+        int[] grandes = new int[n];
+        int numPequenos = 0;
+        int numGrandes = 0;
+        for (int i = 0; i < n; i++) {
+            this.pesos[i] = pesos[i] / total;
+            escalados[i] = this.pesos[i] * n;
+            if (escalados[i] < 1) {
+                pequenos[numPequenos++] = i;
+            } else {
+                grandes[numGrandes++] = i;
+            }
+        }
+        while (numPequenos > 0 && numGrandes > 0) {
+            int pequeno = pequenos[--numPequenos];
+            int grande = grandes[--numGrandes];
+            probabilidades[pequeno] = escalados[pequeno];
+            aliases[pequeno] = grande;
+            escalados[grande] -= 1 - escalados[pequeno];
+            if (escalados[grande] < 1) {
+                pequenos[numPequenos++] = grande;
+            } else {
+                grandes[numGrandes++] = grande;
+            }
+        }
+        // o que sobra só difere de 1 por arredondamentos
+        while (numGrandes > 0) {
+            int i = grandes[--numGrandes];
+            probabilidades[i] = 1;
+            aliases[i] = i;
+        }
+        while (numPequenos > 0) {
+            int i = pequenos[--numPequenos];
+            probabilidades[i] = 1;
+            aliases[i] = i;
+        }
+    }
+
+    /**
+     * Returns the table used by games of a difficulty.
+     * @param dificuldade the difficulty of the game, may be null for the medium table
+     * @return the shared table
+     */
+    public static TabelaEventos paraDificuldade(Dificuldade dificuldade) {
+        if (dificuldade == Dificuldade.FACIL) return FACIL;
+        if (dificuldade == Dificuldade.DIFICIL) return DIFICIL;
+        return MEDIO;
+    }
+
+    /**
+     * Builds a table from the weight of each event type; the weight of a type is split evenly
+     * over the intensities from 1 to {@link EventoAleatorio#INTENSIDADE_MAXIMA}.
+     * @param semEvento     weight of nothing happening
+     * @param jogadaExtra   weight of an extra move
+     * @param trocarPosicao weight of swapping with another player
+     * @param recuar        weight of moving back
+     * @param bloquear      weight of losing turns
+     * @param trocarTodos   weight of every player swapping rooms
+     * @return the new table
+     * @throws IllegalArgumentException if a weight is negative or not a number, or they all are 0
+     */
+    public static TabelaEventos porTipo(double semEvento, double jogadaExtra, double trocarPosicao,
+                                        double recuar, double bloquear, double trocarTodos) {
+        TipoEvento[] tipos = {TipoEvento.JOGADA_EXTRA, TipoEvento.TROCAR_POSICAO, TipoEvento.RECUAR,
+                TipoEvento.BLOQUEAR_TURNOS, TipoEvento.TROCAR_TODOS};
+        double[] pesosTipo = {jogadaExtra, trocarPosicao, recuar, bloquear, trocarTodos};
+        int niveis = EventoAleatorio.INTENSIDADE_MAXIMA;
+
+        EventoAleatorio[] eventos = new EventoAleatorio[1 + tipos.length * niveis];
+        double[] pesos = new double[eventos.length];
+        eventos[0] = EventoAleatorio.de(TipoEvento.SEM_EVENTO, 1);
+        pesos[0] = semEvento;
+        for (int t = 0; t < tipos.length; t++) {
+            for (int i = 0; i < niveis; i++) {
+                eventos[1 + t * niveis + i] = EventoAleatorio.de(tipos[t], i + 1);
+                pesos[1 + t * niveis + i] = pesosTipo[t] / niveis;
+            }
+        }
+        return new TabelaEventos(eventos, pesos);
+    }
+
+    /**
+     * Draws an event.
+     * @param aleatorio the random generator of the game session
+     * @return one of the table's events, chosen with the weights of the table
+     */
+    public EventoAleatorio sortear(RandomGenerator aleatorio) {
+        double u = aleatorio.nextDouble() * eventos.length;
+        int coluna = Math.min((int) u, eventos.length - 1);
+        return u - coluna < probabilidades[coluna] ? eventos[coluna] : eventos[aliases[coluna]];
+    }
+
+    /**
+     * Returns the chance of drawing an event of a type.
+     * @param tipo the event type
+     * @return the probability, from 0 to 1
+     */
+    public double probabilidade(TipoEvento tipo) {
+        double p = 0;
+        for (int i = 0; i < eventos.length; i++) {
+            if (eventos[i].getTipo() == tipo) p += pesos[i];
+        }
+        return p;
+    }
+
+    /**
+     * Returns the number of events in the table.
+     * @return the event count
+     */
+    public int size() {
+        return eventos.length;
+    }
+}
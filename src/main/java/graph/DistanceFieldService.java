@@ -0,0 +1,265 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import enums.CorredorEvento;
+import enums.TipoDivisao;
+import game.ConjuntoChaves;
+import game.Divisao;
+
+/**
+ * Distance fields to the treasure room shared by every bot of a map.
+ * A field holds, for one set of keys, the number of moves from each room to the treasure
+ * without picking up new keys; it is computed by a single BFS from the treasure the first time
+ * that key set is asked for, and cached. A bot then only looks at its neighbours to step downhill.
+ * Fields are keyed by the {@link ConjuntoChaves key set} a player holds, so a map can have any
+ * number of locks; the {@code long} mask methods describe key sets by the bits of {@link #idChave(int)}.
+ * The graph discards the service when its topology or a lock changes.
+ * <p>
+ * One service is shared by every session of a map, so lookups take no lock: each cached field is
+ * published as an immutable entry, and two threads missing the same key set at once may both
+ * compute it, which costs a BFS but gives the same field.
+ */
+public class DistanceFieldService {
+
+    /**
+     * Distance stored for rooms from which the treasure cannot be reached.
+     */
+    public static final int INALCANCAVEL = Integer.MAX_VALUE;
+
+    /**
+     * Largest number of distinct locks a {@code long} key mask can describe; key sets have no limit.
+     */
+    public static final int MAX_CHAVES = 64;
+
+    /**
+     * Value of {@link #trancaDoSlot} for a corridor that is not locked.
+     */
+    private static final int SEM_TRANCA = Integer.MIN_VALUE;
+
+    /**
+     * Number of fields kept in the cache; the oldest one is replaced when it is full.
+     */
+    private static final int MAX_CAMPOS = 16;
+
+    /**
+     * Frozen view of the map the fields are computed on.
+     */
+    private final FrozenLabyrinth<Divisao> vista;
+
+    /**
+     * Distinct lock ids of the map, in the order they were found; position i is bit i of a mask.
+     */
+    private final int[] idsChaves;
+
+    /**
+     * Lock id needed to cross each slot of the view, or {@link #SEM_TRANCA}.
+     */
+    private final int[] trancaDoSlot;
+
+    /**
+     * Cached fields; a position is null until a field is stored in it.
+     */
+    private final AtomicReferenceArray<Campo> campos = new AtomicReferenceArray<>(MAX_CAMPOS);
+
+    /**
+     * Number of fields computed so far; also tells which cache position to replace next.
+     */
+    private final AtomicInteger calculados = new AtomicInteger();
+
+    /**
+     * A field and the key set it was computed for; never changed once stored.
+     */
+    private static final class Campo {
+        final ConjuntoChaves chaves;
+        final int[] dist;
+
+        Campo(ConjuntoChaves chaves, int[] dist) {
+            this.chaves = chaves;
+            this.dist = dist;
+        }
+    }
+
+    /**
+     * Creates the service for a map.
+     * @param vista     the frozen view of the map
+     * @param idsChaves    the distinct lock ids of the map
+     * @param trancaDoSlot the lock id needed by each slot, or {@link #SEM_TRANCA}
+     */
+    private DistanceFieldService(FrozenLabyrinth<Divisao> vista, int[] idsChaves, int[] trancaDoSlot) {
+        this.vista = vista;
+        this.idsChaves = idsChaves;
+        this.trancaDoSlot = trancaDoSlot;
+    }
+
+    /**
+     * Creates the service for a map; no field is computed until it is needed.
+     * @param vista the frozen view of the map
+     * @return the service
+     */
+    public static DistanceFieldService criar(FrozenLabyrinth<Divisao> vista) {
+        int[] trancaDoSlot = new int[vista.numSlots()];
+        int[] ids = new int[8];
+        int numChaves = 0;
+        ConjuntoChaves vistas = ConjuntoChaves.VAZIO;
+        for (int s = 0; s < vista.numSlots(); s++) {
+            trancaDoSlot[s] = SEM_TRANCA;
+            if (vista.tipoEvento(s) != CorredorEvento.LOCKED) continue;
+
+            int id = vista.valorEvento(s);
+            trancaDoSlot[s] = id;
+            if (id >= 0 && !vistas.contem(id)) {
+                vistas = vistas.com(id);
+                if (numChaves == ids.length) ids = Arrays.copyOf(ids, numChaves << 1);
+                ids[numChaves++] = id;
+            }
+        }
+        return new DistanceFieldService(vista, Arrays.copyOf(ids, numChaves), trancaDoSlot);
+    }
+
+    /**
+     * Returns the number of keys (distinct locks) in the map.
+     * @return the number of key bits
+     */
+    public int numChaves() {
+        return idsChaves.length;
+    }
+
+    /**
+     * Returns the lock id represented by a key bit.
+     * @param bit the key bit
+     * @return the lock id
+     */
+    public int idChave(int bit) {
+        return idsChaves[bit];
+    }
+
+    /**
+     * Returns the distance from a room to the treasure for a given key set.
+     * @param sala    the room index
+     * @param mascara the key set, one bit per key
+     * @return the number of moves, or {@link #INALCANCAVEL}
+     */
+    public int distancia(int sala, long mascara) {
+        return distancia(sala, chavesDaMascara(mascara));
+    }
+
+    /**
+     * Returns the distance from a room to the treasure for the keys a player holds.
+     * @param sala   the room index
+     * @param chaves the key set
+     * @return the number of moves, or {@link #INALCANCAVEL}
+     */
+    public int distancia(int sala, ConjuntoChaves chaves) {
+        return campo(chaves)[sala];
+    }
+
+    /**
+     * Returns a neighbour one move closer to the treasure, the first one in adjacency order.
+     * @param sala    the current room index
+     * @param mascara the keys currently held
+     * @return the neighbour room index, or -1 if the room is the treasure or the treasure is unreachable
+     */
+    public int passoDescendente(int sala, long mascara) {
+        return passoDescendente(sala, chavesDaMascara(mascara));
+    }
+
+    /**
+     * Returns a neighbour one move closer to the treasure, the first one in adjacency order.
+     * @param sala   the current room index
+     * @param chaves the keys currently held
+     * @return the neighbour room index, or -1 if the room is the treasure or the treasure is unreachable
+     */
+    public int passoDescendente(int sala, ConjuntoChaves chaves) {
+        int[] dist = campo(chaves);
+        int atual = dist[sala];
+        if (atual == 0 || atual == INALCANCAVEL) return -1;
+
+        for (int s = vista.inicio(sala); s < vista.fim(sala); s++) {
+            int vizinho = vista.destino(s);
+            if (dist[vizinho] == atual - 1 && passavel(s, chaves)) return vizinho;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the key set described by a mask over the bits of {@link #idChave(int)}.
+     * @param mascara the mask
+     * @return the key set
+     */
+    private ConjuntoChaves chavesDaMascara(long mascara) {
+        ConjuntoChaves chaves = ConjuntoChaves.VAZIO;
+        for (int bit = 0; bit < Math.min(idsChaves.length, MAX_CHAVES); bit++) {
+            if ((mascara & (1L << bit)) != 0) chaves = chaves.com(idsChaves[bit]);
+        }
+        return chaves;
+    }
+
+    /**
+     * Returns the field of a key set, computing it if it is not cached.
+     * @param chaves the key set
+     * @return the distance of every room to the treasure
+     */
+    private int[] campo(ConjuntoChaves chaves) {
+        for (int i = 0; i < MAX_CAMPOS; i++) {
+            Campo campo = campos.get(i);
+            if (campo != null && campo.chaves == chaves) return campo.dist;
+        }
+        for (int i = 0; i < MAX_CAMPOS; i++) {
+            Campo campo = campos.get(i);
+            if (campo != null && campo.chaves.equals(chaves)) return campo.dist;
+        }
+
+        int[] dist = calcularCampo(chaves);
+        campos.set(Math.floorMod(calculados.getAndIncrement(), MAX_CAMPOS), new Campo(chaves, dist));
+        return dist;
+    }
+
+    /**
+     * Runs a BFS from every treasure room, crossing only the corridors the key set opens.
+     * @param chaves the key set
+     * @return the distance of every room to the treasure
+     */
+    private int[] calcularCampo(ConjuntoChaves chaves) {
+        int numSalas = vista.numSalas();
+        int[] dist = new int[numSalas];
+        int[] fila = new int[numSalas];
+        int frente = 0;
+        int fim = 0;
+
+        for (int v = 0; v < numSalas; v++) {
+            if (vista.sala(v).getTipo() == TipoDivisao.SALA_CENTRAL) {
+                dist[v] = 0;
+                fila[fim++] = v;
+            } else {
+                dist[v] = INALCANCAVEL;
+            }
+        }
+
+        while (frente < fim) {
+            int v = fila[frente++];
+            int d = dist[v] + 1;
+            for (int s = vista.inicio(v); s < vista.fim(v); s++) {
+                int vizinho = vista.destino(s);
+                if (dist[vizinho] == INALCANCAVEL && passavel(s, chaves)) {
+                    dist[vizinho] = d;
+                    fila[fim++] = vizinho;
+                }
+            }
+        }
+        return dist;
+    }
+
+    /**
+     * Checks whether a corridor can be crossed with a given key set.
+     * @param slot   the corridor slot in the view
+     * @param chaves the key set
+     * @return true if the corridor is not locked or its key is in the set
+     */
+    private boolean passavel(int slot, ConjuntoChaves chaves) {
+        int tranca = trancaDoSlot[slot];
+        return tranca == SEM_TRANCA || chaves.contem(tranca);
+    }
+}
@@ -0,0 +1,221 @@
+package graph;
+
+import enums.CorredorEvento;
+import game.EventoCorredor;
+import structures.MapaArestas;
+
+/**
+ * Read-only, compact view of a labyrinth topology in compressed sparse row (CSR) form.
+ * The neighbours of vertex {@code v} are {@code destino(s)} for every slot {@code s} in
+ * {@code [inicio(v), fim(v))}, and each slot also holds the type and value of the corridor event.
+ * The view stays valid until the topology of the graph that produced it changes; corridor
+ * event updates made through the graph are reflected here. A session view of a shared map
+ * keeps its event changes in a small table by slot over the shared arrays instead.
+ * @param <T> the type of vertices stored in the labyrinth graph
+ */
+public class FrozenLabyrinth<T> {
+
+    /**
+     * Cached enum values, indexed by the ordinal stored in {@link #tiposEvento}.
+     */
+    private static final CorredorEvento[] TIPOS = CorredorEvento.values();
+
+    /**
+     * Vertices, in the same positions as in the graph.
+     */
+    private final Object[] salas;
+
+    /**
+     * For vertex {@code v}, the first slot of its neighbours; {@code offsets[v + 1]} is the end.
+     */
+    private final int[] offsets;
+
+    /**
+     * Neighbour vertex index stored in each slot.
+     */
+    private final int[] targets;
+
+    /**
+     * Ordinal of the corridor event type of each slot.
+     */
+    private final byte[] tiposEvento;
+
+    /**
+     * Value of the corridor event of each slot.
+     */
+    private final int[] valoresEvento;
+
+    /**
+     * Events of the slots a session changed, by slot, over the shared event arrays; null for
+     * the view of a map that changes its own arrays. Only slots that differ from the arrays are kept.
+     */
+    private final MapaArestas<EventoCorredor> alterados;
+
+    /**
+     * Creates the view from already built arrays.
+     * @param salas         the vertices
+     * @param offsets       the row offsets, with one extra entry at the end
+     * @param targets       the neighbour index of each slot
+     * @param tiposEvento   the event type ordinal of each slot
+     * @param valoresEvento the event value of each slot
+     */
+    FrozenLabyrinth(Object[] salas, int[] offsets, int[] targets, byte[] tiposEvento, int[] valoresEvento) {
+        this(salas, offsets, targets, tiposEvento, valoresEvento, null);
+    }
+
+    private FrozenLabyrinth(Object[] salas, int[] offsets, int[] targets, byte[] tiposEvento, int[] valoresEvento,
+                            MapaArestas<EventoCorredor> alterados) {
+        this.salas = salas;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.tiposEvento = tiposEvento;
+        this.valoresEvento = valoresEvento;
+        this.alterados = alterados;
+    }
+
+    /**
+     * Returns a view that shares every array with this one and keeps its own event changes apart,
+     * so that a session of a shared map can change its events without touching the others and
+     * without copying a slot it does not change.
+     * @return the new view
+     */
+    FrozenLabyrinth<T> comEventosProprios() {
+        return new FrozenLabyrinth<>(salas, offsets, targets, tiposEvento, valoresEvento, new MapaArestas<>(8));
+    }
+
+    /**
+     * Returns the number of vertices.
+     * @return the number of vertices
+     */
+    public int numSalas() {
+        return salas.length;
+    }
+
+    /**
+     * Returns the total number of slots (each undirected corridor uses two).
+     * @return the number of slots
+     */
+    public int numSlots() {
+        return targets.length;
+    }
+
+    /**
+     * Returns the vertex stored at a given index.
+     * @param indice the vertex index
+     * @return the vertex
+     */
+    @SuppressWarnings("unchecked")
+    public T sala(int indice) {
+        return (T) salas[indice];
+    }
+
+    /**
+     * Returns the first neighbour slot of a vertex.
+     * @param vertice the vertex index
+     * @return the first slot
+     */
+    public int inicio(int vertice) {
+        return offsets[vertice];
+    }
+
+    /**
+     * Returns the slot after the last neighbour slot of a vertex.
+     * @param vertice the vertex index
+     * @return the end slot (exclusive)
+     */
+    public int fim(int vertice) {
+        return offsets[vertice + 1];
+    }
+
+    /**
+     * Returns the number of neighbours of a vertex.
+     * @param vertice the vertex index
+     * @return the degree of the vertex
+     */
+    public int grau(int vertice) {
+        return offsets[vertice + 1] - offsets[vertice];
+    }
+
+    /**
+     * Returns the neighbour stored in a slot.
+     * @param slot the slot
+     * @return the neighbour vertex index
+     */
+    public int destino(int slot) {
+        return targets[slot];
+    }
+
+    /**
+     * Returns the vertex a slot belongs to, by a binary search over the offsets.
+     * @param slot the slot
+     * @return the vertex index whose neighbour slots include this one
+     */
+    public int origem(int slot) {
+        int baixo = 0;
+        int alto = salas.length - 1;
+        while (baixo < alto) {
+            int meio = (baixo + alto + 1) >>> 1;
+            if (offsets[meio] <= slot) baixo = meio;
+            else alto = meio - 1;
+        }
+        return baixo;
+    }
+
+    /**
+     * Returns the corridor event type stored in a slot.
+     * @param slot the slot
+     * @return the event type
+     */
+    public CorredorEvento tipoEvento(int slot) {
+        if (alterados != null && alterados.size() > 0) {
+            EventoCorredor alterado = alterados.get(slot);
+            if (alterado != null) return alterado.getTipo();
+        }
+        return TIPOS[tiposEvento[slot]];
+    }
+
+    /**
+     * Returns the corridor event value stored in a slot.
+     * @param slot the slot
+     * @return the event value
+     */
+    public int valorEvento(int slot) {
+        if (alterados != null && alterados.size() > 0) {
+            EventoCorredor alterado = alterados.get(slot);
+            if (alterado != null) return alterado.getValor();
+        }
+        return valoresEvento[slot];
+    }
+
+    /**
+     * Updates the event of every slot of the corridor between two vertices, in both directions.
+     * @param a      the first vertex index
+     * @param b      the second vertex index
+     * @param evento the new corridor event
+     */
+    void atualizarEvento(int a, int b, EventoCorredor evento) {
+        atualizarDirecao(a, b, evento);
+        atualizarDirecao(b, a, evento);
+    }
+
+    /**
+     * Updates the event of the slots going from one vertex to another.
+     * @param origem  the origin vertex index
+     * @param destino the destination vertex index
+     * @param evento  the new corridor event
+     */
+    private void atualizarDirecao(int origem, int destino, EventoCorredor evento) {
+        for (int s = offsets[origem]; s < offsets[origem + 1]; s++) {
+            if (targets[s] != destino) continue;
+            if (alterados == null) {
+                tiposEvento[s] = (byte) evento.getTipo().ordinal();
+                valoresEvento[s] = evento.getValor();
+            } else if (tiposEvento[s] == evento.getTipo().ordinal() && valoresEvento[s] == evento.getValor()) {
+                // voltou ao evento do mapa partilhado
+                alterados.remove(s);
+            } else if (!alterados.replace(s, evento)) {
+                alterados.putIfAbsent(s, evento);
+            }
+        }
+    }
+}
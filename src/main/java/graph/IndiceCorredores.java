@@ -0,0 +1,263 @@
+package graph;
+
+import java.util.Arrays;
+
+import enums.CorredorEvento;
+import game.EventoCorredor;
+import structures.ConjuntoArestas;
+import structures.MapaArestas;
+import structures.MapaIndices;
+
+/**
+ * Secondary indexes of the corridors of a map by their event: the corridors of each event type,
+ * and the locked corridors of each lock id. The graph keeps them in step with every event change,
+ * so counting the free corridors for a trap, or finding the corridors a key opens, does not scan the map.
+ * <p>
+ * The indexes of a session view are a small delta over the indexes of the shared map, which they
+ * never change: the corridors whose event differs from the map's, and for each event type the
+ * corridors the session took out of it or put into it.
+ */
+class IndiceCorredores {
+
+    /**
+     * Event types, looked up once.
+     */
+    private static final CorredorEvento[] TIPOS = CorredorEvento.values();
+
+    /**
+     * Empty set returned for lock ids without corridors; never changed.
+     */
+    private static final ConjuntoArestas SEM_CORREDORES = new ConjuntoArestas();
+
+    /**
+     * Corridors of each event type, by ordinal; null for a session's delta.
+     */
+    private final ConjuntoArestas[] porTipo;
+
+    /**
+     * Position in {@link #porTranca} of each lock id that has had a locked corridor.
+     */
+    private final MapaIndices<Integer> idsTranca;
+
+    /**
+     * Locked corridors of each lock id, at the position given by {@link #idsTranca}.
+     */
+    private ConjuntoArestas[] porTranca;
+
+    /**
+     * Indexes of the shared map this delta is over; null for the indexes of a map.
+     */
+    private final IndiceCorredores base;
+
+    /**
+     * Event of each corridor the session changed, as it is in the shared map.
+     */
+    private MapaArestas<EventoCorredor> originais;
+
+    /**
+     * Event of each corridor the session changed, as it is now.
+     */
+    private MapaArestas<EventoCorredor> atuais;
+
+    /**
+     * For each event type, the changed corridors that had it in the shared map; null until one does.
+     */
+    private ConjuntoArestas[] retirados;
+
+    /**
+     * For each event type, the changed corridors that have it now; null until one does.
+     */
+    private ConjuntoArestas[] adicionados;
+
+    private IndiceCorredores(ConjuntoArestas[] porTipo) {
+        this.porTipo = porTipo;
+        this.idsTranca = new MapaIndices<>();
+        this.porTranca = new ConjuntoArestas[4];
+        this.base = null;
+    }
+
+    private IndiceCorredores(IndiceCorredores base) {
+        this.porTipo = null;
+        this.idsTranca = null;
+        this.base = base;
+    }
+
+    /**
+     * Builds the indexes of every corridor of a frozen view.
+     * @param vista the frozen view of the map
+     * @return the indexes
+     */
+    static IndiceCorredores construir(FrozenLabyrinth<?> vista) {
+        ConjuntoArestas[] porTipo = new ConjuntoArestas[TIPOS.length];
+        for (int t = 0; t < TIPOS.length; t++) {
+            porTipo[t] = new ConjuntoArestas();
+        }
+        IndiceCorredores indice = new IndiceCorredores(porTipo);
+        for (int i = 0; i < vista.numSalas(); i++) {
+            for (int s = vista.inicio(i); s < vista.fim(i); s++) {
+                int j = vista.destino(s);
+                if (j < i) continue;
+                indice.adicionar(MapaArestas.chave(i, j), vista.tipoEvento(s), vista.valorEvento(s));
+            }
+        }
+        return indice;
+    }
+
+    /**
+     * Returns empty indexes for a session view, over these ones. A session only reads the indexes
+     * it is over, so several sessions may use them from different threads, provided these were
+     * built before those threads started and are not changed afterwards.
+     * @return the indexes of the session
+     */
+    IndiceCorredores sessao() {
+        return new IndiceCorredores(base != null ? base : this);
+    }
+
+    /**
+     * Moves a corridor from the indexes of its old event to those of the new one.
+     * Edge keys that are not indexed, such as those of removed corridors, are ignored.
+     * @param chave    the edge key of the corridor
+     * @param anterior the event the corridor had
+     * @param novo     the event it has now
+     */
+    void mudar(long chave, EventoCorredor anterior, EventoCorredor novo) {
+        if (base != null) {
+            mudarNaSessao(chave, anterior, novo);
+            return;
+        }
+        if (!porTipo[anterior.getTipo().ordinal()].remove(chave)) return;
+        if (anterior.getTipo() == CorredorEvento.LOCKED) {
+            int posicao = idsTranca.get(anterior.getValor());
+            if (posicao != MapaIndices.NAO_ENCONTRADO) porTranca[posicao].remove(chave);
+        }
+        adicionar(chave, novo.getTipo(), novo.getValor());
+    }
+
+    /**
+     * Returns how many corridors have an event type.
+     * @param tipo the event type
+     * @return the number of corridors
+     */
+    int contar(CorredorEvento tipo) {
+        if (base == null) return porTipo[tipo.ordinal()].size();
+        return base.contar(tipo) - tamanho(retirados, tipo) + tamanho(adicionados, tipo);
+    }
+
+    /**
+     * Returns the corridors that have an event type.
+     * @param tipo the event type
+     * @return the edge keys of those corridors, in no particular order
+     */
+    long[] comTipo(CorredorEvento tipo) {
+        if (base == null) return porTipo[tipo.ordinal()].toArray();
+
+        long[] partilhados = base.comTipo(tipo);
+        long[] chaves = new long[contar(tipo)];
+        int n = 0;
+        for (long chave : partilhados) {
+            if (!contem(retirados, tipo, chave)) chaves[n++] = chave;
+        }
+        ConjuntoArestas novos = adicionados == null ? null : adicionados[tipo.ordinal()];
+        for (int i = 0; novos != null && i < novos.size(); i++) {
+            chaves[n++] = novos.get(i);
+        }
+        return chaves;
+    }
+
+    /**
+     * Returns the corridors closed by a lock.
+     * @param id the lock id
+     * @return the edge keys of those corridors, in no particular order; empty if there are none
+     */
+    long[] comTranca(int id) {
+        if (base == null) {
+            int posicao = idsTranca.get(id);
+            return (posicao == MapaIndices.NAO_ENCONTRADO ? SEM_CORREDORES : porTranca[posicao]).toArray();
+        }
+
+        long[] partilhados = base.comTranca(id);
+        if (atuais == null) return partilhados;
+        long[] chaves = new long[partilhados.length + atuais.size()];
+        int n = 0;
+        for (long chave : partilhados) {
+            if (!atuais.contains(chave)) chaves[n++] = chave;
+        }
+        for (int slot = 0; slot < atuais.slots(); slot++) {
+            EventoCorredor evento = atuais.valorNoSlot(slot);
+            if (evento != null && evento.getTipo() == CorredorEvento.LOCKED && evento.getValor() == id) {
+                chaves[n++] = atuais.chaveNoSlot(slot);
+            }
+        }
+        return Arrays.copyOf(chaves, n);
+    }
+
+    /**
+     * Records a change of a session over the shared indexes. A corridor that gets its shared event
+     * back leaves the delta, so the delta only holds the corridors that differ from the map.
+     */
+    private void mudarNaSessao(long chave, EventoCorredor anterior, EventoCorredor novo) {
+        EventoCorredor original = originais == null ? null : originais.get(chave);
+        if (original == null) {
+            // primeira mudança do corredor nesta sessão: o evento anterior é o do mapa
+            if (!base.porTipo[anterior.getTipo().ordinal()].contains(chave)) return;
+            original = anterior;
+            if (originais == null) {
+                originais = new MapaArestas<>(8);
+                atuais = new MapaArestas<>(8);
+                retirados = new ConjuntoArestas[TIPOS.length];
+                adicionados = new ConjuntoArestas[TIPOS.length];
+            }
+            originais.putIfAbsent(chave, original);
+            atuais.putIfAbsent(chave, novo);
+            conjunto(retirados, original.getTipo()).add(chave);
+        } else {
+            adicionados[anterior.getTipo().ordinal()].remove(chave);
+            atuais.replace(chave, novo);
+        }
+
+        if (original.getTipo() == novo.getTipo() && original.getValor() == novo.getValor()) {
+            originais.remove(chave);
+            atuais.remove(chave);
+            retirados[original.getTipo().ordinal()].remove(chave);
+        } else {
+            conjunto(adicionados, novo.getTipo()).add(chave);
+        }
+    }
+
+    /**
+     * Adds a corridor to the indexes of an event.
+     */
+    private void adicionar(long chave, CorredorEvento tipo, int valor) {
+        porTipo[tipo.ordinal()].add(chave);
+        if (tipo != CorredorEvento.LOCKED) return;
+
+        int posicao = idsTranca.get(valor);
+        if (posicao == MapaIndices.NAO_ENCONTRADO) {
+            posicao = idsTranca.size();
+            idsTranca.put(valor, posicao);
+            if (posicao == porTranca.length) {
+                ConjuntoArestas[] maior = new ConjuntoArestas[porTranca.length << 1];
+                System.arraycopy(porTranca, 0, maior, 0, porTranca.length);
+                porTranca = maior;
+            }
+            porTranca[posicao] = new ConjuntoArestas();
+        }
+        porTranca[posicao].add(chave);
+    }
+
+    /**
+     * Returns the set of a type in a delta array, creating it the first time.
+     */
+    private static ConjuntoArestas conjunto(ConjuntoArestas[] porTipo, CorredorEvento tipo) {
+        if (porTipo[tipo.ordinal()] == null) porTipo[tipo.ordinal()] = new ConjuntoArestas();
+        return porTipo[tipo.ordinal()];
+    }
+
+    private static int tamanho(ConjuntoArestas[] porTipo, CorredorEvento tipo) {
+        return porTipo == null || porTipo[tipo.ordinal()] == null ? 0 : porTipo[tipo.ordinal()].size();
+    }
+
+    private static boolean contem(ConjuntoArestas[] porTipo, CorredorEvento tipo, long chave) {
+        return porTipo != null && porTipo[tipo.ordinal()] != null && porTipo[tipo.ordinal()].contains(chave);
+    }
+}
@@ -0,0 +1,269 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import enums.CorredorEvento;
+import enums.TipoDivisao;
+import game.Divisao;
+
+/**
+ * Distances to the treasure room over the product space (room, set of keys held).
+ * Each lock id found on a {@link CorredorEvento#LOCKED} corridor is a bit of the key set, and
+ * entering a {@link TipoDivisao#SALA_ALAVANCA} room adds the key of the lock it opens, so the
+ * distances already include the detours through lever rooms in the best order.
+ * The table is built once per map, layer by layer: a key set only depends on larger key sets,
+ * so all key sets with the same number of keys are computed in parallel.
+ */
+public class KeyStateDistanceTable {
+
+    /**
+     * Distance stored for states from which the treasure cannot be reached.
+     */
+    public static final int INALCANCAVEL = Integer.MAX_VALUE;
+
+    /**
+     * Largest number of distinct locks supported; maps with more locks get no table.
+     */
+    public static final int MAX_CHAVES = 10;
+
+    /**
+     * Largest number of (room, key set) states stored; bigger maps get no table.
+     */
+    public static final long MAX_ESTADOS = 1L << 24;
+
+    /**
+     * Frozen view of the map the table was built from.
+     */
+    private final FrozenLabyrinth<Divisao> vista;
+
+    /**
+     * Lock id represented by each bit of a key set.
+     */
+    private final int[] idsChaves;
+
+    /**
+     * Bit of the key given by each room, or -1 if entering the room gives no key.
+     */
+    private final int[] bitDaSala;
+
+    /**
+     * Distance to the treasure of every room, for each key set.
+     */
+    private final int[][] distancias;
+
+    /**
+     * Creates an empty table; the distances are filled by {@link #calcular()}.
+     * @param vista     the frozen view of the map
+     * @param idsChaves the lock id of each key bit
+     * @param bitDaSala the key bit given by each room, or -1
+     */
+    private KeyStateDistanceTable(FrozenLabyrinth<Divisao> vista, int[] idsChaves, int[] bitDaSala) {
+        this.vista = vista;
+        this.idsChaves = idsChaves;
+        this.bitDaSala = bitDaSala;
+        this.distancias = new int[1 << idsChaves.length][];
+    }
+
+    /**
+     * Builds the table for a map.
+     * @param vista the frozen view of the map
+     * @return the distance table, or null if the map has too many locks or states
+     */
+    public static KeyStateDistanceTable construir(FrozenLabyrinth<Divisao> vista) {
+        int[] ids = new int[MAX_CHAVES];
+        int numChaves = 0;
+        for (int s = 0; s < vista.numSlots(); s++) {
+            if (vista.tipoEvento(s) != CorredorEvento.LOCKED) continue;
+
+            int id = vista.valorEvento(s);
+            boolean repetida = false;
+            for (int i = 0; i < numChaves && !repetida; i++) {
+                repetida = ids[i] == id;
+            }
+            if (!repetida) {
+                if (numChaves == MAX_CHAVES) return null;
+                ids[numChaves++] = id;
+            }
+        }
+        if (((long) vista.numSalas() << numChaves) > MAX_ESTADOS) return null;
+
+        int[] idsChaves = Arrays.copyOf(ids, numChaves);
+        int[] bitDaSala = new int[vista.numSalas()];
+        for (int v = 0; v < bitDaSala.length; v++) {
+            Divisao sala = vista.sala(v);
+            bitDaSala[v] = sala.getTipo() == TipoDivisao.SALA_ALAVANCA ? procurarBit(idsChaves, sala.getIdDesbloqueio()) : -1;
+        }
+
+        KeyStateDistanceTable tabela = new KeyStateDistanceTable(vista, idsChaves, bitDaSala);
+        tabela.calcular();
+        return tabela;
+    }
+
+    /**
+     * Returns the number of keys (distinct locks) in the map.
+     * @return the number of key bits
+     */
+    public int numChaves() {
+        return idsChaves.length;
+    }
+
+    /**
+     * Returns the lock id represented by a key bit.
+     * @param bit the key bit
+     * @return the lock id
+     */
+    public int idChave(int bit) {
+        return idsChaves[bit];
+    }
+
+    /**
+     * Returns the distance from a room to the treasure for a given key set.
+     * @param sala     the room index
+     * @param mascara  the key set, one bit per key
+     * @return the number of moves, or {@link #INALCANCAVEL}
+     */
+    public int distancia(int sala, int mascara) {
+        return distancias[mascara][sala];
+    }
+
+    /**
+     * Returns the neighbour to move to in order to reach the treasure as fast as possible,
+     * picking up keys on the way. Ties are broken by adjacency order.
+     * @param sala    the current room index
+     * @param mascara the keys currently held
+     * @return the neighbour room index, or -1 if the room is the treasure or the treasure is unreachable
+     */
+    public int proximoPasso(int sala, int mascara) {
+        if (vista.sala(sala).getTipo() == TipoDivisao.SALA_CENTRAL) return -1;
+
+        int melhor = INALCANCAVEL;
+        int escolha = -1;
+        for (int s = vista.inicio(sala); s < vista.fim(sala); s++) {
+            if (!passavel(s, mascara)) continue;
+
+            int vizinho = vista.destino(s);
+            int d = distancias[mascara | chaveAoEntrar(vizinho)][vizinho];
+            if (d < melhor) {
+                melhor = d;
+                escolha = vizinho;
+            }
+        }
+        return escolha;
+    }
+
+    /**
+     * Computes every layer, from the full key set down to the empty one.
+     */
+    private void calcular() {
+        int numMascaras = 1 << idsChaves.length;
+        for (int nivel = idsChaves.length; nivel >= 0; nivel--) {
+            final int chaves = nivel;
+            IntStream.range(0, numMascaras)
+                    .filter(m -> Integer.bitCount(m) == chaves)
+                    .parallel()
+                    .forEach(this::calcularCamada);
+        }
+    }
+
+    /**
+     * Computes the distances of one key set. Rooms next to a lever room whose key is missing
+     * are seeded with the distance of the larger key set (already computed); the treasure is
+     * seeded with 0. The seeds are then merged, in increasing order, into a plain BFS.
+     * @param mascara the key set of this layer
+     */
+    private void calcularCamada(int mascara) {
+        int numSalas = vista.numSalas();
+        int[] dist = new int[numSalas];
+        long[] sementes = new long[numSalas];
+        int numSementes = 0;
+
+        for (int v = 0; v < numSalas; v++) {
+            int melhor = INALCANCAVEL;
+            if (vista.sala(v).getTipo() == TipoDivisao.SALA_CENTRAL) {
+                melhor = 0;
+            } else {
+                for (int s = vista.inicio(v); s < vista.fim(v); s++) {
+                    int vizinho = vista.destino(s);
+                    int chave = chaveAoEntrar(vizinho);
+                    if ((chave & ~mascara) == 0 || !passavel(s, mascara)) continue;
+
+                    int d = distancias[mascara | chave][vizinho];
+                    if (d != INALCANCAVEL && d + 1 < melhor) melhor = d + 1;
+                }
+            }
+            dist[v] = melhor;
+            if (melhor != INALCANCAVEL) {
+                sementes[numSementes++] = ((long) melhor << 32) | v;
+            }
+        }
+        Arrays.sort(sementes, 0, numSementes);
+
+        boolean[] feito = new boolean[numSalas];
+        int[] fila = new int[numSalas];
+        int frente = 0;
+        int fim = 0;
+        int proximaSemente = 0;
+
+        while (proximaSemente < numSementes || frente < fim) {
+            int v;
+            if (frente < fim && (proximaSemente == numSementes
+                    || dist[fila[frente]] <= (int) (sementes[proximaSemente] >>> 32))) {
+                v = fila[frente++];
+            } else {
+                v = (int) sementes[proximaSemente++];
+            }
+            if (feito[v]) continue;
+            feito[v] = true;
+
+            // Entrar em v muda o conjunto de chaves: quem chega por aqui já foi semeado
+            if ((chaveAoEntrar(v) & ~mascara) != 0) continue;
+
+            int d = dist[v] + 1;
+            for (int s = vista.inicio(v); s < vista.fim(v); s++) {
+                int vizinho = vista.destino(s);
+                if (!feito[vizinho] && d < dist[vizinho] && passavel(s, mascara)) {
+                    dist[vizinho] = d;
+                    fila[fim++] = vizinho;
+                }
+            }
+        }
+        distancias[mascara] = dist;
+    }
+
+    /**
+     * Returns the key set gained by entering a room.
+     * @param sala the room index
+     * @return a mask with the bit of the room's key, or 0
+     */
+    private int chaveAoEntrar(int sala) {
+        int bit = bitDaSala[sala];
+        return bit < 0 ? 0 : 1 << bit;
+    }
+
+    /**
+     * Checks whether a corridor can be crossed with a given key set.
+     * @param slot    the corridor slot in the view
+     * @param mascara the key set
+     * @return true if the corridor is not locked or its key is in the set
+     */
+    private boolean passavel(int slot, int mascara) {
+        if (vista.tipoEvento(slot) != CorredorEvento.LOCKED) return true;
+
+        int bit = procurarBit(idsChaves, vista.valorEvento(slot));
+        return bit >= 0 && (mascara & (1 << bit)) != 0;
+    }
+
+    /**
+     * Finds the key bit of a lock id.
+     * @param ids the lock id of each bit
+     * @param id  the lock id
+     * @return the bit, or -1 if the id is not a lock of the map
+     */
+    private static int procurarBit(int[] ids, int id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) return i;
+        }
+        return -1;
+    }
+}
@@ -1,101 +1,400 @@
 package graph;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.function.IntConsumer;
+import java.util.function.UnaryOperator;
+import java.util.random.RandomGenerator;
 
 import Graphs.GraphList;
-import Lists.ArrayUnorderedList;
+import Lists.UnorderedLinkedList;
 import enums.CorredorEvento;
+import game.Alavanca;
+import game.Aleatorio;
 import game.Divisao;
 import game.EventoCorredor;
-import structures.MapaNode;
+import structures.MapaArestas;
+import structures.MapaIndices;
 
 /**
  * Graph representation for the labyrinth game.
+ * <p>
+ * A map loaded or generated once can be shared by many games: {@link #sessao()} returns a view
+ * of it for one game, which shares the rooms, the topology, the corridor events and the distance
+ * table and fields, and keeps only what the game changes — moved traps and the lever combinations.
  * @param <T> the type of vertices stored in the labyrinth graph
  */
 public class LabyrinthGraph<T> extends GraphList<T> {
 
     /**
-     * For each vertex index, stores a list of key-value pairs where:
+     * Largest number of slots per corridor of a type for which {@link #sortearCorredor} tries
+     * random slots; past it, the corridors of the type are too few to hit by chance.
      */
-    private ArrayUnorderedList<MapaNode<Integer, EventoCorredor>>[] edgeEvents;
+    private static final int DISPERSAO_SORTEIO = 16;
+
+    /**
+     * Corridor events indexed by the key of each undirected edge (pair of vertex indexes).
+     * Both directions of a corridor share the same entry.
+     */
+    private MapaArestas<EventoCorredor> eventosCorredores;
+
+    /**
+     * Index from each vertex to its position in the vertices array, so that index
+     * resolution does not need to scan every vertex.
+     */
+    private MapaIndices<T> indiceVertices;
+
+    /**
+     * Compact read-only view of the current topology, built by {@link #freeze()}
+     * and discarded whenever vertices or corridors are added or removed. While it exists the
+     * linked adjacency lists are released, and rebuilt from it only if the topology changes again.
+     */
+    private FrozenLabyrinth<T> congelado;
+
+    /**
+     * Distance table over (room, key set) states, built by {@link #distanciasPorChaves()} and
+     * discarded whenever the topology or a lock changes.
+     */
+    private KeyStateDistanceTable tabelaChaves;
+
+    /**
+     * Whether {@link #tabelaChaves} reflects the current map (it may be null when the map is too big).
+     */
+    private boolean tabelaChavesCalculada;
+
+    /**
+     * Shared distance fields to the treasure, created by {@link #campoDistancias()} and
+     * discarded together with the distance table.
+     */
+    private DistanceFieldService campoDistancias;
+
+    /**
+     * Whether {@link #campoDistancias} reflects the current map.
+     */
+    private boolean campoDistanciasCriado;
+
+    /**
+     * Corridor events changed by the game of a session view, over the shared {@link #eventosCorredores};
+     * null for a graph that is not a session view.
+     */
+    private MapaArestas<EventoCorredor> eventosSessao;
+
+    /**
+     * Whether the frozen view keeps its own event changes, or is still the shared map's view.
+     */
+    private boolean vistaPropria = true;
+
+    /**
+     * Levers of the rooms a game has used, keyed by vertex position, so a session holds only those;
+     * null until the first one.
+     */
+    private MapaArestas<Alavanca> alavancas;
+
+    /**
+     * Corridors by event type and locked corridors by lock id, built with the frozen view and
+     * kept in step with {@link #setCorredorEvento}; discarded with the frozen view. A session
+     * view holds only its changes over the shared map's.
+     */
+    private IndiceCorredores indiceCorredores;
+
     /**
      * Creates an empty LabyrinthGraph
      */
     public LabyrinthGraph() {
         super();
-        this.edgeEvents = (ArrayUnorderedList<MapaNode<Integer, EventoCorredor>>[]) new ArrayUnorderedList[DEFAULT_CAPACITY];
+        this.eventosCorredores = new MapaArestas<>(DEFAULT_CAPACITY);
+        this.indiceVertices = new MapaIndices<>(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a session view of a map; see {@link #sessao()}.
+     * @param partilhado the shared map
+     */
+    private LabyrinthGraph(LabyrinthGraph<T> partilhado) {
+        super();
+        this.congelado = partilhado.freeze();
+        this.vertices = partilhado.vertices;
+        this.adjLists = null;
+        this.numVertices = partilhado.numVertices;
+        this.indiceVertices = partilhado.indiceVertices;
+        this.eventosCorredores = partilhado.eventosCorredores;
+        this.vistaPropria = false;
+        this.tabelaChaves = partilhado.distanciasPorChaves();
+        this.tabelaChavesCalculada = true;
+        this.campoDistancias = partilhado.campoDistancias();
+        this.campoDistanciasCriado = true;
+        this.indiceCorredores = partilhado.indiceCorredores().sessao();
+        this.eventosSessao = new MapaArestas<>(8);
+    }
+
+    /**
+     * Returns a view of this map for one game. The view shares the rooms, the topology, the
+     * corridor events, the distance table and the distance fields with this map and with every
+     * other view, so it costs a few small objects instead of a copy of the map. Trap moves and levers of the game are kept
+     * in the view only, as small tables of what changed over the shared map: the frozen view keeps
+     * the slots a trap move changed, and the corridor indexes the corridors that moved between types.
+     * Views cannot add or remove rooms or corridors, and this map must not change while they are in use.
+     * Creating a view freezes this map, which builds its corridor indexes, and builds its distance
+     * table and fields if needed; views only read them. To create views from several threads,
+     * freeze the map and build its table and fields on one thread before the others start, as
+     * the tournament runner and the session registry do.
+     * @return a new session view
+     */
+    public LabyrinthGraph<T> sessao() {
+        return new LabyrinthGraph<>(this);
+    }
+
+    /**
+     * Returns whether this graph is a session view of a shared map.
+     * @return true for views made by {@link #sessao()}
+     */
+    public boolean isSessao() {
+        return eventosSessao != null;
+    }
+
+    /**
+     * Fails if this graph is a session view, whose topology belongs to the shared map.
+     */
+    private void exigirTopologiaPropria() {
+        if (eventosSessao != null) {
+            throw new UnsupportedOperationException("A topologia de um mapa partilhado não pode mudar numa sessão");
+        }
+    }
+
+    /**
+     * Adds a vertex to the graph and registers its position in the vertex index.
+     * @param vertex the vertex to add
+     */
+    @Override
+    public void addVertex(T vertex) {
+        exigirTopologiaPropria();
+        garantirListas();
+        super.addVertex(vertex);
+        indiceVertices.putIfAbsent(vertex, numVertices - 1);
+        descartarVistas();
+    }
+
+    /**
+     * Adds an edge between two vertex positions, discarding the frozen view.
+     * @param index1 the first vertex position
+     * @param index2 the second vertex position
+     */
+    @Override
+    public void addEdge(int index1, int index2) {
+        exigirTopologiaPropria();
+        garantirListas();
+        super.addEdge(index1, index2);
+        descartarVistas();
+    }
+
+    /**
+     * Removes an edge between two vertices, discarding the frozen view.
+     * @param vertex1 the first vertex
+     * @param vertex2 the second vertex
+     */
+    @Override
+    public void removeEdge(T vertex1, T vertex2) {
+        exigirTopologiaPropria();
+        garantirListas();
+        super.removeEdge(vertex1, vertex2);
+        descartarVistas();
+    }
+
+    /**
+     * Removes the vertex at the given position together with its corridors, shifting the
+     * following vertices one position back and renumbering every stored neighbour index.
+     * @param index the position of the vertex to remove
+     */
+    @Override
+    public void removeVertex(int index) {
+        exigirTopologiaPropria();
+        if (!indexIsValid(index)) return;
+
+        garantirListas();
+        super.removeVertex(index);
+
+        for (int i = 0; i < numVertices; i++) {
+            adjLists[i] = renumerarVizinhos(adjLists[i], index);
+        }
+        eventosCorredores = renumerarEventos(eventosCorredores, index);
+
+        reconstruirIndice();
+        descartarVistas();
+    }
+
+    /**
+     * Rebuilds the linked adjacency lists from the frozen view, if they were released,
+     * before the topology changes or an inherited traversal reads them.
+     */
+    private synchronized void garantirListas() {
+        if (adjLists != null) return;
+
+        @SuppressWarnings("unchecked")
+        UnorderedLinkedList<Integer>[] listas = new UnorderedLinkedList[vertices.length];
+        for (int i = 0; i < listas.length; i++) {
+            listas[i] = new UnorderedLinkedList<>();
+        }
+        for (int i = 0; i < numVertices; i++) {
+            for (int s = congelado.inicio(i); s < congelado.fim(i); s++) {
+                listas[i].addToRear(congelado.destino(s));
+            }
+        }
+        adjLists = listas;
+    }
+
+    @Override
+    public Iterator<T> iteratorBFS(int startIndex) {
+        garantirListas();
+        return super.iteratorBFS(startIndex);
+    }
+
+    @Override
+    public Iterator<T> iteratorDFS(int startIndex) {
+        garantirListas();
+        return super.iteratorDFS(startIndex);
+    }
+
+    @Override
+    public Iterator<T> iteratorShortestPath(int startIndex, int targetIndex) {
+        garantirListas();
+        return super.iteratorShortestPath(startIndex, targetIndex);
+    }
+
+    @Override
+    public String toString() {
+        garantirListas();
+        return super.toString();
     }
+
     /**
-     * Expands the storage capacity when the number of vertices is reached
+     * Discards the frozen view and everything derived from it, after a topology change.
+     */
+    private void descartarVistas() {
+        congelado = null;
+        indiceCorredores = null;
+        descartarDistancias();
+    }
+
+    /**
+     * Discards the distance table and the distance fields, after a topology or lock change.
+     */
+    private void descartarDistancias() {
+        tabelaChaves = null;
+        tabelaChavesCalculada = false;
+        campoDistancias = null;
+        campoDistanciasCriado = false;
+    }
+
+    /**
+     * Returns the position of a vertex in constant time using the vertex index.
+     * @param vertex the vertex to look up
+     * @return the vertex position, or -1 if the vertex is not in the graph
      */
     @Override
-    protected void expandCapacity() {
-        super.expandCapacity();
+    public int getIndex(T vertex) {
+        return indiceVertices.get(vertex);
+    }
 
-        ArrayUnorderedList<MapaNode<Integer, EventoCorredor>>[] largerEdgeEvents = (ArrayUnorderedList<MapaNode<Integer, EventoCorredor>>[]) new ArrayUnorderedList[vertices.length];
+    /**
+     * Rebuilds the vertex index from the vertices array, keeping the first position of each vertex.
+     */
+    private void reconstruirIndice() {
+        indiceVertices.clear();
+        for (int i = 0; i < numVertices; i++) {
+            indiceVertices.putIfAbsent(vertices[i], i);
+        }
+    }
 
-        for (int i = 0; i < edgeEvents.length; i++) {
-            largerEdgeEvents[i] = edgeEvents[i];
+    /**
+     * Builds a copy of an adjacency list without the removed vertex and with the
+     * indexes after it moved one position back.
+     * @param lista    the adjacency list to renumber
+     * @param removido the position of the removed vertex
+     * @return the renumbered adjacency list
+     */
+    private UnorderedLinkedList<Integer> renumerarVizinhos(UnorderedLinkedList<Integer> lista, int removido) {
+        UnorderedLinkedList<Integer> nova = new UnorderedLinkedList<>();
+        Iterator<Integer> it = lista.iterator();
+        while (it.hasNext()) {
+            int vizinho = it.next();
+            if (vizinho != removido) {
+                nova.addToRear(vizinho > removido ? vizinho - 1 : vizinho);
+            }
         }
+        return nova;
+    }
 
-        edgeEvents = largerEdgeEvents;
+    /**
+     * Builds a copy of the corridor event table without the corridors of the removed vertex
+     * and with the indexes after it moved one position back.
+     * @param tabela   the event table to renumber
+     * @param removido the position of the removed vertex
+     * @return the renumbered event table
+     */
+    private MapaArestas<EventoCorredor> renumerarEventos(MapaArestas<EventoCorredor> tabela, int removido) {
+        MapaArestas<EventoCorredor> nova = new MapaArestas<>(tabela.size());
+        for (int slot = 0; slot < tabela.slots(); slot++) {
+            long chave = tabela.chaveNoSlot(slot);
+            if (chave == MapaArestas.VAZIO) continue;
+
+            int a = MapaArestas.primeiro(chave);
+            int b = MapaArestas.segundo(chave);
+            if (a == removido || b == removido) continue;
+
+            if (a > removido) a--;
+            if (b > removido) b--;
+            nova.putIfAbsent(MapaArestas.chave(a, b), tabela.valorNoSlot(slot));
+        }
+        return nova;
     }
 
     /**
      * Adds an undirected edge between two vertices, associating the same event with both directions.
+     * If the corridor already exists, the event it already has is kept.
      * @param vertex1 the first vertex
      * @param vertex2 the second vertex
      * @param event   the corridor event to associate with this edge
      */
     public void addCorredor(T vertex1, T vertex2, EventoCorredor event) {
-        super.addEdge(vertex1, vertex2);
-
         int index1 = getIndex(vertex1);
         int index2 = getIndex(vertex2);
 
-        adicionarEventoUnico(index1, index2, event);
-        adicionarEventoUnico(index2, index1, event);
-    }
+        if (!indexIsValid(index1) || !indexIsValid(index2)) return;
 
-    /**
-     * Associates a edge event from one origin vertex index to a destination index.
-     * @param origem  the origin vertex index
-     * @param destino the destination vertex index
-     * @param event   the event to be stored
-     */
-    private void adicionarEventoUnico(int origem, int destino, EventoCorredor event) {
-        if (edgeEvents[origem] == null) {
-            edgeEvents[origem] = new ArrayUnorderedList<>();
-        }
-        MapaNode<Integer, EventoCorredor> node =
-                new MapaNode<>(destino, event);
-        edgeEvents[origem].addToRear(node);
+        addEdge(index1, index2);
+        eventosCorredores.putIfAbsent(MapaArestas.chave(index1, index2), event);
     }
 
     /**
      * Returns the event associated with a specific edge between two vertices.
      * @param vertex1 the first vertex
      * @param vertex2 the second vertex
-     * @return the EventoCorredor associated with the corridor
+     * @return the EventoCorredor associated with the corridor, or the shared
+     *         {@link EventoCorredor#NONE} if the corridor has no event
      */
     public EventoCorredor getCorredorEvento(T vertex1, T vertex2) {
         int index1 = getIndex(vertex1);
         int index2 = getIndex(vertex2);
 
-        if (!indexIsValid(index1) || edgeEvents[index1] == null) {
-            return new EventoCorredor(CorredorEvento.NONE, 0);
+        if (!indexIsValid(index1) || !indexIsValid(index2)) {
+            return EventoCorredor.NONE;
         }
 
-        Iterator<MapaNode<Integer, EventoCorredor>> it = edgeEvents[index1].iterator();
-        while (it.hasNext()) {
-            MapaNode<Integer, EventoCorredor> node = it.next();
-            if (node.getKey().equals(index2)) {
-                return node.getValue();
-            }
-        }
+        EventoCorredor evento = evento(MapaArestas.chave(index1, index2));
+        return evento != null ? evento : EventoCorredor.NONE;
+    }
 
-        return new EventoCorredor(CorredorEvento.NONE, 0);
+    /**
+     * Returns the event stored for a corridor, looking first at the changes of a session view.
+     * @param chave the edge key
+     * @return the event, or null if the corridor does not exist
+     */
+    private EventoCorredor evento(long chave) {
+        if (eventosSessao != null) {
+            EventoCorredor alterado = eventosSessao.get(chave);
+            if (alterado != null) return alterado;
+        }
+        return eventosCorredores.get(chave);
     }
 
     /**
@@ -121,15 +420,78 @@ public class LabyrinthGraph<T> extends GraphList<T> {
 
         if (!indexIsValid(index)) return vizinhos;
 
-        java.util.Iterator<Integer> it = adjLists[index].iterator();
-        while (it.hasNext()) {
-            int vizinhoIndex = it.next();
-            vizinhos.addToRear(vertices[vizinhoIndex]);
+        FrozenLabyrinth<T> vista = freeze();
+        for (int s = vista.inicio(index); s < vista.fim(index); s++) {
+            vizinhos.addToRear(vertices[vista.destino(s)]);
         }
         return vizinhos;
     }
 
 
+    /**
+     * Returns the vertex stored at a given position.
+     * @param index the vertex position
+     * @return the vertex, or null if the position is not valid
+     */
+    public T getVertex(int index) {
+        return indexIsValid(index) ? vertices[index] : null;
+    }
+
+    /**
+     * Returns the number of neighbours of the vertex at a given position.
+     * @param index the vertex position
+     * @return the degree of the vertex, or 0 if the position is not valid
+     */
+    public int degree(int index) {
+        return indexIsValid(index) ? freeze().grau(index) : 0;
+    }
+
+    /**
+     * Returns the number of neighbours of a vertex.
+     * @param vertex the vertex
+     * @return the degree of the vertex, or 0 if it is not in the graph
+     */
+    public int degree(T vertex) {
+        return degree(getIndex(vertex));
+    }
+
+    /**
+     * Returns the position of the k-th neighbour of a vertex, in adjacency order.
+     * @param index the vertex position
+     * @param k     the neighbour number, from 0 to {@code degree(index) - 1}
+     * @return the neighbour position
+     */
+    public int getNeighbour(int index, int k) {
+        FrozenLabyrinth<T> vista = freeze();
+        return vista.destino(vista.inicio(index) + k);
+    }
+
+    /**
+     * Calls an action with the position of every neighbour of a vertex, in adjacency order,
+     * without building an intermediate list.
+     * @param index the vertex position
+     * @param acao  the action to call for each neighbour position
+     */
+    public void forEachNeighbour(int index, IntConsumer acao) {
+        if (!indexIsValid(index)) return;
+
+        FrozenLabyrinth<T> vista = freeze();
+        for (int s = vista.inicio(index); s < vista.fim(index); s++) {
+            acao.accept(vista.destino(s));
+        }
+    }
+
+    /**
+     * Returns the event of the corridor between two vertex positions.
+     * @param index1 the first vertex position
+     * @param index2 the second vertex position
+     * @return the corridor event, or the shared {@link EventoCorredor#NONE} if there is none
+     */
+    public EventoCorredor getCorredorEventoPorIndice(int index1, int index2) {
+        EventoCorredor evento = evento(MapaArestas.chave(index1, index2));
+        return evento != null ? evento : EventoCorredor.NONE;
+    }
+
     /**
      * Updates the event of an existing edge, replacing the previous value.
 
@@ -142,70 +504,326 @@ public class LabyrinthGraph<T> extends GraphList<T> {
         int index2 = getIndex(vertex2);
 
         if (indexIsValid(index1) && indexIsValid(index2)) {
-            atualizarEventoUnico(index1, index2, novoEvento);
-            atualizarEventoUnico(index2, index1, novoEvento);
+            long chave = MapaArestas.chave(index1, index2);
+            EventoCorredor anterior = evento(chave);
+            if (anterior == null) return;
+
+            if (eventosSessao == null) {
+                eventosCorredores.replace(chave, novoEvento);
+            } else if (mesmoEvento(eventosCorredores.get(chave), novoEvento)) {
+                eventosSessao.remove(chave);
+            } else if (!eventosSessao.replace(chave, novoEvento)) {
+                eventosSessao.putIfAbsent(chave, novoEvento);
+            }
+            if (indiceCorredores != null) {
+                indiceCorredores.mudar(chave, anterior, novoEvento);
+            }
+            if (anterior.getTipo() == CorredorEvento.LOCKED || novoEvento.getTipo() == CorredorEvento.LOCKED) {
+                descartarDistancias();
+            }
+            if (congelado != null) {
+                if (!vistaPropria) {
+                    congelado = congelado.comEventosProprios();
+                    vistaPropria = true;
+                }
+                congelado.atualizarEvento(index1, index2, novoEvento);
+            }
+        }
+    }
+
+    /**
+     * Checks whether two events have the same type and value, so that a session only keeps the
+     * corridors that really differ from the shared map.
+     */
+    private static boolean mesmoEvento(EventoCorredor a, EventoCorredor b) {
+        return a.getTipo() == b.getTipo() && a.getValor() == b.getValor();
+    }
+
+    /**
+     * Returns a compact compressed-sparse-row view of the current topology, meant for
+     * read-only hot paths (pathfinding, validation, exporting). The view is built once and
+     * reused until vertices or corridors are added or removed; corridor event updates are
+     * kept in sync with it. The corridor indexes are built together with the view, so once a
+     * map is frozen its sessions only read them. The linked adjacency lists are released once the
+     * view is built, so a frozen map holds its topology only once.
+     * @return the frozen view of this graph
+     */
+    public FrozenLabyrinth<T> freeze() {
+        if (congelado == null) {
+            FrozenLabyrinth<T> vista = construirCongelado();
+            indiceCorredores = IndiceCorredores.construir(vista);
+            congelado = vista;
+            adjLists = null;
+        }
+        return congelado;
+    }
+
+    /**
+     * Returns the corridor indexes, freezing the map first if needed.
+     * @return the indexes of the current map
+     */
+    private IndiceCorredores indiceCorredores() {
+        freeze();
+        return indiceCorredores;
+    }
+
+    /**
+     * Returns how many corridors have an event type, without scanning the map.
+     * @param tipo the event type
+     * @return the number of corridors with that event
+     */
+    public int contarCorredores(CorredorEvento tipo) {
+        return indiceCorredores().contar(tipo);
+    }
+
+    /**
+     * Returns the corridors that have an event type.
+     * @param tipo the event type
+     * @return the edge keys of those corridors, in increasing order
+     */
+    public long[] corredoresComEvento(CorredorEvento tipo) {
+        long[] chaves = indiceCorredores().comTipo(tipo);
+        Arrays.sort(chaves);
+        return chaves;
+    }
+
+    /**
+     * Returns the corridors closed by a lock, straight from the lock index.
+     * @param id the lock id
+     * @return the edge keys of the locked corridors with that id, in increasing order
+     */
+    public long[] corredoresComTranca(int id) {
+        long[] chaves = indiceCorredores().comTranca(id);
+        Arrays.sort(chaves);
+        return chaves;
+    }
+
+    /**
+     * Returns the distances to the treasure room for every room and set of keys held, so that
+     * bots can take the best detour through lever rooms with a table lookup. The table is built
+     * once from the frozen view and reused until the topology or a lock changes.
+     * @return the distance table, or null if the map has too many locks or rooms for it
+     */
+    @SuppressWarnings("unchecked")
+    public KeyStateDistanceTable distanciasPorChaves() {
+        if (!tabelaChavesCalculada) {
+            tabelaChaves = KeyStateDistanceTable.construir((FrozenLabyrinth<Divisao>) freeze());
+            tabelaChavesCalculada = true;
+        }
+        return tabelaChaves;
+    }
+
+    /**
+     * Returns the distance fields to the treasure room shared by every bot on this map.
+     * Each field is computed the first time a set of keys asks for it; the service is
+     * discarded when the topology or a lock changes.
+     * @return the distance field service
+     */
+    @SuppressWarnings("unchecked")
+    public DistanceFieldService campoDistancias() {
+        if (!campoDistanciasCriado) {
+            campoDistancias = DistanceFieldService.criar((FrozenLabyrinth<Divisao>) freeze());
+            campoDistanciasCriado = true;
         }
+        return campoDistancias;
     }
+
     /**
-     * Updates the event associated with an edge from one origin index to a destination index.
-     * @param indexOrigem origin vertex index
-     * @param indexDestino destination vertex index
-     * @param novoEvento the new event to assign to that edge
+     * Builds the CSR arrays from the adjacency lists and the corridor event table.
+     * @return a new frozen view
      */
-    private void atualizarEventoUnico(int indexOrigem, int indexDestino, EventoCorredor novoEvento) {
-        if (edgeEvents[indexOrigem] != null) {
-            Iterator<MapaNode<Integer, EventoCorredor>> it = edgeEvents[indexOrigem].iterator();
+    private FrozenLabyrinth<T> construirCongelado() {
+        Object[] salas = getVertices();
+        int[] offsets = new int[numVertices + 1];
+        for (int i = 0; i < numVertices; i++) {
+            offsets[i + 1] = offsets[i] + adjLists[i].size();
+        }
+
+        int total = offsets[numVertices];
+        int[] targets = new int[total];
+        byte[] tipos = new byte[total];
+        int[] valores = new int[total];
+
+        int slot = 0;
+        for (int i = 0; i < numVertices; i++) {
+            Iterator<Integer> it = adjLists[i].iterator();
             while (it.hasNext()) {
-                MapaNode<Integer, EventoCorredor> node = it.next();
-                if (node.getKey().equals(indexDestino)) {
-                    node.setValue(novoEvento);
-                    return;
-                }
+                int vizinho = it.next();
+                EventoCorredor evento = evento(MapaArestas.chave(i, vizinho));
+                if (evento == null) evento = EventoCorredor.NONE;
+
+                targets[slot] = vizinho;
+                tipos[slot] = (byte) evento.getTipo().ordinal();
+                valores[slot] = evento.getValor();
+                slot++;
             }
         }
+        return new FrozenLabyrinth<>(salas, offsets, targets, tipos, valores);
+    }
+
+    /**
+     * Builds an independent copy of this graph, with the same vertex positions, adjacency order
+     * and corridor events, so that a game can change traps and levers without touching the original.
+     * The distance table is shared, since it only depends on the topology and the locks,
+     * which games do not change; the frozen view and the distance fields are rebuilt by the copy.
+     * @param copiarSala function that copies one vertex
+     * @return the copy
+     */
+    public LabyrinthGraph<T> copiar(UnaryOperator<T> copiarSala) {
+        LabyrinthGraph<T> copia = new LabyrinthGraph<>();
+        for (int i = 0; i < numVertices; i++) {
+            copia.addVertex(copiarSala.apply(vertices[i]));
+        }
+        FrozenLabyrinth<T> vista = freeze();
+        for (int i = 0; i < numVertices; i++) {
+            for (int s = vista.inicio(i); s < vista.fim(i); s++) {
+                copia.adjLists[i].addToRear(vista.destino(s));
+            }
+        }
+        for (int slot = 0; slot < eventosCorredores.slots(); slot++) {
+            long chave = eventosCorredores.chaveNoSlot(slot);
+            if (chave != MapaArestas.VAZIO) {
+                copia.eventosCorredores.putIfAbsent(chave, evento(chave));
+            }
+        }
+        copia.tabelaChaves = tabelaChaves;
+        copia.tabelaChavesCalculada = tabelaChavesCalculada;
+        return copia;
     }
 
     /**
      * Relocates a trap from the given edge to a random safe edge.
      * @param v1 the first vertex of the original edge
      * @param v2 the second vertex of the original edge
+     * @return true if the trap moved to another edge or false if it found no free edge
+     */
+    public boolean relocalizarArmadilha(T v1, T v2) {
+        return relocalizarArmadilha(v1, v2, Aleatorio.novo());
+    }
+
+    /**
+     * Relocates a trap from the given edge to a random safe edge.
+     * @param v1        the first vertex of the original edge
+     * @param v2        the second vertex of the original edge
+     * @param aleatorio the random generator of the game session
+     * @return true if the trap moved to another edge or false if it found no free edge
      */
-    public void relocalizarArmadilha(T v1, T v2) {
+    public boolean relocalizarArmadilha(T v1, T v2, RandomGenerator aleatorio) {
+        return moverArmadilhaAleatoria(v1, v2, aleatorio) != MapaArestas.VAZIO;
+    }
 
+    /**
+     * Relocates a trap from the given edge to a random safe edge and tells where it went,
+     * so that the move can be recorded and repeated with {@link #moverArmadilha}.
+     * The new corridor is drawn uniformly from the free corridors, which do not include the
+     * original one, so the move only fails when the map has no other free corridor; the trap
+     * is then removed.
+     * @param v1        the first vertex of the original edge
+     * @param v2        the second vertex of the original edge
+     * @param aleatorio the random generator of the game session
+     * @return the edge key of the new corridor, or {@link MapaArestas#VAZIO} if the trap found no free edge
+     */
+    public long moverArmadilhaAleatoria(T v1, T v2, RandomGenerator aleatorio) {
         EventoCorredor armadilha = getCorredorEvento(v1, v2);
 
-        setCorredorEvento(v1, v2, new EventoCorredor(CorredorEvento.NONE, 0));
-        System.out.println("A armadilha desapareceu deste corredor...");
-
-        int tentativas = 50;
-        while (tentativas > 0) {
-            // Escolhe uma sala aleatória
-            int idx1 = (int)(Math.random() * numVertices);
-            T salaAleatoria = vertices[idx1];
-            
-            // Vê os vizinhos dessa sala
-            ArrayUnorderedList<T> vizinhos = getVizinhos(salaAleatoria);
-            
-            if (!vizinhos.isEmpty()) {
-                // Escolhe um vizinho aleatório
-                int randViz = (int)(Math.random() * vizinhos.size());
-                Iterator<T> it = vizinhos.iterator();
-                for(int k=0; k<randViz; k++) it.next();
-                T vizinhoAleatorio = it.next();
-                
-                // Verifica se corredor está vazio
-                EventoCorredor ev = getCorredorEvento(salaAleatoria, vizinhoAleatorio);
-
-                if (ev.getTipo() == CorredorEvento.NONE) {
-                    setCorredorEvento(salaAleatoria, vizinhoAleatorio, armadilha);
-                    System.out.println("Mudou-se para um corredor novo!");
-                    return;
-                }
-            }
-            tentativas--;
+        // escolhe antes de libertar a origem, para a armadilha não voltar ao mesmo corredor
+        long destino = sortearCorredor(CorredorEvento.NONE, aleatorio);
+
+        setCorredorEvento(v1, v2, EventoCorredor.NONE);
+        if (destino != MapaArestas.VAZIO) {
+            setCorredorEvento(vertices[MapaArestas.primeiro(destino)], vertices[MapaArestas.segundo(destino)], armadilha);
         }
-        System.out.println("(A armadilha não encontrou lugar).");
+        return destino;
     }
+
+    /**
+     * Draws a corridor with an event type, uniformly at random. The draw depends only on the events
+     * the corridors have now, not on the order the traps moved in, so a game restored from a saved
+     * session draws the same corridors the original would have. Random slots of the frozen view are
+     * tried until one holds a corridor of that type, each corridor having two slots; when few
+     * corridors have the type, one of them is picked in key order instead.
+     * @param tipo      the event type
+     * @param aleatorio the random generator of the game session
+     * @return the edge key, or {@link MapaArestas#VAZIO} if no corridor has that event
+     */
+    private long sortearCorredor(CorredorEvento tipo, RandomGenerator aleatorio) {
+        int total = indiceCorredores().contar(tipo);
+        if (total == 0) return MapaArestas.VAZIO;
+
+        FrozenLabyrinth<T> vista = freeze();
+        if ((long) total * DISPERSAO_SORTEIO < vista.numSlots()) {
+            long[] chaves = corredoresComEvento(tipo);
+            return chaves[aleatorio.nextInt(chaves.length)];
+        }
+        while (true) {
+            int slot = aleatorio.nextInt(vista.numSlots());
+            if (vista.tipoEvento(slot) == tipo) return MapaArestas.chave(vista.origem(slot), vista.destino(slot));
+        }
+    }
+
+    /**
+     * Moves a trap from the given edge to a known edge, repeating a recorded relocation.
+     * @param v1      the first vertex of the original edge
+     * @param v2      the second vertex of the original edge
+     * @param destino the edge key of the new corridor, or {@link MapaArestas#VAZIO} to remove the trap
+     */
+    public void moverArmadilha(T v1, T v2, long destino) {
+        EventoCorredor armadilha = getCorredorEvento(v1, v2);
+        setCorredorEvento(v1, v2, EventoCorredor.NONE);
+        if (destino != MapaArestas.VAZIO) {
+            setCorredorEvento(vertices[MapaArestas.primeiro(destino)], vertices[MapaArestas.segundo(destino)], armadilha);
+        }
+    }
+
+    /**
+     * Returns the corridors that currently hold a trap (a move back or a blocked turn),
+     * read from the trap indexes.
+     * @return the edge keys of those corridors, in increasing order
+     */
+    public long[] corredoresComArmadilha() {
+        long[] recuos = indiceCorredores().comTipo(CorredorEvento.MOVE_BACK);
+        long[] bloqueios = indiceCorredores().comTipo(CorredorEvento.BLOCK_TURN);
+        long[] chaves = Arrays.copyOf(recuos, recuos.length + bloqueios.length);
+        System.arraycopy(bloqueios, 0, chaves, recuos.length, bloqueios.length);
+        Arrays.sort(chaves);
+        return chaves;
+    }
+
+    /**
+     * Removes every trap from the map and places the given ones, bringing back the traps of an
+     * earlier moment of the game.
+     * @param chaves  the edge keys of the corridors with a trap
+     * @param eventos the trap of each corridor
+     */
+    public void restaurarArmadilhas(long[] chaves, EventoCorredor[] eventos) {
+        for (long chave : corredoresComArmadilha()) {
+            setCorredorEvento(vertices[MapaArestas.primeiro(chave)], vertices[MapaArestas.segundo(chave)], EventoCorredor.NONE);
+        }
+        for (int i = 0; i < chaves.length; i++) {
+            setCorredorEvento(vertices[MapaArestas.primeiro(chaves[i])], vertices[MapaArestas.segundo(chaves[i])], eventos[i]);
+        }
+    }
+    /**
+     * Returns the lever of a room in this game.
+     * @param index the room position
+     * @return the lever, or null if the room has none yet
+     */
+    public Alavanca getAlavanca(int index) {
+        return alavancas == null || !indexIsValid(index) ? null : alavancas.get(index);
+    }
+
+    /**
+     * Sets the lever of a room in this game; on a session view, other games keep their own.
+     * @param index    the room position
+     * @param alavanca the lever
+     */
+    public void setAlavanca(int index, Alavanca alavanca) {
+        if (!indexIsValid(index)) return;
+        // só as salas onde o jogo já puxou alavancas, pela posição da sala
+        if (alavancas == null) alavancas = new MapaArestas<>(8);
+        if (!alavancas.replace(index, alavanca)) alavancas.putIfAbsent(index, alavanca);
+    }
+
     /**
      * Builds and returns a DOT language representation of the labyrinth graph.
      * @return a String containing the DOT representation of this graph
@@ -259,37 +877,32 @@ public class LabyrinthGraph<T> extends GraphList<T> {
         }
 
         // corredores
-        for (int i = 0; i < numVertices; i++) {
-            T verticeOrigem = vertices[i];
-            Divisao origem = (Divisao) verticeOrigem;
+        FrozenLabyrinth<T> vista = freeze();
+        for (int i = 0; i < vista.numSalas(); i++) {
+            Divisao origem = (Divisao) vista.sala(i);
 
             String codOrigem = "S" + origem.getId();
 
-            Lists.ArrayUnorderedList<T> vizinhos = getVizinhos(verticeOrigem);
-            java.util.Iterator<T> itViz = vizinhos.iterator();
-
-            while (itViz.hasNext()) {
-                T verticeDestino = itViz.next();
-                Divisao destino = (Divisao) verticeDestino;
+            for (int s = vista.inicio(i); s < vista.fim(i); s++) {
+                Divisao destino = (Divisao) vista.sala(vista.destino(s));
 
                 if (origem.getId() < destino.getId()) {
                     String codDestino = "S" + destino.getId();
 
-                    EventoCorredor evento = getCorredorEvento(verticeOrigem, verticeDestino);
                     String corLinha = "black";
                     String estilo = "solid";
                     String label = "";
 
-                    switch (evento.getTipo()) {
+                    switch (vista.tipoEvento(s)) {
                         case LOCKED:
                             corLinha = "red";
                             estilo = "bold";
-                            label = " Tranca #" + evento.getValor() + " ";
+                            label = " Tranca #" + vista.valorEvento(s) + " ";
                             break;
                         case MOVE_BACK:
                             corLinha = "darkred";
                             estilo = "dashed";
-                            label = " Recuo (" + evento.getValor() + "c) ";
+                            label = " Recuo (" + vista.valorEvento(s) + "c) ";
                             break;
                         case BLOCK_TURN:
                             corLinha = "purple";
@@ -8,13 +8,29 @@ import org.json.simple.parser.JSONParser;
 
 import Lists.ArrayUnorderedList;
 import enums.Dificuldade;
+import game.Efeito;
 import game.Enigma;
 /**
  * Class responsible for loading Enigma instances from an JSON file.
  */
 public class EnigmaLoader {
+    /** Effect of a correct answer at every difficulty. */
+    private static final Efeito JOGADA_EXTRA = Efeito.jogadaExtra(1);
+
+    /** Effect of a wrong answer to an easy riddle. */
+    private static final Efeito RECUAR_UMA = Efeito.recuar(1);
+
+    /** Effect of a wrong answer to a medium riddle. */
+    private static final Efeito RECUAR_DUAS = Efeito.recuar(2);
+
+    /** Effect of a wrong answer to a hard riddle. */
+    private static final Efeito BLOQUEAR = Efeito.bloquear(1);
+
     /**
      * Loads all enigmas from the given JSON file path and returns them as ArrayUnorderedList.
+     * Each riddle gets the effects of its difficulty unless it has its own effect codes in
+     * "efeitoSucesso" or "efeitoFalha"; these are compiled here, and a riddle with an invalid
+     * code is left out.
      * @param filePath the path to the JSON file containing the enigmas
      * @return a list with all successfully loaded {@link Enigma} objects
      */
@@ -56,31 +72,43 @@ public class EnigmaLoader {
                 //Cria o Enigma
                 Enigma novoEnigma = new Enigma(pergunta, opcoes, correta, dif);
 
-                String efSucesso;
-                String efFalha;
+                Efeito efSucesso;
+                Efeito efFalha;
 
                 switch (dif) {
                     case FACIL:
-                        efSucesso = "EXTRA_TURN";
-                        efFalha   = "BACK:1";
+                        efSucesso = JOGADA_EXTRA;
+                        efFalha   = RECUAR_UMA;
                         break;
 
                     case MEDIO:
-                        efSucesso = "EXTRA_TURN";
-                        efFalha   = "BACK:2";
+                        efSucesso = JOGADA_EXTRA;
+                        efFalha   = RECUAR_DUAS;
                         break;
 
                     case DIFICIL:
-                        efSucesso = "EXTRA_TURN";
-                        efFalha   = "BLOCK";
+                        efSucesso = JOGADA_EXTRA;
+                        efFalha   = BLOQUEAR;
                         break;
 
                     default:
-                        efSucesso = "NONE";
-                        efFalha   = "NONE";
+                        efSucesso = Efeito.NENHUM;
+                        efFalha   = Efeito.NENHUM;
                         break;
                 }
 
+                try {
+                    if (enigmaJSON.get("efeitoSucesso") != null) {
+                        efSucesso = Efeito.compilar((String) enigmaJSON.get("efeitoSucesso"));
+                    }
+                    if (enigmaJSON.get("efeitoFalha") != null) {
+                        efFalha = Efeito.compilar((String) enigmaJSON.get("efeitoFalha"));
+                    }
+                } catch (IllegalArgumentException e) {
+                    System.out.println("AVISO: " + e.getMessage() + " no enigma '" + pergunta + "'. Ignorado.");
+                    continue;
+                }
+
                 novoEnigma.setEfeitos(efSucesso, efFalha);
 
                 listaEnigmas.addToRear(novoEnigma);
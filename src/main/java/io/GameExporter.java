@@ -79,6 +79,7 @@ public class GameExporter {
         json.append("  \"totalEnigmasResolvidos\": ").append(report.getTotalEnigmasResolvidos()).append(",\n");
         json.append("  \"totalEnigmasTentados\": ").append(report.getTotalEnigmasTentados()).append(",\n");
         json.append("  \"totalObstaculos\": ").append(report.getTotalObstaculos()).append(",\n");
+        json.append("  \"semente\": ").append(report.getSemente()).append(",\n");
         json.append("  \"jogadores\": [\n");
 
         ArrayUnorderedList<GameReport.PlayerReport> jogadores = report.getListaJogadores();
@@ -89,6 +90,7 @@ public class GameExporter {
             json.append("    {\n");
             json.append("      \"nome\": \"").append(escapeJson(player.getNome())).append("\",\n");
             json.append("      \"tipo\": \"").append(player.getTipo()).append("\",\n");
+            json.append("      \"entrada\": \"").append(escapeJson(player.getEntrada())).append("\",\n");
             json.append("      \"localAtual\": \"").append(escapeJson(player.getLocalAtual())).append("\",\n");
             json.append("      \"turnosJogados\": ").append(player.getTurnosJogados()).append(",\n");
             json.append("      \"vencedor\": ").append(player.isVencedor()).append(",\n");
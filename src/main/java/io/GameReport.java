@@ -1,9 +1,10 @@
 package io;
 
 import java.time.LocalDateTime;
-import java.util.Iterator; 
+import java.util.function.IntFunction;
 
 import Lists.ArrayUnorderedList;
+import structures.ListaInteiros;
 /**
  * Represents the summary of GameReport
  */
@@ -45,6 +46,11 @@ public class GameReport {
      */
     private int totalObstaculos;
 
+    /**
+     * Seed of the random generator of the game, or 0 if the game was not seeded.
+     */
+    private long semente;
+
     /**
      * Creates an empty GameReport with an empty player list
      */
@@ -160,6 +166,18 @@ public class GameReport {
      */
     public void setTotalObstaculos(int total) { this.totalObstaculos = total; }
 
+    /**
+     * Returns the seed of the random generator of the game.
+     * @return the seed, or 0 if the game was not seeded
+     */
+    public long getSemente() { return semente; }
+
+    /**
+     * Sets the seed of the random generator of the game, so that it can be replayed.
+     * @param semente the seed
+     */
+    public void setSemente(long semente) { this.semente = semente; }
+
     /**
      * Class that stores all information about a single player in a game.
      */
@@ -174,6 +192,11 @@ public class GameReport {
          */
         private String tipo;
 
+        /**
+         * Name of the entrance where the player started.
+         */
+        private String entrada;
+
         /**
          * Name of the room where the player
          */
@@ -194,6 +217,21 @@ public class GameReport {
          */
         private ArrayUnorderedList<String> percurso;
 
+        /**
+         * Rooms visited and not named yet, as room ids; they are added to {@link #percurso} when it is read.
+         */
+        private final ListaInteiros percursoPorNomear;
+
+        /**
+         * Gives the name of a room id in {@link #percursoPorNomear}, or null if the path only has names.
+         */
+        private IntFunction<String> nomesSalas;
+
+        /**
+         * Number of enigmas in {@link #enigmas} that were solved.
+         */
+        private int enigmasResolvidos;
+
         /**
          * List of descriptions for every obstacle encountered by the player.
          */
@@ -221,17 +259,34 @@ public class GameReport {
             this.obstaculos = new ArrayUnorderedList<>();
             this.enigmas = new ArrayUnorderedList<>();
             this.efeitosAplicados = new ArrayUnorderedList<>();
+            this.percursoPorNomear = new ListaInteiros();
         }
         /**
-         * Returns the path traversed by the player.
+         * Returns the path traversed by the player, naming the rooms added by id first.
          * @return list of room names
          */
-        public ArrayUnorderedList<String> getPercurso() { return percurso; }
+        public ArrayUnorderedList<String> getPercurso() {
+            for (int i = 0; i < percursoPorNomear.size(); i++) {
+                percurso.addToRear(nomesSalas.apply(percursoPorNomear.get(i)));
+            }
+            percursoPorNomear.clear();
+            return percurso;
+        }
+        /**
+         * Adds a room to the player's path by id; it is only named when the path is read, so
+         * games whose report is never exported do not build a name per move.
+         * @param sala       the id of the room visited
+         * @param nomesSalas gives the name of a room id
+         */
+        public void adicionarPercurso(int sala, IntFunction<String> nomesSalas) {
+            this.nomesSalas = nomesSalas;
+            this.percursoPorNomear.add(sala);
+        }
         /**
          * Adds a room name to the player's path.
          * @param sala the name of the room visited
          */
-        public void adicionarPercurso(String sala) { this.percurso.addToRear(sala); }
+        public void adicionarPercurso(String sala) { getPercurso().addToRear(sala); }
         /**
          * Returns the list of obstacles encountered by the player.
          * @return list of obstacle descriptions
@@ -252,7 +307,10 @@ public class GameReport {
          * Adds a new EnigmaEvent to the player's log.
          * @param event enigma event to add
          */
-        public void adicionarEnigma(EnigmaEvent event) { this.enigmas.addToRear(event); }
+        public void adicionarEnigma(EnigmaEvent event) {
+            this.enigmas.addToRear(event);
+            if (event.resolvido) enigmasResolvidos++;
+        }
 
         /**
          * Returns the list of effect descriptions applied to the player.
@@ -265,12 +323,7 @@ public class GameReport {
          * @return number of resolved enigmas
          */
         public int totalEnigmasResolvidos() {
-            int count = 0;
-            Iterator<EnigmaEvent> it = enigmas.iterator();
-            while(it.hasNext()) {
-                if(it.next().resolvido) count++;
-            }
-            return count;
+            return enigmasResolvidos;
         }
         /**
          * Returns the player name.
@@ -292,6 +345,16 @@ public class GameReport {
          * @param location location name
          */
         public void setLocalAtual(String location) { this.localAtual = location; }
+        /**
+         * Returns the name of the entrance where this player started.
+         * @return entrance name, or null if unknown
+         */
+        public String getEntrada() { return entrada; }
+        /**
+         * Sets the name of the entrance where this player started.
+         * @param entrada entrance name
+         */
+        public void setEntrada(String entrada) { this.entrada = entrada; }
         /**
          * Returns how many turns this player has played.
          * @return number of turns played
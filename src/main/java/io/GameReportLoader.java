@@ -64,6 +64,8 @@ public class GameReportLoader {
             report.setTotalEnigmasResolvidos(getInt(json, "totalEnigmasResolvidos"));
             report.setTotalEnigmasTentados(getInt(json, "totalEnigmasTentados"));
             report.setTotalObstaculos(getInt(json, "totalObstaculos"));
+            Object semente = json.get("semente");
+            if (semente instanceof Long) report.setSemente((Long) semente);
 
             // Le os Jogadores
             JSONArray jogadoresArray = (JSONArray) json.get("jogadores");
@@ -75,6 +77,7 @@ public class GameReportLoader {
                     String tipo = (String) pJson.get("tipo");
                     
                     GameReport.PlayerReport player = new GameReport.PlayerReport(nome, tipo);
+                    player.setEntrada((String) pJson.get("entrada"));
                     player.setLocalAtual((String) pJson.get("localAtual"));
                     player.setTurnosJogados(getInt(pJson, "turnosJogados"));
                     player.setVencedor((Boolean) pJson.get("vencedor"));
@@ -2,11 +2,9 @@ package io;
 
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Iterator;
 
-import Lists.ArrayUnorderedList;
 import game.Divisao;
-import game.EventoCorredor;
+import graph.FrozenLabyrinth;
 import graph.LabyrinthGraph;
 
 /**
@@ -54,29 +52,25 @@ public class MapExporter {
         json.append("  \"ligacoes\": [\n");
         
         boolean primeiraLigacao = true;
-        
-        for (int i = 0; i < vertices.length; i++) {
-            Divisao origem = (Divisao) vertices[i];
+        FrozenLabyrinth<Divisao> vista = grafo.freeze();
+
+        for (int i = 0; i < vista.numSalas(); i++) {
+            Divisao origem = vista.sala(i);
             String codOrigem = "S" + origem.getId();
-            
-            ArrayUnorderedList<Divisao> vizinhos = grafo.getVizinhos(origem);
-            Iterator<Divisao> itViz = vizinhos.iterator();
-            
-            while (itViz.hasNext()) {
-                Divisao destino = itViz.next();
+
+            for (int s = vista.inicio(i); s < vista.fim(i); s++) {
+                Divisao destino = vista.sala(vista.destino(s));
                 String codDestino = "S" + destino.getId();
 
                 if (origem.compareTo(destino) < 0) {
                     
                     if (!primeiraLigacao) json.append(",\n");
                     
-                    EventoCorredor evento = grafo.getCorredorEvento(origem, destino);
-                    
                     json.append("    { ");
                     json.append("\"origem\": \"").append(codOrigem).append("\", ");
                     json.append("\"destino\": \"").append(codDestino).append("\", ");
-                    json.append("\"evento\": \"").append(evento.getTipo().toString()).append("\", ");
-                    json.append("\"valor\": ").append(evento.getValor());
+                    json.append("\"evento\": \"").append(vista.tipoEvento(s).toString()).append("\", ");
+                    json.append("\"valor\": ").append(vista.valorEvento(s));
                     json.append(" }");
                     
                     primeiraLigacao = false;
@@ -1,11 +1,13 @@
 package io;
 
 import java.util.Iterator;
+import java.util.random.RandomGenerator;
 
 import Lists.ArrayUnorderedList;
 import Queue.LinkedQueue;
 import enums.CorredorEvento;
 import enums.TipoDivisao;
+import game.Aleatorio;
 import game.Divisao;
 import game.EventoCorredor;
 import graph.LabyrinthGraph;
@@ -15,6 +17,32 @@ import graph.LabyrinthGraph;
  */
 public class MapGenerator {
 
+    /**
+     * Random generator used for every choice made while generating a map.
+     */
+    private RandomGenerator aleatorio;
+
+    /**
+     * ID of the next room of the map being generated.
+     */
+    private int proximoId;
+
+    /**
+     * Creates a map generator with an unpredictable seed.
+     */
+    public MapGenerator() {
+        this(Aleatorio.novo());
+    }
+
+    /**
+     * Creates a map generator that draws from the given generator, so that the same seed
+     * always produces the same map.
+     * @param aleatorio the random generator to use
+     */
+    public MapGenerator(RandomGenerator aleatorio) {
+        this.aleatorio = aleatorio;
+    }
+
     /**
      * Generates a random map based on a difficulty level.
      * @param dificuldade difficulty level
@@ -27,9 +55,9 @@ public class MapGenerator {
         int entradas = 4;
 
         switch (dificuldade) {
-            case 1: trancas = (int)(Math.random() * 2) + 1; break; // 1 a 2
-            case 2: trancas = (int)(Math.random() * 2) + 3; break; // 3 a 4
-            case 3: trancas = (int)(Math.random() * 2) + 5; break; // 5 a 6
+            case 1: trancas = aleatorio.nextInt(2) + 1; break; // 1 a 2
+            case 2: trancas = aleatorio.nextInt(2) + 3; break; // 3 a 4
+            case 3: trancas = aleatorio.nextInt(2) + 5; break; // 5 a 6
             default: trancas = 1;
         }
 
@@ -47,16 +75,17 @@ public class MapGenerator {
         System.out.println("A gerar Grafo Orgânico com " + numTrancas + " trancas aleatórias...");
 
         LabyrinthGraph<Divisao> grafo = new LabyrinthGraph<>();
+        proximoId = 1;
         ArrayUnorderedList<Divisao[]> candidatosParaTrancas = new ArrayUnorderedList<>();
 
-        Divisao tesouro = new Divisao("Câmara do Tesouro", TipoDivisao.SALA_CENTRAL);
+        Divisao tesouro = novaSala("Câmara do Tesouro", TipoDivisao.SALA_CENTRAL);
         grafo.addVertex(tesouro);
 
         ArrayUnorderedList<Divisao> salasConectadas = new ArrayUnorderedList<>();
         int qtdGuardioes = (numTrancas > 0) ? numTrancas : 1;
 
         for (int i = 1; i <= qtdGuardioes; i++) {
-            Divisao guardiao = new Divisao("Ante-Câmara " + i, TipoDivisao.SALA_NORMAL);
+            Divisao guardiao = novaSala("Ante-Câmara " + i, TipoDivisao.SALA_NORMAL);
             grafo.addVertex(guardiao);
             salasConectadas.addToRear(guardiao);
 
@@ -67,19 +96,19 @@ public class MapGenerator {
 
         ArrayUnorderedList<Divisao> sacoDeSalas = new ArrayUnorderedList<>();
         for (int i = 1; i <= numTrancas; i++) {
-            Divisao alavanca = new Divisao("Sala de Controlo #" + i, TipoDivisao.SALA_ALAVANCA);
+            Divisao alavanca = novaSala("Sala de Controlo #" + i, TipoDivisao.SALA_ALAVANCA);
             alavanca.setIdDesbloqueio(i);
             grafo.addVertex(alavanca);
             sacoDeSalas.addToRear(alavanca);
         }
         for (int i = 1; i <= numEnigmas; i++) {
-            Divisao enigma = new Divisao("Sala Misteriosa " + i, TipoDivisao.SALA_ENIGMA);
+            Divisao enigma = novaSala("Sala Misteriosa " + i, TipoDivisao.SALA_ENIGMA);
             grafo.addVertex(enigma);
             sacoDeSalas.addToRear(enigma);
         }
         if (numNormais < numEntradas) numNormais = numEntradas + 2;
         for (int i = 1; i <= numNormais; i++) {
-            Divisao normal = new Divisao("Corredor " + i, TipoDivisao.SALA_NORMAL);
+            Divisao normal = novaSala("Corredor " + i, TipoDivisao.SALA_NORMAL);
             grafo.addVertex(normal);
             sacoDeSalas.addToRear(normal);
         }
@@ -99,12 +128,12 @@ public class MapGenerator {
             candidatosParaTrancas.addToRear(new Divisao[]{pai, novaSala});
 
             fronteira.enqueue(novaSala);
-            if (Math.random() > 0.3) fronteira.enqueue(pai);
+            if (aleatorio.nextDouble() > 0.3) fronteira.enqueue(pai);
         }
 
         // Gera os spawns
         for (int i = 1; i <= numEntradas; i++) {
-            Divisao spawn = new Divisao("Portão " + i, TipoDivisao.ENTRADA);
+            Divisao spawn = novaSala("Portão " + i, TipoDivisao.ENTRADA);
             grafo.addVertex(spawn);
             Divisao ponta = obterSalaFallback(fronteira, salasConectadas);
 
@@ -112,6 +141,8 @@ public class MapGenerator {
         }
         criarCiclosAleatorios(grafo, sacoDeSalas, candidatosParaTrancas);
         aplicarTrancasAleatorias(grafo, candidatosParaTrancas, numTrancas);
+        grafo.freeze();
+        grafo.distanciasPorChaves();
 
         System.out.println("Mapa gerado com sucesso!");
         return grafo;
@@ -125,7 +156,7 @@ public class MapGenerator {
     private void aplicarTrancasAleatorias(LabyrinthGraph<Divisao> grafo, ArrayUnorderedList<Divisao[]> candidatos, int qtd) {
         Divisao[][] arrCandidatos = toArrayPares(candidatos);
         for (int i = arrCandidatos.length - 1; i > 0; i--) {
-            int index = (int)(Math.random() * (i + 1));
+            int index = aleatorio.nextInt(i + 1);
             Divisao[] temp = arrCandidatos[index];
             arrCandidatos[index] = arrCandidatos[i];
             arrCandidatos[i] = temp;
@@ -163,8 +194,8 @@ public class MapGenerator {
         int tentativas = arr.length / 2; 
 
         for (int k = 0; k < tentativas; k++) {
-            int i1 = (int)(Math.random() * arr.length);
-            int i2 = (int)(Math.random() * arr.length);
+            int i1 = aleatorio.nextInt(arr.length);
+            int i2 = aleatorio.nextInt(arr.length);
 
             if (i1 != i2) {
                 grafo.addCorredor(arr[i1], arr[i2], sortearArmadilhaOuNada());
@@ -177,10 +208,10 @@ public class MapGenerator {
      * @return a randomly chosen EventoCorredor
      */
     private EventoCorredor sortearArmadilhaOuNada() {
-        double r = Math.random();
+        double r = aleatorio.nextDouble();
         if (r > 0.85) return new EventoCorredor(CorredorEvento.MOVE_BACK, 2);
         if (r > 0.80) return new EventoCorredor(CorredorEvento.BLOCK_TURN, 1);
-        return new EventoCorredor(CorredorEvento.NONE, 0);
+        return EventoCorredor.NONE;
     }
     /**
      * Shuffles a list of rooms and returns a new ArrayUnorderedList
@@ -190,7 +221,7 @@ public class MapGenerator {
     private ArrayUnorderedList<Divisao> baralharLista(ArrayUnorderedList<Divisao> listaOriginal) {
         Divisao[] temp = toArray(listaOriginal);
         for (int i = temp.length - 1; i > 0; i--) {
-            int index = (int)(Math.random() * (i + 1));
+            int index = aleatorio.nextInt(i + 1);
             Divisao a = temp[index];
             temp[index] = temp[i];
             temp[i] = a;
@@ -238,4 +269,14 @@ public class MapGenerator {
             return null;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates a room of the map being generated with the next ID.
+     * @param nome the room name
+     * @param tipo the type of the room
+     * @return the new room
+     */
+    private Divisao novaSala(String nome, TipoDivisao tipo) {
+        return new Divisao(proximoId++, nome, tipo);
+    }
+}
@@ -1,18 +1,16 @@
 package io;
 
 import java.io.FileReader;
-import java.util.Iterator;
-
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 
 import Lists.ArrayUnorderedList;
-import Queue.LinkedQueue;
 import enums.CorredorEvento;
 import enums.TipoDivisao;
 import game.Divisao;
 import game.EventoCorredor;
+import graph.FrozenLabyrinth;
 import graph.LabyrinthGraph;
 /**
  * Utility class responsible for loading a labyrinth map from a JSON file
@@ -71,24 +69,17 @@ public class MapLoader {
                     continue;
                 }
 
-                Divisao d = new Divisao(nome, tipo);
-
-                try {
-                    if (codigo.startsWith("S")) {
-                        int idLido = Integer.parseInt(codigo.substring(1));
-                        d.definirIdManual(idLido);
-
-                        if (idLido > maiorIdEncontrado) {
-                            maiorIdEncontrado = idLido;
-                        }
-                    } else {
-                        if (d.getId() > maiorIdEncontrado) {
-                            maiorIdEncontrado = d.getId();
-                        }
+                // salas sem código numérico ficam com um ID depois do maior lido
+                int idLido = -1;
+                if (codigo.startsWith("S")) {
+                    try {
+                        idLido = Integer.parseInt(codigo.substring(1));
+                    } catch (NumberFormatException e) {
+                        idLido = -1;
                     }
-                } catch (Exception e) {
-                    if (d.getId() > maiorIdEncontrado) maiorIdEncontrado = d.getId();
                 }
+                Divisao d = new Divisao(idLido, nome, tipo);
+                if (idLido > maiorIdEncontrado) maiorIdEncontrado = idLido;
 
                 Object idDesbObj = salaJSON.get("idDesbloqueio");
                 if (tipo == TipoDivisao.SALA_ALAVANCA && idDesbObj instanceof Long) {
@@ -99,7 +90,9 @@ public class MapLoader {
                 listaSalas.addToRear(d);
                 listaCodigos.addToRear(codigo);
             }
-            Divisao.setNextId(maiorIdEncontrado + 1);
+            for (Divisao d : listaSalas) {
+                if (d.getId() < 0) d.definirIdManual(++maiorIdEncontrado);
+            }
 
             JSONArray ligacoes = (JSONArray) jsonObject.get("ligacoes");
             if (ligacoes == null) {
@@ -155,10 +148,13 @@ public class MapLoader {
             return null;
         }
 
+        graph.freeze();
+
         if (!validarCaminho(graph)) {
             System.out.println(" O mapa carregado tem erros estruturais e não pode ser jogado.");
             return null;
         }
+        graph.distanciasPorChaves();
 
         return graph;
     }
@@ -199,19 +195,23 @@ public class MapLoader {
     private boolean validarCaminho(LabyrinthGraph<Divisao> graph) {
         if (graph == null || graph.size() == 0) return false;
 
-        LinkedQueue<Divisao> queue = new LinkedQueue<>();
-        ArrayUnorderedList<Divisao> visitados = new ArrayUnorderedList<>();
+        FrozenLabyrinth<Divisao> vista = graph.freeze();
+        int n = vista.numSalas();
+
+        int[] fila = new int[n];
+        boolean[] visitados = new boolean[n];
+        int inicioFila = 0;
+        int fimFila = 0;
 
         boolean temEntrada = false;
         boolean temTesouro = false;
 
-        Object[] vertices = graph.getVertices();
-        for (Object v : vertices) {
-            Divisao d = (Divisao) v;
+        for (int i = 0; i < n; i++) {
+            Divisao d = vista.sala(i);
 
             if (d.getTipo() == TipoDivisao.ENTRADA) {
-                queue.enqueue(d);
-                visitados.addToRear(d);
+                fila[fimFila++] = i;
+                visitados[i] = true;
                 temEntrada = true;
             }
 
@@ -229,23 +229,20 @@ public class MapLoader {
             return false;
         }
 
-        while (!queue.isEmpty()) {
-            try {
-                Divisao atual = queue.dequeue();
+        while (inicioFila < fimFila) {
+            int atual = fila[inicioFila++];
 
-                if (atual.getTipo() == TipoDivisao.SALA_CENTRAL) {
-                    return true;
-                }
+            if (vista.sala(atual).getTipo() == TipoDivisao.SALA_CENTRAL) {
+                return true;
+            }
 
-                Iterator<Divisao> it = graph.getVizinhos(atual).iterator();
-                while (it.hasNext()) {
-                    Divisao vizinho = it.next();
-                    if (!visitados.contains(vizinho)) {
-                        visitados.addToRear(vizinho);
-                        queue.enqueue(vizinho);
-                    }
+            for (int s = vista.inicio(atual); s < vista.fim(atual); s++) {
+                int vizinho = vista.destino(s);
+                if (!visitados[vizinho]) {
+                    visitados[vizinho] = true;
+                    fila[fimFila++] = vizinho;
                 }
-            } catch (Exception e) { break; }
+            }
         }
 
         System.out.println("Mapa Inválido: A Câmara do Tesouro está isolada (sem caminho a partir das Entradas)!");
@@ -0,0 +1,219 @@
+package server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local HTTP endpoint that hosts many games at the same time, one {@link GameSession} each.
+ * Requests are handled on virtual threads and every game plays on its own virtual thread.
+ * <ul>
+ *   <li>{@code POST /sessoes} creates a session and answers its identifier;</li>
+ *   <li>{@code POST /sessoes/{id}} sends each line of the body to the game, in order;</li>
+ *   <li>{@code GET /sessoes/{id}} answers what the game showed since the last GET; the header
+ *       {@code Sessao-Terminada} tells whether the game has ended;</li>
+ *   <li>{@code DELETE /sessoes/{id}} stops the game and forgets the session.</li>
+ * </ul>
+ * While listening, the server regularly forgets the sessions whose client went silent and the
+ * finished ones whose last output was already collected.
+ */
+public class GameServer {
+
+    /** Path of the session resources. */
+    public static final String CAMINHO = "/sessoes";
+
+    /** Default time a client may stay silent before its session is closed: 30 minutes. */
+    public static final long INATIVIDADE_MAXIMA = 30 * 60_000L;
+
+    /** Default time between two clean-ups of the sessions: 1 minute. */
+    public static final long INTERVALO_LIMPEZA = 60_000L;
+
+    /** Sessions hosted by this server. */
+    private final SessionRegistry registo;
+
+    /** HTTP server, once started. */
+    private HttpServer http;
+
+    /** Executor of the requests, once started. */
+    private ExecutorService executor;
+
+    /** Runs the clean-ups of the sessions, once started. */
+    private ScheduledExecutorService limpeza;
+
+    /** Time a client may stay silent before its session is closed, in milliseconds. */
+    private final long inatividadeMaxima;
+
+    /** Time between two clean-ups, in milliseconds. */
+    private final long intervaloLimpeza;
+
+    /**
+     * Creates a server for the sessions of a registry; it only listens after {@link #iniciar(String, int)}.
+     * @param registo the session registry
+     */
+    public GameServer(SessionRegistry registo) {
+        this(registo, INATIVIDADE_MAXIMA, INTERVALO_LIMPEZA);
+    }
+
+    /**
+     * Creates a server for the sessions of a registry with its own clean-up times.
+     * @param registo           the session registry
+     * @param inatividadeMaxima time a client may stay silent before its session is closed, in milliseconds
+     * @param intervaloLimpeza  time between two clean-ups, in milliseconds
+     */
+    public GameServer(SessionRegistry registo, long inatividadeMaxima, long intervaloLimpeza) {
+        if (inatividadeMaxima <= 0 || intervaloLimpeza <= 0) {
+            throw new IllegalArgumentException("Tempos de limpeza inválidos: " + inatividadeMaxima + ", " + intervaloLimpeza);
+        }
+        this.registo = registo;
+        this.inatividadeMaxima = inatividadeMaxima;
+        this.intervaloLimpeza = intervaloLimpeza;
+    }
+
+    /**
+     * Starts listening.
+     * @param host  the address to listen on, usually "localhost"
+     * @param porta the port, or 0 for any free port
+     * @throws IOException if the port cannot be opened
+     */
+    public void iniciar(String host, int porta) throws IOException {
+        http = HttpServer.create(new InetSocketAddress(host, porta), 0);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        http.setExecutor(executor);
+        http.createContext(CAMINHO, this::tratar);
+        http.start();
+
+        limpeza = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("limpeza-sessoes").factory());
+        limpeza.scheduleWithFixedDelay(this::limpar, intervaloLimpeza, intervaloLimpeza, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops listening and ends every session.
+     */
+    public void parar() {
+        if (http == null) return;
+        limpeza.shutdownNow();
+        http.stop(0);
+        executor.shutdown();
+        registo.removerTodas();
+        http = null;
+    }
+
+    /**
+     * Returns the port the server listens on.
+     * @return the port
+     */
+    public int getPorta() {
+        return http.getAddress().getPort();
+    }
+
+    /**
+     * Returns the sessions of this server.
+     * @return the session registry
+     */
+    public SessionRegistry getRegisto() {
+        return registo;
+    }
+
+    /**
+     * Forgets the silent sessions and the finished ones that have nothing left to show.
+     */
+    private void limpar() {
+        registo.removerInativas(inatividadeMaxima);
+        registo.removerRecolhidas();
+    }
+
+    /**
+     * Handles a request to the session resources.
+     */
+    private void tratar(HttpExchange troca) throws IOException {
+        try (troca) {
+            String caminho = troca.getRequestURI().getPath();
+            String metodo = troca.getRequestMethod();
+
+            if (caminho.equals(CAMINHO) || caminho.equals(CAMINHO + "/")) {
+                if (!metodo.equals("POST")) {
+                    responder(troca, 405, "");
+                    return;
+                }
+                responder(troca, 201, Long.toString(registo.criar().getId()));
+                return;
+            }
+
+            GameSession sessao = sessaoDoCaminho(caminho);
+            if (sessao == null) {
+                responder(troca, 404, "Sessão inexistente");
+                return;
+            }
+
+            switch (metodo) {
+                case "GET":
+                    troca.getResponseHeaders().set("Sessao-Terminada", Boolean.toString(sessao.isTerminada()));
+                    responder(troca, 200, sessao.recolher());
+                    break;
+                case "POST":
+                    for (String linha : lerCorpo(troca).split("\r?\n", -1)) {
+                        sessao.enviar(linha);
+                    }
+                    responder(troca, 202, "");
+                    break;
+                case "DELETE":
+                    registo.remover(sessao.getId());
+                    responder(troca, 204, null);
+                    break;
+                default:
+                    responder(troca, 405, "");
+            }
+        }
+    }
+
+    /**
+     * Finds the session named by a path such as /sessoes/12.
+     * @return the session, or null if the path names no known session
+     */
+    private GameSession sessaoDoCaminho(String caminho) {
+        if (!caminho.startsWith(CAMINHO + "/")) return null;
+        try {
+            return registo.obter(Long.parseLong(caminho.substring(CAMINHO.length() + 1)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the body of a request; a body ending in a line break does not send an extra empty line.
+     */
+    private static String lerCorpo(HttpExchange troca) throws IOException {
+        try (InputStream in = troca.getRequestBody()) {
+            String corpo = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return corpo.endsWith("\n") ? corpo.substring(0, corpo.length() - 1) : corpo;
+        }
+    }
+
+    /**
+     * Sends a plain text answer.
+     * @param corpo the text, or null for an answer with no body
+     */
+    private static void responder(HttpExchange troca, int estado, String corpo) throws IOException {
+        if (corpo == null) {
+            troca.sendResponseHeaders(estado, -1);
+            return;
+        }
+        byte[] bytes = corpo.getBytes(StandardCharsets.UTF_8);
+        troca.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        troca.sendResponseHeaders(estado, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = troca.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+}
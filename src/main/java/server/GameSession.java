@@ -0,0 +1,173 @@
+package server;
+
+import java.util.concurrent.CancellationException;
+import java.util.random.RandomGenerator;
+
+import engine.GameData;
+import engine.GameEngine;
+import engine.GameInitializer;
+import game.BancoEnigmas;
+import game.Divisao;
+import graph.LabyrinthGraph;
+import io.GameReport;
+import ui.SessionGameView;
+
+/**
+ * One game hosted by a {@link GameServer}: its own view of the shared map, engine, view and random
+ * generator, played on its own thread. The session talks to its client only through messages:
+ * the lines sent with {@link #enviar(String)} answer the prompts of the game, and what the game
+ * shows is collected with {@link #recolher()}.
+ */
+public class GameSession {
+
+    /** Identifier of the session in its registry. */
+    private final long id;
+
+    /** Session view of the shared map; the traps and levers of this game change here only. */
+    private final LabyrinthGraph<Divisao> mapa;
+
+    /** Riddles shared by every session of the server; only read. */
+    private final BancoEnigmas enigmas;
+
+    /** Maximum number of turns of the game, or 0 for no limit. */
+    private final int maxTurnos;
+
+    /** Random generator of this session. */
+    private final RandomGenerator aleatorio;
+
+    /** View that carries the messages between the game and the client. */
+    private final SessionGameView view;
+
+    /** Engine of the game. */
+    private final GameEngine engine;
+
+    /** Thread playing the game, once started. */
+    private Thread thread;
+
+    /** Final report, once the game ends. */
+    private volatile GameReport relatorio;
+
+    /** Whether the game has ended, was cancelled or failed. */
+    private volatile boolean terminada;
+
+    /** Whether the client collected the output after the game ended, so the session has nothing left to give. */
+    private volatile boolean recolhida;
+
+    /** Time of the last message from the client, in milliseconds. */
+    private volatile long ultimaAtividade;
+
+    /**
+     * Creates a session that has not started yet.
+     * @param id        identifier of the session
+     * @param mapa      a session view of the map, owned by this session
+     * @param nomeMapa  the name of the map, for the report
+     * @param enigmas   riddles to choose from, shared and only read
+     * @param maxTurnos maximum number of turns, or 0 for no limit
+     * @param aleatorio random generator of the session
+     */
+    GameSession(long id, LabyrinthGraph<Divisao> mapa, String nomeMapa, BancoEnigmas enigmas,
+                int maxTurnos, RandomGenerator aleatorio) {
+        this.id = id;
+        this.mapa = mapa;
+        this.enigmas = enigmas;
+        this.maxTurnos = maxTurnos;
+        this.aleatorio = aleatorio;
+        this.view = new SessionGameView();
+        this.engine = new GameEngine(mapa, view, aleatorio);
+        engine.setNomeDoMapa(nomeMapa);
+        engine.setExportarRelatorio(false);
+        this.ultimaAtividade = System.currentTimeMillis();
+    }
+
+    /**
+     * Starts the game on a new virtual thread; it waits there whenever it needs an answer.
+     */
+    void iniciar() {
+        thread = Thread.ofVirtual().name("sessao-" + id).start(this::jogar);
+    }
+
+    /**
+     * Sets the game up with the client's answers and plays it to the end.
+     */
+    private void jogar() {
+        try {
+            GameData dados = new GameInitializer(view, mapa, aleatorio).setupCompleto(enigmas);
+            if (dados != null) {
+                relatorio = engine.jogar(dados, maxTurnos);
+            }
+        } catch (CancellationException e) {
+            // a sessão foi fechada enquanto esperava por uma resposta
+        } finally {
+            terminada = true;
+        }
+    }
+
+    /**
+     * Sends a line to the game, as the answer to its current or next prompt.
+     * @param linha the line, without the line break
+     */
+    public void enviar(String linha) {
+        ultimaAtividade = System.currentTimeMillis();
+        view.enviar(linha);
+    }
+
+    /**
+     * Returns what the game showed since the last call.
+     * @return the messages, or an empty string if there are none
+     */
+    public String recolher() {
+        ultimaAtividade = System.currentTimeMillis();
+        boolean fim = terminada;
+        String mostrado = view.recolher();
+        if (fim) recolhida = true;
+        return mostrado;
+    }
+
+    /**
+     * Stops the game if it is still running; a game waiting for an answer ends at once.
+     */
+    void terminar() {
+        if (thread != null) thread.interrupt();
+    }
+
+    /**
+     * Waits for the game thread to end.
+     * @param millis maximum time to wait, in milliseconds
+     * @return true if the game has ended
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public boolean aguardar(long millis) throws InterruptedException {
+        if (thread != null) thread.join(millis);
+        return terminada;
+    }
+
+    /**
+     * Returns the identifier of the session.
+     * @return the id
+     */
+    public long getId() { return id; }
+
+    /**
+     * Returns whether the game has ended, was cancelled or failed.
+     * @return true if the session no longer plays
+     */
+    public boolean isTerminada() { return terminada; }
+
+    /**
+     * Returns whether the output of the game was collected after it ended.
+     * @return true if the session can be forgotten without losing anything the client did not see
+     */
+    public boolean isRecolhida() { return recolhida; }
+
+    /**
+     * Returns the final report of the game.
+     * @return the report, or null while playing or if the game did not reach its end
+     */
+    public GameReport getRelatorio() { return relatorio; }
+
+    /**
+     * Returns the time of the last message from the client.
+     * @return the time, in milliseconds since the epoch
+     */
+    public long getUltimaAtividade() { return ultimaAtividade; }
+}
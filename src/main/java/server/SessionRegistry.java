@@ -0,0 +1,147 @@
+package server;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator.SplittableGenerator;
+
+import Lists.ArrayUnorderedList;
+import game.Aleatorio;
+import game.BancoEnigmas;
+import game.Divisao;
+import game.Enigma;
+import game.GeradorContado;
+import graph.LabyrinthGraph;
+
+/**
+ * Registry of the sessions of a server, all played on the same map.
+ * The map is frozen and its distance table built once, when the registry is created; every
+ * session plays on a {@link LabyrinthGraph#sessao() session view} that shares it and only holds
+ * the traps and levers of its own game. An idle session is a parked virtual thread plus that
+ * view and its engine, which lets a server keep thousands of them waiting for their clients.
+ * Every method can be called from any thread.
+ */
+public class SessionRegistry {
+
+    /** Sessions by identifier. */
+    private final ConcurrentHashMap<Long, GameSession> sessoes = new ConcurrentHashMap<>();
+
+    /** Identifier of the next session. */
+    private final AtomicLong proximoId = new AtomicLong(1);
+
+    /** Map shared by every session; never changed after the constructor. */
+    private final LabyrinthGraph<Divisao> mapa;
+
+    /** Name of the map. */
+    private final String nomeMapa;
+
+    /** Riddles shared by every session, split by difficulty once. */
+    private final BancoEnigmas enigmas;
+
+    /** Maximum number of turns of each game, or 0 for no limit. */
+    private final int maxTurnos;
+
+    /** Generator the seed of each session's generator is drawn from. */
+    private final SplittableGenerator sementes;
+
+    /**
+     * Creates an empty registry.
+     * @param mapa      the map of the games; it must not be changed afterwards
+     * @param nomeMapa  the name of the map
+     * @param enigmas   riddles to choose from, shared and only read
+     * @param maxTurnos maximum number of turns of each game, or 0 for no limit
+     */
+    public SessionRegistry(LabyrinthGraph<Divisao> mapa, String nomeMapa, ArrayUnorderedList<Enigma> enigmas, int maxTurnos) {
+        mapa.freeze(); // também constrói os índices de corredores
+        mapa.distanciasPorChaves();
+        mapa.campoDistancias();
+        this.mapa = mapa;
+        this.nomeMapa = nomeMapa;
+        this.enigmas = new BancoEnigmas(enigmas);
+        this.maxTurnos = maxTurnos;
+        this.sementes = Aleatorio.novo();
+    }
+
+    /**
+     * Creates and starts a session; its game waits for the client's answers to the setup prompts.
+     * @return the new session
+     */
+    public GameSession criar() {
+        long id = proximoId.getAndIncrement();
+        GameSession sessao = new GameSession(id, mapa.sessao(), nomeMapa, enigmas, maxTurnos, novoAleatorio());
+        sessoes.put(id, sessao);
+        sessao.iniciar();
+        return sessao;
+    }
+
+    /**
+     * Returns a session.
+     * @param id the session identifier
+     * @return the session, or null if there is none with that identifier
+     */
+    public GameSession obter(long id) {
+        return sessoes.get(id);
+    }
+
+    /**
+     * Stops a session and forgets it.
+     * @param id the session identifier
+     * @return true if the session existed
+     */
+    public boolean remover(long id) {
+        GameSession sessao = sessoes.remove(id);
+        if (sessao == null) return false;
+        sessao.terminar();
+        return true;
+    }
+
+    /**
+     * Stops and forgets every session whose client has been silent for longer than a limit.
+     * @param millis the idle time limit, in milliseconds
+     * @return the number of sessions removed
+     */
+    public int removerInativas(long millis) {
+        long limite = System.currentTimeMillis() - millis;
+        int removidas = 0;
+        for (GameSession sessao : sessoes.values()) {
+            if (sessao.getUltimaAtividade() < limite && remover(sessao.getId())) removidas++;
+        }
+        return removidas;
+    }
+
+    /**
+     * Forgets every session whose game has ended and whose last output the client has collected.
+     * @return the number of sessions removed
+     */
+    public int removerRecolhidas() {
+        int removidas = 0;
+        for (GameSession sessao : sessoes.values()) {
+            if (sessao.isRecolhida() && remover(sessao.getId())) removidas++;
+        }
+        return removidas;
+    }
+
+    /**
+     * Stops and forgets every session.
+     */
+    public void removerTodas() {
+        for (Long id : sessoes.keySet()) {
+            remover(id);
+        }
+    }
+
+    /**
+     * Returns the number of sessions in the registry, finished or not.
+     * @return the session count
+     */
+    public int size() {
+        return sessoes.size();
+    }
+
+    /**
+     * Creates the generator of a new session from a seed drawn from the parent, counting its draws so
+     * that the session can be saved; drawing changes the parent, so it is done one at a time.
+     */
+    private synchronized GeradorContado novoAleatorio() {
+        return Aleatorio.contado(sementes.nextLong());
+    }
+}
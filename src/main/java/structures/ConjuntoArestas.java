@@ -0,0 +1,221 @@
+package structures;
+
+/**
+ * Set of edge keys (see {@link MapaArestas#chave(int, int)}) with constant-time insertion,
+ * removal, membership and access by position.
+ * The keys are kept packed in an array, where a removal moves the last key into the hole,
+ * next to an open-addressing table from each key to its position. Picking a uniformly random
+ * edge is then a single array read at a random position below {@link #size()}.
+ */
+public class ConjuntoArestas {
+
+    /**
+     * Initial number of slots in the table (always a power of two).
+     */
+    private static final int CAPACIDADE_INICIAL = 16;
+
+    /**
+     * The keys of the set, packed in the first {@link #count} positions.
+     */
+    private long[] elementos;
+
+    /**
+     * Edge key stored in each slot of the table, or {@link MapaArestas#VAZIO}.
+     */
+    private long[] chaves;
+
+    /**
+     * Position in {@link #elementos} of the key in the same slot.
+     */
+    private int[] posicoes;
+
+    /**
+     * Number of keys in the set.
+     */
+    private int count;
+
+    /**
+     * Creates an empty set.
+     */
+    public ConjuntoArestas() {
+        elementos = new long[CAPACIDADE_INICIAL];
+        criarSlots(CAPACIDADE_INICIAL);
+    }
+
+    /**
+     * Adds an edge key to the set.
+     * @param chave the edge key
+     * @return true if the key was added, or false if it was already in the set
+     */
+    public boolean add(long chave) {
+        if (contains(chave)) return false;
+        if ((count + 1) * 4 > chaves.length * 3) {
+            redimensionar(chaves.length << 1);
+        }
+        if (count == elementos.length) {
+            long[] maiores = new long[elementos.length << 1];
+            System.arraycopy(elementos, 0, maiores, 0, count);
+            elementos = maiores;
+        }
+        elementos[count] = chave;
+        inserir(chave, count);
+        count++;
+        return true;
+    }
+
+    /**
+     * Removes an edge key from the set, moving the last key into its position.
+     * @param chave the edge key
+     * @return true if the key was in the set
+     */
+    public boolean remove(long chave) {
+        int slot = procurar(chave);
+        if (slot < 0) return false;
+
+        int posicao = posicoes[slot];
+        apagarSlot(slot);
+        count--;
+        if (posicao < count) {
+            long ultima = elementos[count];
+            elementos[posicao] = ultima;
+            posicoes[procurar(ultima)] = posicao;
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether an edge key is in the set.
+     * @param chave the edge key
+     * @return true if the key is in the set
+     */
+    public boolean contains(long chave) {
+        return procurar(chave) >= 0;
+    }
+
+    /**
+     * Returns the key at a position; positions change when keys are removed.
+     * @param i the position, from 0 to {@link #size()} - 1
+     * @return the edge key
+     * @throws IndexOutOfBoundsException if the position is outside the set
+     */
+    public long get(int i) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("Posição " + i + " fora do conjunto de tamanho " + count);
+        }
+        return elementos[i];
+    }
+
+    /**
+     * Returns the number of keys in the set.
+     * @return the number of keys
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Checks whether the set has no keys.
+     * @return true if the set is empty
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Returns the keys of the set in a new array.
+     * @return the edge keys, in position order
+     */
+    public long[] toArray() {
+        long[] copia = new long[count];
+        System.arraycopy(elementos, 0, copia, 0, count);
+        return copia;
+    }
+
+    /**
+     * Returns an independent copy of the set.
+     * @return the copy
+     */
+    public ConjuntoArestas copia() {
+        ConjuntoArestas copia = new ConjuntoArestas();
+        copia.elementos = elementos.clone();
+        copia.chaves = chaves.clone();
+        copia.posicoes = posicoes.clone();
+        copia.count = count;
+        return copia;
+    }
+
+    /**
+     * Finds the slot holding an edge key.
+     * @param chave the edge key
+     * @return the slot position, or -1 if the key is not in the set
+     */
+    private int procurar(long chave) {
+        int mask = chaves.length - 1;
+        int slot = MapaArestas.espalhar(chave) & mask;
+        while (chaves[slot] != MapaArestas.VAZIO) {
+            if (chaves[slot] == chave) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Stores a key that is not in the table yet.
+     */
+    private void inserir(long chave, int posicao) {
+        int mask = chaves.length - 1;
+        int slot = MapaArestas.espalhar(chave) & mask;
+        while (chaves[slot] != MapaArestas.VAZIO) {
+            slot = (slot + 1) & mask;
+        }
+        chaves[slot] = chave;
+        posicoes[slot] = posicao;
+    }
+
+    /**
+     * Empties a slot and shifts back the keys after it that would no longer be found,
+     * so that no tombstones are needed.
+     */
+    private void apagarSlot(int slot) {
+        int mask = chaves.length - 1;
+        int vazio = slot;
+        int i = slot;
+        while (true) {
+            i = (i + 1) & mask;
+            long chave = chaves[i];
+            if (chave == MapaArestas.VAZIO) break;
+            int ideal = MapaArestas.espalhar(chave) & mask;
+            // a chave fica se o seu slot ideal está entre o buraco (exclusive) e ela (inclusive)
+            boolean fica = vazio <= i ? (vazio < ideal && ideal <= i) : (vazio < ideal || ideal <= i);
+            if (!fica) {
+                chaves[vazio] = chave;
+                posicoes[vazio] = posicoes[i];
+                vazio = i;
+            }
+        }
+        chaves[vazio] = MapaArestas.VAZIO;
+    }
+
+    /**
+     * Allocates empty slot arrays.
+     * @param slots the number of slots (a power of two)
+     */
+    private void criarSlots(int slots) {
+        chaves = new long[slots];
+        posicoes = new int[slots];
+        for (int i = 0; i < slots; i++) {
+            chaves[i] = MapaArestas.VAZIO;
+        }
+    }
+
+    /**
+     * Rebuilds the table with a new number of slots.
+     * @param novosSlots the new number of slots (a power of two)
+     */
+    private void redimensionar(int novosSlots) {
+        criarSlots(novosSlots);
+        for (int i = 0; i < count; i++) {
+            inserir(elementos[i], i);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package structures;
+
+import Exceptions.EmptyCollectionException;
+
+/**
+ * Circular FIFO queue of primitive ints, meant to be cleared and reused across searches
+ * so that a traversal does not allocate a node (or a boxed Integer) per element.
+ */
+public class FilaInteiros {
+
+    /**
+     * Initial number of slots (always a power of two).
+     */
+    private static final int CAPACIDADE_INICIAL = 16;
+
+    /**
+     * Circular buffer holding the queued values.
+     */
+    private int[] dados;
+
+    /**
+     * Position of the front element.
+     */
+    private int frente;
+
+    /**
+     * Number of elements currently queued.
+     */
+    private int count;
+
+    /**
+     * Creates an empty queue.
+     */
+    public FilaInteiros() {
+        this(CAPACIDADE_INICIAL);
+    }
+
+    /**
+     * Creates an empty queue able to hold the given number of elements without growing.
+     * @param capacidade expected maximum number of queued elements
+     */
+    public FilaInteiros(int capacidade) {
+        int slots = CAPACIDADE_INICIAL;
+        while (slots < capacidade) {
+            slots <<= 1;
+        }
+        dados = new int[slots];
+    }
+
+    /**
+     * Adds a value to the rear of the queue, growing the buffer when it is full.
+     * @param valor the value to add
+     */
+    public void enqueue(int valor) {
+        if (count == dados.length) {
+            expandir();
+        }
+        dados[(frente + count) & (dados.length - 1)] = valor;
+        count++;
+    }
+
+    /**
+     * Removes and returns the value at the front of the queue.
+     * @return the front value
+     * @throws EmptyCollectionException if the queue is empty
+     */
+    public int dequeue() {
+        if (count == 0) {
+            throw new EmptyCollectionException("Fila vazia");
+        }
+        int valor = dados[frente];
+        frente = (frente + 1) & (dados.length - 1);
+        count--;
+        return valor;
+    }
+
+    /**
+     * Removes every element, keeping the buffer for reuse.
+     */
+    public void clear() {
+        frente = 0;
+        count = 0;
+    }
+
+    /**
+     * Checks whether the queue has no elements.
+     * @return true if the queue is empty
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Returns the number of queued elements.
+     * @return the number of elements
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Doubles the buffer, moving the elements so the front is at position 0.
+     */
+    private void expandir() {
+        int[] novos = new int[dados.length << 1];
+        for (int i = 0; i < count; i++) {
+            novos[i] = dados[(frente + i) & (dados.length - 1)];
+        }
+        dados = novos;
+        frente = 0;
+    }
+}
@@ -0,0 +1,116 @@
+package structures;
+
+import Exceptions.EmptyCollectionException;
+
+/**
+ * Binary min-heap of primitive longs, so that scheduling by a numeric key does not allocate a node
+ * (or a boxed Long) per element. Equal values are kept as separate elements.
+ */
+public class FilaPrioridadeLongs {
+
+    /**
+     * Initial number of slots.
+     */
+    private static final int CAPACIDADE_INICIAL = 16;
+
+    /**
+     * Heap-ordered values; the children of position i are at 2i+1 and 2i+2.
+     */
+    private long[] dados;
+
+    /**
+     * Number of elements currently in the heap.
+     */
+    private int count;
+
+    /**
+     * Creates an empty heap.
+     */
+    public FilaPrioridadeLongs() {
+        this(CAPACIDADE_INICIAL);
+    }
+
+    /**
+     * Creates an empty heap able to hold the given number of elements without growing.
+     * @param capacidade expected maximum number of elements
+     */
+    public FilaPrioridadeLongs(int capacidade) {
+        dados = new long[Math.max(capacidade, CAPACIDADE_INICIAL)];
+    }
+
+    /**
+     * Adds a value to the heap, growing the array when it is full.
+     * @param valor the value to add
+     */
+    public void inserir(long valor) {
+        if (count == dados.length) {
+            long[] novos = new long[dados.length << 1];
+            System.arraycopy(dados, 0, novos, 0, count);
+            dados = novos;
+        }
+        int i = count++;
+        while (i > 0) {
+            int pai = (i - 1) >>> 1;
+            if (dados[pai] <= valor) break;
+            dados[i] = dados[pai];
+            i = pai;
+        }
+        dados[i] = valor;
+    }
+
+    /**
+     * Returns the smallest value without removing it.
+     * @return the smallest value
+     * @throws EmptyCollectionException if the heap is empty
+     */
+    public long minimo() {
+        if (count == 0) {
+            throw new EmptyCollectionException("Fila de prioridade vazia");
+        }
+        return dados[0];
+    }
+
+    /**
+     * Removes and returns the smallest value.
+     * @return the smallest value
+     * @throws EmptyCollectionException if the heap is empty
+     */
+    public long removerMinimo() {
+        long minimo = minimo();
+        long ultimo = dados[--count];
+        int i = 0;
+        int meio = count >>> 1;
+        while (i < meio) {
+            int filho = 2 * i + 1;
+            if (filho + 1 < count && dados[filho + 1] < dados[filho]) filho++;
+            if (ultimo <= dados[filho]) break;
+            dados[i] = dados[filho];
+            i = filho;
+        }
+        dados[i] = ultimo;
+        return minimo;
+    }
+
+    /**
+     * Removes every element, keeping the array for reuse.
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Checks whether the heap has no elements.
+     * @return true if the heap is empty
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Returns the number of elements in the heap.
+     * @return the number of elements
+     */
+    public int size() {
+        return count;
+    }
+}
@@ -0,0 +1,79 @@
+package structures;
+
+/**
+ * Growable array of primitive ints, appended to at the end, so that a long sequence of indexes
+ * does not allocate a node (or a boxed Integer) per element.
+ */
+public class ListaInteiros {
+
+    /**
+     * Initial number of slots.
+     */
+    private static final int CAPACIDADE_INICIAL = 16;
+
+    /**
+     * Stored values; only the first {@link #count} are in use.
+     */
+    private int[] dados;
+
+    /**
+     * Number of stored values.
+     */
+    private int count;
+
+    /**
+     * Creates an empty list.
+     */
+    public ListaInteiros() {
+        dados = new int[CAPACIDADE_INICIAL];
+    }
+
+    /**
+     * Adds a value to the end of the list, growing the array when it is full.
+     * @param valor the value to add
+     */
+    public void add(int valor) {
+        if (count == dados.length) {
+            int[] novos = new int[dados.length << 1];
+            System.arraycopy(dados, 0, novos, 0, count);
+            dados = novos;
+        }
+        dados[count++] = valor;
+    }
+
+    /**
+     * Returns the value at a position.
+     * @param i the position, from 0 to {@link #size()} - 1
+     * @return the value
+     * @throws IndexOutOfBoundsException if the position is outside the list
+     */
+    public int get(int i) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("Posição " + i + " fora da lista de tamanho " + count);
+        }
+        return dados[i];
+    }
+
+    /**
+     * Removes every value, keeping the array for reuse.
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Checks whether the list has no values.
+     * @return true if the list is empty
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Returns the number of stored values.
+     * @return the number of values
+     */
+    public int size() {
+        return count;
+    }
+}
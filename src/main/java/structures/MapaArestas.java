@@ -0,0 +1,267 @@
+package structures;
+
+/**
+ * Hash table keyed by primitive {@code long} edge keys, using open addressing (linear probing).
+ * Keys are built from two vertex indexes with {@link #chave(int, int)}, so the table never
+ * boxes indexes and a lookup is a few array reads.
+ * @param <V> the type of the value stored for each edge (for example, a corridor event)
+ */
+public class MapaArestas<V> {
+
+    /**
+     * Marker stored in empty slots; valid keys are built from non-negative indexes and are never negative.
+     */
+    public static final long VAZIO = -1L;
+
+    /**
+     * Initial number of slots in the table (always a power of two).
+     */
+    private static final int CAPACIDADE_INICIAL = 16;
+
+    /**
+     * Edge key stored in each slot, or {@link #VAZIO}.
+     */
+    private long[] chaves;
+
+    /**
+     * Value stored for the edge in the same slot.
+     */
+    private Object[] valores;
+
+    /**
+     * Number of edges currently stored.
+     */
+    private int count;
+
+    /**
+     * Creates an empty table.
+     */
+    public MapaArestas() {
+        this(CAPACIDADE_INICIAL);
+    }
+
+    /**
+     * Creates an empty table able to hold the given number of edges without resizing.
+     * @param capacidade expected number of edges
+     */
+    public MapaArestas(int capacidade) {
+        int slots = CAPACIDADE_INICIAL;
+        while (slots * 3 < capacidade * 4) {
+            slots <<= 1;
+        }
+        criarSlots(slots);
+    }
+
+    /**
+     * Builds the key of the undirected edge between two vertex indexes.
+     * The same key is produced for both directions of the edge.
+     * @param a the first vertex index
+     * @param b the second vertex index
+     * @return the edge key
+     */
+    public static long chave(int a, int b) {
+        int menor = Math.min(a, b);
+        int maior = Math.max(a, b);
+        return ((long) menor << 32) | (maior & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the smaller vertex index encoded in an edge key.
+     * @param chave the edge key
+     * @return the first vertex index
+     */
+    public static int primeiro(long chave) {
+        return (int) (chave >>> 32);
+    }
+
+    /**
+     * Returns the larger vertex index encoded in an edge key.
+     * @param chave the edge key
+     * @return the second vertex index
+     */
+    public static int segundo(long chave) {
+        return (int) chave;
+    }
+
+    /**
+     * Returns the value stored for an edge.
+     * @param chave the edge key
+     * @return the stored value, or null if the edge is not present
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long chave) {
+        int slot = procurar(chave);
+        return slot < 0 ? null : (V) valores[slot];
+    }
+
+    /**
+     * Checks whether an edge is stored in the table.
+     * @param chave the edge key
+     * @return true if the edge is present
+     */
+    public boolean contains(long chave) {
+        return procurar(chave) >= 0;
+    }
+
+    /**
+     * Stores a value for an edge only if the edge is not present yet.
+     * @param chave the edge key
+     * @param valor the value to store
+     * @return true if the edge was inserted, or false if it was already present
+     */
+    public boolean putIfAbsent(long chave, V valor) {
+        if ((count + 1) * 4 > chaves.length * 3) {
+            redimensionar(chaves.length << 1);
+        }
+        int mask = chaves.length - 1;
+        int slot = espalhar(chave) & mask;
+        while (chaves[slot] != VAZIO) {
+            if (chaves[slot] == chave) return false;
+            slot = (slot + 1) & mask;
+        }
+        chaves[slot] = chave;
+        valores[slot] = valor;
+        count++;
+        return true;
+    }
+
+    /**
+     * Replaces the value of an edge that is already stored.
+     * @param chave the edge key
+     * @param valor the new value
+     * @return true if the edge was present and updated, or false otherwise
+     */
+    public boolean replace(long chave, V valor) {
+        int slot = procurar(chave);
+        if (slot < 0) return false;
+        valores[slot] = valor;
+        return true;
+    }
+
+    /**
+     * Removes an edge from the table.
+     * @param chave the edge key
+     * @return true if the edge was present
+     */
+    public boolean remove(long chave) {
+        int slot = procurar(chave);
+        if (slot < 0) return false;
+        apagarSlot(slot);
+        count--;
+        return true;
+    }
+
+    /**
+     * Returns the number of edges stored.
+     * @return the number of edges
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the number of slots of the table, to iterate with {@link #chaveNoSlot(int)}.
+     * @return the number of slots
+     */
+    public int slots() {
+        return chaves.length;
+    }
+
+    /**
+     * Returns the key stored in a slot.
+     * @param slot the slot position
+     * @return the edge key, or {@link #VAZIO} if the slot is empty
+     */
+    public long chaveNoSlot(int slot) {
+        return chaves[slot];
+    }
+
+    /**
+     * Returns the value stored in a slot.
+     * @param slot the slot position
+     * @return the value, or null if the slot is empty
+     */
+    @SuppressWarnings("unchecked")
+    public V valorNoSlot(int slot) {
+        return (V) valores[slot];
+    }
+
+    /**
+     * Finds the slot holding an edge key.
+     * @param chave the edge key
+     * @return the slot position, or -1 if the edge is not present
+     */
+    private int procurar(long chave) {
+        int mask = chaves.length - 1;
+        int slot = espalhar(chave) & mask;
+        while (chaves[slot] != VAZIO) {
+            if (chaves[slot] == chave) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Empties a slot and shifts back the keys after it that would no longer be found,
+     * so that no tombstones are needed.
+     */
+    private void apagarSlot(int slot) {
+        int mask = chaves.length - 1;
+        int vazio = slot;
+        int i = slot;
+        while (true) {
+            i = (i + 1) & mask;
+            long chave = chaves[i];
+            if (chave == VAZIO) break;
+            int ideal = espalhar(chave) & mask;
+            // a chave fica se o seu slot ideal está entre o buraco (exclusive) e ela (inclusive)
+            boolean fica = vazio <= i ? (vazio < ideal && ideal <= i) : (vazio < ideal || ideal <= i);
+            if (!fica) {
+                chaves[vazio] = chave;
+                valores[vazio] = valores[i];
+                vazio = i;
+            }
+        }
+        chaves[vazio] = VAZIO;
+        valores[vazio] = null;
+    }
+
+    /**
+     * Allocates empty slot arrays.
+     * @param slots the number of slots (a power of two)
+     */
+    private void criarSlots(int slots) {
+        chaves = new long[slots];
+        valores = new Object[slots];
+        for (int i = 0; i < slots; i++) {
+            chaves[i] = VAZIO;
+        }
+    }
+
+    /**
+     * Rebuilds the table with a new number of slots.
+     * @param novosSlots the new number of slots (a power of two)
+     */
+    @SuppressWarnings("unchecked")
+    private void redimensionar(int novosSlots) {
+        long[] antigasChaves = chaves;
+        Object[] antigosValores = valores;
+        criarSlots(novosSlots);
+        count = 0;
+        for (int i = 0; i < antigasChaves.length; i++) {
+            if (antigasChaves[i] != VAZIO) {
+                putIfAbsent(antigasChaves[i], (V) antigosValores[i]);
+            }
+        }
+    }
+
+    /**
+     * Mixes the bits of an edge key into a well distributed int hash; shared with {@link ConjuntoArestas}.
+     * @param chave the edge key
+     * @return the mixed hash
+     */
+    static int espalhar(long chave) {
+        long h = chave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
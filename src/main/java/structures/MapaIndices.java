@@ -0,0 +1,202 @@
+package structures;
+
+/**
+ * Hash table that maps keys to non-negative int indexes using open addressing (linear probing).
+ * Keys are compared with {@code equals} and distributed by {@code hashCode}, so the key type must
+ * keep both methods consistent.
+ * @param <K> the type of the keys (for example, a room)
+ */
+public class MapaIndices<K> {
+
+    /**
+     * Value returned by lookups when the key is not present.
+     */
+    public static final int NAO_ENCONTRADO = -1;
+
+    /**
+     * Initial number of slots in the table (always a power of two).
+     */
+    private static final int CAPACIDADE_INICIAL = 16;
+
+    /**
+     * Keys stored in each slot, or null for an empty slot.
+     */
+    private Object[] chaves;
+
+    /**
+     * Index stored for the key in the same slot.
+     */
+    private int[] valores;
+
+    /**
+     * Number of keys currently stored.
+     */
+    private int count;
+
+    /**
+     * Creates an empty table.
+     */
+    public MapaIndices() {
+        this(CAPACIDADE_INICIAL);
+    }
+
+    /**
+     * Creates an empty table able to hold the given number of keys without resizing.
+     * @param capacidade expected number of keys
+     */
+    public MapaIndices(int capacidade) {
+        int slots = CAPACIDADE_INICIAL;
+        while (slots * 3 < capacidade * 4) {
+            slots <<= 1;
+        }
+        this.chaves = new Object[slots];
+        this.valores = new int[slots];
+    }
+
+    /**
+     * Returns the index associated with the given key.
+     * @param chave the key to look up
+     * @return the stored index, or {@link #NAO_ENCONTRADO} if the key is not present
+     */
+    public int get(K chave) {
+        if (chave == null) return NAO_ENCONTRADO;
+        int mask = chaves.length - 1;
+        int slot = espalhar(chave.hashCode()) & mask;
+        while (chaves[slot] != null) {
+            if (chaves[slot].equals(chave)) return valores[slot];
+            slot = (slot + 1) & mask;
+        }
+        return NAO_ENCONTRADO;
+    }
+
+    /**
+     * Associates an index with a key only if the key is not present yet.
+     * @param chave  the key
+     * @param indice the index to associate
+     * @return true if the key was inserted, or false if it was already present
+     */
+    public boolean putIfAbsent(K chave, int indice) {
+        if (chave == null) return false;
+        if ((count + 1) * 4 > chaves.length * 3) {
+            redimensionar(chaves.length << 1);
+        }
+        int mask = chaves.length - 1;
+        int slot = espalhar(chave.hashCode()) & mask;
+        while (chaves[slot] != null) {
+            if (chaves[slot].equals(chave)) return false;
+            slot = (slot + 1) & mask;
+        }
+        chaves[slot] = chave;
+        valores[slot] = indice;
+        count++;
+        return true;
+    }
+
+    /**
+     * Associates an index with a key, replacing any previous index.
+     * @param chave  the key
+     * @param indice the index to associate
+     */
+    public void put(K chave, int indice) {
+        if (chave == null) return;
+        int mask = chaves.length - 1;
+        int slot = espalhar(chave.hashCode()) & mask;
+        while (chaves[slot] != null) {
+            if (chaves[slot].equals(chave)) {
+                valores[slot] = indice;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        putIfAbsent(chave, indice);
+    }
+
+    /**
+     * Removes a key from the table.
+     * @param chave the key to remove
+     * @return the index that was associated with the key, or {@link #NAO_ENCONTRADO}
+     */
+    public int remove(K chave) {
+        if (chave == null) return NAO_ENCONTRADO;
+        int mask = chaves.length - 1;
+        int slot = espalhar(chave.hashCode()) & mask;
+        while (chaves[slot] != null) {
+            if (chaves[slot].equals(chave)) {
+                int antigo = valores[slot];
+                apagarSlot(slot);
+                count--;
+                return antigo;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NAO_ENCONTRADO;
+    }
+
+    /**
+     * Removes every key from the table, keeping the current capacity.
+     */
+    public void clear() {
+        for (int i = 0; i < chaves.length; i++) {
+            chaves[i] = null;
+        }
+        count = 0;
+    }
+
+    /**
+     * Returns the number of keys stored.
+     * @return the number of keys
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Empties a slot and shifts back the following entries of the same probe run,
+     * so that lookups never stop early on a hole.
+     * @param slot the slot to empty
+     */
+    private void apagarSlot(int slot) {
+        int mask = chaves.length - 1;
+        int livre = slot;
+        int atual = (slot + 1) & mask;
+        while (chaves[atual] != null) {
+            int ideal = espalhar(chaves[atual].hashCode()) & mask;
+            // move the entry back if its ideal slot is not between the hole and its current slot
+            if (((atual - ideal) & mask) >= ((atual - livre) & mask)) {
+                chaves[livre] = chaves[atual];
+                valores[livre] = valores[atual];
+                livre = atual;
+            }
+            atual = (atual + 1) & mask;
+        }
+        chaves[livre] = null;
+    }
+
+    /**
+     * Rebuilds the table with a new number of slots.
+     * @param novosSlots the new number of slots (a power of two)
+     */
+    @SuppressWarnings("unchecked")
+    private void redimensionar(int novosSlots) {
+        Object[] antigasChaves = chaves;
+        int[] antigosValores = valores;
+        chaves = new Object[novosSlots];
+        valores = new int[novosSlots];
+        count = 0;
+        for (int i = 0; i < antigasChaves.length; i++) {
+            if (antigasChaves[i] != null) {
+                putIfAbsent((K) antigasChaves[i], antigosValores[i]);
+            }
+        }
+    }
+
+    /**
+     * Mixes the bits of a hash code so that keys with similar hashes spread across the table.
+     * @param h the original hash code
+     * @return the mixed hash
+     */
+    private static int espalhar(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
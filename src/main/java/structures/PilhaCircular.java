@@ -0,0 +1,167 @@
+package structures;
+
+import Exceptions.EmptyCollectionException;
+
+/**
+ * Stack of ints of bounded size kept in a circular array, where each element carries a small code.
+ * Pushing onto a full stack forgets its oldest element, so the memory used never grows past the
+ * capacity however many elements are pushed; besides the stack operations, the elements can be
+ * read from the oldest one, which makes it usable as a bounded log too. The elements are
+ * primitive, typically indexes into a table the caller keeps, so the stack holds no references.
+ */
+public class PilhaCircular {
+
+    /**
+     * Elements in a circular array; the oldest is at {@link #inicio}.
+     */
+    private int[] valores;
+
+    /**
+     * Code of the element in the same position of {@link #valores}.
+     */
+    private byte[] codigos;
+
+    /**
+     * Position of the oldest element.
+     */
+    private int inicio;
+
+    /**
+     * Number of elements in the stack.
+     */
+    private int count;
+
+    /**
+     * Creates an empty stack.
+     * @param capacidade the most elements kept; at least 1
+     * @throws IllegalArgumentException if the capacity is less than 1
+     */
+    public PilhaCircular(int capacidade) {
+        if (capacidade < 1) {
+            throw new IllegalArgumentException("Capacidade inválida: " + capacidade);
+        }
+        valores = new int[capacidade];
+        codigos = new byte[capacidade];
+    }
+
+    /**
+     * Pushes an element; if the stack is full its oldest element is forgotten first.
+     * @param valor  the element
+     * @param codigo the code stored with it
+     * @return true if the oldest element was forgotten to make room
+     */
+    public boolean push(int valor, byte codigo) {
+        boolean cheia = count == valores.length;
+        if (cheia) {
+            inicio = (inicio + 1) % valores.length;
+            count--;
+        }
+        int i = (inicio + count) % valores.length;
+        valores[i] = valor;
+        codigos[i] = codigo;
+        count++;
+        return cheia;
+    }
+
+    /**
+     * Removes and returns the newest element.
+     * @return the newest element
+     * @throws EmptyCollectionException if the stack is empty
+     */
+    public int pop() {
+        int valor = peek();
+        count--;
+        return valor;
+    }
+
+    /**
+     * Returns the newest element without removing it.
+     * @return the newest element
+     * @throws EmptyCollectionException if the stack is empty
+     */
+    public int peek() {
+        if (count == 0) {
+            throw new EmptyCollectionException("Pilha vazia");
+        }
+        return valores[(inicio + count - 1) % valores.length];
+    }
+
+    /**
+     * Returns an element counted from the oldest one kept.
+     * @param i the position, 0 being the oldest element
+     * @return the element
+     * @throws IndexOutOfBoundsException if there is no element at that position
+     */
+    public int get(int i) {
+        return valores[posicao(i)];
+    }
+
+    /**
+     * Returns the code of an element counted from the oldest one kept.
+     * @param i the position, 0 being the oldest element
+     * @return the code stored with the element
+     * @throws IndexOutOfBoundsException if there is no element at that position
+     */
+    public byte codigo(int i) {
+        return codigos[posicao(i)];
+    }
+
+    /**
+     * Changes the capacity, keeping the newest elements that fit.
+     * @param capacidade the new capacity; at least 1
+     * @return the number of oldest elements forgotten
+     * @throws IllegalArgumentException if the capacity is less than 1
+     */
+    public int redimensionar(int capacidade) {
+        if (capacidade < 1) {
+            throw new IllegalArgumentException("Capacidade inválida: " + capacidade);
+        }
+        int esquecidos = Math.max(0, count - capacidade);
+        int[] novosValores = new int[capacidade];
+        byte[] novosCodigos = new byte[capacidade];
+        for (int k = 0; k < count - esquecidos; k++) {
+            int i = posicao(esquecidos + k);
+            novosValores[k] = valores[i];
+            novosCodigos[k] = codigos[i];
+        }
+        valores = novosValores;
+        codigos = novosCodigos;
+        inicio = 0;
+        count -= esquecidos;
+        return esquecidos;
+    }
+
+    /**
+     * Returns the number of elements in the stack.
+     * @return the number of elements
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Checks whether the stack has no elements.
+     * @return true if the stack is empty
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Returns the most elements the stack keeps.
+     * @return the capacity
+     */
+    public int capacidade() {
+        return valores.length;
+    }
+
+    /**
+     * Converts a position counted from the oldest element to a position in the arrays.
+     */
+    private int posicao(int i) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("Posição " + i + " fora da pilha de tamanho " + count);
+        }
+        return (inicio + i) % valores.length;
+    }
+}
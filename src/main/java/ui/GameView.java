@@ -1,10 +1,13 @@
 package ui;
 
+import java.io.PrintStream;
 import java.util.Iterator;
 import java.util.Scanner;
 
 import Lists.ArrayUnorderedList;
 import enums.AlavancaEnum;
+import game.Efeito;
+import game.EventoAleatorio;
 import game.Player;
 /**
  * This class responsible for all user interaction for the labyrinth game
@@ -16,11 +19,34 @@ public class GameView {
      */
     private Scanner scanner;
 
+    /**
+     * Stream where every message of the view is written.
+     */
+    protected final PrintStream saida;
+
     /**
      * Creates a new GameView
      */
     public GameView() {
-        this.scanner = new Scanner(System.in);
+        this(new Scanner(System.in));
+    }
+
+    /**
+     * Creates a GameView that reads from the given scanner and writes to the console.
+     * @param scanner the scanner used for input, or null for views that never read
+     */
+    protected GameView(Scanner scanner) {
+        this(scanner, System.out);
+    }
+
+    /**
+     * Creates a GameView that reads from the given scanner and writes to the given stream.
+     * @param scanner the scanner used for input, or null for views that never read
+     * @param saida   the stream used for output
+     */
+    protected GameView(Scanner scanner, PrintStream saida) {
+        this.scanner = scanner;
+        this.saida = saida;
     }
 
     /**
@@ -55,7 +81,7 @@ public class GameView {
      * Waits for the user to press ENTER.
      */
     public void esperarEnter() {
-        System.out.println("(Enter para continuar...)");
+        saida.println("(Enter para continuar...)");
         if (scanner.hasNextLine()) scanner.nextLine();
     }
 
@@ -64,7 +90,7 @@ public class GameView {
      */
     public void mostrarMensagemCarregar() {
 
-        System.out.println("\n--- A CARREGAR RECURSOS DO JOGO ---");
+        saida.println("\n--- A CARREGAR RECURSOS DO JOGO ---");
     }
 
     /**
@@ -72,16 +98,16 @@ public class GameView {
      * @param mensagem display error message
      */
     public void mostrarErro(String mensagem) {
-        System.out.println("\n ERRO: " + mensagem);
-        System.out.println("Verifique os dados e tente novamente");}
+        saida.println("\n ERRO: " + mensagem);
+        saida.println("Verifique os dados e tente novamente");}
     /**
      * Asks the user to choose the difficulty level for riddles.
      * @return the difficulty option chosen
      */
     public int pedirDificuldade() {
-        System.out.println("\nEscolha a Dificuldade dos Enigmas:");
-        System.out.println("1 - FÁCIL | 2 - MÉDIO | 3 - DIFÍCIL");
-        System.out.print("Opção: ");
+        saida.println("\nEscolha a Dificuldade dos Enigmas:");
+        saida.println("1 - FÁCIL | 2 - MÉDIO | 3 - DIFÍCIL");
+        saida.print("Opção: ");
         return lerInteiro();
     }
     /**
@@ -90,7 +116,7 @@ public class GameView {
      * @param max maximum valid option
      */
     public void mostrarErroOpcaoInvalida(int min, int max) {
-        System.out.println("Opção inválida. Escolha entre " + min + " e " + max + ".");
+        saida.println("Opção inválida. Escolha entre " + min + " e " + max + ".");
     }
 
     /**
@@ -99,28 +125,28 @@ public class GameView {
      * @param qtd number of riddles
      */
     public void mostrarDificuldadeDefinida(String dif, int qtd) {
-        System.out.println("Dificuldade definida: " + dif + " (" + qtd + " enigmas).");
+        saida.println("Dificuldade definida: " + dif + " (" + qtd + " enigmas).");
     }
 
     /**
      * Displays an error indicating that the map has no entrance rooms.
      */
     public void mostrarErroSemEntradas() {
-        System.out.println("Erro: O mapa não tem Entradas!");
+        saida.println("Erro: O mapa não tem Entradas!");
     }
 
     /**
      * Displays a message indicating there are no players and the game ends.
      */
     public void mostrarSemJogadores() {
-        System.out.println("Sem jogadores. Fim.");
+        saida.println("Sem jogadores. Fim.");
     }
 
     /**
      * Displays the start-of-game banner.
      */
     public void mostrarInicioJogo() {
-        System.out.println("\nQUE COMECE A CORRIDA!!!!️");
+        saida.println("\nQUE COMECE A CORRIDA!!!!️");
     }
 
     /**
@@ -129,7 +155,7 @@ public class GameView {
      * @return the number of human players chosen
      */
     public int pedirQuantidadeHumanos(int max) {
-        System.out.print("\nQuantos Humanos? (0-" + max + "): ");
+        saida.print("\nQuantos Humanos? (0-" + max + "): ");
         return lerInteiro();
     }
 
@@ -139,7 +165,7 @@ public class GameView {
      * @return the name entered by the user
      */
     public String pedirNomeJogador(int i) {
-        System.out.print("Nome do Jogador " + i + ": ");
+        saida.print("Nome do Jogador " + i + ": ");
         return lerString();
     }
 
@@ -148,7 +174,7 @@ public class GameView {
      * @param nomeSala the name of the starting room
      */
     public void mostrarSpawn(String nomeSala) {
-        System.out.println("Spawn: " + nomeSala);
+        saida.println("Spawn: " + nomeSala);
     }
 
     /**
@@ -157,7 +183,7 @@ public class GameView {
      * @return the number of bots chosen
      */
     public int pedirQuantidadeBots(int max) {
-        System.out.print("\nQuantos Bots? (0-" + max + "): ");
+        saida.print("\nQuantos Bots? (0-" + max + "): ");
         return lerInteiro();
     }
 
@@ -167,8 +193,8 @@ public class GameView {
      * @return the chosen difficulty option
      */
     public int pedirDificuldadeBot(int i) {
-        System.out.println("Dificuldade do Bot " + i + ": [1-Fácil, 2-Médio, 3-Difícil]");
-        System.out.print("> ");
+        saida.println("Dificuldade do Bot " + i + ": [1-Fácil, 2-Médio, 3-Difícil]");
+        saida.print("> ");
         return lerInteiro();
     }
 
@@ -177,7 +203,7 @@ public class GameView {
      * @param nomeSala the name of the room where the bot spawns
      */
     public void mostrarBotCriado(String nomeSala) {
-        System.out.println("Bot criado no " + nomeSala);
+        saida.println("Bot criado no " + nomeSala);
     }
 
 
@@ -189,9 +215,9 @@ public class GameView {
      * @param local current room name
      */
     public void mostrarInicioTurno(String nome, String local) {
-        System.out.println("\n================================================");
-        System.out.println("VEZ DE: " + nome.toUpperCase());
-        System.out.println("Local: " + local);
+        saida.println("\n================================================");
+        saida.println("VEZ DE: " + nome.toUpperCase());
+        saida.println("Local: " + local);
     }
 
     /**
@@ -200,35 +226,35 @@ public class GameView {
      * @param turnos remaining blocked turns
      */
     public void mostrarBloqueado(String nome, int turnos) {
-        System.out.println( nome + " está bloqueado!");
-        System.out.println("Faltam " + turnos + " turno(s) de bloqueio.");
+        saida.println( nome + " está bloqueado!");
+        saida.println("Faltam " + turnos + " turno(s) de bloqueio.");
     }
 
     public void mostrarEscolhaAlvoTroca(ArrayUnorderedList<Player> jogadores, String nomeJogadorAtual) {
-        System.out.println("\nEVENTO DE TROCA DE POSIÇÃO! Escolhe o jogador para trocar:");
+        saida.println("\nEVENTO DE TROCA DE POSIÇÃO! Escolhe o jogador para trocar:");
         Iterator<Player> it = jogadores.iterator();
         int i = 1;
 
         while (it.hasNext()) {
             Player p = it.next();
             String prefixo = p.getNome().equals(nomeJogadorAtual) ? " (TU)" : "";
-            System.out.println("   [" + i + "] " + p.getNome() + prefixo + " @ " + p.getLocalAtual().getNome());
+            saida.println("   [" + i + "] " + p.getNome() + prefixo + " @ " + p.getLocalAtual().getNome());
             i++;
         }
-        System.out.print("Escolhe (1-" + (i-1) + "): ");
+        saida.print("Escolhe (1-" + (i-1) + "): ");
     }
     /**
      * Displays that a bot is about to roll the dice.
      */
     public void avisarBotLancaDados() {
-        System.out.println("O Bot vai lançar os dados...");
+        saida.println("O Bot vai lançar os dados...");
     }
 
     /**
      * Prompts a human player to press ENTER to roll the dice.
      */
     public void pedirHumanoLancaDados() {
-        System.out.println("Pressiona ENTER para lançar o dado...");
+        saida.println("Pressiona ENTER para lançar o dado...");
         lerString(); 
     }
 
@@ -238,8 +264,8 @@ public class GameView {
      * @param valor dice value
      */
     public void mostrarResultadoDados(boolean isBot, int valor) {
-        if(isBot) System.out.println("O Bot lancou um " + valor + "!");
-        else      System.out.println("Lancaste um " + valor + "!");
+        if(isBot) saida.println("O Bot lancou um " + valor + "!");
+        else      saida.println("Lancaste um " + valor + "!");
     }
 
     /**
@@ -248,8 +274,8 @@ public class GameView {
      * @param total total movements allowed this turn
      */
     public void mostrarBonusJogadas(int extra, int total) {
-        System.out.println("BÓNUS: tens " + extra + " movimento(s) extra acumulado(s)!");
-        System.out.println("Total de movimentos neste turno: " + total);
+        saida.println("BÓNUS: tens " + extra + " movimento(s) extra acumulado(s)!");
+        saida.println("Total de movimentos neste turno: " + total);
     }
     /**
      * Shows movement status information, including remaining steps and current location.
@@ -259,10 +285,10 @@ public class GameView {
      */
     public void mostrarStatusMovimento(boolean isBot, int passos, String local) {
         if (isBot) {
-            System.out.println("\n[Bot] Passos: " + passos + " | Local: " + local);
+            saida.println("\n[Bot] Passos: " + passos + " | Local: " + local);
         } else {
-            System.out.println("\n--- Passos Restantes: " + passos + " ---");
-            System.out.println("Estás em: " + local);
+            saida.println("\n--- Passos Restantes: " + passos + " ---");
+            saida.println("Estás em: " + local);
         }
     }
 
@@ -271,7 +297,7 @@ public class GameView {
      * @param nome player name
      */
     public void mostrarFimTurno(String nome) {
-        System.out.println("Fim do turno de " + nome + ".");
+        saida.println("Fim do turno de " + nome + ".");
     }
 
     /**
@@ -279,14 +305,14 @@ public class GameView {
      * @param nome winner's name
      */
     public void mostrarVencedor(String nome) {
-        System.out.println("\nVENCEDOR: " + nome + "! PARABÉNS! ");
+        saida.println("\nVENCEDOR: " + nome + "! PARABÉNS! ");
     }
 
     /**
      * Displays the end-of-game message.
      */
     public void mostrarFimJogo() {
-        System.out.println("Obrigado por jogar!");
+        saida.println("Obrigado por jogar!");
     }
 
     /**
@@ -296,7 +322,7 @@ public class GameView {
      * @param tipoSala room type as a string
      */
     public void mostrarOpcaoMovimento(int indice, String nomeSala, String tipoSala) {
-        System.out.println("[" + indice + "] Ir para: " + nomeSala + " (" + tipoSala + ")");
+        saida.println("[" + indice + "] Ir para: " + nomeSala + " (" + tipoSala + ")");
     }
 
     /**
@@ -304,7 +330,7 @@ public class GameView {
      */
     public void mostrarOpcaoParar() {
 
-        System.out.println("[0] Parar");
+        saida.println("[0] Parar");
     }
 
     /**
@@ -312,17 +338,66 @@ public class GameView {
      * @return the chosen option
      */
     public int pedirEscolhaMovimento() {
-        System.out.print("Escolha: ");
+        saida.print("Escolha: ");
         return lerInteiro();
     }
 
+    /**
+     * Pauses between bot actions so that a human can follow the game.
+     */
+    public void pausaBot() {
+        try { Thread.sleep(1000); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    }
+
+    /**
+     * Displays the random event triggered in a corridor.
+     * @param evento the event; its description is only written here
+     */
+    public void mostrarEventoAleatorio(EventoAleatorio evento) {
+        saida.print("Evento Aleatorio: ");
+        saida.println(evento.getDescricao());
+    }
+
+    /**
+     * Displays that the riddles already answered are being reused.
+     */
+    public void mostrarRecargaEnigmas() {
+        saida.println("A recarregar enigmas ja respondidos...");
+    }
+
+    /**
+     * Displays that a position swap was cancelled.
+     */
+    public void mostrarTrocaCancelada() {
+        saida.println("Troca cancelada ou alvo inválido");
+    }
+
+    /**
+     * Displays that two players swapped positions.
+     * @param nome      the player that triggered the swap
+     * @param nomeOutro the player chosen for the swap
+     */
+    public void mostrarTrocaPosicao(String nome, String nomeOutro) {
+        saida.println(nome + " trocou de posição com " + nomeOutro + "!");
+    }
+
+    /**
+     * Displays where a triggered trap went.
+     * @param mudou true if the trap moved to a new corridor or false if it found no place
+     */
+    public void mostrarArmadilhaRelocalizada(boolean mudou) {
+        saida.println("A armadilha desapareceu deste corredor...");
+        if (mudou) saida.println("Mudou-se para um corredor novo!");
+        else       saida.println("(A armadilha não encontrou lugar).");
+    }
+
     /**
      * Displays the destination chosen by a bot.
      * @param destino the name of the destination room
      */
     public void mostrarBotDecisao(String destino) {
 
-        System.out.println("A avançar para: " + destino);
+        saida.println("A avançar para: " + destino);
     }
 
     /**
@@ -330,15 +405,15 @@ public class GameView {
      * @param id the lock ID
      */
     public void mostrarPortaoTrancado(int id) {
-        System.out.println("Portão Trancado (Tranca #" + id + ").");
-        System.out.println("Ativa primeiro a Sala de Controlo #" + id + " com este jogador.");
+        saida.println("Portão Trancado (Tranca #" + id + ").");
+        saida.println("Ativa primeiro a Sala de Controlo #" + id + " com este jogador.");
     }
 
     /**
      * Displays a message indicating a trap was activated and the turn ends.
      */
     public void mostrarArmadilhaAtivada() {
-        System.out.println("Armadilha ativada! Turno encerrado.");
+        saida.println("Armadilha ativada! Turno encerrado.");
     }
 
     /**
@@ -348,8 +423,8 @@ public class GameView {
      * @param nomeNovaSala the name of the room where the player ended up
      */
     public void mostrarRecuo(String nomeJogador, int casas, String nomeNovaSala) {
-        System.out.println( nomeJogador + " recuou " + casas + " casa(s)!");
-        System.out.println("Nova Posição: " + nomeNovaSala);
+        saida.println( nomeJogador + " recuou " + casas + " casa(s)!");
+        saida.println("Nova Posição: " + nomeNovaSala);
     }
 
     /**
@@ -357,7 +432,7 @@ public class GameView {
      * @param nomeJogador the name of the player who attempted to move back
      */
     public void mostrarAvisoSemRecuo(String nomeJogador) {
-        System.out.println(nomeJogador + ": Tentativa de recuo cancelada Limite de recuo atingido.");
+        saida.println(nomeJogador + ": Tentativa de recuo cancelada Limite de recuo atingido.");
     }
 
     // ENIGMAs
@@ -368,7 +443,7 @@ public class GameView {
      */
     public void mostrarPergunta(String p) {
 
-        System.out.println("Pergunta: " + p);
+        saida.println("Pergunta: " + p);
     }
 
     /**
@@ -377,7 +452,7 @@ public class GameView {
      * @param dif  difficulty description
      */
     public void mostrarBotAnalisaEnigma(String nome, String dif) {
-        System.out.println("O Bot " + nome + " (" + dif + ") está a analisar o enigma...");
+        saida.println("O Bot " + nome + " (" + dif + ") está a analisar o enigma...");
     }
 
     /**
@@ -386,7 +461,7 @@ public class GameView {
      */
     public void mostrarOpcoesEnigma(String[] ops) {
         for(int i=0; i<ops.length; i++) {
-            System.out.println("   ("+(i+1)+") "+ops[i]);
+            saida.println("   ("+(i+1)+") "+ops[i]);
         }
     }
 
@@ -395,7 +470,7 @@ public class GameView {
      * @return the chosen option (1-based)
      */
     public int pedirRespostaEnigma() {
-        System.out.print("Resposta: ");
+        saida.print("Resposta: ");
         return lerInteiro();
     }
 
@@ -404,62 +479,33 @@ public class GameView {
      * @param acertou  true if the player answered correctly or false otherwise
      */
     public void mostrarResultadoEnigma(boolean acertou) {
-        if (acertou) System.out.println("Correto! Podes passar.");
-        else         System.out.println("Errado! A porta fecha-se na tua cara.");
-    }
-
-    /**
-     * Displays a textual description of the effect associated with a riddle outcome.
-     * @param efeito the effect code string
-     */
-
-    public void mostrarEfeito(String efeito) {
-    if (efeito == null || efeito.equals("NONE")) {
-        return; 
-    }
-    System.out.print("Efeito: ");
-    if (efeito.equals("EXTRA_TURN")) {
-        System.out.println("Ganhaste uma jogada extra!");
-        return;
-    }
-    
-    if (efeito.equals("BLOCK")) {
-        System.out.println("Perdes o turno!");
-        return;
-    }
-
-    if (efeito.startsWith("BONUS_MOVE:")) {
-        try {
-            int casas = Integer.parseInt(efeito.split(":")[1]);
-            System.out.println("Avanças " + casas + " casa(s)!");
-        } catch (Exception e) {
-            System.out.println("Avanço bónus!");
-        }
-        return;
-    }
-
-    if (efeito.equals("BONUS_DICE")) {
-        System.out.println("Lanças um dado e avanças o valor obtido!");
-        return;
-    }
-
-    if (efeito.startsWith("BACK:")) {
-        try {
-            int casas = Integer.parseInt(efeito.split(":")[1]);
-            System.out.println("Recuas " + casas + " casa(s).");
-        } catch (Exception e) {
-            System.out.println("Recuas algumas casas.");
+        if (acertou) saida.println("Correto! Podes passar.");
+        else         saida.println("Errado! A porta fecha-se na tua cara.");
+    }
+
+    /**
+     * Displays a textual description of the effect associated with a riddle outcome, one
+     * sentence per step of the effect, in the order they are applied.
+     * @param efeito the effect
+     */
+    public void mostrarEfeito(Efeito efeito) {
+        if (efeito == null || efeito.isNenhum()) return;
+        saida.print("Efeito:");
+        for (int i = 0; i < efeito.numPassos(); i++) {
+            int n = efeito.getValor(i);
+            switch (efeito.getTipo(i)) {
+                case JOGADA_EXTRA:
+                    saida.print(n == 1 ? " Ganhaste uma jogada extra!" : " Ganhaste " + n + " jogadas extra!");
+                    break;
+                case RECUAR:
+                    saida.print(" Recuas " + n + " casa(s).");
+                    break;
+                case BLOQUEAR:
+                    saida.print(n == 1 ? " Perdes o turno!" : " Perdes " + n + " turnos!");
+                    break;
+            }
         }
-        return;
-    }
-
-    if (efeito.equals("BLOCK_EXTRA")) {
-        System.out.println("Ficas bloqueado por mais 1 turno!");
-        return;
-    }
-
-    System.out.println(efeito);
-
+        saida.println();
     }
 
     // ALAVANCAS
@@ -468,17 +514,17 @@ public class GameView {
      * Displays that the player entered a control room with 3 levers.
      */
     public void mostrarSalaAlavanca() {
-        System.out.println("\nSALA DE CONTROLO! Vês 3 Alavancas.");
-        System.out.println("Uma abre O CAMINHO, outra penaliza, outra não faz nada.");
+        saida.println("\nSALA DE CONTROLO! Vês 3 Alavancas.");
+        saida.println("Uma abre O CAMINHO, outra penaliza, outra não faz nada.");
     }
 
     /**
      * Displays the 3 lever options in a menu.
      */
     public void mostrarOpcoesAlavanca() {
-        System.out.println("[1] Alavanca 1");
-        System.out.println("[2] Alavanca 2");
-        System.out.println("[3] Alavanca 3");
+        saida.println("[1] Alavanca 1");
+        saida.println("[2] Alavanca 2");
+        saida.println("[3] Alavanca 3");
     }
 
     /**
@@ -486,7 +532,7 @@ public class GameView {
      * @return the lever number chosen
      */
     public int pedirAlavanca() {
-        System.out.print("Escolhe (1-3): ");
+        saida.print("Escolhe (1-3): ");
         return lerInteiro();
     }
 
@@ -496,7 +542,7 @@ public class GameView {
      */
     public void mostrarBotEscolheAlavanca(int n) {
 
-        System.out.println("O Bot puxa a alavanca " + n);
+        saida.println("O Bot puxa a alavanca " + n);
     }
 
     /**
@@ -509,17 +555,17 @@ public class GameView {
         switch (res) {
             case ABRIR_PORTA:
                 if (idTranca > 0) {
-                    System.out.println("Tranca #" + idTranca + " abriu para " + nomeJog + "!");
+                    saida.println("Tranca #" + idTranca + " abriu para " + nomeJog + "!");
                 } else {
-                    System.out.println("Esta sala não tinha tranca associada.");
+                    saida.println("Esta sala não tinha tranca associada.");
                 }
                 break;
             case PENALIZAR:
-                System.out.println("Armadilha! Recuas 2 casas.");
+                saida.println("Armadilha! Recuas 2 casas.");
                 break;
             case NADA:
             default:
-                System.out.println("Nada acontece. Alavanca inútil.");
+                saida.println("Nada acontece. Alavanca inútil.");
                 break;
         }
     }
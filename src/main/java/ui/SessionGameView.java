@@ -0,0 +1,107 @@
+package ui;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * View of a game session hosted by a server: instead of the console, it reads the lines sent to
+ * the session and keeps what it shows until the client collects it.
+ * The game runs on its own thread and blocks while waiting for a line; a virtual thread waiting
+ * here costs no platform thread, so many idle sessions can wait at the same time.
+ * Bots do not pause, since nobody is watching the turns as they are played.
+ */
+public class SessionGameView extends GameView {
+
+    /** Lines sent to the session and not read yet. */
+    private final LinkedBlockingQueue<String> entradas;
+
+    /** Messages shown since the client last collected them. */
+    private final Caixa caixa;
+
+    /**
+     * Creates a view with no pending input or output.
+     */
+    public SessionGameView() {
+        this(new Caixa());
+    }
+
+    private SessionGameView(Caixa caixa) {
+        super(null, new PrintStream(caixa, true, StandardCharsets.UTF_8));
+        this.caixa = caixa;
+        this.entradas = new LinkedBlockingQueue<>();
+    }
+
+    /**
+     * Sends a line of input to the session, as if it was typed on the console.
+     * @param linha the line, without the line break
+     */
+    public void enviar(String linha) {
+        entradas.add(linha);
+    }
+
+    /**
+     * Returns the messages shown since the last call and forgets them.
+     * @return the messages, or an empty string if nothing was shown
+     */
+    public String recolher() {
+        return caixa.esvaziar();
+    }
+
+    /**
+     * Waits for the next line sent to the session.
+     * @return the line
+     * @throws CancellationException if the session thread is interrupted while waiting
+     */
+    private String proximaLinha() {
+        try {
+            return entradas.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Sessão terminada enquanto esperava por uma jogada");
+        }
+    }
+
+    @Override
+    public int lerInteiro() {
+        try {
+            return Integer.parseInt(proximaLinha().trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public String lerString() {
+        return proximaLinha().trim();
+    }
+
+    @Override
+    public void esperarEnter() {
+        saida.println("(Enter para continuar...)");
+        proximaLinha();
+    }
+
+    @Override
+    public void pausaBot() {}
+
+    /**
+     * Output buffer that can be emptied atomically while the game writes to it.
+     */
+    private static class Caixa extends ByteArrayOutputStream {
+
+        private Caixa() {
+            super(64);
+        }
+
+        private synchronized String esvaziar() {
+            String texto = toString(StandardCharsets.UTF_8);
+            reset();
+            // uma sessão parada não fica com o buffer da maior mensagem que já mostrou
+            if (buf.length > 4096) buf = new byte[64];
+            return texto;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package ui;
+
+import Lists.ArrayUnorderedList;
+import enums.AlavancaEnum;
+import game.Efeito;
+import game.EventoAleatorio;
+import game.Player;
+
+/**
+ * View that shows nothing, reads nothing and never pauses.
+ * Used to run games between bots as fast as possible; every prompt answers -1 or an empty string.
+ */
+public class SilentGameView extends GameView {
+
+    /**
+     * Creates a view that does not touch the console.
+     */
+    public SilentGameView() {
+        super(null);
+    }
+
+    @Override
+    public int lerInteiro() { return -1; }
+
+    @Override
+    public String lerString() { return ""; }
+
+    @Override
+    public void esperarEnter() {}
+
+    @Override
+    public void mostrarMensagemCarregar() {}
+
+    @Override
+    public void mostrarErro(String mensagem) {}
+
+    @Override
+    public int pedirDificuldade() { return -1; }
+
+    @Override
+    public void mostrarErroOpcaoInvalida(int min, int max) {}
+
+    @Override
+    public void mostrarDificuldadeDefinida(String dif, int qtd) {}
+
+    @Override
+    public void mostrarErroSemEntradas() {}
+
+    @Override
+    public void mostrarSemJogadores() {}
+
+    @Override
+    public void mostrarInicioJogo() {}
+
+    @Override
+    public int pedirQuantidadeHumanos(int max) { return -1; }
+
+    @Override
+    public String pedirNomeJogador(int i) { return ""; }
+
+    @Override
+    public void mostrarSpawn(String nomeSala) {}
+
+    @Override
+    public int pedirQuantidadeBots(int max) { return -1; }
+
+    @Override
+    public int pedirDificuldadeBot(int i) { return -1; }
+
+    @Override
+    public void mostrarBotCriado(String nomeSala) {}
+
+    @Override
+    public void mostrarInicioTurno(String nome, String local) {}
+
+    @Override
+    public void mostrarBloqueado(String nome, int turnos) {}
+
+    @Override
+    public void mostrarEscolhaAlvoTroca(ArrayUnorderedList<Player> jogadores, String nomeJogadorAtual) {}
+
+    @Override
+    public void avisarBotLancaDados() {}
+
+    @Override
+    public void pedirHumanoLancaDados() {}
+
+    @Override
+    public void mostrarResultadoDados(boolean isBot, int valor) {}
+
+    @Override
+    public void mostrarBonusJogadas(int extra, int total) {}
+
+    @Override
+    public void mostrarStatusMovimento(boolean isBot, int passos, String local) {}
+
+    @Override
+    public void mostrarFimTurno(String nome) {}
+
+    @Override
+    public void mostrarVencedor(String nome) {}
+
+    @Override
+    public void mostrarFimJogo() {}
+
+    @Override
+    public void mostrarOpcaoMovimento(int indice, String nomeSala, String tipoSala) {}
+
+    @Override
+    public void mostrarOpcaoParar() {}
+
+    @Override
+    public int pedirEscolhaMovimento() { return -1; }
+
+    @Override
+    public void pausaBot() {}
+
+    @Override
+    public void mostrarEventoAleatorio(EventoAleatorio evento) {}
+
+    @Override
+    public void mostrarRecargaEnigmas() {}
+
+    @Override
+    public void mostrarTrocaCancelada() {}
+
+    @Override
+    public void mostrarTrocaPosicao(String nome, String nomeOutro) {}
+
+    @Override
+    public void mostrarArmadilhaRelocalizada(boolean mudou) {}
+
+    @Override
+    public void mostrarBotDecisao(String destino) {}
+
+    @Override
+    public void mostrarPortaoTrancado(int id) {}
+
+    @Override
+    public void mostrarArmadilhaAtivada() {}
+
+    @Override
+    public void mostrarRecuo(String nomeJogador, int casas, String nomeNovaSala) {}
+
+    @Override
+    public void mostrarAvisoSemRecuo(String nomeJogador) {}
+
+    @Override
+    public void mostrarPergunta(String p) {}
+
+    @Override
+    public void mostrarBotAnalisaEnigma(String nome, String dif) {}
+
+    @Override
+    public void mostrarOpcoesEnigma(String[] ops) {}
+
+    @Override
+    public int pedirRespostaEnigma() { return -1; }
+
+    @Override
+    public void mostrarResultadoEnigma(boolean acertou) {}
+
+    @Override
+    public void mostrarEfeito(Efeito efeito) {}
+
+    @Override
+    public void mostrarSalaAlavanca() {}
+
+    @Override
+    public void mostrarOpcoesAlavanca() {}
+
+    @Override
+    public int pedirAlavanca() { return -1; }
+
+    @Override
+    public void mostrarBotEscolheAlavanca(int n) {}
+
+    @Override
+    public void mostrarResultadoAlavanca(AlavancaEnum res, int idTranca, String nomeJog) {}
+}
@@ -0,0 +1,297 @@
+package game;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import Lists.ArrayUnorderedList;
+
+/**
+ * Harness shared by the benchmark mains of this package, so that each of them only says what it
+ * measures. Every case is prepared and run in a JVM of its own, so that the JIT profile left by one
+ * case does not slow down the next; the first iterations of a case are warm-up and are not counted,
+ * and each measured iteration reports how many operations it did. Results are printed as the mean
+ * time per operation, its spread over the measured iterations and the bytes allocated per operation
+ * by the thread that runs the case.
+ * <p>
+ * The mains are run by hand, the unit test suite does not pick them up. They read these system
+ * properties: {@code bancada.forks} (JVMs per case, 1 by default; 0 runs every case in the calling
+ * JVM), {@code bancada.aquecimento} and {@code bancada.medicoes} (iterations of each kind) and
+ * {@code bancada.filtro} (runs only the cases whose name contains it).
+ */
+final class Bancada {
+
+    /**
+     * One iteration of a case.
+     */
+    @FunctionalInterface
+    interface Iteracao {
+        /**
+         * Does the measured work; results should go to {@link #consumir(long)}.
+         * @return the number of operations done
+         * @throws Exception if the work fails, which stops the case
+         */
+        long executar() throws Exception;
+    }
+
+    /**
+     * Builds the state of a case, in the JVM that runs it, outside the measurement.
+     */
+    @FunctionalInterface
+    interface Preparacao<R> {
+        R preparar() throws Exception;
+    }
+
+    /**
+     * Property set on a forked JVM with the position of the only case it runs.
+     */
+    private static final String CASO = "bancada.caso";
+
+    /**
+     * Written with every consumed value, so that the JIT cannot drop the work that produced it.
+     */
+    private static volatile long sumidouro;
+
+    private final Class<?> principal;
+    private final String[] args;
+    private final ArrayUnorderedList<Caso> casos = new ArrayUnorderedList<>();
+    private int aquecimento = 5;
+    private int medicoes = 10;
+
+    /**
+     * Creates the harness of a benchmark main.
+     * @param principal the class whose main registers the cases, started again in every fork
+     * @param args      the arguments of the main, passed on to the forks
+     */
+    Bancada(Class<?> principal, String[] args) {
+        this.principal = principal;
+        this.args = args;
+    }
+
+    /**
+     * Changes the default number of iterations of this benchmark; the system properties still win.
+     * @param aquecimento warm-up iterations
+     * @param medicoes    measured iterations
+     * @return this harness
+     */
+    Bancada iteracoes(int aquecimento, int medicoes) {
+        this.aquecimento = aquecimento;
+        this.medicoes = medicoes;
+        return this;
+    }
+
+    /**
+     * Registers a case timed per operation.
+     * @param nome       the name printed with the result, unique in the benchmark
+     * @param preparacao builds the state of the case and returns its iteration
+     * @return this harness
+     */
+    Bancada caso(String nome, Preparacao<Iteracao> preparacao) {
+        casos.addToRear(new Caso(nome, preparacao, 0, null));
+        return this;
+    }
+
+    /**
+     * Registers a case that measures the heap kept alive by many objects of the same kind.
+     * @param nome       the name printed with the result, unique in the benchmark
+     * @param objetos    how many objects are kept alive at once
+     * @param preparacao builds what the objects share and returns the function that creates the i-th object
+     * @return this harness
+     */
+    Bancada memoria(String nome, int objetos, Preparacao<IntFunction<Object>> preparacao) {
+        casos.addToRear(new Caso(nome, null, objetos, preparacao));
+        return this;
+    }
+
+    /**
+     * Runs the registered cases, each in its own JVM unless {@code bancada.forks} is 0.
+     * @throws Exception if a case fails
+     */
+    void correr() throws Exception {
+        int aquecimento = Integer.getInteger("bancada.aquecimento", this.aquecimento);
+        int medicoes = Integer.getInteger("bancada.medicoes", this.medicoes);
+        Integer unico = Integer.getInteger(CASO);
+        if (unico != null) {
+            if (unico < 0 || unico >= casos.size()) throw new IllegalStateException("Caso inexistente: " + unico);
+            int i = 0;
+            for (Caso caso : casos) {
+                if (i++ == unico) caso.correr(aquecimento, medicoes);
+            }
+            return;
+        }
+
+        String filtro = System.getProperty("bancada.filtro", "");
+        int forks = Integer.getInteger("bancada.forks", 1);
+        int posicao = 0;
+        for (Caso caso : casos) {
+            int atual = posicao++;
+            if (!caso.nome.contains(filtro)) continue;
+            if (forks == 0) {
+                caso.correr(aquecimento, medicoes);
+            }
+            for (int f = 0; f < forks; f++) {
+                forkar(atual, caso.nome);
+            }
+        }
+    }
+
+    /**
+     * Hands a result to the sink.
+     * @param valor the result of the measured work
+     */
+    static void consumir(long valor) {
+        sumidouro += valor;
+    }
+
+    /**
+     * Hands an object to the sink.
+     * @param objeto the result of the measured work
+     */
+    static void consumir(Object objeto) {
+        sumidouro += System.identityHashCode(objeto);
+    }
+
+    /**
+     * Runs a task with {@code System.out} silenced, for the generators and loaders that print progress.
+     * @param tarefa the task
+     * @return what the task returns
+     */
+    static <T> T semSaida(Supplier<T> tarefa) {
+        PrintStream saida = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            return tarefa.get();
+        } finally {
+            System.setOut(saida);
+        }
+    }
+
+    /**
+     * Runs one case in a new JVM with the same classpath and JVM options, minus agents and debuggers.
+     */
+    private void forkar(int posicao, String nome) throws IOException, InterruptedException {
+        ArrayUnorderedList<String> comando = new ArrayUnorderedList<>();
+        comando.addToRear(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        List<String> opcoes = ManagementFactory.getRuntimeMXBean().getInputArguments();
+        for (String opcao : opcoes) {
+            if (opcao.startsWith("-agentlib") || opcao.startsWith("-javaagent") || opcao.startsWith("-Xrunjdwp")) continue;
+            comando.addToRear(opcao);
+        }
+        comando.addToRear("-cp");
+        comando.addToRear(System.getProperty("java.class.path"));
+        comando.addToRear("-D" + CASO + "=" + posicao);
+        comando.addToRear(principal.getName());
+        for (String arg : args) {
+            comando.addToRear(arg);
+        }
+
+        String[] linha = new String[comando.size()];
+        int i = 0;
+        for (String parte : comando) {
+            linha[i++] = parte;
+        }
+        int saida = new ProcessBuilder(linha).inheritIO().start().waitFor();
+        if (saida != 0) {
+            throw new IllegalStateException("O caso '" + nome + "' terminou com o código " + saida);
+        }
+    }
+
+    private static long bytesAlocados() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    private static long memoriaUsada() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    /**
+     * Writes a time in the largest unit that keeps it above 1.
+     */
+    private static String tempo(double ns) {
+        if (ns >= 1e9) return String.format("%8.2f s ", ns / 1e9);
+        if (ns >= 1e6) return String.format("%8.2f ms", ns / 1e6);
+        if (ns >= 1e3) return String.format("%8.2f us", ns / 1e3);
+        return String.format("%8.1f ns", ns);
+    }
+
+    /**
+     * A registered case: either timed, with its iteration, or a memory case, with its object count.
+     */
+    private static final class Caso {
+        final String nome;
+        final Preparacao<Iteracao> tempo;
+        final int objetos;
+        final Preparacao<IntFunction<Object>> memoria;
+
+        Caso(String nome, Preparacao<Iteracao> tempo, int objetos, Preparacao<IntFunction<Object>> memoria) {
+            this.nome = nome;
+            this.tempo = tempo;
+            this.objetos = objetos;
+            this.memoria = memoria;
+        }
+
+        void correr(int aquecimento, int medicoes) throws Exception {
+            if (tempo != null) {
+                medirTempo(tempo.preparar(), aquecimento, medicoes);
+            } else {
+                medirMemoria(memoria.preparar(), medicoes);
+            }
+        }
+
+        private void medirTempo(Iteracao iteracao, int aquecimento, int medicoes) throws Exception {
+            for (int i = 0; i < aquecimento; i++) {
+                iteracao.executar();
+            }
+            double[] nsPorOp = new double[medicoes];
+            long operacoes = 0;
+            long bytes = 0;
+            for (int i = 0; i < medicoes; i++) {
+                long b0 = bytesAlocados();
+                long t0 = System.nanoTime();
+                long ops = Math.max(1, iteracao.executar());
+                nsPorOp[i] = (double) (System.nanoTime() - t0) / ops;
+                bytes += bytesAlocados() - b0;
+                operacoes += ops;
+            }
+            double media = media(nsPorOp);
+            System.out.printf("%-48s %s/op ± %5.1f%% | %10.1f B/op | %d ops%n",
+                    nome, tempo(media), 100 * desvio(nsPorOp, media) / media, (double) bytes / operacoes, operacoes);
+        }
+
+        private void medirMemoria(IntFunction<Object> criar, int medicoes) {
+            double[] porObjeto = new double[medicoes];
+            for (int i = 0; i < medicoes; i++) {
+                Object[] vivos = new Object[objetos];
+                long antes = memoriaUsada();
+                for (int k = 0; k < objetos; k++) {
+                    vivos[k] = criar.apply(k);
+                }
+                porObjeto[i] = (double) (memoriaUsada() - antes) / objetos;
+                consumir(vivos);
+            }
+            double media = media(porObjeto);
+            System.out.printf("%-48s %10.0f B/objeto ± %.0f | %d objetos vivos%n",
+                    nome, media, desvio(porObjeto, media), objetos);
+        }
+
+        private static double media(double[] valores) {
+            double soma = 0;
+            for (double v : valores) soma += v;
+            return soma / valores.length;
+        }
+
+        private static double desvio(double[] valores, double media) {
+            if (valores.length < 2) return 0;
+            double soma = 0;
+            for (double v : valores) soma += (v - media) * (v - media);
+            return Math.sqrt(soma / (valores.length - 1));
+        }
+    }
+}
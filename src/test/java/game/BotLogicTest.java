@@ -2,11 +2,13 @@ package game;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import org.junit.jupiter.api.Test;
 
 import enums.CorredorEvento;
 import enums.Dificuldade;
 import enums.TipoDivisao;
+import graph.KeyStateDistanceTable;
 import graph.LabyrinthGraph;
 
 class BotLogicTest {
@@ -64,4 +66,120 @@ class BotLogicTest {
         Divisao escolha = bot.escolherMovimento();
         assertEquals(livre, escolha, "O Bot devia evitar a porta trancada e ir pelo caminho livre.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testeBotRefazRotaQuandoCorredorMuda() {
+        // Cenário: Inicio -> A -> B -> Tesouro (curto)
+        //          Inicio -> C -> D -> E -> Tesouro (longo)
+        LabyrinthGraph<Divisao> mapa = new LabyrinthGraph<>();
+        Divisao start = new Divisao("Inicio", TipoDivisao.ENTRADA);
+        Divisao a = new Divisao("A", TipoDivisao.SALA_NORMAL);
+        Divisao b = new Divisao("B", TipoDivisao.SALA_NORMAL);
+        Divisao c = new Divisao("C", TipoDivisao.SALA_NORMAL);
+        Divisao d = new Divisao("D", TipoDivisao.SALA_NORMAL);
+        Divisao e = new Divisao("E", TipoDivisao.SALA_NORMAL);
+        Divisao fim = new Divisao("Tesouro", TipoDivisao.SALA_CENTRAL);
+        mapa.addVertex(start); mapa.addVertex(a); mapa.addVertex(b); mapa.addVertex(c);
+        mapa.addVertex(d); mapa.addVertex(e); mapa.addVertex(fim);
+
+        mapa.addCorredor(start, a, new EventoCorredor(CorredorEvento.NONE, 0));
+        mapa.addCorredor(a, b, new EventoCorredor(CorredorEvento.NONE, 0));
+        mapa.addCorredor(b, fim, new EventoCorredor(CorredorEvento.NONE, 0));
+        mapa.addCorredor(start, c, new EventoCorredor(CorredorEvento.NONE, 0));
+        mapa.addCorredor(c, d, new EventoCorredor(CorredorEvento.NONE, 0));
+        mapa.addCorredor(d, e, new EventoCorredor(CorredorEvento.NONE, 0));
+        mapa.addCorredor(e, fim, new EventoCorredor(CorredorEvento.NONE, 0));
+
+        Bot bot = new Bot("Robo", start, Dificuldade.DIFICIL, mapa);
+        assertEquals(a, bot.escolherMovimento());
+        bot.moverPara(a);
+        assertEquals(b, bot.escolherMovimento(), "O Bot devia seguir a rota planeada.");
+
+        // Trancar um corredor da rota obriga a planear de novo
+        mapa.setCorredorEvento(b, fim, new EventoCorredor(CorredorEvento.LOCKED, 9));
+        assertEquals(start, bot.escolherMovimento(), "O Bot devia abandonar a rota trancada.");
+
+        // Ganhar a chave também obriga a planear de novo
+        bot.desbloquearTranca(9);
+        assertEquals(b, bot.escolherMovimento(), "Com a chave, o Bot devia voltar ao caminho curto.");
+    }
+
+    @Test
+    void testeBotEscolheAlavancaQueAbreOTesouro() {
+        // Cenário: Inicio -> Alavanca #2 (perto, mas abre outra porta)
+        //          Inicio -> Corredor -> Alavanca #1 (longe, abre a porta do tesouro)
+        //          Inicio -(Tranca #1)-> Tesouro
+        LabyrinthGraph<Divisao> mapa = new LabyrinthGraph<>();
+        Divisao start = new Divisao("Inicio", TipoDivisao.ENTRADA);
+        Divisao alavanca2 = new Divisao("Alavanca 2", TipoDivisao.SALA_ALAVANCA);
+        Divisao corredor = new Divisao("Corredor", TipoDivisao.SALA_NORMAL);
+        Divisao alavanca1 = new Divisao("Alavanca 1", TipoDivisao.SALA_ALAVANCA);
+        Divisao arrecadacao = new Divisao("Arrecadacao", TipoDivisao.SALA_NORMAL);
+        Divisao fim = new Divisao("Tesouro", TipoDivisao.SALA_CENTRAL);
+        alavanca1.setIdDesbloqueio(1);
+        alavanca2.setIdDesbloqueio(2);
+        mapa.addVertex(start); mapa.addVertex(alavanca2); mapa.addVertex(corredor);
+        mapa.addVertex(alavanca1); mapa.addVertex(arrecadacao); mapa.addVertex(fim);
+
+        mapa.addCorredor(start, alavanca2, new EventoCorredor(CorredorEvento.NONE, 0));
+        mapa.addCorredor(alavanca2, arrecadacao, new EventoCorredor(CorredorEvento.LOCKED, 2));
+        mapa.addCorredor(start, corredor, new EventoCorredor(CorredorEvento.NONE, 0));
+        mapa.addCorredor(corredor, alavanca1, new EventoCorredor(CorredorEvento.NONE, 0));
+        mapa.addCorredor(start, fim, new EventoCorredor(CorredorEvento.LOCKED, 1));
+
+        // Inicio -> Corredor -> Alavanca 1 -> Corredor -> Inicio -> Tesouro
+        KeyStateDistanceTable tabela = mapa.distanciasPorChaves();
+        assertEquals(5, tabela.distancia(mapa.getIndex(start), 0));
+
+        Bot bot = new Bot("Robo", start, Dificuldade.DIFICIL, mapa);
+        assertEquals(corredor, bot.escolherMovimento(), "O Bot devia ir buscar a chave da porta do tesouro.");
+    }
+
+    @Test
+    void testeBotUsaCampoQuandoOMapaNaoTemTabela() {
+        // Cenário: Inicio -(Tranca #20)-> Tesouro
+        //          Inicio -> A -> B -> Tesouro
+        //          Inicio -> C -> Alavanca #30
+        //          mais trancas do que a tabela suporta, em salas sem saída
+        LabyrinthGraph<Divisao> mapa = new LabyrinthGraph<>();
+        Divisao start = new Divisao("Inicio", TipoDivisao.ENTRADA);
+        Divisao a = new Divisao("A", TipoDivisao.SALA_NORMAL);
+        Divisao b = new Divisao("B", TipoDivisao.SALA_NORMAL);
+        Divisao c = new Divisao("C", TipoDivisao.SALA_NORMAL);
+        Divisao alavanca = new Divisao("Alavanca 30", TipoDivisao.SALA_ALAVANCA);
+        Divisao fim = new Divisao("Tesouro", TipoDivisao.SALA_CENTRAL);
+        alavanca.setIdDesbloqueio(30);
+        mapa.addVertex(start); mapa.addVertex(a); mapa.addVertex(b); mapa.addVertex(c);
+        mapa.addVertex(alavanca); mapa.addVertex(fim);
+
+        mapa.addCorredor(start, fim, new EventoCorredor(CorredorEvento.LOCKED, 20));
+        mapa.addCorredor(start, a, new EventoCorredor(CorredorEvento.NONE, 0));
+        mapa.addCorredor(a, b, new EventoCorredor(CorredorEvento.NONE, 0));
+        mapa.addCorredor(b, fim, new EventoCorredor(CorredorEvento.NONE, 0));
+        mapa.addCorredor(start, c, new EventoCorredor(CorredorEvento.NONE, 0));
+        mapa.addCorredor(c, alavanca, new EventoCorredor(CorredorEvento.NONE, 0));
+        for (int id = 1; id <= KeyStateDistanceTable.MAX_CHAVES; id++) {
+            Divisao fechada = new Divisao("Fechada " + id, TipoDivisao.SALA_NORMAL);
+            mapa.addVertex(fechada);
+            mapa.addCorredor(start, fechada, new EventoCorredor(CorredorEvento.LOCKED, id));
+        }
+        assertNull(mapa.distanciasPorChaves(), "Com tantas trancas o mapa não devia ter tabela.");
+
+        Bot bot = new Bot("Robo", start, Dificuldade.DIFICIL, mapa);
+        assertEquals(a, bot.escolherMovimento(), "O Bot devia seguir o campo de distâncias pelo caminho livre.");
+
+        // Sem caminho para o tesouro, o Bot vai buscar a chave que lhe falta
+        mapa.setCorredorEvento(b, fim, new EventoCorredor(CorredorEvento.LOCKED, 30));
+        assertEquals(c, bot.escolherMovimento(), "O Bot devia ir à alavanca que abre a tranca #30.");
+
+        // O caminho guardado segue-se passo a passo e refaz-se se o Bot for deslocado
+        bot.moverPara(c);
+        assertEquals(alavanca, bot.escolherMovimento());
+        bot.setLocalAtual(a);
+        assertEquals(start, bot.escolherMovimento(), "Fora do caminho guardado, o Bot devia procurar de novo.");
+
+        // Com a chave, a alavanca deixa de interessar
+        bot.desbloquearTranca(30);
+        assertEquals(b, bot.escolherMovimento());
+    }
+}
@@ -0,0 +1,272 @@
+package game;
+
+import java.util.Iterator;
+
+import Lists.ArrayUnorderedList;
+import Queue.LinkedQueue;
+import enums.CorredorEvento;
+import enums.Dificuldade;
+import enums.TipoDivisao;
+import graph.FrozenLabyrinth;
+import graph.KeyStateDistanceTable;
+import graph.LabyrinthGraph;
+import io.MapGenerator;
+
+/**
+ * Benchmark of the bot movement decision on generated maps, run with {@link Bancada}. It times
+ * building the key-state distance table (checking it against a BFS over (room, key set) states on
+ * the smallest map), single decisions, walks in which the bot follows its own decisions, and a copy
+ * of the original list-based BFS; the last case also counts the decisions of the bot that are
+ * further from the treasure than the old ones. The list-based version is O(V^2) and is skipped
+ * on the largest map.
+ */
+public class BotPathfindingBenchmark {
+
+    private static final int DECISOES = 200;
+
+    public static void main(String[] args) throws Exception {
+        int[][] mapas = {
+                {200, 800, 6},
+                {2_000, 8_000, 6},
+                {20_000, 80_000, 6},
+        };
+        int[] decisoesLegado = {200, 10, 0};
+
+        Bancada bancada = new Bancada(BotPathfindingBenchmark.class, args).iteracoes(3, 10);
+        for (int m = 0; m < mapas.length; m++) {
+            int[] parametros = mapas[m];
+            String v = "V=" + parametros[0];
+            boolean verificar = m == 0;
+            bancada.caso(v + " | construir a tabela", () -> {
+                LabyrinthGraph<Divisao> grafo = gerar(parametros);
+                if (verificar) {
+                    KeyStateDistanceTable tabela = KeyStateDistanceTable.construir(grafo.freeze());
+                    System.out.printf("%s | tabela com %d chaves | erros face a BFS no espaço de estados: %d%n",
+                            v, tabela.numChaves(), verificarTabela(grafo, tabela, partidas(grafo)));
+                }
+                return () -> {
+                    Bancada.consumir(KeyStateDistanceTable.construir(grafo.freeze()));
+                    return 1;
+                };
+            });
+
+            // sem chaves o tesouro costuma estar trancado e a decisão passa pelas alavancas
+            for (boolean todas : new boolean[]{false, true}) {
+                String chaves = todas ? "todas as chaves" : "sem chaves";
+                bancada.caso(v + " | decisão, " + chaves, () -> {
+                    LabyrinthGraph<Divisao> grafo = gerar(parametros);
+                    Divisao[] partidas = partidas(grafo);
+                    Bot bot = bot(grafo, partidas, todas, parametros[2]);
+                    return () -> {
+                        long soma = 0;
+                        for (Divisao partida : partidas) {
+                            bot.setLocalAtual(partida);
+                            Divisao d = bot.escolherMovimento();
+                            if (d != null) soma += d.getId();
+                        }
+                        Bancada.consumir(soma);
+                        return partidas.length;
+                    };
+                });
+                // turno com vários passos: o bot segue as próprias decisões
+                bancada.caso(v + " | passeio por passo, " + chaves, () -> {
+                    LabyrinthGraph<Divisao> grafo = gerar(parametros);
+                    Divisao[] partidas = partidas(grafo);
+                    Bot bot = bot(grafo, partidas, todas, parametros[2]);
+                    return () -> medirPasseio(bot, partidas, 20);
+                });
+                int legados = decisoesLegado[m];
+                if (legados == 0) continue;
+                bancada.caso(v + " | lista BFS, " + chaves, () -> {
+                    LabyrinthGraph<Divisao> grafo = gerar(parametros);
+                    Divisao[] partidas = partidas(grafo);
+                    Bot bot = bot(grafo, partidas, todas, parametros[2]);
+                    KeyStateDistanceTable tabela = grafo.distanciasPorChaves();
+                    int mascara = mascaraDoBot(tabela, bot);
+                    int piores = 0;
+                    for (int i = 0; i < legados; i++) {
+                        bot.setLocalAtual(partidas[i]);
+                        Divisao esperado = decisaoLegada(grafo, bot);
+                        Divisao escolhido = bot.escolherMovimento();
+                        if (esperado != null && distanciaApos(grafo, tabela, escolhido, mascara)
+                                > distanciaApos(grafo, tabela, esperado, mascara)) {
+                            piores++;
+                        }
+                    }
+                    System.out.printf("%s, %s | decisões do bot piores que as da lista: %d em %d%n", v, chaves, piores, legados);
+                    return () -> {
+                        for (int i = 0; i < legados; i++) {
+                            bot.setLocalAtual(partidas[i]);
+                            Bancada.consumir(decisaoLegada(grafo, bot));
+                        }
+                        return legados;
+                    };
+                });
+            }
+        }
+        bancada.correr();
+    }
+
+    private static Divisao[] partidas(LabyrinthGraph<Divisao> grafo) {
+        Divisao[] partidas = new Divisao[DECISOES];
+        for (int i = 0; i < DECISOES; i++) {
+            partidas[i] = grafo.getVertex((int) ((long) i * 7919 % grafo.size()));
+        }
+        return partidas;
+    }
+
+    private static Bot bot(LabyrinthGraph<Divisao> grafo, Divisao[] partidas, boolean todasAsChaves, int trancas) {
+        Bot bot = new Bot("Bench", partidas[0], Dificuldade.MEDIO, grafo, Aleatorio.comSemente(1));
+        if (todasAsChaves) {
+            for (int id = 1; id <= trancas; id++) bot.desbloquearTranca(id);
+        }
+        return bot;
+    }
+
+    private static int mascaraDoBot(KeyStateDistanceTable tabela, Bot bot) {
+        int mascara = 0;
+        for (int bit = 0; bit < tabela.numChaves(); bit++) {
+            if (bot.podePassarTranca(tabela.idChave(bit))) mascara |= 1 << bit;
+        }
+        return mascara;
+    }
+
+    private static int chaveAoEntrar(KeyStateDistanceTable tabela, Divisao sala) {
+        if (sala.getTipo() != TipoDivisao.SALA_ALAVANCA) return 0;
+        for (int bit = 0; bit < tabela.numChaves(); bit++) {
+            if (tabela.idChave(bit) == sala.getIdDesbloqueio()) return 1 << bit;
+        }
+        return 0;
+    }
+
+    private static int distanciaApos(LabyrinthGraph<Divisao> grafo, KeyStateDistanceTable tabela, Divisao passo, int mascara) {
+        if (passo == null) return KeyStateDistanceTable.INALCANCAVEL;
+        return tabela.distancia(grafo.getIndex(passo), mascara | chaveAoEntrar(tabela, passo));
+    }
+
+    /**
+     * Compares the table with a plain BFS over (room, key set) states, for every start and key set.
+     */
+    private static int verificarTabela(LabyrinthGraph<Divisao> grafo, KeyStateDistanceTable tabela, Divisao[] partidas) {
+        int erros = 0;
+        for (int i = 0; i < 50; i++) {
+            int inicio = grafo.getIndex(partidas[i]);
+            for (int mascara = 0; mascara < (1 << tabela.numChaves()); mascara++) {
+                if (bfsEstados(grafo, tabela, inicio, mascara) != tabela.distancia(inicio, mascara)) erros++;
+            }
+        }
+        return erros;
+    }
+
+    private static int bfsEstados(LabyrinthGraph<Divisao> grafo, KeyStateDistanceTable tabela, int inicio, int mascara) {
+        FrozenLabyrinth<Divisao> vista = grafo.freeze();
+        int estados = vista.numSalas() << tabela.numChaves();
+        int[] dist = new int[estados];
+        java.util.Arrays.fill(dist, -1);
+        int[] fila = new int[estados];
+        int frente = 0, fim = 0;
+        dist[(mascara * vista.numSalas()) + inicio] = 0;
+        fila[fim++] = (mascara * vista.numSalas()) + inicio;
+
+        while (frente < fim) {
+            int estado = fila[frente++];
+            int sala = estado % vista.numSalas();
+            int chaves = estado / vista.numSalas();
+            if (vista.sala(sala).getTipo() == TipoDivisao.SALA_CENTRAL) return dist[estado];
+
+            for (int s = vista.inicio(sala); s < vista.fim(sala); s++) {
+                if (vista.tipoEvento(s) == CorredorEvento.LOCKED) {
+                    int bit = 0;
+                    while (tabela.idChave(bit) != vista.valorEvento(s)) bit++;
+                    if ((chaves & (1 << bit)) == 0) continue;
+                }
+                int vizinho = vista.destino(s);
+                int seguinte = ((chaves | chaveAoEntrar(tabela, vista.sala(vizinho))) * vista.numSalas()) + vizinho;
+                if (dist[seguinte] < 0) {
+                    dist[seguinte] = dist[estado] + 1;
+                    fila[fim++] = seguinte;
+                }
+            }
+        }
+        return KeyStateDistanceTable.INALCANCAVEL;
+    }
+
+    private static LabyrinthGraph<Divisao> gerar(int[] parametros) {
+        return Bancada.semSaida(() -> new MapGenerator(Aleatorio.comSemente(parametros[0]))
+                .gerarMapaTotalmenteCustomizado(4, parametros[0], parametros[1], parametros[2]));
+    }
+
+    private static long medirPasseio(Bot bot, Divisao[] partidas, int passosPorPartida) {
+        long passos = 0;
+        for (int i = 0; i < 50; i++) {
+            bot.setLocalAtual(partidas[i]);
+            for (int p = 0; p < passosPorPartida; p++) {
+                Divisao d = bot.escolherMovimento();
+                if (d == null || d.getTipo() == TipoDivisao.SALA_CENTRAL) break;
+                bot.moverPara(d);
+                passos++;
+            }
+        }
+        return passos;
+    }
+
+    /**
+     * Decision of the previous implementation, when it does not fall back to a random move.
+     */
+    private static Divisao decisaoLegada(LabyrinthGraph<Divisao> grafo, Bot bot) {
+        Divisao passo = bfsLegado(grafo, bot, TipoDivisao.SALA_CENTRAL, false);
+        if (passo != null) return passo;
+        return bfsLegado(grafo, bot, TipoDivisao.SALA_ALAVANCA, true);
+    }
+
+    private static Divisao bfsLegado(LabyrinthGraph<Divisao> grafo, Bot bot, TipoDivisao tipoAlvo, boolean apenasUteis) {
+        LinkedQueue<Divisao> fila = new LinkedQueue<>();
+        ArrayUnorderedList<Divisao> visitados = new ArrayUnorderedList<>();
+        ArrayUnorderedList<Divisao[]> arvore = new ArrayUnorderedList<>();
+
+        Divisao inicio = bot.getLocalAtual();
+        fila.enqueue(inicio);
+        visitados.addToRear(inicio);
+        arvore.addToRear(new Divisao[]{inicio, null});
+
+        Divisao alvo = null;
+        while (!fila.isEmpty()) {
+            Divisao atual = fila.dequeue();
+            if (atual.getTipo() == tipoAlvo && !(apenasUteis && bot.podePassarTranca(atual.getIdDesbloqueio()))) {
+                alvo = atual;
+                break;
+            }
+            Iterator<Divisao> it = grafo.getVizinhos(atual).iterator();
+            while (it.hasNext()) {
+                Divisao vizinho = it.next();
+                if (!visitados.contains(vizinho)) {
+                    EventoCorredor ev = grafo.getCorredorEvento(atual, vizinho);
+                    if (ev.getTipo() != CorredorEvento.LOCKED || bot.podePassarTranca(ev.getValor())) {
+                        visitados.addToRear(vizinho);
+                        fila.enqueue(vizinho);
+                        arvore.addToRear(new Divisao[]{vizinho, atual});
+                    }
+                }
+            }
+        }
+        if (alvo == null) return null;
+
+        Divisao passo = alvo;
+        Divisao anterior = null;
+        while (passo != inicio) {
+            anterior = passo;
+            Divisao pai = null;
+            Iterator<Divisao[]> it = arvore.iterator();
+            while (it.hasNext()) {
+                Divisao[] par = it.next();
+                if (par[0].equals(passo)) {
+                    pai = par[1];
+                    break;
+                }
+            }
+            passo = pai;
+            if (passo == null) return null;
+        }
+        return anterior;
+    }
+}
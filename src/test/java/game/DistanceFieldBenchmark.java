@@ -0,0 +1,76 @@
+package game;
+
+import enums.Dificuldade;
+import enums.TipoDivisao;
+import graph.DistanceFieldService;
+import graph.LabyrinthGraph;
+import io.MapGenerator;
+
+/**
+ * Benchmark of seven bots (the most a game allows) walking on generated maps with more locks
+ * than the key-state table supports, so that every step goes through the shared distance fields,
+ * run with {@link Bancada}. It also times building the first field of a map.
+ */
+public class DistanceFieldBenchmark {
+
+    private static final int NUM_BOTS = 7;
+    private static final int PASSOS_POR_BOT = 30;
+    private static final int TRANCAS = 12;
+
+    public static void main(String[] args) throws Exception {
+        Bancada bancada = new Bancada(DistanceFieldBenchmark.class, args);
+        for (int[] tamanho : new int[][]{{2_000, 8_000}, {20_000, 80_000}}) {
+            bancada.caso("primeiro campo V=" + tamanho[0], () -> {
+                LabyrinthGraph<Divisao> grafo = gerar(tamanho);
+                return () -> {
+                    DistanceFieldService campo = DistanceFieldService.criar(grafo.freeze());
+                    Bancada.consumir(campo.distancia(0, 0L));
+                    return 1;
+                };
+            });
+            bancada.caso(NUM_BOTS + " bots V=" + tamanho[0], () -> {
+                LabyrinthGraph<Divisao> grafo = gerar(tamanho);
+                Bot[] bots = new Bot[NUM_BOTS];
+                for (int i = 0; i < NUM_BOTS; i++) {
+                    bots[i] = new Bot("Bot " + i, partida(grafo, i), Dificuldade.MEDIO, grafo, Aleatorio.comSemente(i));
+                    // metade dos bots com todas as chaves, a outra metade sem nenhuma
+                    if (i % 2 == 0) {
+                        for (int id = 1; id <= TRANCAS; id++) bots[i].desbloquearTranca(id);
+                    }
+                }
+                return () -> caminhar(grafo, bots);
+            });
+        }
+        bancada.correr();
+    }
+
+    private static LabyrinthGraph<Divisao> gerar(int[] tamanho) {
+        return Bancada.semSaida(() -> new MapGenerator(Aleatorio.comSemente(tamanho[0]))
+                .gerarMapaTotalmenteCustomizado(4, tamanho[0], tamanho[1], TRANCAS));
+    }
+
+    private static Divisao partida(LabyrinthGraph<Divisao> grafo, int bot) {
+        return grafo.getVertex((int) ((long) (bot + 1) * 7919 % grafo.size()));
+    }
+
+    /**
+     * Every bot starts again from its own spawn room and follows its decisions.
+     * @return the number of steps taken
+     */
+    private static long caminhar(LabyrinthGraph<Divisao> grafo, Bot[] bots) {
+        long passos = 0;
+        for (int i = 0; i < bots.length; i++) {
+            bots[i].setLocalAtual(partida(grafo, i));
+        }
+        for (int p = 0; p < PASSOS_POR_BOT; p++) {
+            for (Bot bot : bots) {
+                if (bot.getLocalAtual().getTipo() == TipoDivisao.SALA_CENTRAL) continue;
+                Divisao d = bot.escolherMovimento();
+                if (d == null) continue;
+                bot.moverPara(d);
+                passos++;
+            }
+        }
+        return passos;
+    }
+}
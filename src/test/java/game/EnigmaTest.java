@@ -1,10 +1,18 @@
 package game;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 
+import Lists.ArrayUnorderedList;
+import enums.CorredorEvento;
 import enums.Dificuldade;
+import enums.TipoDivisao;
+import ui.SessionGameView;
+import ui.SilentGameView;
 
 class EnigmaTest {
 
@@ -21,4 +29,59 @@ class EnigmaTest {
         assertFalse(e.verificarResposta(1), "A resposta 1 devia estar errada");
         assertFalse(e.verificarResposta(5), "A resposta 5 devia estar errada");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testeBaralhoPorDificuldadeVoltaABaralhar() {
+        ArrayUnorderedList<Enigma> todos = new ArrayUnorderedList<>();
+        for (int i = 0; i < 30; i++) {
+            todos.addToRear(new Enigma("Pergunta " + i + "?", new String[]{"A", "B"}, 0, Dificuldade.values()[i % 3]));
+        }
+        BancoEnigmas banco = new BancoEnigmas(todos);
+        assertEquals(10, banco.contar(Dificuldade.MEDIO));
+
+        BaralhoEnigmas baralho = banco.novoBaralho(Dificuldade.MEDIO);
+        BaralhoEnigmas outro = banco.novoBaralho(Dificuldade.MEDIO);
+        for (int i = 0; i < 10; i++) {
+            Enigma e = baralho.tirar();
+            assertSame(Dificuldade.MEDIO, e.getDificuldade());
+            assertEquals("Pergunta " + (3 * i + 1) + "?", e.getPergunta(), "Devia tirar pela ordem do banco");
+        }
+        assertTrue(baralho.esgotado());
+
+        baralho.baralhar(Aleatorio.comSemente(5));
+        assertFalse(baralho.esgotado());
+        boolean[] vistos = new boolean[30];
+        for (int i = 0; i < 10; i++) {
+            int numero = Integer.parseInt(baralho.tirar().getPergunta().replaceAll("\\D", ""));
+            assertFalse(vistos[numero], "Cada enigma devia sair uma vez por volta");
+            vistos[numero] = true;
+        }
+        assertSame(banco.novoBaralho(Dificuldade.MEDIO).get(0), outro.tirar(), "Baralhar um jogo não devia mudar os outros");
+    }
+
+    @Test
+    void testeEfeitosCompiladosUmaVez() {
+        assertSame(Efeito.NENHUM, Efeito.compilar("NONE"));
+        assertEquals("BACK:2", Efeito.compilar("BACK:2").getCodigo());
+        assertEquals("EXTRA_TURN+BLOCK:3", Efeito.compilar("EXTRA_TURN:1 + BLOCK:3").getCodigo());
+        assertThrows(IllegalArgumentException.class, () -> Efeito.compilar("BACK"));
+        assertThrows(IllegalArgumentException.class, () -> Efeito.compilar("BACK:dois"));
+        assertThrows(IllegalArgumentException.class, () -> Efeito.compilar("TELEPORT"));
+
+        Player p = new Player("Jogador", new Divisao("Inicio", TipoDivisao.ENTRADA));
+        Efeito.compilar("EXTRA_TURN:2+BLOCK").aplicar(p, new SilentGameView());
+        assertEquals(2, p.getJogadasExtra());
+        assertEquals(1, p.getTurnosBloqueado());
+
+        EventoCorredor corredor = new EventoCorredor(CorredorEvento.EXTRA_TURN, 1);
+        assertEquals("EXTRA_TURN", corredor.getEfeito().getCodigo());
+        assertEquals("BACK:1", new EventoCorredor(CorredorEvento.MOVE_BACK, 1).getEfeito().getCodigo());
+
+        // a descrição sai das partes do efeito, não do código
+        SessionGameView view = new SessionGameView();
+        view.mostrarEfeito(Efeito.compilar("EXTRA_TURN+BACK:1"));
+        assertEquals("Efeito: Ganhaste uma jogada extra! Recuas 1 casa(s).", view.recolher().trim());
+        view.mostrarEfeito(Efeito.compilar("BLOCK:2"));
+        assertEquals("Efeito: Perdes 2 turnos!", view.recolher().trim());
+    }
+}
@@ -0,0 +1,134 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.Test;
+
+import Lists.ArrayUnorderedList;
+import enums.CorredorEvento;
+import enums.TipoDivisao;
+import graph.LabyrinthGraph;
+import server.GameServer;
+import server.GameSession;
+import server.SessionRegistry;
+
+class GameServerTest {
+
+    @Test
+    void sessaoJogadaPorHttpAteAoFim() throws Exception {
+        GameServer servidor = new GameServer(new SessionRegistry(mapaEmLinha(), "linha", new ArrayUnorderedList<>(), 0));
+        servidor.iniciar("localhost", 0);
+        try {
+            HttpClient cliente = HttpClient.newHttpClient();
+            String base = "http://localhost:" + servidor.getPorta() + GameServer.CAMINHO;
+
+            HttpResponse<String> criada = cliente.send(HttpRequest.newBuilder(URI.create(base))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(201, criada.statusCode());
+            String sessao = base + "/" + criada.body();
+
+            // dificuldade fácil, 0 humanos, 1 bot difícil, Enter para começar
+            HttpResponse<String> enviada = cliente.send(HttpRequest.newBuilder(URI.create(sessao))
+                    .POST(HttpRequest.BodyPublishers.ofString("1\n0\n1\n3\n\n")).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(202, enviada.statusCode());
+
+            StringBuilder mostrado = new StringBuilder();
+            boolean terminada = false;
+            long limite = System.currentTimeMillis() + 10_000;
+            while (!terminada && System.currentTimeMillis() < limite) {
+                HttpResponse<String> lida = cliente.send(HttpRequest.newBuilder(URI.create(sessao)).GET().build(),
+                        HttpResponse.BodyHandlers.ofString());
+                mostrado.append(lida.body());
+                terminada = lida.headers().firstValue("Sessao-Terminada").orElse("false").equals("true");
+                if (!terminada) Thread.sleep(10);
+            }
+            // o que ficou por recolher depois de a sessão terminar
+            mostrado.append(cliente.send(HttpRequest.newBuilder(URI.create(sessao)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString()).body());
+
+            assertTrue(terminada, "A sessão devia ter terminado.");
+            assertTrue(mostrado.toString().contains("VENCEDOR: Bot 1"), "O bot devia ter ganho o jogo:\n" + mostrado);
+
+            assertEquals(204, cliente.send(HttpRequest.newBuilder(URI.create(sessao)).DELETE().build(),
+                    HttpResponse.BodyHandlers.ofString()).statusCode());
+            assertEquals(404, cliente.send(HttpRequest.newBuilder(URI.create(sessao)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString()).statusCode());
+        } finally {
+            servidor.parar();
+        }
+    }
+
+    @Test
+    void registoGuardaMuitasSessoesParadas() throws InterruptedException {
+        SessionRegistry registo = new SessionRegistry(mapaEmLinha(), "linha", new ArrayUnorderedList<>(), 0);
+
+        int total = 2_000;
+        GameSession[] sessoes = new GameSession[total];
+        for (int i = 0; i < total; i++) {
+            sessoes[i] = registo.criar();
+        }
+        assertEquals(total, registo.size());
+
+        // cada sessão espera pela sua resposta, sem afetar as outras
+        sessoes[0].enviar("1");
+        sessoes[0].enviar("0");
+        sessoes[0].enviar("1");
+        sessoes[0].enviar("3");
+        sessoes[0].enviar("");
+        assertTrue(sessoes[0].aguardar(10_000), "A sessão com respostas devia ter terminado.");
+        assertEquals("Bot 1", sessoes[0].getRelatorio().getVencedor());
+        assertTrue(!sessoes[1].isTerminada(), "As outras sessões deviam continuar à espera.");
+
+        registo.removerTodas();
+        assertEquals(0, registo.size());
+        for (GameSession s : sessoes) {
+            assertTrue(s.aguardar(10_000), "Fechar uma sessão devia terminar o seu jogo.");
+        }
+    }
+
+    @Test
+    void servidorEsqueceSessoesRecolhidasEInativas() throws Exception {
+        SessionRegistry registo = new SessionRegistry(mapaEmLinha(), "linha", new ArrayUnorderedList<>(), 0);
+        GameServer servidor = new GameServer(registo, 2_000, 20);
+        servidor.iniciar("localhost", 0);
+        try {
+            GameSession jogada = registo.criar();
+            GameSession parada = registo.criar();
+            for (String linha : new String[]{"1", "0", "1", "3", ""}) {
+                jogada.enviar(linha);
+            }
+            assertTrue(jogada.aguardar(10_000), "A sessão com respostas devia ter terminado.");
+            assertTrue(registo.obter(jogada.getId()) != null, "Uma sessão terminada fica até o cliente recolher o fim.");
+
+            jogada.recolher();
+            assertTrue(jogada.isRecolhida());
+            long limite = System.currentTimeMillis() + 10_000;
+            while (registo.size() > 0 && System.currentTimeMillis() < limite) {
+                Thread.sleep(20);
+            }
+            assertEquals(0, registo.size(), "A sessão recolhida e a inativa deviam ter sido esquecidas.");
+            assertTrue(parada.aguardar(10_000), "Esquecer a sessão inativa devia terminar o seu jogo.");
+        } finally {
+            servidor.parar();
+        }
+    }
+
+    private static LabyrinthGraph<Divisao> mapaEmLinha() {
+        LabyrinthGraph<Divisao> mapa = new LabyrinthGraph<>();
+        Divisao inicio = new Divisao("Start", TipoDivisao.ENTRADA);
+        Divisao meio = new Divisao("Corredor", TipoDivisao.SALA_NORMAL);
+        Divisao fim = new Divisao("Fim", TipoDivisao.SALA_CENTRAL);
+        mapa.addVertex(inicio);
+        mapa.addVertex(meio);
+        mapa.addVertex(fim);
+        mapa.addCorredor(inicio, meio, new EventoCorredor(CorredorEvento.NONE, 0));
+        mapa.addCorredor(meio, fim, new EventoCorredor(CorredorEvento.NONE, 0));
+        return mapa;
+    }
+}
@@ -1,16 +1,43 @@
 package game;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.random.RandomGenerator;
+
 import org.junit.jupiter.api.Test;
 
+import Lists.ArrayUnorderedList;
 import enums.CorredorEvento;
 import enums.Dificuldade;
 import enums.TipoDivisao;
+import engine.GameData;
+import engine.GameEngine;
+import engine.GameInitializer;
+import engine.GameReplay;
+import engine.HeadlessGameRunner;
+import engine.SessionSnapshot;
+import engine.TurnLog;
+import ui.SilentGameView;
+import io.MapGenerator;
+import engine.TournamentRunner;
+import engine.TournamentStats;
 import graph.LabyrinthGraph;
+import io.GameReport;
 
 class GameSimulationTest {
 
+    /** Riddles of the games of these tests, in one bank as a server keeps them. */
+    private static final BancoEnigmas ENIGMAS = new BancoEnigmas(enigmasDeTeste());
+
     @Test
     void simulacaoBotChegaAoTesouro() {
         // 1. Criar Mundo: Inicio -> Corredor -> Tesouro
@@ -57,4 +84,354 @@ class GameSimulationTest {
         assertTrue(ganhou, "O Bot devia ter chegado ao tesouro em menos de 10 turnos.");
         assertEquals(fim, bot.getLocalAtual(), "O Bot devia estar na sala final.");
     }
+
+    @Test
+    void simulacaoSemInterfaceDevolveRelatorio() {
+        // Inicio -> Corredor -> Tesouro, só com bots e sem consola
+        LabyrinthGraph<Divisao> mapa = new LabyrinthGraph<>();
+        Divisao inicio = new Divisao("Start", TipoDivisao.ENTRADA);
+        Divisao meio = new Divisao("Corredor", TipoDivisao.SALA_NORMAL);
+        Divisao fim = new Divisao("Fim", TipoDivisao.SALA_CENTRAL);
+        mapa.addVertex(inicio);
+        mapa.addVertex(meio);
+        mapa.addVertex(fim);
+        mapa.addCorredor(inicio, meio, new EventoCorredor(CorredorEvento.NONE, 0));
+        mapa.addCorredor(meio, fim, new EventoCorredor(CorredorEvento.NONE, 0));
+
+        HeadlessGameRunner runner = new HeadlessGameRunner(null, 100);
+        GameReport report = runner.simular(mapa, new Dificuldade[]{Dificuldade.DIFICIL, Dificuldade.FACIL}, Dificuldade.MEDIO);
+
+        assertNotNull(report);
+        assertNotNull(report.getVencedor(), "Um dos bots devia ter chegado ao tesouro.");
+        assertEquals(2, report.getListaJogadores().size());
+        assertTrue(report.getDuracao() <= 100);
+    }
+
+    @Test
+    void torneioJuntaOsResultadosDeTodosOsJogos() {
+        LabyrinthGraph<Divisao> mapa = new LabyrinthGraph<>();
+        Divisao portao = new Divisao("Portão", TipoDivisao.ENTRADA);
+        Divisao meio = new Divisao("Corredor", TipoDivisao.SALA_NORMAL);
+        Divisao fim = new Divisao("Fim", TipoDivisao.SALA_CENTRAL);
+        mapa.addVertex(portao);
+        mapa.addVertex(meio);
+        mapa.addVertex(fim);
+        mapa.addCorredor(portao, meio, new EventoCorredor(CorredorEvento.MOVE_BACK, 1));
+        mapa.addCorredor(meio, fim, new EventoCorredor(CorredorEvento.NONE, 0));
+
+        Dificuldade[][] plantel = TournamentRunner.todasCombinacoes(2);
+        assertEquals(6, plantel.length);
+
+        ExecutorService executor = TournamentRunner.forkJoin(2);
+        TournamentStats stats;
+        try {
+            TournamentRunner torneio = new TournamentRunner(executor, null, 200);
+            torneio.adicionarMapa("Mini", mapa);
+            stats = torneio.executar(plantel, Dificuldade.FACIL, 70);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(6 * 70, stats.getJogos());
+        assertEquals(CorredorEvento.MOVE_BACK, mapa.getCorredorEvento(portao, meio).getTipo(),
+                "Os jogos deviam usar cópias do mapa.");
+        assertTrue(stats.taxaVitoriaEntrada("Mini", "Portão") > 0);
+    }
+
+    @Test
+    void mesmaSementeRepeteOJogo() {
+        LabyrinthGraph<Divisao> mapa = new MapGenerator(Aleatorio.comSemente(7)).gerarMapaAleatorio(2);
+        LabyrinthGraph<Divisao> outroMapa = new MapGenerator(Aleatorio.comSemente(7)).gerarMapaAleatorio(2);
+        assertEquals(mapa.size(), outroMapa.size());
+        for (int i = 0; i < mapa.size(); i++) {
+            assertEquals(mapa.getVertex(i).getNome(), outroMapa.getVertex(i).getNome());
+            assertEquals(mapa.degree(i), outroMapa.degree(i), "A mesma semente devia gerar o mesmo mapa.");
+        }
+
+        Dificuldade[] bots = {Dificuldade.FACIL, Dificuldade.MEDIO, Dificuldade.DIFICIL};
+        HeadlessGameRunner runner = new HeadlessGameRunner(null);
+        GameReport primeiro = runner.simular(mapa.copiar(Divisao::new), bots, Dificuldade.MEDIO, 12345L);
+        GameReport segundo = runner.simular(mapa.copiar(Divisao::new), bots, Dificuldade.MEDIO, 12345L);
+
+        assertEquals(12345L, primeiro.getSemente());
+        assertEquals(primeiro.getVencedor(), segundo.getVencedor());
+        assertEquals(primeiro.getDuracao(), segundo.getDuracao());
+        assertEquals(primeiro.getTotalObstaculos(), segundo.getTotalObstaculos());
+        Iterator<GameReport.PlayerReport> it1 = primeiro.getListaJogadores().iterator();
+        Iterator<GameReport.PlayerReport> it2 = segundo.getListaJogadores().iterator();
+        while (it1.hasNext()) {
+            assertEquals(it1.next().getPercurso().toString(), it2.next().getPercurso().toString(),
+                    "A mesma semente devia repetir o percurso de cada bot.");
+        }
+    }
+
+    @Test
+    void registoReconstroiQualquerTurno() {
+        LabyrinthGraph<Divisao> mapa = mapaSemSaida();
+        LabyrinthGraph<Divisao> copia = mapa.copiar(Divisao::new);
+        GameEngine original = novoMotor(copia, 99L);
+        original.jogar(prepararJogo(copia, 99L), 60);
+        TurnLog registo = original.getRegisto();
+        int duracao = contarTurnos(registo);
+        assertEquals(60, duracao);
+        assertEquals(15, registo.getNumKeyframes());
+
+        GameReplay replay = new GameReplay(mapa.copiar(Divisao::new), registo);
+        int[] turnos = {duracao / 2, 1, duracao, 3, duracao - 1, 0, duracao / 3};
+        for (int turno : turnos) {
+            assertEquals(turno, replay.irPara(turno));
+
+            // o mesmo jogo, jogado ao vivo só até esse turno (0 seria sem limite)
+            LabyrinthGraph<Divisao> outra = mapa.copiar(Divisao::new);
+            GameData dados = prepararJogo(outra, 99L);
+            if (turno > 0) novoMotor(outra, 99L).jogar(dados, turno);
+            int j = 0;
+            for (Player vivo : dados.todosJogadores) {
+                Player reconstruido = replay.getJogador(j++);
+                assertEquals(vivo.getLocalAtual().getNome(), reconstruido.getLocalAtual().getNome(),
+                        "O replay do turno " + turno + " devia pôr " + vivo.getNome() + " na mesma sala.");
+                assertEquals(vivo.getTurnosBloqueado(), reconstruido.getTurnosBloqueado());
+                assertEquals(vivo.getJogadasExtra(), reconstruido.getJogadasExtra());
+            }
+        }
+    }
+
+    @Test
+    void continuarNaoRepeteOPercursoNoRelatorio() {
+        LabyrinthGraph<Divisao> mapa = mapaSemSaida();
+        LabyrinthGraph<Divisao> seguido = mapa.copiar(Divisao::new);
+        GameReport direto = novoMotor(seguido, 21L).jogar(prepararJogo(seguido, 21L), 40);
+
+        LabyrinthGraph<Divisao> aos = mapa.copiar(Divisao::new);
+        GameEngine engine = novoMotor(aos, 21L);
+        engine.jogar(prepararJogo(aos, 21L), 10);
+        engine.continuar(25);
+        GameReport report = engine.continuar(40);
+
+        assertEquals(direto.getTotalObstaculos(), report.getTotalObstaculos());
+        Iterator<GameReport.PlayerReport> it1 = direto.getListaJogadores().iterator();
+        Iterator<GameReport.PlayerReport> it2 = report.getListaJogadores().iterator();
+        while (it1.hasNext()) {
+            GameReport.PlayerReport esperado = it1.next();
+            GameReport.PlayerReport obtido = it2.next();
+            assertEquals(esperado.getPercurso().toString(), obtido.getPercurso().toString(),
+                    "Cada continuação devia juntar só os turnos novos ao percurso.");
+            assertEquals(esperado.getObstaculos().size(), obtido.getObstaculos().size());
+        }
+    }
+
+    @Test
+    void sessaoGuardadaRetomaNoMesmoEstado() throws IOException {
+        LabyrinthGraph<Divisao> mapa = mapaSemSaida();
+        LabyrinthGraph<Divisao> copia = mapa.copiar(Divisao::new);
+        GameEngine engine = novoMotor(copia, 5L);
+        engine.jogar(prepararJogo(copia, 5L), 30);
+
+        ByteBuffer guardada = SessionSnapshot.guardar(engine, ENIGMAS);
+        byte[] bytes = new byte[guardada.remaining()];
+        guardada.get(bytes);
+
+        GameEngine retomado = SessionSnapshot.restaurar(Channels.newChannel(new ByteArrayInputStream(bytes)),
+                mapa.copiar(Divisao::new), ENIGMAS, new SilentGameView(), Aleatorio.comSemente(6L));
+        ByteBuffer outraVez = SessionSnapshot.guardar(retomado, ENIGMAS);
+        assertEquals(ByteBuffer.wrap(bytes), outraVez, "Guardar a sessão retomada devia dar os mesmos bytes.");
+
+        GameReport report = retomado.continuar(60);
+        assertEquals(60, report.getDuracao());
+        assertEquals(engine.getRegisto().size(), retomado.getRegisto().size() - contarDepois(retomado.getRegisto(), 30));
+        Iterator<GameReport.PlayerReport> it = report.getListaJogadores().iterator();
+        assertTrue(it.next().getPercurso().size() > 0, "O percurso anterior à gravação devia continuar no relatório.");
+
+        // a sessão retomada repete-se a partir do ponto em que foi guardada
+        GameReplay replay = new GameReplay(mapa.copiar(Divisao::new), retomado.getRegisto());
+        assertEquals(30, replay.irPara(10));
+        assertEquals(60, replay.irPara(60));
+    }
+
+    @Test
+    void sessaoGuardadaAMeioDaOMesmoJogoQueSeguido() throws IOException {
+        LabyrinthGraph<Divisao> mapa = mapaSemSaida();
+        LabyrinthGraph<Divisao> seguido = mapa.copiar(Divisao::new);
+        GeradorContado aleatorio = Aleatorio.contado(44L);
+        GameEngine direto = novoMotor(seguido, aleatorio);
+        GameReport esperado = direto.jogar(prepararJogo(seguido, aleatorio), 60);
+
+        LabyrinthGraph<Divisao> copia = mapa.copiar(Divisao::new);
+        GeradorContado outro = Aleatorio.contado(44L);
+        GameEngine engine = novoMotor(copia, outro);
+        engine.jogar(prepararJogo(copia, outro), 25);
+        assertTrue(outro.getTiragens() > 0);
+
+        // o gerador dado a restaurar só serve quando a sessão não guardou o seu
+        GameEngine retomado = SessionSnapshot.restaurar(SessionSnapshot.guardar(engine, ENIGMAS),
+                mapa.copiar(Divisao::new), ENIGMAS, new SilentGameView(), Aleatorio.comSemente(1L));
+        GameReport report = retomado.continuar(60);
+
+        assertArrayEquals(direto.getRegisto().registos(), retomado.getRegisto().registos(),
+                "Guardar e retomar a meio devia dar as mesmas jogadas que jogar seguido.");
+        assertEquals(esperado.getDuracao(), report.getDuracao());
+        assertEquals(esperado.getTotalObstaculos(), report.getTotalObstaculos());
+        Iterator<GameReport.PlayerReport> it1 = esperado.getListaJogadores().iterator();
+        Iterator<GameReport.PlayerReport> it2 = report.getListaJogadores().iterator();
+        while (it1.hasNext()) {
+            assertEquals(it1.next().getPercurso().toString(), it2.next().getPercurso().toString());
+        }
+    }
+
+    @Test
+    void cabecalhoInvalidoNaoReservaOTamanhoPedido() {
+        ByteBuffer enorme = ByteBuffer.allocate(16).putInt(SessionSnapshot.MAGIC).putInt(SessionSnapshot.VERSAO)
+                .putInt(Integer.MAX_VALUE).putInt(0);
+        ByteBuffer antiga = ByteBuffer.allocate(16).putInt(SessionSnapshot.MAGIC).putInt(SessionSnapshot.VERSAO - 1)
+                .putInt(4).putInt(0);
+        ByteBuffer curta = ByteBuffer.allocate(16).putInt(SessionSnapshot.MAGIC).putInt(SessionSnapshot.VERSAO)
+                .putInt(100 << 20).putInt(0);
+        for (ByteBuffer dados : new ByteBuffer[]{enorme, antiga, curta}) {
+            byte[] bytes = dados.array();
+            assertThrows(IOException.class, () -> SessionSnapshot.restaurar(Channels.newChannel(new ByteArrayInputStream(bytes)),
+                    mapaSemSaida(), ENIGMAS, new SilentGameView(), Aleatorio.comSemente(1L)));
+        }
+    }
+
+    /**
+     * Ring of rooms with two traps, a riddle room and a lever room; the treasure is behind a
+     * lock with no lever, so a game only ends at the turn limit.
+     */
+    private static LabyrinthGraph<Divisao> mapaSemSaida() {
+        LabyrinthGraph<Divisao> mapa = new LabyrinthGraph<>();
+        Divisao entrada = new Divisao("Entrada", TipoDivisao.ENTRADA);
+        Divisao enigma = new Divisao("Enigma", TipoDivisao.SALA_ENIGMA);
+        Divisao alavanca = new Divisao("Alavanca", TipoDivisao.SALA_ALAVANCA);
+        alavanca.setIdDesbloqueio(2);
+        Divisao tesouro = new Divisao("Tesouro", TipoDivisao.SALA_CENTRAL);
+        Divisao[] anel = new Divisao[10];
+        mapa.addVertex(entrada);
+        mapa.addVertex(enigma);
+        mapa.addVertex(alavanca);
+        mapa.addVertex(tesouro);
+        for (int i = 0; i < anel.length; i++) {
+            anel[i] = new Divisao("Sala " + i, TipoDivisao.SALA_NORMAL);
+            mapa.addVertex(anel[i]);
+        }
+        for (int i = 0; i < anel.length; i++) {
+            CorredorEvento tipo = i == 3 ? CorredorEvento.MOVE_BACK : i == 6 ? CorredorEvento.BLOCK_TURN : CorredorEvento.NONE;
+            mapa.addCorredor(anel[i], anel[(i + 1) % anel.length], new EventoCorredor(tipo, tipo == CorredorEvento.NONE ? 0 : 2));
+        }
+        mapa.addCorredor(entrada, anel[0], new EventoCorredor(CorredorEvento.NONE, 0));
+        mapa.addCorredor(anel[2], enigma, new EventoCorredor(CorredorEvento.NONE, 0));
+        mapa.addCorredor(enigma, anel[5], new EventoCorredor(CorredorEvento.NONE, 0));
+        mapa.addCorredor(anel[8], alavanca, new EventoCorredor(CorredorEvento.NONE, 0));
+        mapa.addCorredor(anel[9], enigma, new EventoCorredor(CorredorEvento.LOCKED, 2));
+        mapa.addCorredor(anel[5], tesouro, new EventoCorredor(CorredorEvento.LOCKED, 1));
+
+        return mapa;
+    }
+
+    @Test
+    void multidaoJogaRelataERepete() {
+        LabyrinthGraph<Divisao> mapa = new MapGenerator(Aleatorio.comSemente(11)).gerarMapaTotalmenteCustomizado(4, 300, 1_200, 6);
+        LabyrinthGraph<Divisao> original = mapa.copiar(Divisao::new);
+        Dificuldade[] bots = new Dificuldade[1_500];
+        for (int i = 0; i < bots.length; i++) bots[i] = Dificuldade.values()[i % 3];
+        GameData dados = new GameInitializer(new SilentGameView(), mapa, Aleatorio.comSemente(12))
+                .setupBots(Dificuldade.MEDIO, bots, new ArrayUnorderedList<>());
+        GameEngine engine = novoMotor(mapa, 13L);
+        GameReport report = engine.jogar(dados, 4_000);
+
+        JogadoresDoJogo jogadores = engine.getJogadoresDoJogo();
+        assertEquals(bots.length, jogadores.getNumJogadores());
+        int numero = 0;
+        for (Player p : dados.todosJogadores) {
+            assertTrue(jogadores.getJogador(numero++) == p, "Os jogadores deviam estar numerados pela ordem do jogo.");
+        }
+
+        // o jogador de cada registo não pode transbordar para o tipo, mesmo além dos 255 jogadores
+        TurnLog registo = engine.getRegisto();
+        int[] movimentos = new int[bots.length];
+        for (int r = 0; r < registo.size(); r++) {
+            assertTrue(registo.tipo(r) >= TurnLog.TURNO && registo.tipo(r) <= TurnLog.ARMADILHA);
+            if (registo.tipo(r) == TurnLog.MOVER) movimentos[registo.jogador(r)]++;
+        }
+        assertEquals(bots.length, report.getListaJogadores().size());
+        int j = 0;
+        for (GameReport.PlayerReport pr : report.getListaJogadores()) {
+            assertEquals(jogadores.getJogador(j).getNome(), pr.getNome());
+            assertEquals(movimentos[j++], pr.getPercurso().size(), "O percurso de " + pr.getNome() + " devia vir dos seus registos.");
+        }
+
+        GameReplay replay = new GameReplay(original, registo);
+        assertEquals(report.getDuracao(), replay.irPara(report.getDuracao()));
+        j = 0;
+        for (Player vivo : dados.todosJogadores) {
+            assertEquals(vivo.getLocalAtual().getNome(), replay.getJogador(j++).getLocalAtual().getNome(),
+                    "O replay devia pôr " + vivo.getNome() + " na mesma sala.");
+        }
+    }
+
+    @Test
+    void registoGuardaJogadoresAlemDe255() {
+        TurnLog registo = new TurnLog(new String[0], new Enigma[0], 4);
+        registo.adicionar(TurnLog.ARMADILHA, 1_499, TurnLog.MAX_VALOR, -1);
+        registo.adicionar(TurnLog.DESTINO, TurnLog.MAX_JOGADOR, -1);
+
+        assertEquals(TurnLog.ARMADILHA, registo.tipo(0));
+        assertEquals(1_499, registo.jogador(0));
+        assertEquals(TurnLog.MAX_VALOR, registo.valorA(0));
+        assertEquals(-1, registo.valorB(0));
+        assertEquals(TurnLog.DESTINO, registo.tipo(1));
+        assertEquals(TurnLog.MAX_JOGADOR, registo.jogador(1));
+        assertEquals(-1, registo.valorA(1));
+
+        assertThrows(IllegalArgumentException.class, () -> registo.adicionar(TurnLog.TURNO, -1, 0));
+        assertThrows(IllegalArgumentException.class, () -> registo.adicionar(TurnLog.TURNO, TurnLog.MAX_JOGADOR + 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> registo.adicionar(TurnLog.MOVER, 0, TurnLog.MAX_VALOR + 1));
+        assertThrows(IllegalArgumentException.class, () -> registo.adicionar(TurnLog.ARMADILHA, 0, 0, -2));
+        assertEquals(2, registo.size());
+    }
+
+    private static ArrayUnorderedList<Enigma> enigmasDeTeste() {
+        ArrayUnorderedList<Enigma> enigmas = new ArrayUnorderedList<>();
+        for (int i = 0; i < 3; i++) {
+            enigmas.addToRear(new Enigma("Pergunta " + i + "?", new String[]{"A", "B", "C"}, 1 + i % 3, Dificuldade.MEDIO));
+        }
+        return enigmas;
+    }
+
+    private static GameData prepararJogo(LabyrinthGraph<Divisao> mapa, long semente) {
+        return prepararJogo(mapa, Aleatorio.comSemente(semente));
+    }
+
+    private static GameData prepararJogo(LabyrinthGraph<Divisao> mapa, RandomGenerator aleatorio) {
+        Dificuldade[] bots = {Dificuldade.FACIL, Dificuldade.MEDIO, Dificuldade.FACIL};
+        return new GameInitializer(new SilentGameView(), mapa, aleatorio).setupBots(Dificuldade.MEDIO, bots, ENIGMAS);
+    }
+
+    private static GameEngine novoMotor(LabyrinthGraph<Divisao> mapa, long semente) {
+        return novoMotor(mapa, Aleatorio.comSemente(semente + 1));
+    }
+
+    private static GameEngine novoMotor(LabyrinthGraph<Divisao> mapa, RandomGenerator aleatorio) {
+        GameEngine engine = new GameEngine(mapa, new SilentGameView(), aleatorio);
+        engine.setExportarRelatorio(false);
+        engine.setIntervaloKeyframes(4);
+        return engine;
+    }
+
+    private static int contarDepois(TurnLog registo, int turno) {
+        int turnos = 0;
+        int registos = 0;
+        for (int i = 0; i < registo.size(); i++) {
+            if (registo.tipo(i) == TurnLog.TURNO) turnos++;
+            if (turnos > turno) registos++;
+        }
+        return registos;
+    }
+
+    private static int contarTurnos(TurnLog registo) {
+        int turnos = 0;
+        for (int i = 0; i < registo.size(); i++) {
+            if (registo.tipo(i) == TurnLog.TURNO) turnos++;
+        }
+        return turnos;
+    }
 }
@@ -0,0 +1,41 @@
+package game;
+
+import Lists.ArrayUnorderedList;
+import engine.HeadlessGameRunner;
+import enums.Dificuldade;
+import graph.LabyrinthGraph;
+import io.EnigmaLoader;
+import io.GameReport;
+import io.MapGenerator;
+
+/**
+ * Benchmark of whole bot-only games run through the headless runner, per game, run with {@link Bancada}.
+ * Each map is generated once and reused, so traps moved and levers set by one game stay for the next.
+ */
+public class GamesPerSecondBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Dificuldade[] bots = {Dificuldade.FACIL, Dificuldade.MEDIO, Dificuldade.DIFICIL, Dificuldade.DIFICIL};
+        Bancada bancada = new Bancada(GamesPerSecondBenchmark.class, args);
+        for (int dificuldade = 1; dificuldade <= 3; dificuldade++) {
+            int nivel = dificuldade;
+            bancada.caso("jogo completo, dificuldade " + nivel, () -> {
+                ArrayUnorderedList<Enigma> enigmas = new EnigmaLoader().loadEnigmas("resources/Enigmas/enigmas.json");
+                HeadlessGameRunner runner = new HeadlessGameRunner(enigmas);
+                LabyrinthGraph<Divisao> mapa = Bancada.semSaida(() -> new MapGenerator(Aleatorio.comSemente(nivel)).gerarMapaAleatorio(nivel));
+                Dificuldade global = Dificuldade.values()[nivel - 1];
+                int jogos = 200;
+                return () -> {
+                    long turnos = 0;
+                    for (int i = 0; i < jogos; i++) {
+                        GameReport report = runner.simular(mapa, bots, global);
+                        turnos += report.getDuracao();
+                    }
+                    Bancada.consumir(turnos);
+                    return jogos;
+                };
+            });
+        }
+        bancada.correr();
+    }
+}
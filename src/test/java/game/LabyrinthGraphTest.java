@@ -1,14 +1,23 @@
 package game;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import Lists.ArrayUnorderedList;
 import enums.CorredorEvento;
 import enums.TipoDivisao;
+import graph.DistanceFieldService;
+import graph.FrozenLabyrinth;
 import graph.LabyrinthGraph;
+import structures.MapaArestas;
 
 class LabyrinthGraphTest {
 
@@ -46,6 +55,152 @@ class LabyrinthGraphTest {
         assertEquals(CorredorEvento.NONE, evRecuperado.getTipo(), "O corredor devia ser NONE");
     }
 
+    @Test
+    void testeIndiceAposRemoverSala() {
+        grafo.addCorredor(salaB, salaC, new EventoCorredor(CorredorEvento.LOCKED, 3));
+
+        grafo.removeVertex(salaA);
+
+        assertEquals(-1, grafo.getIndex(salaA), "A Sala A já não devia estar no grafo");
+        assertEquals(0, grafo.getIndex(salaB), "A Sala B devia ter passado para a posição 0");
+        assertEquals(1, grafo.getIndex(salaC), "A Sala C devia ter passado para a posição 1");
+        assertEquals(CorredorEvento.LOCKED, grafo.getCorredorEvento(salaB, salaC).getTipo());
+    }
+
+    @Test
+    void testeVistaCongeladaSegueEventos() {
+        grafo.addCorredor(salaA, salaB, new EventoCorredor(CorredorEvento.NONE, 0));
+        grafo.addCorredor(salaB, salaC, new EventoCorredor(CorredorEvento.LOCKED, 2));
+
+        FrozenLabyrinth<Divisao> vista = grafo.freeze();
+        int b = grafo.getIndex(salaB);
+        assertEquals(2, vista.grau(b), "A Sala B devia ter dois vizinhos");
+
+        grafo.setCorredorEvento(salaA, salaB, new EventoCorredor(CorredorEvento.BLOCK_TURN, 1));
+        for (int s = vista.inicio(b); s < vista.fim(b); s++) {
+            Divisao vizinho = vista.sala(vista.destino(s));
+            CorredorEvento esperado = vizinho.equals(salaA) ? CorredorEvento.BLOCK_TURN : CorredorEvento.LOCKED;
+            assertEquals(esperado, vista.tipoEvento(s), "A vista devia refletir o evento atual do corredor");
+        }
+
+        grafo.addCorredor(salaA, salaC, new EventoCorredor(CorredorEvento.NONE, 0));
+        assertTrue(grafo.freeze() != vista, "Mudar a topologia devia gerar uma nova vista");
+        assertEquals(2, grafo.degree(salaA), "As listas refeitas da vista deviam manter os corredores antigos");
+        assertEquals(2, grafo.getVizinhos(salaC).size());
+
+        // depois de congelado, os percursos herdados e a remoção voltam a ter as listas
+        int visitadas = 0;
+        for (Iterator<Divisao> it = grafo.iteratorBFS(salaA); it.hasNext(); it.next()) visitadas++;
+        assertEquals(3, visitadas);
+        grafo.removeVertex(salaB);
+        assertEquals(1, grafo.degree(salaA), "A Sala A devia ficar só ligada à Sala C");
+    }
+
+    @Test
+    void testeCampoDistanciasRespeitaTrancas() {
+        grafo.addCorredor(salaA, salaB, new EventoCorredor(CorredorEvento.NONE, 0));
+        grafo.addCorredor(salaB, salaC, new EventoCorredor(CorredorEvento.LOCKED, 7));
+        int a = grafo.getIndex(salaA);
+        int b = grafo.getIndex(salaB);
+
+        DistanceFieldService campo = grafo.campoDistancias();
+        assertEquals(DistanceFieldService.INALCANCAVEL, campo.distancia(a, 0L), "Sem a chave o tesouro está fechado");
+        assertEquals(2, campo.distancia(a, 1L), "Com a chave a Sala A fica a dois passos do tesouro");
+        assertEquals(b, campo.passoDescendente(a, 1L));
+
+        grafo.setCorredorEvento(salaB, salaC, new EventoCorredor(CorredorEvento.NONE, 0));
+        assertTrue(grafo.campoDistancias() != campo, "Mudar uma tranca devia descartar os campos");
+        assertEquals(2, grafo.campoDistancias().distancia(a, 0L));
+    }
+
+    @Test
+    void testeCampoDistanciasComCentenasDeTrancas() {
+        // corredor em linha com 300 trancas, cada uma com a sua chave
+        LabyrinthGraph<Divisao> linha = new LabyrinthGraph<>();
+        int trancas = 300;
+        Divisao anterior = new Divisao("L0", TipoDivisao.ENTRADA);
+        linha.addVertex(anterior);
+        for (int i = 1; i <= trancas; i++) {
+            Divisao sala = new Divisao("L" + i, i == trancas ? TipoDivisao.SALA_CENTRAL : TipoDivisao.SALA_NORMAL);
+            linha.addVertex(sala);
+            linha.addCorredor(anterior, sala, new EventoCorredor(CorredorEvento.LOCKED, i * 3));
+            anterior = sala;
+        }
+
+        Player p = new Player("Chaveiro", linha.getVertex(0));
+        for (int i = trancas; i >= 1; i--) {
+            if (i != 150) p.desbloquearTranca(i * 3);
+        }
+        DistanceFieldService campo = linha.campoDistancias();
+        assertEquals(DistanceFieldService.INALCANCAVEL, campo.distancia(0, p.getChaves()), "Falta a chave 450");
+        assertEquals(trancas - 150, campo.distancia(150, p.getChaves()));
+
+        ConjuntoChaves antes = p.getChaves();
+        p.desbloquearTranca(450);
+        assertEquals(trancas - 1, antes.size(), "Um conjunto de chaves não muda depois de criado");
+        assertEquals(trancas, campo.distancia(0, p.getChaves()));
+        assertEquals(p.getChaves(), ConjuntoChaves.de(p.getTrancasDesbloqueadas()));
+        assertEquals(p.getChaves().hashCode(), ConjuntoChaves.de(p.getTrancasDesbloqueadas()).hashCode());
+    }
+
+    @Test
+    void testeCopiaIndependenteDoOriginal() {
+        grafo.addCorredor(salaA, salaB, new EventoCorredor(CorredorEvento.MOVE_BACK, 2));
+        grafo.addCorredor(salaB, salaC, new EventoCorredor(CorredorEvento.LOCKED, 4));
+
+        LabyrinthGraph<Divisao> copia = grafo.copiar(Divisao::new);
+        Divisao copiaA = copia.getVertex(grafo.getIndex(salaA));
+        assertTrue(copiaA != salaA, "A cópia devia ter salas próprias.");
+        assertEquals(salaA.getId(), copiaA.getId());
+        assertEquals(CorredorEvento.LOCKED, copia.getCorredorEvento(salaB, salaC).getTipo());
+
+        copia.setCorredorEvento(salaA, salaB, EventoCorredor.NONE);
+        assertEquals(CorredorEvento.MOVE_BACK, grafo.getCorredorEvento(salaA, salaB).getTipo(),
+                "Mudar a cópia não devia mudar o original.");
+        assertEquals(grafo.degree(salaB), copia.degree(salaB));
+    }
+
+    @Test
+    void testeSessoesPartilhamMapaSemSeMisturarem() {
+        grafo.addCorredor(salaA, salaB, new EventoCorredor(CorredorEvento.MOVE_BACK, 2));
+        grafo.addCorredor(salaB, salaC, new EventoCorredor(CorredorEvento.NONE, 0));
+        FrozenLabyrinth<Divisao> vistaOriginal = grafo.freeze();
+
+        LabyrinthGraph<Divisao> sessao1 = grafo.sessao();
+        LabyrinthGraph<Divisao> sessao2 = grafo.sessao();
+        assertTrue(sessao1.getVertex(0) == salaA, "As sessões deviam partilhar as salas do mapa.");
+        assertTrue(sessao1.freeze() == vistaOriginal, "Antes de mudar, a sessão devia usar a vista do mapa.");
+        assertTrue(sessao1.campoDistancias() == grafo.campoDistancias(), "As sessões deviam partilhar os campos de distâncias.");
+
+        sessao1.moverArmadilha(salaA, salaB, MapaArestas.VAZIO);
+        sessao1.setCorredorEvento(salaB, salaC, new EventoCorredor(CorredorEvento.MOVE_BACK, 2));
+        assertEquals(CorredorEvento.MOVE_BACK, sessao1.getCorredorEvento(salaB, salaC).getTipo());
+        assertEquals(1, sessao1.corredoresComArmadilha().length);
+
+        assertEquals(CorredorEvento.MOVE_BACK, grafo.getCorredorEvento(salaA, salaB).getTipo(),
+                "Mudar uma sessão não devia mudar o mapa partilhado.");
+        assertEquals(CorredorEvento.NONE, grafo.getCorredorEvento(salaB, salaC).getTipo());
+        assertEquals(CorredorEvento.MOVE_BACK, sessao2.getCorredorEvento(salaA, salaB).getTipo(),
+                "Mudar uma sessão não devia mudar as outras.");
+        int slotBC = vistaOriginal.inicio(grafo.getIndex(salaB));
+        while (vistaOriginal.destino(slotBC) != grafo.getIndex(salaC)) slotBC++;
+        assertEquals(CorredorEvento.NONE, vistaOriginal.tipoEvento(slotBC), "A vista do mapa não devia mudar.");
+        assertEquals(CorredorEvento.MOVE_BACK, sessao1.freeze().tipoEvento(slotBC), "A vista da sessão devia seguir as suas mudanças.");
+        assertEquals(2, sessao1.freeze().valorEvento(slotBC));
+
+        // devolver a armadilha ao seu corredor volta a dar o evento do mapa partilhado
+        sessao1.moverArmadilha(salaB, salaC, MapaArestas.chave(grafo.getIndex(salaA), grafo.getIndex(salaB)));
+        assertEquals(CorredorEvento.NONE, sessao1.freeze().tipoEvento(slotBC));
+        assertEquals(CorredorEvento.MOVE_BACK, sessao1.getCorredorEvento(salaA, salaB).getTipo());
+        assertEquals(1, sessao1.corredoresComArmadilha().length);
+
+        sessao1.setAlavanca(0, new Alavanca(Aleatorio.comSemente(1)));
+        assertTrue(sessao1.getAlavanca(0) != null);
+        assertTrue(sessao2.getAlavanca(0) == null, "Cada sessão devia ter as suas alavancas.");
+
+        assertThrows(UnsupportedOperationException.class, () -> sessao1.addCorredor(salaA, salaC, EventoCorredor.NONE));
+    }
+
     @Test
     void testeRelocalizarArmadilha() {
         EventoCorredor armadilha = new EventoCorredor(CorredorEvento.MOVE_BACK, 2);
@@ -70,4 +225,83 @@ class LabyrinthGraphTest {
         EventoCorredor novoEventoBC = grafo.getCorredorEvento(salaB, salaC);
         assertEquals(CorredorEvento.MOVE_BACK, novoEventoBC.getTipo(), "A armadilha devia ter ido para B-C");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testeIndicesDeCorredores() {
+        // mapa denso: cada sala liga às seguintes, com trancas de duas chaves e uma armadilha
+        LabyrinthGraph<Divisao> mapa = new LabyrinthGraph<>();
+        int salas = 12;
+        for (int i = 0; i < salas; i++) {
+            mapa.addVertex(new Divisao("D" + i, i == 0 ? TipoDivisao.ENTRADA : TipoDivisao.SALA_NORMAL));
+        }
+        int corredores = 0;
+        for (int i = 0; i < salas; i++) {
+            for (int j = i + 1; j < salas; j++) {
+                EventoCorredor ev = EventoCorredor.NONE;
+                if (j == i + 1 && i % 3 == 0) ev = new EventoCorredor(CorredorEvento.LOCKED, i < 6 ? 7 : 9);
+                mapa.addCorredor(mapa.getVertex(i), mapa.getVertex(j), ev);
+                corredores++;
+            }
+        }
+        mapa.setCorredorEvento(mapa.getVertex(1), mapa.getVertex(5), new EventoCorredor(CorredorEvento.MOVE_BACK, 1));
+
+        assertEquals(2, mapa.corredoresComTranca(7).length);
+        assertEquals(2, mapa.corredoresComTranca(9).length);
+        assertEquals(0, mapa.corredoresComTranca(8).length);
+        assertEquals(MapaArestas.chave(0, 1), mapa.corredoresComTranca(7)[0]);
+        assertEquals(corredores - 5, mapa.contarCorredores(CorredorEvento.NONE));
+
+        mapa.setCorredorEvento(mapa.getVertex(0), mapa.getVertex(1), EventoCorredor.NONE);
+        assertEquals(1, mapa.corredoresComTranca(7).length, "Abrir a tranca devia tirá-la do índice.");
+
+        LabyrinthGraph<Divisao> sessao = mapa.sessao();
+        SplittableRandom aleatorio = new SplittableRandom(3);
+        int origem = 1, destino = 5;
+        for (int k = 0; k < 200; k++) {
+            long chave = sessao.moverArmadilhaAleatoria(sessao.getVertex(origem), sessao.getVertex(destino), aleatorio);
+            assertTrue(chave != MapaArestas.chave(origem, destino), "A armadilha não devia ficar no mesmo corredor.");
+            origem = MapaArestas.primeiro(chave);
+            destino = MapaArestas.segundo(chave);
+            assertEquals(CorredorEvento.MOVE_BACK, sessao.getCorredorEvento(sessao.getVertex(origem), sessao.getVertex(destino)).getTipo());
+            assertEquals(1, sessao.corredoresComArmadilha().length);
+        }
+        assertEquals(corredores - 4, sessao.contarCorredores(CorredorEvento.NONE));
+        assertEquals(MapaArestas.chave(1, 5), mapa.corredoresComArmadilha()[0], "A sessão não devia mexer nos índices do mapa.");
+
+        // os índices da sessão, feitos de mudanças sobre os do mapa, dão o mesmo que os de uma cópia
+        sessao.setCorredorEvento(sessao.getVertex(2), sessao.getVertex(3), new EventoCorredor(CorredorEvento.LOCKED, 9));
+        sessao.setCorredorEvento(sessao.getVertex(0), sessao.getVertex(1), new EventoCorredor(CorredorEvento.LOCKED, 7));
+        LabyrinthGraph<Divisao> copia = sessao.copiar(Divisao::new);
+        for (CorredorEvento tipo : CorredorEvento.values()) {
+            assertEquals(copia.contarCorredores(tipo), sessao.contarCorredores(tipo));
+            assertTrue(Arrays.equals(copia.corredoresComEvento(tipo), sessao.corredoresComEvento(tipo)), "Corredores " + tipo + " diferentes.");
+        }
+        for (int id = 7; id <= 9; id++) {
+            assertTrue(Arrays.equals(copia.corredoresComTranca(id), sessao.corredoresComTranca(id)), "Tranca " + id + " diferente.");
+        }
+        assertEquals(3, sessao.corredoresComTranca(9).length);
+        assertEquals(2, mapa.corredoresComTranca(9).length);
+        sessao.setCorredorEvento(sessao.getVertex(2), sessao.getVertex(3), EventoCorredor.NONE);
+        assertEquals(2, sessao.corredoresComTranca(9).length, "Devolver o evento do mapa devia tirar o corredor das mudanças.");
+
+        // congelar constrói os índices, por isso sessões criadas em várias threads só os leem
+        LabyrinthGraph<Divisao> congelado = mapa.copiar(Divisao::new);
+        congelado.freeze();
+        int livres = corredores - 4;
+        assertTrue(IntStream.range(0, 64).parallel()
+                .allMatch(k -> congelado.sessao().contarCorredores(CorredorEvento.NONE) == livres));
+    }
+
+    @Test
+    void testeTrancaComIdMuitoGrande() {
+        grafo.addCorredor(salaA, salaB, new EventoCorredor(CorredorEvento.LOCKED, 1_000_000));
+        grafo.addCorredor(salaB, salaC, new EventoCorredor(CorredorEvento.LOCKED, Integer.MAX_VALUE));
+
+        assertEquals(1, grafo.corredoresComTranca(1_000_000).length);
+        assertEquals(1, grafo.corredoresComTranca(Integer.MAX_VALUE).length);
+        assertEquals(0, grafo.corredoresComTranca(999_999).length);
+
+        grafo.setCorredorEvento(salaA, salaB, EventoCorredor.NONE);
+        assertEquals(0, grafo.corredoresComTranca(1_000_000).length);
+    }
+}
@@ -0,0 +1,57 @@
+package game;
+
+import java.util.Iterator;
+
+import graph.LabyrinthGraph;
+import io.MapGenerator;
+
+/**
+ * Micro-benchmark comparing the list-returning {@code getVizinhos} with the
+ * allocation-free {@code forEachNeighbour} on a generated map, run with {@link Bancada}.
+ */
+public class NeighbourIterationBenchmark {
+
+    /**
+     * Accumulator written by the lambda, so the JIT cannot drop the traversal.
+     */
+    private static long soma;
+
+    public static void main(String[] args) throws Exception {
+        new Bancada(NeighbourIterationBenchmark.class, args)
+                .caso("getVizinhos", () -> {
+                    LabyrinthGraph<Divisao> grafo = gerar();
+                    Divisao[] salas = new Divisao[grafo.size()];
+                    for (int i = 0; i < salas.length; i++) {
+                        salas[i] = grafo.getVertex(i);
+                    }
+                    return () -> {
+                        long total = 0;
+                        for (Divisao sala : salas) {
+                            Iterator<Divisao> it = grafo.getVizinhos(sala).iterator();
+                            while (it.hasNext()) {
+                                total += it.next().getId();
+                            }
+                        }
+                        Bancada.consumir(total);
+                        return salas.length;
+                    };
+                })
+                .caso("forEachNeighbour", () -> {
+                    LabyrinthGraph<Divisao> grafo = gerar();
+                    int n = grafo.size();
+                    return () -> {
+                        soma = 0;
+                        for (int i = 0; i < n; i++) {
+                            grafo.forEachNeighbour(i, v -> soma += v);
+                        }
+                        Bancada.consumir(soma);
+                        return n;
+                    };
+                })
+                .correr();
+    }
+
+    private static LabyrinthGraph<Divisao> gerar() {
+        return Bancada.semSaida(() -> new MapGenerator(Aleatorio.comSemente(4)).gerarMapaTotalmenteCustomizado(4, 2_000, 8_000, 6));
+    }
+}
@@ -2,11 +2,13 @@ package game;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 
 import enums.TipoDivisao;
 import enums.TipoDivisao; // Adicionar este import
+import graph.LabyrinthGraph;
 import ui.GameView;
 class PlayerTest {
 
@@ -47,4 +49,60 @@ class PlayerTest {
         p.recuar(1, view);
         assertEquals(inicio, p.getLocalAtual(), "O jogador devia ter voltado ao Inicio");
     }
-}
\ No newline at end of file
+
+    @Test
+    void historicoLimitadoMantemRecuo() {
+        GameView view = new GameView();
+        Divisao[] salas = new Divisao[100];
+        for (int i = 0; i < salas.length; i++) {
+            salas[i] = new Divisao("Sala " + i, i == 0 ? TipoDivisao.ENTRADA : TipoDivisao.SALA_NORMAL);
+        }
+        Player p = new Player("Soak", salas[0]);
+        p.setCapacidadeHistorico(8);
+
+        for (int i = 1; i < 50; i++) p.moverPara(salas[i]);
+        p.marcarLimiteRecuo();
+        for (int i = 50; i < salas.length; i++) p.moverPara(salas[i]);
+
+        // só as 8 salas mais recentes ficam no caminho e no histórico
+        assertEquals(8, p.getCaminho().length);
+        assertEquals(salas[92], p.getCaminho()[0]);
+        assertEquals(8, p.getHistorico().size());
+        assertEquals("Moveu para: Sala 99", p.getHistorico().last());
+
+        // o limite marcado já foi esquecido: o recuo pára na sala mais antiga guardada
+        p.recuar(3, view);
+        assertEquals(salas[96], p.getLocalAtual());
+        p.recuar(10, view);
+        assertEquals(salas[92], p.getLocalAtual());
+        assertEquals("Recuou para: Sala 92", p.getHistorico().last());
+
+        // um limite marcado dentro da capacidade continua a ser respeitado
+        for (int i = 0; i < 10; i++) p.moverPara(salas[i]);
+        p.marcarLimiteRecuo();
+        p.moverPara(salas[10]);
+        p.moverPara(salas[11]);
+        p.recuar(5, view);
+        assertEquals(salas[9], p.getLocalAtual());
+    }
+
+    @Test
+    void historicoGuardaSalasPeloIndiceDoMapa() {
+        LabyrinthGraph<Divisao> mapa = new LabyrinthGraph<>();
+        Divisao inicio = new Divisao("Inicio", TipoDivisao.ENTRADA);
+        Divisao sala = new Divisao("Sala", TipoDivisao.SALA_NORMAL);
+        mapa.addVertex(inicio);
+        mapa.addVertex(sala);
+        Player p = new Player("Mapeado", inicio, Aleatorio.comSemente(1), mapa);
+
+        p.moverPara(sala);
+        p.recuar(1, new GameView());
+        assertEquals(inicio, p.getLocalAtual());
+        assertEquals("Recuou para: Inicio", p.getHistorico().last());
+        assertEquals(1, p.getCaminho().length);
+
+        Divisao fora = new Divisao("Fora", TipoDivisao.SALA_NORMAL);
+        assertThrows(IllegalArgumentException.class, () -> p.moverPara(fora),
+                "Uma sala fora do mapa não tem índice para o histórico.");
+    }
+}
@@ -0,0 +1,111 @@
+package game;
+
+import java.util.random.RandomGenerator;
+
+import enums.TipoDivisao;
+import graph.LabyrinthGraph;
+import io.MapGenerator;
+import io.MapLoader;
+import structures.MapaArestas;
+
+/**
+ * Benchmark of the memory held by a thousand games of "O Minotauro": full copies of the map
+ * against session views of one shared map, fresh and after some trap moves, in bytes per game,
+ * run with {@link Bancada}. The last cases move the same traps, or pull levers, on a generated map
+ * of a few thousand rooms, where what a session copies would show.
+ */
+public class SessionMapBenchmark {
+
+    private static final int JOGOS = 1_000;
+
+    /** Trap moves made by each game of the "after moves" case. */
+    private static final int MOVIMENTOS = 10;
+
+    /** Lever rooms used by each game of the "levers" case. */
+    private static final int ALAVANCAS = 10;
+
+    public static void main(String[] args) throws Exception {
+        new Bancada(SessionMapBenchmark.class, args).iteracoes(0, 3)
+                .memoria("cópia do mapa", JOGOS, () -> {
+                    LabyrinthGraph<Divisao> mapa = carregar();
+                    return i -> {
+                        LabyrinthGraph<Divisao> copia = mapa.copiar(Divisao::new);
+                        copia.freeze();
+                        return copia;
+                    };
+                })
+                .memoria("sessão", JOGOS, () -> {
+                    LabyrinthGraph<Divisao> mapa = carregar();
+                    return i -> mapa.sessao();
+                })
+                .memoria("sessão após " + MOVIMENTOS + " armadilhas movidas", JOGOS, () -> {
+                    LabyrinthGraph<Divisao> mapa = carregar();
+                    return i -> {
+                        LabyrinthGraph<Divisao> sessao = mapa.sessao();
+                        moverArmadilhas(sessao, Aleatorio.comSemente(i));
+                        return sessao;
+                    };
+                })
+                .memoria("sessão após " + MOVIMENTOS + " armadilhas movidas, mapa gerado", JOGOS, () -> {
+                    LabyrinthGraph<Divisao> mapa = Bancada.semSaida(() -> new MapGenerator(Aleatorio.comSemente(7))
+                            .gerarMapaTotalmenteCustomizado(4, 1_000, 4_000, 6));
+                    preparar(mapa);
+                    return i -> {
+                        LabyrinthGraph<Divisao> sessao = mapa.sessao();
+                        moverArmadilhas(sessao, Aleatorio.comSemente(i));
+                        return sessao;
+                    };
+                })
+                .memoria("sessão após " + ALAVANCAS + " alavancas, mapa gerado", JOGOS, () -> {
+                    LabyrinthGraph<Divisao> mapa = Bancada.semSaida(() -> new MapGenerator(Aleatorio.comSemente(7))
+                            .gerarMapaTotalmenteCustomizado(4, 1_000, 4_000, 6));
+                    preparar(mapa);
+                    return i -> {
+                        LabyrinthGraph<Divisao> sessao = mapa.sessao();
+                        usarAlavancas(sessao, Aleatorio.comSemente(i));
+                        return sessao;
+                    };
+                })
+                .correr();
+    }
+
+    /**
+     * Creates the levers of the first lever rooms of the session, as a game does when a player enters them.
+     */
+    private static void usarAlavancas(LabyrinthGraph<Divisao> sessao, RandomGenerator aleatorio) {
+        int usadas = 0;
+        for (int v = 0; v < sessao.size() && usadas < ALAVANCAS; v++) {
+            if (sessao.getVertex(v).getTipo() != TipoDivisao.SALA_ALAVANCA) continue;
+            sessao.setAlavanca(v, new Alavanca(aleatorio));
+            usadas++;
+        }
+    }
+
+    /**
+     * Moves a trap of the session to a random free corridor, as a game does when one is triggered.
+     */
+    private static void moverArmadilhas(LabyrinthGraph<Divisao> sessao, RandomGenerator aleatorio) {
+        for (int k = 0; k < MOVIMENTOS; k++) {
+            long[] armadilhas = sessao.corredoresComArmadilha();
+            if (armadilhas.length == 0) return;
+            long chave = armadilhas[aleatorio.nextInt(armadilhas.length)];
+            sessao.moverArmadilhaAleatoria(sessao.getVertex(MapaArestas.primeiro(chave)),
+                    sessao.getVertex(MapaArestas.segundo(chave)), aleatorio);
+        }
+    }
+
+    private static LabyrinthGraph<Divisao> carregar() {
+        LabyrinthGraph<Divisao> mapa = Bancada.semSaida(() -> new MapLoader().loadMap("resources/mapas_originais/mapa_Ominotauro.json"));
+        preparar(mapa);
+        return mapa;
+    }
+
+    /**
+     * Freezes a map and builds what its sessions share, so that only the sessions are measured.
+     */
+    private static void preparar(LabyrinthGraph<Divisao> mapa) {
+        mapa.freeze();
+        mapa.distanciasPorChaves();
+        mapa.sessao();
+    }
+}
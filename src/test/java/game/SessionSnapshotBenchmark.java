@@ -0,0 +1,86 @@
+package game;
+
+import java.nio.ByteBuffer;
+
+import engine.GameData;
+import engine.GameEngine;
+import engine.GameInitializer;
+import engine.SessionSnapshot;
+import enums.CorredorEvento;
+import enums.Dificuldade;
+import enums.TipoDivisao;
+import graph.LabyrinthGraph;
+import io.EnigmaLoader;
+import io.MapGenerator;
+import ui.SilentGameView;
+
+/**
+ * Benchmark of session snapshots: saves and restores a bot game after 1k and 10k turns,
+ * run with {@link Bancada}. A game is restored on a new session view of the map, as a server
+ * with the map already loaded would do.
+ */
+public class SessionSnapshotBenchmark {
+
+    private static final int REPETICOES = 200;
+
+    /** Riddles of every game, shared as a server shares them. */
+    private static final BancoEnigmas ENIGMAS = new BancoEnigmas(new EnigmaLoader().loadEnigmas("resources/Enigmas/enigmas.json"));
+
+    public static void main(String[] args) throws Exception {
+        Bancada bancada = new Bancada(SessionSnapshotBenchmark.class, args);
+        for (int turnos : new int[]{1_000, 10_000}) {
+            bancada.caso("guardar após " + turnos + " turnos", () -> {
+                GameEngine engine = jogar(gerar(), turnos);
+                return () -> {
+                    for (int i = 0; i < REPETICOES; i++) {
+                        Bancada.consumir(SessionSnapshot.guardar(engine, ENIGMAS));
+                    }
+                    return REPETICOES;
+                };
+            });
+            bancada.caso("restaurar após " + turnos + " turnos", () -> {
+                LabyrinthGraph<Divisao> mapa = gerar();
+                ByteBuffer guardada = SessionSnapshot.guardar(jogar(mapa, turnos), ENIGMAS);
+                System.out.printf("sessão de %d turnos: %d bytes%n", turnos, guardada.remaining());
+                SilentGameView view = new SilentGameView();
+                return () -> {
+                    for (int i = 0; i < REPETICOES; i++) {
+                        Bancada.consumir(SessionSnapshot.restaurar(guardada.duplicate(), mapa.sessao(), ENIGMAS, view, Aleatorio.comSemente(i)));
+                    }
+                    return REPETICOES;
+                };
+            });
+        }
+        bancada.correr();
+    }
+
+    /**
+     * Plays a bot game on a session view of the map.
+     */
+    private static GameEngine jogar(LabyrinthGraph<Divisao> mapa, int turnos) {
+        Dificuldade[] bots = {Dificuldade.FACIL, Dificuldade.MEDIO, Dificuldade.DIFICIL, Dificuldade.DIFICIL};
+        LabyrinthGraph<Divisao> sessao = mapa.sessao();
+        SilentGameView view = new SilentGameView();
+        GeradorContado aleatorio = Aleatorio.contado(1);
+        GameData dados = new GameInitializer(view, sessao, aleatorio).setupBots(Dificuldade.MEDIO, bots, ENIGMAS);
+        GameEngine engine = new GameEngine(sessao, view, aleatorio);
+        engine.setExportarRelatorio(false);
+        engine.jogar(dados, turnos);
+        return engine;
+    }
+
+    /**
+     * Generates a map whose treasure is locked for good, so that the game lasts the turns asked.
+     */
+    private static LabyrinthGraph<Divisao> gerar() {
+        LabyrinthGraph<Divisao> mapa = Bancada.semSaida(() -> new MapGenerator(Aleatorio.comSemente(2024)).gerarMapaAleatorio(3));
+        for (int i = 0; i < mapa.size(); i++) {
+            Divisao sala = mapa.getVertex(i);
+            if (sala.getTipo() != TipoDivisao.SALA_CENTRAL) continue;
+            for (Divisao vizinho : mapa.getVizinhos(sala)) {
+                mapa.setCorredorEvento(sala, vizinho, new EventoCorredor(CorredorEvento.LOCKED, 9_999));
+            }
+        }
+        return mapa;
+    }
+}
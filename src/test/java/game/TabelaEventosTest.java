@@ -0,0 +1,61 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import enums.Dificuldade;
+import enums.TipoEvento;
+
+class TabelaEventosTest {
+
+    @Test
+    void sorteioSegueOsPesos() {
+        EventoAleatorio[] eventos = {
+                EventoAleatorio.de(TipoEvento.SEM_EVENTO, 1),
+                EventoAleatorio.de(TipoEvento.JOGADA_EXTRA, 1),
+                EventoAleatorio.de(TipoEvento.RECUAR, 2),
+                EventoAleatorio.de(TipoEvento.TROCAR_TODOS, 1)
+        };
+        TabelaEventos tabela = new TabelaEventos(eventos, new double[]{5, 3, 2, 0});
+        SplittableRandom aleatorio = new SplittableRandom(7);
+
+        int n = 200_000;
+        int[] contagem = new int[eventos.length];
+        for (int i = 0; i < n; i++) {
+            EventoAleatorio e = tabela.sortear(aleatorio);
+            for (int k = 0; k < eventos.length; k++) {
+                if (e == eventos[k]) contagem[k]++;
+            }
+        }
+        assertEquals(n, contagem[0] + contagem[1] + contagem[2] + contagem[3], "Só devia sair um dos eventos da tabela");
+        assertEquals(0.5, contagem[0] / (double) n, 0.01);
+        assertEquals(0.3, contagem[1] / (double) n, 0.01);
+        assertEquals(0.2, contagem[2] / (double) n, 0.01);
+        assertEquals(0, contagem[3], "Um evento de peso 0 nunca devia sair");
+    }
+
+    @Test
+    void tabelasPorDificuldadeMantemAFrequenciaDeEventos() {
+        TabelaEventos medio = TabelaEventos.paraDificuldade(Dificuldade.MEDIO);
+        assertSame(medio, TabelaEventos.paraDificuldade(null));
+        assertEquals(19.0 / 24, medio.probabilidade(TipoEvento.SEM_EVENTO), 1e-9);
+        assertEquals(1.0 / 24, medio.probabilidade(TipoEvento.RECUAR), 1e-9);
+        assertEquals(1 + 5 * EventoAleatorio.INTENSIDADE_MAXIMA, medio.size());
+
+        TabelaEventos facil = TabelaEventos.paraDificuldade(Dificuldade.FACIL);
+        TabelaEventos dificil = TabelaEventos.paraDificuldade(Dificuldade.DIFICIL);
+        assertEquals(19.0 / 24, facil.probabilidade(TipoEvento.SEM_EVENTO), 1e-9);
+        assertEquals(19.0 / 24, dificil.probabilidade(TipoEvento.SEM_EVENTO), 1e-9);
+        assertEquals(facil.probabilidade(TipoEvento.JOGADA_EXTRA), 4 * dificil.probabilidade(TipoEvento.JOGADA_EXTRA), 1e-9);
+
+        assertThrows(IllegalArgumentException.class, () -> TabelaEventos.porTipo(0, 0, 0, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> TabelaEventos.porTipo(1, -1, 0, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TabelaEventos(new EventoAleatorio[]{EventoAleatorio.de(TipoEvento.RECUAR, 1)}, new double[]{Double.NaN}));
+    }
+}
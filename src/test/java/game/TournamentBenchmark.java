@@ -0,0 +1,68 @@
+package game;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+
+import Lists.ArrayUnorderedList;
+import engine.TournamentRunner;
+import engine.TournamentStats;
+import enums.Dificuldade;
+import io.EnigmaLoader;
+import io.MapGenerator;
+import io.MapLoader;
+
+/**
+ * Benchmark of the bot tournament over the original maps and freshly generated ones, with every
+ * roster of 4 bots, per game, run with {@link Bancada}. It runs the same tournament (same seeds,
+ * so the same games) with 1 worker, with one worker per core and on virtual threads, to see how
+ * the throughput scales; the single-worker case also prints the aggregated results.
+ * The optional argument is the number of games of each roster on each map.
+ */
+public class TournamentBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int jogosPorCombinacao = args.length > 0 ? Integer.parseInt(args[0]) : 128;
+        int cores = Runtime.getRuntime().availableProcessors();
+        Bancada bancada = new Bancada(TournamentBenchmark.class, args).iteracoes(1, 3);
+        for (String tipo : new String[]{"forkjoin-1", "forkjoin-" + cores, "virtuais"}) {
+            bancada.caso(tipo, () -> {
+                ExecutorService executor = tipo.equals("virtuais") ? TournamentRunner.threadsVirtuais()
+                        : TournamentRunner.forkJoin(Integer.parseInt(tipo.substring(9)));
+                ArrayUnorderedList<Enigma> enigmas = new EnigmaLoader().loadEnigmas("resources/Enigmas/enigmas.json");
+                TournamentRunner torneio = new TournamentRunner(executor, enigmas, 2_000);
+                adicionarMapas(torneio);
+                Dificuldade[][] plantel = TournamentRunner.todasCombinacoes(4);
+                if (tipo.equals("forkjoin-1")) {
+                    imprimir(torneio.executar(plantel, Dificuldade.MEDIO, jogosPorCombinacao, 2024L));
+                }
+                return () -> torneio.executar(plantel, Dificuldade.MEDIO, jogosPorCombinacao, 2024L).getJogos();
+            });
+        }
+        bancada.correr();
+    }
+
+    private static void imprimir(TournamentStats stats) {
+        System.out.printf("turnos/jogo: %.1f | enigmas/jogo: %.2f (%.0f%% resolvidos) | obstaculos/jogo: %.2f | sem vencedor: %d%n",
+                stats.mediaTurnos(), stats.enigmasPorJogo(), 100 * stats.taxaEnigmasResolvidos(),
+                stats.obstaculosPorJogo(), stats.getJogosSemVencedor());
+        for (Dificuldade d : Dificuldade.values()) {
+            System.out.printf("vitórias %-8s %5.1f%%%n", d, 100 * stats.taxaVitoria(d));
+        }
+        System.out.print(stats.resumoEntradas());
+    }
+
+    private static void adicionarMapas(TournamentRunner torneio) {
+        Bancada.semSaida(() -> {
+            File[] originais = new File("resources/mapas_originais").listFiles();
+            if (originais != null) {
+                for (File f : originais) {
+                    torneio.adicionarMapa(f.getName(), new MapLoader().loadMap(f.getPath()));
+                }
+            }
+            for (int dificuldade = 1; dificuldade <= 3; dificuldade++) {
+                torneio.adicionarMapa("gerado-" + dificuldade, new MapGenerator(Aleatorio.comSemente(dificuldade)).gerarMapaAleatorio(dificuldade));
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package game;
+
+import java.util.random.RandomGenerator;
+
+import Lists.ArrayUnorderedList;
+import engine.GameData;
+import engine.GameEngine;
+import engine.GameInitializer;
+import engine.GameReplay;
+import engine.TurnLog;
+import enums.CorredorEvento;
+import enums.Dificuldade;
+import enums.TipoDivisao;
+import graph.LabyrinthGraph;
+import io.EnigmaLoader;
+import io.MapGenerator;
+import ui.SilentGameView;
+
+/**
+ * Benchmark of the turn log, run with {@link Bancada}: plays a 100k-turn bot game on a generated
+ * map whose treasure is locked for good, then seeks the replay to random turns and steps it
+ * forward one turn at a time.
+ */
+public class TurnLogBenchmark {
+
+    private static final int TURNOS = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        new Bancada(TurnLogBenchmark.class, args)
+                .caso("salto para um turno aleatório", () -> {
+                    GameReplay replay = replay();
+                    RandomGenerator aleatorio = Aleatorio.comSemente(3);
+                    int saltos = 100;
+                    return () -> {
+                        for (int i = 0; i < saltos; i++) {
+                            int alvo = aleatorio.nextInt(TURNOS + 1);
+                            if (replay.irPara(alvo) != alvo) throw new IllegalStateException("O replay não chegou ao turno " + alvo);
+                        }
+                        return saltos;
+                    };
+                })
+                .caso("avançar um turno", () -> {
+                    GameReplay replay = replay();
+                    int passos = 10_000;
+                    return () -> {
+                        // avançar turno a turno só repete os turnos novos
+                        replay.irPara(0);
+                        for (int t = 1; t <= passos; t++) {
+                            replay.irPara(t);
+                        }
+                        return passos;
+                    };
+                })
+                .correr();
+    }
+
+    /**
+     * Plays the game and returns a replay of its log.
+     */
+    private static GameReplay replay() {
+        Dificuldade[] bots = {Dificuldade.FACIL, Dificuldade.MEDIO, Dificuldade.DIFICIL, Dificuldade.DIFICIL};
+        ArrayUnorderedList<Enigma> enigmas = new EnigmaLoader().loadEnigmas("resources/Enigmas/enigmas.json");
+        LabyrinthGraph<Divisao> mapa = Bancada.semSaida(() -> new MapGenerator(Aleatorio.comSemente(2024)).gerarMapaAleatorio(3));
+        trancarTesouro(mapa);
+
+        LabyrinthGraph<Divisao> copia = mapa.copiar(Divisao::new);
+        SilentGameView view = new SilentGameView();
+        GameData dados = new GameInitializer(view, copia, Aleatorio.comSemente(1)).setupBots(Dificuldade.MEDIO, bots, enigmas);
+        GameEngine engine = new GameEngine(copia, view, Aleatorio.comSemente(2));
+        engine.setExportarRelatorio(false);
+
+        long t0 = System.nanoTime();
+        engine.jogar(dados, TURNOS);
+        TurnLog registo = engine.getRegisto();
+        System.out.printf("jogo de %d turnos em %.0f ms | %d registos (%.1f por turno) | %d keyframes%n",
+                TURNOS, (System.nanoTime() - t0) / 1e6, registo.size(), (double) registo.size() / TURNOS, registo.getNumKeyframes());
+        return new GameReplay(mapa.copiar(Divisao::new), registo);
+    }
+
+    /**
+     * Puts a lock with no lever on every corridor into the treasure, so that the game never ends.
+     */
+    private static void trancarTesouro(LabyrinthGraph<Divisao> mapa) {
+        for (int i = 0; i < mapa.size(); i++) {
+            Divisao sala = mapa.getVertex(i);
+            if (sala.getTipo() != TipoDivisao.SALA_CENTRAL) continue;
+            for (Divisao vizinho : mapa.getVizinhos(sala)) {
+                mapa.setCorredorEvento(sala, vizinho, new EventoCorredor(CorredorEvento.LOCKED, 9_999));
+            }
+        }
+    }
+}
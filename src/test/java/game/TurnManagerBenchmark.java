@@ -0,0 +1,42 @@
+package game;
+
+import java.util.SplittableRandom;
+
+import Queue.LinkedQueue;
+import engine.TurnManager;
+import enums.TipoDivisao;
+import ui.SilentGameView;
+
+/**
+ * Benchmark of choosing the next player when most of a large game is blocked for long spells,
+ * per turn played, run with {@link Bancada}.
+ */
+public class TurnManagerBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Bancada bancada = new Bancada(TurnManagerBenchmark.class, args);
+        for (int n : new int[]{10, 1_000, 100_000}) {
+            bancada.caso(n + " jogadores, 90% bloqueados", () -> {
+                Divisao inicio = new Divisao("Inicio", TipoDivisao.ENTRADA);
+                SplittableRandom aleatorio = new SplittableRandom(3);
+                LinkedQueue<Player> fila = new LinkedQueue<>();
+                for (int i = 0; i < n; i++) {
+                    Player p = new Player("J" + i, inicio);
+                    if (i % 10 != 0) p.bloquear(1_000);
+                    fila.enqueue(p);
+                }
+                TurnManager turnos = new TurnManager(fila, new SilentGameView());
+                int jogados = 200_000;
+                return () -> {
+                    for (int t = 0; t < jogados; t++) {
+                        Player p = turnos.proximoJogador();
+                        if (aleatorio.nextInt(10) != 0) p.bloquear(1 + aleatorio.nextInt(1_000));
+                        turnos.fimDoTurno(p);
+                    }
+                    return jogados;
+                };
+            });
+        }
+        bancada.correr();
+    }
+}
@@ -0,0 +1,108 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import Queue.LinkedQueue;
+import engine.TurnManager;
+import enums.TipoDivisao;
+import ui.SilentGameView;
+
+class TurnManagerTest {
+
+    @Test
+    void ordemIgualAFilaQueConsomeBloqueiosUmAUm() {
+        SplittableRandom aleatorio = new SplittableRandom(17);
+        Divisao inicio = new Divisao("Inicio", TipoDivisao.ENTRADA);
+        int n = 7;
+        Player[] jogadores = new Player[n];
+        LinkedQueue<Player> fila = new LinkedQueue<>();
+        for (int i = 0; i < n; i++) {
+            jogadores[i] = new Player("J" + i, inicio);
+            fila.enqueue(jogadores[i]);
+        }
+        jogadores[2].bloquear(3);
+        TurnManager turnos = new TurnManager(fila, new SilentGameView());
+
+        // a fila original: quem está bloqueado perde a vez, gasta um turno e volta para o fim
+        int[] referencia = new int[n * 4];
+        int frente = 0;
+        int tamanho = n;
+        for (int i = 0; i < n; i++) referencia[i] = i;
+        int[] bloqueios = new int[n];
+        bloqueios[2] = 3;
+
+        for (int turno = 0; turno < 5_000; turno++) {
+            int esperado;
+            while (true) {
+                esperado = referencia[frente % referencia.length];
+                frente++;
+                tamanho--;
+                if (bloqueios[esperado] == 0) break;
+                bloqueios[esperado]--;
+                referencia[(frente + tamanho++) % referencia.length] = esperado;
+            }
+
+            Player atual = turnos.proximoJogador();
+            assertSame(jogadores[esperado], atual, "Jogador errado no turno " + turno);
+
+            // bloqueios durante o turno: o próprio jogador e, às vezes, um que está à espera
+            if (aleatorio.nextInt(4) == 0) {
+                int t = 1 + aleatorio.nextInt(5);
+                atual.bloquear(t);
+                bloqueios[esperado] += t;
+            }
+            if (aleatorio.nextInt(3) == 0) {
+                int alvo = aleatorio.nextInt(n);
+                if (alvo != esperado) {
+                    int t = 1 + aleatorio.nextInt(8);
+                    jogadores[alvo].bloquear(t);
+                    bloqueios[alvo] += t;
+                }
+            }
+            turnos.fimDoTurno(atual);
+            referencia[(frente + tamanho++) % referencia.length] = esperado;
+
+            if (turno % 10 == 0) {
+                turnos.sincronizarBloqueios();
+                Player[] ordem = turnos.ordem();
+                assertEquals(n, ordem.length);
+                for (int k = 0; k < n; k++) {
+                    assertSame(jogadores[referencia[(frente + k) % referencia.length]], ordem[k],
+                            "Ordem diferente no turno " + turno);
+                    assertEquals(bloqueios[k], jogadores[k].getTurnosBloqueado(),
+                            "Turnos bloqueados de J" + k + " diferentes no turno " + turno);
+                }
+            }
+        }
+    }
+
+    @Test
+    void umAvisoPorTurnoPerdido() {
+        Divisao inicio = new Divisao("Inicio", TipoDivisao.ENTRADA);
+        Player a = new Player("A", inicio);
+        Player b = new Player("B", inicio);
+        LinkedQueue<Player> fila = new LinkedQueue<>();
+        fila.enqueue(a);
+        fila.enqueue(b);
+        a.bloquear(3);
+
+        List<Integer> avisos = new ArrayList<>();
+        TurnManager turnos = new TurnManager(fila, new SilentGameView() {
+            @Override
+            public void mostrarBloqueado(String nome, int turnos) {
+                assertEquals("A", nome);
+                avisos.add(turnos);
+            }
+        });
+
+        assertSame(b, turnos.proximoJogador());
+        assertEquals(List.of(3, 2, 1), avisos, "Devia haver um aviso por turno perdido, com os turnos que faltam.");
+    }
+}
@@ -0,0 +1,66 @@
+package game;
+
+import enums.TipoDivisao;
+import graph.LabyrinthGraph;
+
+/**
+ * Micro-benchmark comparing the linear vertex scan inherited from GraphList
+ * with the constant-time vertex index used by LabyrinthGraph, run with {@link Bancada}.
+ */
+public class VertexIndexBenchmark {
+
+    /**
+     * Graph that still exposes the original linear scan for comparison.
+     */
+    private static class GrafoComScanLinear extends LabyrinthGraph<Divisao> {
+        int indiceLinear(Divisao d) {
+            Object[] todos = vertices;
+            for (int i = 0; i < numVertices; i++) {
+                if (todos[i].equals(d)) return i;
+            }
+            return -1;
+        }
+    }
+
+    private static final int CONSULTAS = 20_000;
+
+    public static void main(String[] args) throws Exception {
+        Bancada bancada = new Bancada(VertexIndexBenchmark.class, args);
+        for (int n : new int[]{1_000, 10_000, 50_000}) {
+            bancada.caso("scan linear V=" + n, () -> {
+                GrafoComScanLinear grafo = new GrafoComScanLinear();
+                Divisao[] salas = salas(grafo, n);
+                return () -> {
+                    long soma = 0;
+                    for (int q = 0; q < CONSULTAS; q++) {
+                        soma += grafo.indiceLinear(salas[(q * 7919) % n]);
+                    }
+                    Bancada.consumir(soma);
+                    return CONSULTAS;
+                };
+            });
+            bancada.caso("indice V=" + n, () -> {
+                GrafoComScanLinear grafo = new GrafoComScanLinear();
+                Divisao[] salas = salas(grafo, n);
+                return () -> {
+                    long soma = 0;
+                    for (int q = 0; q < CONSULTAS; q++) {
+                        soma += grafo.getIndex(salas[(q * 7919) % n]);
+                    }
+                    Bancada.consumir(soma);
+                    return CONSULTAS;
+                };
+            });
+        }
+        bancada.correr();
+    }
+
+    private static Divisao[] salas(LabyrinthGraph<Divisao> grafo, int n) {
+        Divisao[] salas = new Divisao[n];
+        for (int i = 0; i < n; i++) {
+            salas[i] = new Divisao("Sala " + i, TipoDivisao.SALA_NORMAL);
+            grafo.addVertex(salas[i]);
+        }
+        return salas;
+    }
+}